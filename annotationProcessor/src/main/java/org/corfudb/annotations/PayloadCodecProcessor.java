@@ -0,0 +1,539 @@
+package org.corfudb.annotations;
+
+import com.squareup.javapoet.ClassName;
+import com.squareup.javapoet.CodeBlock;
+import com.squareup.javapoet.JavaFile;
+import com.squareup.javapoet.MethodSpec;
+import com.squareup.javapoet.ParameterizedTypeName;
+import com.squareup.javapoet.TypeName;
+import com.squareup.javapoet.TypeSpec;
+import com.squareup.javapoet.WildcardTypeName;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.Filer;
+import javax.annotation.processing.Messager;
+import javax.annotation.processing.ProcessingEnvironment;
+import javax.annotation.processing.RoundEnvironment;
+import javax.annotation.processing.SupportedAnnotationTypes;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.element.VariableElement;
+import javax.lang.model.type.DeclaredType;
+import javax.lang.model.type.MirroredTypeException;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.util.ElementFilter;
+import javax.lang.model.util.Elements;
+import javax.lang.model.util.Types;
+import javax.tools.Diagnostic;
+
+/** <p>The annotation processor which generates the encoders and decoders of the payloads
+ * marked with {@link PayloadCodec}.</p>
+ *
+ * <p>For each payload, a codec class is generated in the package of the payload. Its decoder
+ * reads the fields of the payload in declaration order with primitive buffer calls and builds
+ * the payload with its all-args constructor, and its encoder writes the same fields. A class
+ * CorfuPayloadCodecs is generated in the wire protocol package, which lists the decoders so
+ * that the runtime registers them instead of resolving the payloads by reflection.</p>
+ *
+ * <p>See README.md for the field types supported.</p>
+ */
+@SupportedAnnotationTypes({"org.corfudb.annotations.PayloadCodec",
+        "org.corfudb.annotations.PayloadField"})
+public class PayloadCodecProcessor extends AbstractProcessor {
+
+    /** The package of the generated list of decoders, and of the payload interface. */
+    static final String CODECS_PACKAGE = "org.corfudb.protocols.wireprotocol";
+
+    /** The name of the generated list of decoders. */
+    static final String CODECS_CLASS = "CorfuPayloadCodecs";
+
+    /** The suffix of the name of the codec of a payload. */
+    static final String CODEC_SUFFIX = "Codec";
+
+    private static final String PAYLOAD_INTERFACE = CODECS_PACKAGE + ".ICorfuPayload";
+
+    private static final String TYPE_MAP = "typeMap";
+
+    private static final ClassName BYTE_BUF = ClassName.get("io.netty.buffer", "ByteBuf");
+
+    private static final ClassName PAYLOAD_CONSTRUCTOR =
+            ClassName.get(CODECS_PACKAGE, "ICorfuPayload", "PayloadConstructor");
+
+    private Elements elementUtils;
+    private Types typeUtils;
+    private Filer filer;
+    private Messager messager;
+
+    /** Whether the list of decoders has been generated, since it is generated once. */
+    private boolean generated = false;
+
+    /** The number of local variables declared in the method being generated, so that the
+     * loops over nested collections have distinct variables. */
+    private int locals;
+
+    /** Always support the latest source version.
+     *
+     * @return  The source version supported.
+     */
+    @Override
+    public SourceVersion getSupportedSourceVersion() {
+        return SourceVersion.latest();
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     */
+    @Override
+    public synchronized void init(ProcessingEnvironment processingEnv) {
+        super.init(processingEnv);
+        elementUtils = processingEnv.getElementUtils();
+        typeUtils = processingEnv.getTypeUtils();
+        filer = processingEnv.getFiler();
+        messager = processingEnv.getMessager();
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * <p>The annotations are not claimed, so that the object annotation processor still
+     * processes the other annotations of the package.</p>
+     */
+    @Override
+    public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
+        List<TypeElement> payloads = roundEnv.getElementsAnnotatedWith(PayloadCodec.class)
+                .stream()
+                .filter(x -> x instanceof TypeElement)
+                .map(x -> (TypeElement) x)
+                .sorted(Comparator.comparing(x -> x.getQualifiedName().toString()))
+                .collect(Collectors.toList());
+        if (payloads.isEmpty()) {
+            return false;
+        }
+        if (generated) {
+            messager.printMessage(Diagnostic.Kind.ERROR, "Payloads annotated after "
+                    + CODECS_CLASS + " was generated", payloads.get(0));
+            return false;
+        }
+
+        try {
+            List<TypeElement> generatedPayloads = new ArrayList<>();
+            for (TypeElement payload : payloads) {
+                if (generateCodec(payload)) {
+                    generatedPayloads.add(payload);
+                }
+            }
+            generateDecoderList(generatedPayloads);
+        } catch (IOException e) {
+            messager.printMessage(Diagnostic.Kind.ERROR, "Failed to generate payload codecs"
+                    + " with IOException");
+        }
+        generated = true;
+        return false;
+    }
+
+    /** Return the name of the codec of a payload.
+     *
+     * @param payload   The payload.
+     * @return          The name of its codec.
+     */
+    private static ClassName getCodecName(TypeElement payload) {
+        ClassName payloadClass = ClassName.get(payload);
+        return ClassName.get(payloadClass.packageName(),
+                payloadClass.simpleName() + CODEC_SUFFIX);
+    }
+
+    /** Generate the codec of a payload.
+     *
+     * @param payload       The payload.
+     * @return              True, if the codec was generated.
+     * @throws IOException  If the codec could not be written.
+     */
+    private boolean generateCodec(TypeElement payload) throws IOException {
+        if (payload.getKind() != ElementKind.CLASS
+                || payload.getModifiers().contains(Modifier.ABSTRACT)
+                || !payload.getModifiers().contains(Modifier.PUBLIC)) {
+            messager.printMessage(Diagnostic.Kind.ERROR, "Payload "
+                    + payload.getSimpleName() + " must be a public concrete class", payload);
+            return false;
+        }
+        List<VariableElement> fields = ElementFilter.fieldsIn(payload.getEnclosedElements())
+                .stream()
+                .filter(x -> !x.getModifiers().contains(Modifier.STATIC)
+                        && !x.getModifiers().contains(Modifier.TRANSIENT))
+                .collect(Collectors.toList());
+        for (VariableElement field : fields) {
+            if (field.getModifiers().contains(Modifier.PRIVATE)) {
+                messager.printMessage(Diagnostic.Kind.ERROR, "Field " + field.getSimpleName()
+                        + " of payload " + payload.getSimpleName() + " must not be private",
+                        field);
+                return false;
+            }
+        }
+
+        ClassName payloadClass = ClassName.get(payload);
+        try {
+            MethodSpec.Builder decode = MethodSpec.methodBuilder("decode")
+                    .addModifiers(Modifier.PUBLIC, Modifier.STATIC)
+                    .addJavadoc("Decodes a {@link $T}.\n", payloadClass)
+                    .addParameter(BYTE_BUF, "buf")
+                    .returns(payloadClass);
+            MethodSpec.Builder encode = MethodSpec.methodBuilder("encode")
+                    .addModifiers(Modifier.PUBLIC, Modifier.STATIC)
+                    .addJavadoc("Encodes a {@link $T}.\n", payloadClass)
+                    .addParameter(BYTE_BUF, "buf")
+                    .addParameter(payloadClass, "value");
+
+            locals = 0;
+            CodeBlock.Builder decodeCode = CodeBlock.builder();
+            CodeBlock.Builder encodeCode = CodeBlock.builder();
+            for (VariableElement field : fields) {
+                String name = field.getSimpleName().toString();
+                TypeMirror type = field.asType();
+                PayloadField options = field.getAnnotation(PayloadField.class);
+                TypeMirror decodeAs = options == null ? null : getDecodeAs(options);
+                encodeCode.addStatement("$T $L = value.$L", TypeName.get(type), name, name);
+
+                if (options == null || options.when().isEmpty()) {
+                    declareAndDecode(decodeCode, type, decodeAs, name);
+                    encodeValue(encodeCode, type, decodeAs, name);
+                } else {
+                    decodeCode.addStatement("$T $L", TypeName.get(type), name)
+                            .beginControlFlow("if ($L)", options.when());
+                    decodeInto(decodeCode, type, decodeAs, name);
+                    decodeCode.nextControlFlow("else")
+                            .addStatement("$L = $L", name, options.otherwise())
+                            .endControlFlow();
+                    encodeCode.beginControlFlow("if ($L)", options.when());
+                    encodeValue(encodeCode, type, decodeAs, name);
+                    encodeCode.endControlFlow();
+                }
+            }
+            decodeCode.addStatement("return new $T($L)", payloadClass, fields.stream()
+                    .map(x -> x.getSimpleName().toString())
+                    .collect(Collectors.joining(", ")));
+            decode.addCode(decodeCode.build());
+            encode.addCode(encodeCode.build());
+
+            TypeSpec codec = TypeSpec.classBuilder(getCodecName(payload))
+                    .addModifiers(Modifier.PUBLIC, Modifier.FINAL)
+                    .addJavadoc("Encoder and decoder of {@link $T}, generated from its fields.\n",
+                            payloadClass)
+                    .addMethod(MethodSpec.constructorBuilder()
+                            .addModifiers(Modifier.PRIVATE)
+                            .build())
+                    .addMethod(decode.build())
+                    .addMethod(encode.build())
+                    .build();
+            JavaFile.builder(payloadClass.packageName(), codec)
+                    .build()
+                    .writeTo(filer);
+            return true;
+        } catch (UnsupportedFieldException e) {
+            messager.printMessage(Diagnostic.Kind.ERROR, e.getMessage() + " in payload "
+                    + payload.getSimpleName(), payload);
+            return false;
+        }
+    }
+
+    /** Generate the class listing the decoders of the payloads.
+     *
+     * @param payloads      The payloads, sorted by name.
+     * @throws IOException  If the class could not be written.
+     */
+    private void generateDecoderList(List<TypeElement> payloads) throws IOException {
+        TypeName classType = ParameterizedTypeName.get(ClassName.get(Class.class),
+                WildcardTypeName.subtypeOf(Object.class));
+        TypeName constructorType = ParameterizedTypeName.get(PAYLOAD_CONSTRUCTOR,
+                WildcardTypeName.subtypeOf(Object.class));
+        MethodSpec.Builder getDecoders = MethodSpec.methodBuilder("getDecoders")
+                .addModifiers(Modifier.PUBLIC, Modifier.STATIC)
+                .addJavadoc("Returns the generated decoders of the payloads, by payload class.\n")
+                .returns(ParameterizedTypeName.get(ClassName.get(Map.class),
+                        classType, constructorType))
+                .addStatement("$T<$T, $T> decoders = new $T<>()", Map.class,
+                        classType, constructorType, HashMap.class);
+        for (TypeElement payload : payloads) {
+            getDecoders.addStatement("decoders.put($T.class, $T::decode)",
+                    payload, getCodecName(payload));
+        }
+        getDecoders.addStatement("return decoders");
+
+        TypeSpec codecs = TypeSpec.classBuilder(CODECS_CLASS)
+                .addModifiers(Modifier.PUBLIC, Modifier.FINAL)
+                .addJavadoc("Decoders of the Corfu payloads, generated from the {@link $T} "
+                        + "annotations.\n", PayloadCodec.class)
+                .addMethod(MethodSpec.constructorBuilder()
+                        .addModifiers(Modifier.PRIVATE)
+                        .build())
+                .addMethod(getDecoders.build())
+                .build();
+        JavaFile.builder(CODECS_PACKAGE, codecs)
+                .build()
+                .writeTo(filer);
+    }
+
+    /** Return the class a field is decoded into, if it is not its declared type.
+     *
+     * @param options   The options of the field.
+     * @return          The class, or null if the field is decoded into its declared type.
+     */
+    private TypeMirror getDecodeAs(PayloadField options) {
+        TypeMirror decodeAs;
+        try {
+            options.decodeAs();
+            return null;
+        } catch (MirroredTypeException e) {
+            decodeAs = e.getTypeMirror();
+        }
+        return isClass(decodeAs, Object.class.getName()) ? null : decodeAs;
+    }
+
+    /** Generate the statements which declare a variable and decode a value into it.
+     *
+     * @param code      The code to add the statements to.
+     * @param type      The type of the value.
+     * @param decodeAs  The class the value is decoded into, or null.
+     * @param target    The variable to declare.
+     */
+    private void declareAndDecode(CodeBlock.Builder code, TypeMirror type, TypeMirror decodeAs,
+                                  String target) {
+        if (isClass(type, List.class.getName()) || isClass(type, Map.class.getName())) {
+            code.addStatement("$T $L", TypeName.get(type), target);
+            decodeInto(code, type, decodeAs, target);
+        } else {
+            code.addStatement("$T $L = $L", getLocalType(type), target,
+                    decodeValue(type, decodeAs));
+        }
+    }
+
+    /** Return the type of a local variable holding a value, which is primitive if the value
+     * is boxed, so that entries of collections are not unboxed twice.
+     *
+     * @param type  The type of the value.
+     * @return      The type of the variable.
+     */
+    private TypeName getLocalType(TypeMirror type) {
+        TypeMirror primitive = getPrimitive(type);
+        return TypeName.get(primitive != null ? primitive : type);
+    }
+
+    /** Generate the statements which decode a value and assign it to a declared variable.
+     *
+     * @param code      The code to add the statements to.
+     * @param type      The type of the value.
+     * @param decodeAs  The class the value is decoded into, or null.
+     * @param target    The variable to assign.
+     */
+    private void decodeInto(CodeBlock.Builder code, TypeMirror type, TypeMirror decodeAs,
+                            String target) {
+        if (isClass(type, List.class.getName())) {
+            TypeMirror element = getTypeArgument(type, 0);
+            TypeName implementation = decodeAs == null ? ClassName.get(ArrayList.class)
+                    : TypeName.get(typeUtils.erasure(decodeAs));
+            String size = newLocal("size");
+            String index = newLocal("i");
+            String value = newLocal("element");
+            code.addStatement("int $L = buf.readInt()", size)
+                    .addStatement("$L = new $T<>($L)", target, implementation, size)
+                    .beginControlFlow("for (int $L = 0; $L < $L; $L++)", index, index, size,
+                            index);
+            declareAndDecode(code, element, null, value);
+            code.addStatement("$L.add($L)", target, value)
+                    .endControlFlow();
+        } else if (isClass(type, Map.class.getName())) {
+            TypeMirror keyType = getTypeArgument(type, 0);
+            TypeMirror valueType = getTypeArgument(type, 1);
+            TypeName implementation = decodeAs == null ? ClassName.get(HashMap.class)
+                    : TypeName.get(typeUtils.erasure(decodeAs));
+            String size = newLocal("size");
+            String index = newLocal("i");
+            String key = newLocal("key");
+            String value = newLocal("value");
+            code.addStatement("int $L = buf.readInt()", size)
+                    .addStatement("$L = new $T<>($L)", target, implementation, size)
+                    .beginControlFlow("for (int $L = 0; $L < $L; $L++)", index, index, size,
+                            index);
+            declareAndDecode(code, keyType, null, key);
+            declareAndDecode(code, valueType, null, value);
+            code.addStatement("$L.put($L, $L)", target, key, value)
+                    .endControlFlow();
+        } else {
+            code.addStatement("$L = $L", target, decodeValue(type, decodeAs));
+        }
+    }
+
+    /** Return the expression which decodes a value which is not a collection.
+     *
+     * @param type      The type of the value.
+     * @param decodeAs  The class the value is decoded into, or null.
+     * @return          The expression.
+     */
+    private CodeBlock decodeValue(TypeMirror type, TypeMirror decodeAs) {
+        TypeMirror primitive = getPrimitive(type);
+        if (primitive != null) {
+            return CodeBlock.of("buf.read$L()", getBufferType(primitive));
+        } else if (isClass(type, UUID.class.getName())) {
+            return CodeBlock.of("new $T(buf.readLong(), buf.readLong())", UUID.class);
+        }
+
+        TypeMirror actual = decodeAs == null ? type : decodeAs;
+        TypeElement element = getTypeElement(actual);
+        if (element != null && element.getKind() == ElementKind.ENUM) {
+            return CodeBlock.of("$T.$L.get(buf.readByte())", element, TYPE_MAP);
+        } else if (element != null && element.getAnnotation(PayloadCodec.class) != null) {
+            return CodeBlock.of("$T.decode(buf)", getCodecName(element));
+        } else if (element != null && element.getKind() == ElementKind.CLASS
+                && isPayload(actual)) {
+            return CodeBlock.of("new $T(buf)", element);
+        }
+        throw new UnsupportedFieldException(type);
+    }
+
+    /** Generate the statements which encode a value.
+     *
+     * @param code      The code to add the statements to.
+     * @param type      The type of the value.
+     * @param decodeAs  The class the value is decoded into, or null.
+     * @param value     The variable holding the value.
+     */
+    private void encodeValue(CodeBlock.Builder code, TypeMirror type, TypeMirror decodeAs,
+                             String value) {
+        TypeMirror primitive = getPrimitive(type);
+        if (primitive != null) {
+            code.addStatement("buf.write$L($L)", getBufferType(primitive), value);
+            return;
+        } else if (isClass(type, UUID.class.getName())) {
+            code.addStatement("buf.writeLong($L.getMostSignificantBits())", value)
+                    .addStatement("buf.writeLong($L.getLeastSignificantBits())", value);
+            return;
+        } else if (isClass(type, List.class.getName())) {
+            TypeMirror elementType = getTypeArgument(type, 0);
+            String element = newLocal("element");
+            code.addStatement("buf.writeInt($L.size())", value)
+                    .beginControlFlow("for ($T $L : $L)", getLocalType(elementType), element,
+                            value);
+            encodeValue(code, elementType, null, element);
+            code.endControlFlow();
+            return;
+        } else if (isClass(type, Map.class.getName())) {
+            TypeMirror keyType = getTypeArgument(type, 0);
+            TypeMirror valueType = getTypeArgument(type, 1);
+            String entry = newLocal("entry");
+            String key = newLocal("key");
+            String entryValue = newLocal("value");
+            code.addStatement("buf.writeInt($L.size())", value)
+                    .beginControlFlow("for ($T $L : $L.entrySet())",
+                            ParameterizedTypeName.get(ClassName.get(Map.Entry.class),
+                                    TypeName.get(keyType), TypeName.get(valueType)),
+                            entry, value)
+                    .addStatement("$T $L = $L.getKey()", getLocalType(keyType), key, entry)
+                    .addStatement("$T $L = $L.getValue()", getLocalType(valueType),
+                            entryValue, entry);
+            encodeValue(code, keyType, null, key);
+            encodeValue(code, valueType, null, entryValue);
+            code.endControlFlow();
+            return;
+        }
+
+        TypeMirror actual = decodeAs == null ? type : decodeAs;
+        TypeElement element = getTypeElement(actual);
+        CodeBlock encoded = decodeAs == null ? CodeBlock.of("$L", value)
+                : CodeBlock.of("(($T) $L)", element, value);
+        if (element != null && element.getKind() == ElementKind.ENUM) {
+            code.addStatement("buf.writeByte($L.asByte())", encoded);
+        } else if (element != null && element.getAnnotation(PayloadCodec.class) != null) {
+            code.addStatement("$T.encode(buf, $L)", getCodecName(element), encoded);
+        } else if (element != null && isPayload(actual)) {
+            code.addStatement("$L.doSerialize(buf)", encoded);
+        } else {
+            throw new UnsupportedFieldException(type);
+        }
+    }
+
+    /** Return a name for a new local variable of the method being generated.
+     *
+     * @param prefix    The prefix of the name.
+     * @return          The name.
+     */
+    private String newLocal(String prefix) {
+        return prefix + locals++;
+    }
+
+    /** Return the primitive type of a primitive or boxed type.
+     *
+     * @param type  The type.
+     * @return      The primitive type, or null if the type is neither primitive nor boxed.
+     */
+    private TypeMirror getPrimitive(TypeMirror type) {
+        if (type.getKind().isPrimitive()) {
+            return type;
+        }
+        try {
+            return typeUtils.unboxedType(type);
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    /** Return the name of a primitive type in the methods of a buffer, such as Long.
+     *
+     * @param primitive The primitive type.
+     * @return          The name of the type.
+     */
+    private static String getBufferType(TypeMirror primitive) {
+        if (primitive.getKind() == TypeKind.CHAR) {
+            throw new UnsupportedFieldException(primitive);
+        }
+        String name = primitive.getKind().name().toLowerCase();
+        return Character.toUpperCase(name.charAt(0)) + name.substring(1);
+    }
+
+    private static TypeElement getTypeElement(TypeMirror type) {
+        if (type.getKind() != TypeKind.DECLARED) {
+            return null;
+        }
+        Element element = ((DeclaredType) type).asElement();
+        return element instanceof TypeElement ? (TypeElement) element : null;
+    }
+
+    private static boolean isClass(TypeMirror type, String name) {
+        TypeElement element = getTypeElement(type);
+        return element != null && element.getQualifiedName().contentEquals(name);
+    }
+
+    private static TypeMirror getTypeArgument(TypeMirror type, int index) {
+        List<? extends TypeMirror> arguments = ((DeclaredType) type).getTypeArguments();
+        if (arguments.size() <= index) {
+            throw new UnsupportedFieldException(type);
+        }
+        return arguments.get(index);
+    }
+
+    private boolean isPayload(TypeMirror type) {
+        TypeElement payloadInterface = elementUtils.getTypeElement(PAYLOAD_INTERFACE);
+        return payloadInterface != null && typeUtils.isAssignable(typeUtils.erasure(type),
+                typeUtils.erasure(payloadInterface.asType()));
+    }
+
+    /** Thrown when the codec of a field cannot be generated. */
+    private static class UnsupportedFieldException extends RuntimeException {
+        UnsupportedFieldException(TypeMirror type) {
+            super("Cannot encode a field of type " + type);
+        }
+    }
+}
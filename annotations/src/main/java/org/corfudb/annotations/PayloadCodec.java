@@ -0,0 +1,20 @@
+package org.corfudb.annotations;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/** <p>Marks a payload of the Corfu wire protocol whose encoder and decoder
+ * are generated.</p>
+ *
+ * <p>The annotation processor generates a codec, named after the payload
+ * with a Codec suffix, which reads and writes the fields of the payload in
+ * declaration order with primitive buffer calls, and builds the payload
+ * with its all-args constructor. The fields may be further described with
+ * {@link PayloadField}.</p>
+ */
+@Target(ElementType.TYPE)
+@Retention(RetentionPolicy.SOURCE)
+public @interface PayloadCodec {
+}
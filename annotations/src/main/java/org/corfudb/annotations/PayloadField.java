@@ -0,0 +1,37 @@
+package org.corfudb.annotations;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/** <p>Describes how a field of a {@link PayloadCodec} payload is
+ * encoded.</p>
+ */
+@Target(ElementType.FIELD)
+@Retention(RetentionPolicy.SOURCE)
+public @interface PayloadField {
+
+    /** The condition under which the field is written, as a Java
+     * expression over the fields declared before it. The field is always
+     * written if the condition is empty.
+     *
+     * @return The condition.
+     */
+    String when() default "";
+
+    /** The value of the field when it is not written, as a Java expression.
+     *
+     * @return The value.
+     */
+    String otherwise() default "null";
+
+    /** The class the field is decoded into: the payload class of a field
+     * declared with an interface, or the implementation of a list or a map
+     * field, which is created with the number of its entries.
+     *
+     * @return The class, or Object if the field is decoded into its declared
+     *         type.
+     */
+    Class<?> decodeAs() default Object.class;
+}
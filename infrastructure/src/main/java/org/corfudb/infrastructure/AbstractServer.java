@@ -38,6 +38,18 @@ public abstract class AbstractServer {
         return true;
     }
 
+    /**
+     * Whether a message can be handled inline, on the event loop which received it, rather
+     * than on the executor of this server. By default, only the messages whose handler is
+     * declared {@link ServerHandler#nonBlocking()} are.
+     *
+     * @param msg An incoming message.
+     * @return True, if handling this message does not block.
+     */
+    public boolean isNonBlocking(CorfuMsg msg) {
+        return getHandler().isNonBlocking(msg.getMsgType());
+    }
+
     /**
      * Handle a incoming Netty message.
      *
@@ -19,6 +19,7 @@ import java.lang.reflect.Method;
 import java.lang.reflect.Modifier;
 import java.util.Arrays;
 import java.util.EnumMap;
+import java.util.EnumSet;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.Set;
@@ -56,6 +57,9 @@ public class CorfuMsgHandler {
     /** The handler map. */
     private Map<CorfuMsgType, Handler> handlerMap;
 
+    /** The types whose handlers are declared non-blocking. */
+    private final Set<CorfuMsgType> nonBlockingTypes = EnumSet.noneOf(CorfuMsgType.class);
+
     /** Get the types this handler will handle.
      *
      * @return  A set containing the types this handler will handle.
@@ -74,6 +78,16 @@ public class CorfuMsgHandler {
         return handlerMap.get(type);
     }
 
+    /** Whether the handler for a specific message type is declared non-blocking, and
+     *  can be run on the event loop which received the message.
+     *
+     * @param type  The type of the message.
+     * @return      True, if the handler for this type does not block.
+     */
+    public boolean isNonBlocking(CorfuMsgType type) {
+        return nonBlockingTypes.contains(type);
+    }
+
     /** Construct a new instance of CorfuMsgHandler. */
     public CorfuMsgHandler() {
         handlerMap = new EnumMap<>(CorfuMsgType.class);
@@ -193,6 +207,9 @@ public class CorfuMsgHandler {
                     generateConditionalHandler(server, annotation.type(), h);
             // Install the handler in the map
             handlerMap.put(annotation.type(), handler);
+            if (annotation.nonBlocking()) {
+                nonBlockingTypes.add(annotation.type());
+            }
         } catch (Throwable e) {
             log.error("Exception during message handler registration", e);
             throw new UnrecoverableCorfuError(e);
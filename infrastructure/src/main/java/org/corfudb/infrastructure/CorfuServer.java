@@ -11,19 +11,27 @@ import io.netty.channel.ChannelInitializer;
 import io.netty.channel.ChannelOption;
 import io.netty.channel.EventLoopGroup;
 import io.netty.channel.ServerChannel;
+import io.netty.channel.epoll.EpollChannelOption;
+import io.netty.channel.epoll.EpollMode;
+import io.netty.channel.unix.DomainSocketAddress;
 import io.netty.handler.codec.LengthFieldBasedFrameDecoder;
 import io.netty.handler.codec.LengthFieldPrepender;
+import io.netty.handler.flush.FlushConsolidationHandler;
 import io.netty.handler.ssl.SslContext;
 import io.netty.handler.ssl.SslHandler;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.commons.io.FileUtils;
+import org.corfudb.protocols.wireprotocol.NettyCompressionHandler;
 import org.corfudb.protocols.wireprotocol.NettyCorfuMessageDecoder;
 import org.corfudb.protocols.wireprotocol.NettyCorfuMessageEncoder;
+import org.corfudb.protocols.wireprotocol.NettyFlushMetricsHandler;
 import org.corfudb.runtime.exceptions.unrecoverable.UnrecoverableCorfuError;
 import org.corfudb.runtime.exceptions.unrecoverable.UnrecoverableCorfuInterruptedError;
 import org.corfudb.security.sasl.plaintext.PlainTextSaslNettyServer;
 import org.corfudb.security.tls.SslContextConstructor;
+import org.corfudb.util.CorfuComponent;
 import org.corfudb.util.GitRepositoryState;
+import org.corfudb.util.MetricsUtils;
 import org.corfudb.util.Version;
 import org.docopt.Docopt;
 import org.fusesource.jansi.AnsiConsole;
@@ -34,6 +42,8 @@ import javax.net.ssl.SSLEngine;
 import javax.net.ssl.SSLException;
 import java.io.File;
 import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Paths;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.CompletableFuture;
@@ -80,7 +90,8 @@ public class CorfuServer {
                     + "<truststore_password_file>] [-b] [-g -o <username_file> -j <password_file>] "
                     + "[-k <seqcache>] [-T <threads>] [-B <size>] [-i <channel-implementation>] [-H <seconds>] "
                     + "[-I <cluster-id>] [-x <ciphers>] [-z <tls-protocols>]] [-P <prefix>]"
-                    + " [--agent] <port>\n"
+                    + " [--busy-poll] [--tcp-quickack] [--epoll-level-triggered]"
+                    + " [--unix-socket=<socket-path>] [--agent] <port>\n"
                     + "\n"
                     + "Options:\n"
                     + " -l <path>, --log-path=<path>                                             "
@@ -105,7 +116,19 @@ public class CorfuServer {
                     + "              The name of the network interface.\n"
                     + " -i <channel-implementation>, --implementation <channel-implementation>   "
                     + "              The type of channel to use (auto, nio, epoll, kqueue)"
-                    + "[default: nio].\n"
+                    + "[default: auto].\n"
+                    + " --busy-poll                                                              "
+                    + "              Busy poll the channels instead of blocking while waiting\n"
+                    + "                                                                          "
+                    + "              for them, trading a core per event loop thread for latency.\n"
+                    + " --tcp-quickack                                                           "
+                    + "              Acknowledge TCP segments immediately (epoll only).\n"
+                    + " --epoll-level-triggered                                                  "
+                    + "              Use level-triggered instead of edge-triggered epoll.\n"
+                    + " --unix-socket=<socket-path>                                             "
+                    + "              Also listen on a unix domain socket, for runtimes on the same\n"
+                    + "                                                                          "
+                    + "              host (epoll or kqueue only).\n"
                     + " -m, --memory                                                             "
                     + "              Run the unit in-memory (non-persistent).\n"
                     + "                                                                          "
@@ -280,13 +303,23 @@ public class CorfuServer {
             shutdownThread.setName("ShutdownThread");
             Runtime.getRuntime().addShutdownHook(shutdownThread);
 
-            startAndListen(serverContext.getBossGroup(),
+            ChannelFuture tcpFuture = startAndListen(serverContext.getBossGroup(),
                     serverContext.getWorkerGroup(),
                     b -> configureBootstrapOptions(serverContext, b),
                     serverContext,
                     router,
                     (String) opts.get("--address"),
-                    port).channel().closeFuture().syncUninterruptibly();
+                    port);
+            ChannelFuture unixFuture = serverContext.getUnixSocketPath() == null ? null
+                    : startAndListenOnDomainSocket(serverContext.getBossGroup(),
+                    serverContext.getWorkerGroup(),
+                    serverContext,
+                    router,
+                    serverContext.getUnixSocketPath());
+            tcpFuture.channel().closeFuture().syncUninterruptibly();
+            if (unixFuture != null) {
+                unixFuture.channel().close().syncUninterruptibly();
+            }
         } catch (Exception e) {
             log.error("CorfuServer: Server exiting due to unrecoverable error: ", e);
             System.exit(EXIT_ERROR_CODE);
@@ -351,6 +384,49 @@ public class CorfuServer {
         }
     }
 
+    /** Start the Corfu server on a unix domain socket, for runtimes on the same host.
+     * The socket serves the same {@link NettyServerRouter} as the TCP port, without the TCP
+     * stack between the runtime and the server. Like {@link #startAndListen}, it is the
+     * callers' responsibility to shutdown the {@link EventLoopGroup}s.
+     *
+     * @param bossGroup     The "boss" {@link EventLoopGroup} which services incoming
+     *                      connections.
+     * @param workerGroup   The "worker" {@link EventLoopGroup} which services incoming
+     *                      requests.
+     * @param context       A {@link ServerContext} which will be used to configure the server.
+     * @param router        A {@link NettyServerRouter} which will process incoming messages.
+     * @param path          The path of the socket. A stale socket at this path is removed.
+     * @return              A {@link ChannelFuture} which can be used to wait for the server
+     *                      to be shutdown.
+     */
+    public static ChannelFuture startAndListenOnDomainSocket(@Nonnull EventLoopGroup bossGroup,
+                                                             @Nonnull EventLoopGroup workerGroup,
+                                                             @Nonnull ServerContext context,
+                                                             @Nonnull NettyServerRouter router,
+                                                             @Nonnull String path) {
+        try {
+            ServerBootstrap bootstrap = new ServerBootstrap();
+            bootstrap.group(bossGroup, workerGroup)
+                .channel(context.getChannelImplementation().getServerDomainSocketChannelClass())
+                .childOption(ChannelOption.ALLOCATOR, PooledByteBufAllocator.DEFAULT);
+            if (context.getChannelImplementation().isEpoll()) {
+                bootstrap.childOption(EpollChannelOption.EPOLL_MODE,
+                        context.isEpollLevelTriggered()
+                                ? EpollMode.LEVEL_TRIGGERED : EpollMode.EDGE_TRIGGERED);
+            }
+            bootstrap.childHandler(getServerChannelInitializer(context, router));
+
+            // A socket left behind by a previous server would fail the bind.
+            Files.deleteIfExists(Paths.get(path));
+            log.info("Corfu Server listening on unix domain socket {}", path);
+            return bootstrap.bind(new DomainSocketAddress(path)).sync();
+        } catch (IOException ioe) {
+            throw new UnrecoverableCorfuError(ioe);
+        } catch (InterruptedException ie) {
+            throw new UnrecoverableCorfuInterruptedError(ie);
+        }
+    }
+
     /** Configure server bootstrap per-channel options, such as TCP options, etc.
      *
      * @param context       The {@link ServerContext} to use.
@@ -363,6 +439,12 @@ public class CorfuServer {
             .childOption(ChannelOption.SO_REUSEADDR, true)
             .childOption(ChannelOption.TCP_NODELAY, true)
             .childOption(ChannelOption.ALLOCATOR, PooledByteBufAllocator.DEFAULT);
+
+        if (context.getChannelImplementation().isEpoll()) {
+            bootstrap.childOption(EpollChannelOption.TCP_QUICKACK, context.isTcpQuickAckEnabled())
+                .childOption(EpollChannelOption.EPOLL_MODE, context.isEpollLevelTriggered()
+                    ? EpollMode.LEVEL_TRIGGERED : EpollMode.EDGE_TRIGGERED);
+        }
     }
 
 
@@ -433,6 +515,15 @@ public class CorfuServer {
                 Boolean saslPlainTextAuth = context.getServerConfig(Boolean.class,
                         "--enable-sasl-plain-text-auth");
 
+                NettyFlushMetricsHandler flushMetricsHandler = null;
+                if (MetricsUtils.isMetricsCollectionEnabled()) {
+                    flushMetricsHandler = new NettyFlushMetricsHandler(ServerContext.metrics,
+                            CorfuComponent.SERVER_ROUTER.toString());
+                    ch.pipeline().addLast(flushMetricsHandler);
+                }
+                // Consolidate the flushes of the responses to pipelined requests.
+                ch.pipeline().addLast(new FlushConsolidationHandler(
+                        NettyFlushMetricsHandler.MAX_CONSOLIDATED_FLUSHES, true));
                 // If TLS is enabled, setup the encryption pipeline.
                 if (tlsEnabled) {
                     SSLEngine engine = sslContext.newEngine(ch.alloc());
@@ -453,9 +544,15 @@ public class CorfuServer {
                     ch.pipeline().addLast("sasl/plain-text", new
                             PlainTextSaslNettyServer());
                 }
+                // Compress the frames, if negotiated by the handshake.
+                ch.pipeline().addLast(new NettyCompressionHandler(ServerContext.metrics,
+                        CorfuComponent.SERVER_ROUTER.toString()));
                 // Transform the framed message into a Corfu message.
                 ch.pipeline().addLast(new NettyCorfuMessageDecoder());
                 ch.pipeline().addLast(new NettyCorfuMessageEncoder());
+                if (flushMetricsHandler != null) {
+                    ch.pipeline().addLast(flushMetricsHandler.getMessageCounter());
+                }
                 ch.pipeline().addLast(new ServerHandshakeHandler(context.getNodeId(),
                         Version.getVersionString() + "("
                                 + GitRepositoryState.getRepositoryState().commitIdAbbrev + ")",
@@ -4,13 +4,20 @@ import com.github.benmanes.caffeine.cache.Caffeine;
 import com.github.benmanes.caffeine.cache.LoadingCache;
 import com.github.benmanes.caffeine.cache.RemovalCause;
 import com.google.common.annotations.VisibleForTesting;
+import com.google.common.collect.Range;
 
 import io.netty.channel.ChannelHandlerContext;
 
 import java.lang.invoke.MethodHandles;
+import java.time.Duration;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 import lombok.Getter;
 import lombok.extern.slf4j.Slf4j;
@@ -19,15 +26,21 @@ import org.corfudb.infrastructure.log.InMemoryStreamLog;
 import org.corfudb.infrastructure.log.StreamLog;
 import org.corfudb.infrastructure.log.StreamLogCompaction;
 import org.corfudb.infrastructure.log.StreamLogFiles;
+import org.corfudb.protocols.wireprotocol.CompactReadRequest;
+import org.corfudb.protocols.wireprotocol.CompactReadResponse;
 import org.corfudb.protocols.wireprotocol.CorfuMsg;
 import org.corfudb.protocols.wireprotocol.CorfuMsgType;
 import org.corfudb.protocols.wireprotocol.CorfuPayloadMsg;
 import org.corfudb.protocols.wireprotocol.ILogData;
 import org.corfudb.protocols.wireprotocol.LogData;
 import org.corfudb.protocols.wireprotocol.MultipleReadRequest;
+import org.corfudb.protocols.wireprotocol.MultipleWriteResponse;
 import org.corfudb.protocols.wireprotocol.RangeWriteMsg;
 import org.corfudb.protocols.wireprotocol.ReadRequest;
 import org.corfudb.protocols.wireprotocol.ReadResponse;
+import org.corfudb.protocols.wireprotocol.ReadWaitRequest;
+import org.corfudb.protocols.wireprotocol.TailWatchRequest;
+import org.corfudb.protocols.wireprotocol.TailWatchResponse;
 import org.corfudb.protocols.wireprotocol.TrimRequest;
 import org.corfudb.protocols.wireprotocol.WriteRequest;
 import org.corfudb.runtime.exceptions.DataCorruptionException;
@@ -35,6 +48,7 @@ import org.corfudb.runtime.exceptions.DataOutrankedException;
 import org.corfudb.runtime.exceptions.OverwriteException;
 import org.corfudb.runtime.exceptions.TrimmedException;
 import org.corfudb.runtime.exceptions.ValueAdoptedException;
+import org.corfudb.util.CFUtils;
 import org.corfudb.util.Utils;
 
 
@@ -90,6 +104,31 @@ public class LogUnitServer extends AbstractServer {
     private final StreamLogCompaction logCleaner;
     private final BatchWriter<Long, ILogData> batchWriter;
 
+    /**
+     * The reads waiting for an address to be written, by address. A waiting read is completed
+     * with the data written, or with null once its timeout expires.
+     */
+    private final Map<Long, List<CompletableFuture<ILogData>>> writeWaiters =
+            new ConcurrentHashMap<>();
+
+    /** A watch of the tail and the trim mark, held until either of them changes. */
+    private static class TailWatcher {
+        final TailWatchRequest request;
+
+        /** Whether a change was observed, and the answer scheduled. */
+        final AtomicBoolean changed = new AtomicBoolean();
+
+        /** Completed once the watch is to be answered. */
+        final CompletableFuture<Void> answer = new CompletableFuture<>();
+
+        TailWatcher(TailWatchRequest request) {
+            this.request = request;
+        }
+    }
+
+    /** The watches of the tail and the trim mark. */
+    private final Set<TailWatcher> tailWatchers = ConcurrentHashMap.newKeySet();
+
     /**
      * Returns a new LogUnitServer.
      * @param serverContext context object providing settings and objects
@@ -131,10 +170,45 @@ public class LogUnitServer extends AbstractServer {
         logCleaner = new StreamLogCompaction(streamLog, 10, 45, TimeUnit.MINUTES, ServerContext.SHUTDOWN_TIMER);
     }
 
+    /**
+     * Reads are handled inline when all the addresses they read are cached, since they
+     * do not touch the disk.
+     */
+    @Override
+    @SuppressWarnings("unchecked")
+    public boolean isNonBlocking(CorfuMsg msg) {
+        switch (msg.getMsgType()) {
+            case READ_REQUEST:
+                Range<Long> range = ((CorfuPayloadMsg<ReadRequest>) msg).getPayload().getRange();
+                for (long l = range.lowerEndpoint(); l < range.upperEndpoint() + 1L; l++) {
+                    if (dataCache.getIfPresent(l) == null) {
+                        return false;
+                    }
+                }
+                return true;
+            case MULTIPLE_READ_REQUEST:
+                return ((CorfuPayloadMsg<MultipleReadRequest>) msg).getPayload().getAddresses()
+                        .stream().allMatch(l -> dataCache.getIfPresent(l) != null);
+            case READ_WAIT_REQUEST:
+                return dataCache.getIfPresent(((CorfuPayloadMsg<ReadWaitRequest>) msg)
+                        .getPayload().getAddress()) != null;
+            case COMPACT_READ_REQUEST:
+                for (long l : ((CorfuPayloadMsg<CompactReadRequest>) msg).getPayload()
+                        .getAddresses()) {
+                    if (dataCache.getIfPresent(l) == null) {
+                        return false;
+                    }
+                }
+                return true;
+            default:
+                return super.isNonBlocking(msg);
+        }
+    }
+
     /**
      * Service an incoming request for maximum global address the log unit server has written.
      */
-    @ServerHandler(type = CorfuMsgType.TAIL_REQUEST)
+    @ServerHandler(type = CorfuMsgType.TAIL_REQUEST, nonBlocking = true)
     public void handleTailRequest(CorfuMsg msg, ChannelHandlerContext ctx, IServerRouter r) {
         r.sendResponse(ctx, msg, CorfuMsgType.TAIL_RESPONSE.payloadMsg(streamLog.getGlobalTail()));
     }
@@ -142,11 +216,57 @@ public class LogUnitServer extends AbstractServer {
     /**
      * Service an incoming request to retrieve the starting address of this logging unit.
      */
-    @ServerHandler(type = CorfuMsgType.TRIM_MARK_REQUEST)
+    @ServerHandler(type = CorfuMsgType.TRIM_MARK_REQUEST, nonBlocking = true)
     public void handleHeadRequest(CorfuMsg msg, ChannelHandlerContext ctx, IServerRouter r) {
         r.sendResponse(ctx, msg, CorfuMsgType.TRIM_MARK_RESPONSE.payloadMsg(streamLog.getTrimMark()));
     }
 
+    /**
+     * Services a watch of the tail and the trim mark. The watch is answered once either of them
+     * differs from the values known by the client and the coalescing interval has elapsed, so
+     * that a client learns of the changes without polling, and at most once per interval. It is
+     * also answered once its timeout expires.
+     */
+    @ServerHandler(type = CorfuMsgType.TAIL_WATCH_REQUEST, nonBlocking = true)
+    private void watchTail(CorfuPayloadMsg<TailWatchRequest> msg, ChannelHandlerContext ctx,
+                           IServerRouter r) {
+        final TailWatcher watcher = new TailWatcher(msg.getPayload());
+        log.trace("watchTail: {}", msg.getPayload());
+
+        watcher.answer.thenRun(() -> {
+            tailWatchers.remove(watcher);
+            r.sendResponse(ctx, msg, CorfuMsgType.TAIL_WATCH_RESPONSE.payloadMsg(
+                    new TailWatchResponse(streamLog.getGlobalTail(), streamLog.getTrimMark())));
+        });
+        tailWatchers.add(watcher);
+
+        // The tail or the trim mark may have changed before the watch was registered.
+        notifyTailWatcher(watcher, streamLog.getGlobalTail(), streamLog.getTrimMark());
+        CFUtils.runAfter(Duration.ofMillis(msg.getPayload().getTimeout()),
+                () -> watcher.answer.complete(null));
+    }
+
+    /**
+     * Notify the watches of the tail and the trim mark that either of them may have changed.
+     */
+    private void notifyTailWatchers() {
+        if (tailWatchers.isEmpty()) {
+            return;
+        }
+        final long tail = streamLog.getGlobalTail();
+        final long trimMark = streamLog.getTrimMark();
+        tailWatchers.forEach(watcher -> notifyTailWatcher(watcher, tail, trimMark));
+    }
+
+    private void notifyTailWatcher(TailWatcher watcher, long tail, long trimMark) {
+        if ((tail != watcher.request.getTail() || trimMark != watcher.request.getTrimMark())
+                && watcher.changed.compareAndSet(false, true)) {
+            // The changes until the interval elapses are coalesced into the answer.
+            CFUtils.runAfter(Duration.ofMillis(watcher.request.getInterval()),
+                    () -> watcher.answer.complete(null));
+        }
+    }
+
     /**
      * Service an incoming write request.
      */
@@ -160,6 +280,8 @@ public class LogUnitServer extends AbstractServer {
             logData.setEpoch(msg.getEpoch());
             dataCache.put(msg.getPayload().getGlobalAddress(), logData);
             r.sendResponse(ctx, msg, CorfuMsgType.WRITE_OK.msg());
+            notifyWriteWaiters(msg.getPayload().getGlobalAddress(), logData);
+            notifyTailWatchers();
 
         } catch (OverwriteException ex) {
             r.sendResponse(ctx, msg, CorfuMsgType.ERROR_OVERWRITE.payloadMsg(ex.getOverWriteCause().getId()));
@@ -171,6 +293,29 @@ public class LogUnitServer extends AbstractServer {
         }
     }
 
+    /**
+     * Services a write of several addresses. Each address is written as by a single write, and
+     * the writes which fail are listed in the response with their errors.
+     */
+    @ServerHandler(type = CorfuMsgType.MULTIPLE_WRITE)
+    private void multipleWrite(CorfuPayloadMsg<RangeWriteMsg> msg, ChannelHandlerContext ctx,
+                               IServerRouter r) {
+        MultipleWriteResponse response = new MultipleWriteResponse();
+        List<LogData> written = new ArrayList<>();
+        for (LogData logData : msg.getPayload().getEntries()) {
+            logData.setEpoch(msg.getEpoch());
+            try {
+                dataCache.put(logData.getGlobalAddress(), logData);
+                written.add(logData);
+            } catch (OverwriteException | DataOutrankedException | ValueAdoptedException e) {
+                response.fail(logData.getGlobalAddress(), e);
+            }
+        }
+        r.sendResponse(ctx, msg, CorfuMsgType.MULTIPLE_WRITE_RESPONSE.payloadMsg(response));
+        written.forEach(logData -> notifyWriteWaiters(logData.getGlobalAddress(), logData));
+        notifyTailWatchers();
+    }
+
     @ServerHandler(type = CorfuMsgType.READ_REQUEST)
     private void read(CorfuPayloadMsg<ReadRequest> msg, ChannelHandlerContext ctx, IServerRouter r) {
         log.trace("read: {}", msg.getPayload().getRange());
@@ -191,6 +336,66 @@ public class LogUnitServer extends AbstractServer {
         }
     }
 
+    /**
+     * Services a read which waits for the address to be written. The read is answered as soon
+     * as the address is written, or with an empty entry once its timeout expires, so that
+     * readers do not poll for an address which is being written.
+     */
+    @ServerHandler(type = CorfuMsgType.READ_WAIT_REQUEST)
+    private void readWait(CorfuPayloadMsg<ReadWaitRequest> msg, ChannelHandlerContext ctx,
+                          IServerRouter r) {
+        final long address = msg.getPayload().getAddress();
+        log.trace("readWait: {} for {}ms", address, msg.getPayload().getTimeout());
+
+        final CompletableFuture<ILogData> written = new CompletableFuture<>();
+        writeWaiters.compute(address, (a, waiters) -> {
+            List<CompletableFuture<ILogData>> list = waiters == null ? new ArrayList<>() : waiters;
+            list.add(written);
+            return list;
+        });
+        written.thenAccept(e -> {
+            removeWriteWaiter(address, written);
+            ReadResponse rr = new ReadResponse();
+            rr.put(address, e == null ? LogData.getEmpty(address) : (LogData) e);
+            r.sendResponse(ctx, msg, CorfuMsgType.READ_RESPONSE.payloadMsg(rr));
+        });
+
+        // The address may have been written before the read was registered.
+        try {
+            ILogData e = dataCache.get(address);
+            if (e != null) {
+                written.complete(e);
+                return;
+            }
+        } catch (DataCorruptionException e) {
+            removeWriteWaiter(address, written);
+            r.sendResponse(ctx, msg, CorfuMsgType.ERROR_DATA_CORRUPTION.msg());
+            return;
+        }
+        CFUtils.runAfter(Duration.ofMillis(msg.getPayload().getTimeout()),
+                () -> written.complete(null));
+    }
+
+    /**
+     * Complete the reads waiting for an address to be written.
+     *
+     * @param address The address written.
+     * @param data    The data written at the address.
+     */
+    private void notifyWriteWaiters(long address, ILogData data) {
+        List<CompletableFuture<ILogData>> waiters = writeWaiters.remove(address);
+        if (waiters != null) {
+            waiters.forEach(waiter -> waiter.complete(data));
+        }
+    }
+
+    private void removeWriteWaiter(long address, CompletableFuture<ILogData> waiter) {
+        writeWaiters.computeIfPresent(address, (a, waiters) -> {
+            waiters.remove(waiter);
+            return waiters.isEmpty() ? null : waiters;
+        });
+    }
+
     @ServerHandler(type = CorfuMsgType.MULTIPLE_READ_REQUEST)
     private void multiRead(CorfuPayloadMsg<MultipleReadRequest> msg, ChannelHandlerContext ctx, IServerRouter r) {
         log.trace("multiRead: {}", msg.getPayload().getAddresses());
@@ -211,6 +416,27 @@ public class LogUnitServer extends AbstractServer {
         }
     }
 
+    @ServerHandler(type = CorfuMsgType.COMPACT_READ_REQUEST)
+    private void compactRead(CorfuPayloadMsg<CompactReadRequest> msg, ChannelHandlerContext ctx,
+                             IServerRouter r) {
+        log.trace("compactRead: {}", msg.getPayload());
+
+        CompactReadResponse rr = new CompactReadResponse();
+        try {
+            for (long l : msg.getPayload().getAddresses()) {
+                ILogData e = dataCache.get(l);
+                if (e == null) {
+                    rr.put(l, LogData.getEmpty(l));
+                } else {
+                    rr.put(l, (LogData) e);
+                }
+            }
+            r.sendResponse(ctx, msg, CorfuMsgType.COMPACT_READ_RESPONSE.payloadMsg(rr));
+        } catch (DataCorruptionException e) {
+            r.sendResponse(ctx, msg, CorfuMsgType.ERROR_DATA_CORRUPTION.msg());
+        }
+    }
+
     @ServerHandler(type = CorfuMsgType.FILL_HOLE)
     private void fillHole(CorfuPayloadMsg<TrimRequest> msg, ChannelHandlerContext ctx,
         IServerRouter r) {
@@ -221,6 +447,8 @@ public class LogUnitServer extends AbstractServer {
             hole.setEpoch(msg.getEpoch());
             dataCache.put(address, hole);
             r.sendResponse(ctx, msg, CorfuMsgType.WRITE_OK.msg());
+            notifyWriteWaiters(address, hole);
+            notifyTailWatchers();
 
         } catch (OverwriteException e) {
             r.sendResponse(ctx, msg, CorfuMsgType.ERROR_OVERWRITE.payloadMsg(e.getOverWriteCause().getId()));
@@ -246,6 +474,7 @@ public class LogUnitServer extends AbstractServer {
         try {
             batchWriter.prefixTrim(msg.getPayload().getAddress(), msg.getEpoch());
             r.sendResponse(ctx, msg, CorfuMsgType.ACK.msg());
+            notifyTailWatchers();
         } catch (TrimmedException ex) {
             r.sendResponse(ctx, msg, CorfuMsgType.ERROR_TRIMMED.msg());
         }
@@ -283,6 +512,8 @@ public class LogUnitServer extends AbstractServer {
         List<LogData> entries = msg.getPayload().getEntries();
         batchWriter.bulkWrite(entries, msg.getEpoch());
         r.sendResponse(ctx, msg, CorfuMsgType.WRITE_OK.msg());
+        entries.forEach(entry -> notifyWriteWaiters(entry.getGlobalAddress(), entry));
+        notifyTailWatchers();
     }
 
     /**
@@ -307,6 +538,7 @@ public class LogUnitServer extends AbstractServer {
             batchWriter.reset(msg.getPayload());
             dataCache.invalidateAll();
             log.info("LogUnit Server Reset.");
+            notifyTailWatchers();
         } else {
             log.info("LogUnit Server Reset request received but reset already done.");
         }
@@ -37,6 +37,7 @@ import org.corfudb.protocols.wireprotocol.NetworkMetrics;
 import org.corfudb.protocols.wireprotocol.NodeView;
 import org.corfudb.protocols.wireprotocol.SequencerMetrics;
 import org.corfudb.protocols.wireprotocol.SequencerMetrics.SequencerStatus;
+import org.corfudb.protocols.wireprotocol.SequencerSnapshot;
 import org.corfudb.protocols.wireprotocol.ServerMetrics;
 import org.corfudb.runtime.CorfuRuntime;
 import org.corfudb.runtime.exceptions.QuorumUnreachableException;
@@ -44,6 +45,7 @@ import org.corfudb.runtime.exceptions.ServerNotReadyException;
 import org.corfudb.runtime.exceptions.unrecoverable.UnrecoverableCorfuError;
 import org.corfudb.runtime.view.Layout;
 import org.corfudb.runtime.view.QuorumFuturesFactory;
+import org.corfudb.runtime.view.RuntimeLayout;
 import org.corfudb.util.CFUtils;
 import org.corfudb.util.NodeLocator;
 import org.corfudb.util.Sleep;
@@ -149,6 +151,10 @@ public class ManagementAgent {
     private final ScheduledExecutorService localMetricsPollingService;
     //  Locally collected server metrics polling interval.
     private static final Duration METRICS_POLL_INTERVAL = Duration.ofMillis(3000);
+    //  Service to ship the primary sequencer snapshot to the standby sequencers.
+    private final ScheduledExecutorService sequencerSnapshotService;
+    //  Primary sequencer snapshot shipping interval.
+    private static final Duration SEQUENCER_SNAPSHOT_INTERVAL = Duration.ofMillis(5000);
     //  Local copy of the local node's server metrics.
     @Getter(AccessLevel.PROTECTED)
     private volatile ServerMetrics localServerMetrics;
@@ -229,6 +235,12 @@ public class ManagementAgent {
                         .setNameFormat(serverContext.getThreadPrefix() + "LocalMetricsPolling")
                         .build());
 
+        this.sequencerSnapshotService = Executors.newSingleThreadScheduledExecutor(
+                new ThreadFactoryBuilder()
+                        .setDaemon(true)
+                        .setNameFormat(serverContext.getThreadPrefix() + "SequencerSnapshot")
+                        .build());
+
         // Creating the initialization task thread.
         // This thread pool is utilized to dispatch one time recovery and sequencer bootstrap tasks.
         // One these tasks finish successfully, they initiate the detection tasks.
@@ -307,6 +319,12 @@ public class ManagementAgent {
                     METRICS_POLL_INTERVAL.toMillis(),
                     TimeUnit.MILLISECONDS);
 
+            sequencerSnapshotService.scheduleWithFixedDelay(
+                    () -> runSansThrow(this::shipSequencerSnapshot),
+                    SEQUENCER_SNAPSHOT_INTERVAL.toMillis(),
+                    SEQUENCER_SNAPSHOT_INTERVAL.toMillis(),
+                    TimeUnit.MILLISECONDS);
+
             detectionTasksScheduler.scheduleAtFixedRate(
                     () -> runSansThrow(this::detectorTaskScheduler),
                     0,
@@ -429,6 +447,52 @@ public class ManagementAgent {
                 queryLocalSequencerMetrics(layout));
     }
 
+    /**
+     * Task to ship a snapshot of the primary sequencer to the standby sequencers.
+     * This task is a no-op unless this node hosts the primary sequencer of the current layout.
+     * A standby sequencer promoted to primary bootstraps from the latest snapshot it received,
+     * instead of rebuilding the stream tails from the whole log.
+     */
+    private void shipSequencerSnapshot() {
+        Layout layout = serverContext.copyManagementLayout();
+        // A sharded sequencer is always bootstrapped from a full scan of the log, as the state
+        // of the primary sequencer does not cover the streams of the other shards.
+        if (layout == null || layout.getSequencers().size() < 2
+                || layout.isSequencerSharded()
+                || !layout.getPrimarySequencer().equals(getLocalEndpoint())) {
+            return;
+        }
+
+        RuntimeLayout runtimeLayout = getCorfuRuntime().getLayoutView().getRuntimeLayout(layout);
+        SequencerSnapshot snapshot;
+        try {
+            snapshot = CFUtils.getUninterruptibly(runtimeLayout.getPrimarySequencerClient()
+                    .requestSnapshot());
+        } catch (ServerNotReadyException snre) {
+            log.debug("shipSequencerSnapshot: Primary sequencer not ready.");
+            return;
+        }
+        if (!snapshot.isPresent()) {
+            log.debug("shipSequencerSnapshot: Primary sequencer bootstrapped during snapshot.");
+            return;
+        }
+
+        layout.getSequencers().stream()
+                .skip(1)
+                .filter(endpoint -> !layout.getUnresponsiveServers().contains(endpoint))
+                .forEach(endpoint -> {
+                    try {
+                        CFUtils.getUninterruptibly(runtimeLayout.getSequencerClient(endpoint)
+                                .installSnapshot(snapshot));
+                    } catch (Exception e) {
+                        log.warn("shipSequencerSnapshot: Failed to ship snapshot to {}",
+                                endpoint, e);
+                    }
+                });
+        log.debug("shipSequencerSnapshot: Shipped snapshot at globalTail = {}",
+                snapshot.getGlobalTail());
+    }
+
     /**
      * Schedules the detection tasks run by detectorTaskScheduler.
      * It schedules exactly one instance of the following tasks.
@@ -818,6 +882,7 @@ public class ManagementAgent {
         detectionTasksScheduler.shutdownNow();
         detectionTaskWorkers.shutdownNow();
         localMetricsPollingService.shutdownNow();
+        sequencerSnapshotService.shutdownNow();
 
         try {
             initializationTaskThread.interrupt();
@@ -832,6 +897,8 @@ public class ManagementAgent {
                     TimeUnit.SECONDS);
             localMetricsPollingService.awaitTermination(ServerContext.SHUTDOWN_TIMER.getSeconds(),
                     TimeUnit.SECONDS);
+            sequencerSnapshotService.awaitTermination(ServerContext.SHUTDOWN_TIMER.getSeconds(),
+                    TimeUnit.SECONDS);
         } catch (InterruptedException ie) {
             log.debug("detectionTaskWorkers awaitTermination interrupted : {}", ie);
             Thread.currentThread().interrupt();
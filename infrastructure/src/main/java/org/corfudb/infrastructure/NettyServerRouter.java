@@ -129,7 +129,7 @@ public class NettyServerRouter extends ChannelInboundHandlerAdapter
                                 msg);
                     }
 
-                    handler.getExecutor().submit(() -> {
+                    Runnable handle = () -> {
                         try {
                             handler.handleMessage(m, ctx, this);
                         } catch (Throwable t) {
@@ -139,7 +139,15 @@ public class NettyServerRouter extends ChannelInboundHandlerAdapter
                                     t.getMessage(),
                                     t);
                         }
-                    });
+                    };
+
+                    // Non-blocking messages are handled on this event loop, which saves
+                    // the handoffs to and from the executor.
+                    if (handler.isNonBlocking(m)) {
+                        handle.run();
+                    } else {
+                        handler.getExecutor().submit(handle);
+                    }
                 }
             }
         } catch (Exception e) {
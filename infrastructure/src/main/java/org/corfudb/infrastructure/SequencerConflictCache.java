@@ -0,0 +1,284 @@
+package org.corfudb.infrastructure;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.function.LongConsumer;
+import java.util.function.ObjLongConsumer;
+
+import lombok.extern.slf4j.Slf4j;
+
+import org.corfudb.runtime.view.Address;
+
+/**
+ * The cache of conflict parameters of the sequencer, mapping each conflict parameter to the
+ * global address at which it was last written.
+ *
+ * <p>The conflict parameters are kept in buckets of consecutive addresses, ordered by address.
+ * When the cache is full, the parameter written the longest ago is evicted. A trim detaches
+ * the buckets below the trim mark in a single step and hides their parameters from lookups,
+ * while the parameters themselves are removed by the eviction executor, off the token path.
+ *
+ * <p>All the methods but the background removal and {@link SequencerConflictCache#forEach}
+ * are called under the sequencer lock.
+ */
+@Slf4j
+public class SequencerConflictCache {
+
+    /**
+     * The buckets hold 2^BUCKET_SHIFT consecutive addresses.
+     */
+    private static final int BUCKET_SHIFT = 10;
+
+    /**
+     * Latest address at which each conflict parameter was written. Written by the token path,
+     * and by the eviction executor when it removes the parameters of detached buckets.
+     */
+    private final Map<String, Long> conflictTails = new ConcurrentHashMap<>();
+
+    /**
+     * The conflict parameters written in each bucket, by bucket index.
+     */
+    private final NavigableMap<Long, Bucket> buckets = new TreeMap<>();
+
+    private final long maxSize;
+
+    /**
+     * Called with the highest address evicted whenever parameters are evicted or trimmed.
+     */
+    private final LongConsumer evictionListener;
+
+    private final ExecutorService evictionExecutor;
+
+    /**
+     * Number of conflict parameters in the buckets, excluding the detached ones.
+     */
+    private long size = 0;
+
+    /**
+     * Lookups ignore the parameters written below this address, which are being removed.
+     */
+    private volatile long trimMark = Address.NON_ADDRESS;
+
+    /**
+     * Conflict parameters written at addresses within the same bucket.
+     */
+    private static class Bucket {
+        final Set<String> conflictKeys = new HashSet<>();
+        long maxAddress = Address.NON_ADDRESS;
+    }
+
+    /**
+     * Creates a conflict cache.
+     *
+     * @param maxSize          The maximum number of conflict parameters.
+     * @param evictionListener Called with the highest evicted address on eviction.
+     * @param evictionExecutor The executor removing the trimmed parameters.
+     */
+    public SequencerConflictCache(long maxSize, LongConsumer evictionListener,
+                                  ExecutorService evictionExecutor) {
+        this.maxSize = maxSize;
+        this.evictionListener = evictionListener;
+        this.evictionExecutor = evictionExecutor;
+    }
+
+    private static long getBucketIndex(long address) {
+        return address >> BUCKET_SHIFT;
+    }
+
+    /**
+     * Returns the address at which a conflict parameter was last written.
+     *
+     * @param conflictKey The conflict parameter.
+     * @return The address, or null if the parameter is not cached.
+     */
+    public Long getIfPresent(String conflictKey) {
+        Long address = conflictTails.get(conflictKey);
+        return address == null || address < trimMark ? null : address;
+    }
+
+    /**
+     * Records that a conflict parameter was written at an address. Addresses below the trim
+     * mark are not recorded.
+     *
+     * @param conflictKey The conflict parameter.
+     * @param address     The address of the write.
+     */
+    public void put(String conflictKey, long address) {
+        if (address < trimMark) {
+            return;
+        }
+        Long previous = conflictTails.put(conflictKey, address);
+        long bucketIndex = getBucketIndex(address);
+        if (previous != null && previous >= trimMark) {
+            long previousIndex = getBucketIndex(previous);
+            if (previousIndex == bucketIndex) {
+                buckets.get(bucketIndex).maxAddress =
+                        Math.max(buckets.get(bucketIndex).maxAddress, address);
+                return;
+            }
+            removeFromBucket(previousIndex, conflictKey);
+        }
+
+        Bucket bucket = buckets.computeIfAbsent(bucketIndex, i -> new Bucket());
+        bucket.conflictKeys.add(conflictKey);
+        bucket.maxAddress = Math.max(bucket.maxAddress, address);
+        size++;
+
+        if (size > maxSize) {
+            evictOldest();
+        }
+    }
+
+    /**
+     * Records the addresses of several conflict parameters.
+     */
+    public void putAll(Map<String, Long> addresses) {
+        addresses.forEach(this::put);
+    }
+
+    private void removeFromBucket(long bucketIndex, String conflictKey) {
+        Bucket bucket = buckets.get(bucketIndex);
+        if (bucket != null && bucket.conflictKeys.remove(conflictKey)) {
+            size--;
+            if (bucket.conflictKeys.isEmpty()) {
+                buckets.remove(bucketIndex);
+            }
+        }
+    }
+
+    /**
+     * Evicts a conflict parameter of the oldest bucket.
+     */
+    private void evictOldest() {
+        Map.Entry<Long, Bucket> oldest = buckets.firstEntry();
+        Iterator<String> iterator = oldest.getValue().conflictKeys.iterator();
+        String conflictKey = iterator.next();
+        iterator.remove();
+        size--;
+        if (oldest.getValue().conflictKeys.isEmpty()) {
+            buckets.remove(oldest.getKey());
+        }
+        Long address = conflictTails.remove(conflictKey);
+        if (address != null) {
+            evictionListener.accept(address);
+        }
+    }
+
+    /**
+     * Evicts the conflict parameters written below the trim mark. The buckets entirely below
+     * the trim mark are detached at once, and their parameters are removed by the eviction
+     * executor. Only the bucket holding the trim mark is scanned.
+     *
+     * @param newTrimMark The trim mark.
+     * @return The number of evicted conflict parameters.
+     */
+    public long trim(long newTrimMark) {
+        if (newTrimMark <= trimMark) {
+            return 0;
+        }
+        trimMark = newTrimMark;
+
+        long trimIndex = getBucketIndex(newTrimMark);
+        NavigableMap<Long, Bucket> trimmed = buckets.headMap(trimIndex, false);
+        List<Bucket> detached = new ArrayList<>(trimmed.values());
+        trimmed.clear();
+
+        long evicted = 0;
+        long maxEvicted = Address.NON_ADDRESS;
+        for (Bucket bucket : detached) {
+            evicted += bucket.conflictKeys.size();
+            maxEvicted = Math.max(maxEvicted, bucket.maxAddress);
+        }
+
+        Bucket boundary = buckets.get(trimIndex);
+        if (boundary != null) {
+            Iterator<String> iterator = boundary.conflictKeys.iterator();
+            while (iterator.hasNext()) {
+                String conflictKey = iterator.next();
+                Long address = conflictTails.get(conflictKey);
+                if (address != null && address < newTrimMark) {
+                    iterator.remove();
+                    conflictTails.remove(conflictKey);
+                    maxEvicted = Math.max(maxEvicted, address);
+                    evicted++;
+                }
+            }
+            if (boundary.conflictKeys.isEmpty()) {
+                buckets.remove(trimIndex);
+            }
+        }
+
+        size -= evicted;
+        if (Address.isAddress(maxEvicted)) {
+            evictionListener.accept(maxEvicted);
+        }
+        if (!detached.isEmpty()) {
+            evictionExecutor.submit(() -> removeDetached(detached, newTrimMark));
+        }
+        return evicted;
+    }
+
+    /**
+     * Removes the conflict parameters of detached buckets, unless they were written again at
+     * or after the trim mark.
+     */
+    private void removeDetached(List<Bucket> detached, long detachedTrimMark) {
+        for (Bucket bucket : detached) {
+            for (String conflictKey : bucket.conflictKeys) {
+                conflictTails.computeIfPresent(conflictKey,
+                        (k, address) -> address < detachedTrimMark ? null : address);
+            }
+        }
+        log.trace("removeDetached: removed {} buckets below {}", detached.size(),
+                detachedTrimMark);
+    }
+
+    /**
+     * Removes all the conflict parameters. The eviction listener is not called, and the trim
+     * mark is kept.
+     */
+    public void invalidateAll() {
+        conflictTails.clear();
+        buckets.clear();
+        size = 0;
+    }
+
+    /**
+     * Returns the number of cached conflict parameters.
+     */
+    public long size() {
+        return size;
+    }
+
+    /**
+     * Calls the consumer on each cached conflict parameter and its address.
+     *
+     * <p>Unlike the other methods, this can be called without the sequencer lock, in which
+     * case the parameters written, evicted or trimmed concurrently may or may not be seen.
+     */
+    public void forEach(ObjLongConsumer<String> consumer) {
+        conflictTails.forEach((conflictKey, address) -> {
+            if (address >= trimMark) {
+                consumer.accept(conflictKey, address);
+            }
+        });
+    }
+
+    /**
+     * Returns a copy of the cached conflict parameters and their addresses.
+     */
+    public Map<String, Long> toMap() {
+        Map<String, Long> map = new HashMap<>();
+        forEach(map::put);
+        return map;
+    }
+}
@@ -1,39 +1,44 @@
 package org.corfudb.infrastructure;
 
+import static org.corfudb.protocols.wireprotocol.TokenType.SHARD_FENCED;
+import static org.corfudb.protocols.wireprotocol.TokenType.SHARD_LEASE_REQUIRED;
 import static org.corfudb.protocols.wireprotocol.TokenType.TX_ABORT_NEWSEQ;
 import static org.corfudb.protocols.wireprotocol.TokenType.TX_ABORT_SEQ_OVERFLOW;
-import com.github.benmanes.caffeine.cache.Cache;
-import com.github.benmanes.caffeine.cache.Caffeine;
-import com.github.benmanes.caffeine.cache.RemovalCause;
 import com.google.common.annotations.VisibleForTesting;
-import com.google.common.collect.ImmutableMap;
 
 import io.netty.channel.ChannelHandlerContext;
 
 import java.lang.invoke.MethodHandles;
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.UUID;
-import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicLong;
 import java.util.concurrent.atomic.AtomicReference;
 
 import lombok.Getter;
 import lombok.Setter;
+import lombok.Value;
 import lombok.extern.slf4j.Slf4j;
 
 import org.corfudb.protocols.wireprotocol.CorfuMsg;
 import org.corfudb.protocols.wireprotocol.CorfuMsgType;
 import org.corfudb.protocols.wireprotocol.CorfuPayloadMsg;
+import org.corfudb.protocols.wireprotocol.SequencerLease;
 import org.corfudb.protocols.wireprotocol.SequencerMetrics;
 import org.corfudb.protocols.wireprotocol.SequencerMetrics.SequencerStatus;
+import org.corfudb.protocols.wireprotocol.SequencerSnapshot;
 import org.corfudb.protocols.wireprotocol.SequencerTailsRecoveryMsg;
+import org.corfudb.protocols.wireprotocol.ShardCommitRequest;
+import org.corfudb.protocols.wireprotocol.ShardPrepareRequest;
 import org.corfudb.protocols.wireprotocol.Token;
 import org.corfudb.protocols.wireprotocol.TokenRequest;
 import org.corfudb.protocols.wireprotocol.TokenResponse;
@@ -41,6 +46,8 @@ import org.corfudb.protocols.wireprotocol.TokenType;
 import org.corfudb.protocols.wireprotocol.TxResolutionInfo;
 import org.corfudb.runtime.view.Address;
 import org.corfudb.runtime.view.Layout;
+import org.corfudb.util.ConflictTailList;
+import org.corfudb.util.StreamTailMap;
 import org.corfudb.util.Utils;
 
 /**
@@ -79,6 +86,19 @@ import org.corfudb.util.Utils;
  * commits, the sequencer updates the tails of all the streams and the cache
  * of conflict parameters.
  *
+ * <p>The primary sequencer can be asked for a {@link SequencerSnapshot} of its state, which
+ * is then installed on the standby sequencers. A standby promoted to primary bootstraps from
+ * its installed snapshot plus the stream tails written after the snapshot, so that it keeps
+ * the conflict cache and the log only needs to be scanned from the snapshot onwards.
+ *
+ * <p>If the layout partitions the streams across several sequencer shards, each shard owns
+ * the tails and conflict parameters of its streams. The primary sequencer owns the global log
+ * tail, and the other shards issue addresses from blocks leased from it. A request spanning
+ * several shards is first prepared on each of them, which fences its streams, and then
+ * committed at an address allocated by the primary sequencer. The global tail is the lowest
+ * address which the primary sequencer or a shard may still issue, so querying it does not
+ * take the leases away from the shards.
+ *
  * <p>Created by mwei on 12/8/15.
  */
 @Slf4j
@@ -107,10 +127,10 @@ public class SequencerServer extends AbstractServer {
     /**
      * - {@link SequencerServer::streamTailToGlobalTailMap}:
      * per streams map to last issued global-log position. used for
-     * backpointers.
+     * backpointers. It is only accessed from synchronized handlers, and holds primitive
+     * addresses so that issuing a token neither boxes nor allocates per stream.
      */
-    private final ConcurrentHashMap<UUID, Long> streamTailToGlobalTailMap = new
-            ConcurrentHashMap<>();
+    private final StreamTailMap streamTailToGlobalTailMap = new StreamTailMap();
 
     /**
      * TX conflict-resolution information:
@@ -129,12 +149,93 @@ public class SequencerServer extends AbstractServer {
      * the primary sequencer. This means that any snapshot timestamp below this
      * actual threshold would abort due to NEW_SEQUENCER cause.
      */
-    private final Cache<String, Long> conflictToGlobalTailCache;
+    private final SequencerConflictCache conflictToGlobalTailCache;
 
     private long maxConflictWildcard = Address.NOT_FOUND;
 
     private long maxConflictNewSequencer = Address.NOT_FOUND;
 
+    /**
+     * - {@link SequencerServer::snapshotGapStreamTails}:
+     * tails of the streams written between the snapshot this sequencer was bootstrapped from
+     * and the bootstrap. The conflict parameters of these writes are unknown, so a transaction
+     * on such a stream which has a snapshot timestamp below the tail aborts with NEW_SEQUENCER.
+     */
+    private StreamTailMap snapshotGapStreamTails = new StreamTailMap();
+
+    /**
+     * Latest snapshot shipped from the primary sequencer, if this is a standby sequencer.
+     */
+    private volatile SequencerSnapshot standbySnapshot = SequencerSnapshot.empty();
+
+    /**
+     * Length of the stream ID at the start of a conflict hash code.
+     */
+    private static final int UUID_STRING_LENGTH = 36;
+
+    /**
+     * Radix of the conflict param which follows the stream ID in a conflict hash code.
+     */
+    private static final int HEX_RADIX = 16;
+
+    /**
+     * Time after which the fences of a prepared cross-shard request are released, if it was
+     * neither committed nor aborted.
+     */
+    @VisibleForTesting
+    static final long SHARD_FENCE_TIMEOUT_NANOS = TimeUnit.SECONDS.toNanos(5);
+
+    /**
+     * Time after which a shard drops a lease it has not issued any address from, once the
+     * global tail is queried, so that an idle shard does not hold the global tail back.
+     */
+    @VisibleForTesting
+    static final long SHARD_LEASE_IDLE_TIMEOUT_NANOS = TimeUnit.MILLISECONDS.toNanos(100);
+
+    /**
+     * Sequencer shard state:
+     *
+     * {@link SequencerServer::addressLeasing}: true if this sequencer is a shard which does not
+     * own the global log tail, and issues the addresses leased from the primary sequencer,
+     * from {@link SequencerServer::leaseNext} up to {@link SequencerServer::leaseEnd}.
+     * {@link SequencerServer::leaseLastIssue} is the time the lease was granted or last
+     * issued an address.
+     *
+     * {@link SequencerServer::leaseFloor}: no lease starting below the floor is taken. It is
+     * the global tail the shard was bootstrapped with, raised to the tail of the primary
+     * sequencer whenever the global tail is queried, so that a lease cut before a query and
+     * granted after it cannot issue addresses below the queried tail.
+     */
+    private boolean addressLeasing = false;
+
+    private long leaseNext = 0L;
+
+    private long leaseEnd = 0L;
+
+    private long leaseLastIssue = 0L;
+
+    private long leaseFloor = 0L;
+
+    /**
+     * - {@link SequencerServer::preparedShardRequests}: cross-shard requests prepared on this
+     * shard, by request ID.
+     * - {@link SequencerServer::fencedStreams}: the streams fenced by these requests, mapped
+     * to the request ID.
+     */
+    private final Map<UUID, PreparedShardRequest> preparedShardRequests = new HashMap<>();
+
+    private final Map<UUID, UUID> fencedStreams = new HashMap<>();
+
+    /**
+     * A cross-shard request prepared on this shard.
+     */
+    @Value
+    private static class PreparedShardRequest {
+        TokenRequest tokenRequest;
+        Set<UUID> streams;
+        long deadline;
+    }
+
     /**
      * Handler for this server.
      */
@@ -150,7 +251,9 @@ public class SequencerServer extends AbstractServer {
     @Override
     public boolean isServerReadyToHandleMsg(CorfuMsg msg) {
         if ((sequencerEpoch != serverContext.getServerEpoch())
-                && (!msg.getMsgType().equals(CorfuMsgType.BOOTSTRAP_SEQUENCER))) {
+                && (!msg.getMsgType().equals(CorfuMsgType.BOOTSTRAP_SEQUENCER))
+                && (!msg.getMsgType().equals(CorfuMsgType.SEQUENCER_SNAPSHOT_INSTALL))
+                && (!msg.getMsgType().equals(CorfuMsgType.SEQUENCER_STANDBY_SNAPSHOT_REQUEST))) {
             log.warn("Rejecting msg at sequencer : sequencerStateEpoch:{}, serverEpoch:{}, "
                     + "msg:{}", sequencerEpoch, serverContext.getServerEpoch(), msg);
             return false;
@@ -163,6 +266,20 @@ public class SequencerServer extends AbstractServer {
 
     ExecutorService executor = Executors.newSingleThreadExecutor(threadFactory);
 
+    /**
+     * Collects the conflict parameters of snapshots, off the token path.
+     */
+    private final ExecutorService snapshotExecutor = Executors.newSingleThreadExecutor(
+            new ServerThreadFactory("sequencer-snapshot-",
+                    new ServerThreadFactory.ExceptionHandler()));
+
+    /**
+     * Removes the conflict parameters trimmed from the cache, off the token path.
+     */
+    private final ExecutorService evictionExecutor = Executors.newSingleThreadExecutor(
+            new ServerThreadFactory("sequencer-evict-",
+                    new ServerThreadFactory.ExceptionHandler()));
+
     @Override
     public ExecutorService getExecutor() {
         return executor;
@@ -188,29 +305,37 @@ public class SequencerServer extends AbstractServer {
             cacheSize = Long.parseLong((String) opts.get("--sequencer-cache-size"));
 
         }
-        conflictToGlobalTailCache = Caffeine.newBuilder()
-                .maximumSize(cacheSize)
-                .removalListener((String k, Long v, RemovalCause cause) -> {
-                    if (!RemovalCause.REPLACED.equals(cause)) {
-                         log.trace("Updating maxConflictWildcard. Old value = '{}', new value='{}'"
-                                        + " conflictParam = '{}'. Removal cause = '{}'",
-                                maxConflictWildcard, v, k, cause);
-                        maxConflictWildcard = Math.max(v, maxConflictWildcard);
-                    }
-                })
-                .recordStats()
-                .build();
+        conflictToGlobalTailCache = new SequencerConflictCache(cacheSize, v -> {
+            log.trace("Updating maxConflictWildcard. Old value = '{}', new value='{}'",
+                    maxConflictWildcard, v);
+            maxConflictWildcard = Math.max(v, maxConflictWildcard);
+        }, evictionExecutor);
     }
 
     /**
     * Get the conflict hash code for a stream ID and conflict param.
     *
     * @param streamId      The stream ID.
-    * @param conflictParam The conflict parameter.
+    * @param conflictParam The fingerprint of the conflict parameter.
     * @return A conflict hash code.
     */
-    private String getConflictHashCode(UUID streamId, byte[] conflictParam) {
-        return streamId.toString() + Utils.bytesToHex(conflictParam);
+    private String getConflictHashCode(UUID streamId, long conflictParam) {
+        return streamId.toString() + Long.toHexString(conflictParam);
+    }
+
+    /**
+     * Add a conflict hash code to a list of conflict tails, as its stream ID and conflict
+     * param.
+     *
+     * @param conflictTails The list to add to.
+     * @param conflictKey   A conflict hash code, see {@link #getConflictHashCode(UUID, long)}.
+     * @param address       The address at which the conflict param was last written.
+     */
+    private static void addConflictTail(ConflictTailList conflictTails, String conflictKey,
+                                        long address) {
+        conflictTails.add(UUID.fromString(conflictKey.substring(0, UUID_STRING_LENGTH)),
+                Long.parseUnsignedLong(conflictKey.substring(UUID_STRING_LENGTH), HEX_RADIX),
+                address);
     }
 
     /**
@@ -240,18 +365,18 @@ public class SequencerServer extends AbstractServer {
 
         AtomicReference<TokenType> response = new AtomicReference<>(TokenType.NORMAL);
 
-        for (Map.Entry<UUID, Set<byte[]>> entry : txInfo.getConflictSet().entrySet()) {
+        for (Map.Entry<UUID, long[]> entry : txInfo.getConflictSet().entrySet()) {
             if (response.get() != TokenType.NORMAL) {
                 break;
             }
 
             // if conflict-parameters are present, check for conflict based on conflict-parameter
             // updates
-            Set<byte[]> conflictParamSet = entry.getValue();
-            if (conflictParamSet != null && conflictParamSet.size() > 0) {
+            long[] conflictParamSet = entry.getValue();
+            if (conflictParamSet != null && conflictParamSet.length > 0) {
                 // for each key pair, check for conflict;
                 // if not present, check against the wildcard
-                for (byte[] conflictParam : conflictParamSet) {
+                for (long conflictParam : conflictParamSet) {
 
                     String conflictKeyHash = getConflictHashCode(entry.getKey(),
                             conflictParam);
@@ -261,11 +386,23 @@ public class SequencerServer extends AbstractServer {
 
                     if (v != null && v > txSnapshotTimestamp) {
                         log.debug("ABORT[{}] conflict-key[{}](ts={})", txInfo, conflictParam, v);
-                        conflictKey.set(conflictParam);
+                        conflictKey.set(TxResolutionInfo.fingerprintToBytes(conflictParam));
                         response.set(TokenType.TX_ABORT_CONFLICT);
                         break;
                     }
 
+                    // If this sequencer was bootstrapped from a snapshot, the conflict keys
+                    // written to this stream between the snapshot and the bootstrap are unknown.
+                    long gapTail = snapshotGapStreamTails.get(entry.getKey(),
+                            Address.NON_EXIST);
+                    if (gapTail > txSnapshotTimestamp) {
+                        log.debug("ABORT[{}] snapshot-ts[{}] New Sequencer gap-stream[{}](ts={})",
+                                txInfo, txSnapshotTimestamp,
+                                Utils.toReadableId(entry.getKey()), gapTail);
+                        response.set(TX_ABORT_NEWSEQ);
+                        break;
+                    }
+
                     // The maxConflictNewSequencer is modified whenever a server is elected
                     // as the 'new' sequencer, we immediately set its value to the max timestamp
                     // evicted from the cache at that time. If a txSnapshotTimestamp falls
@@ -290,17 +427,12 @@ public class SequencerServer extends AbstractServer {
                 }
             } else { // otherwise, check for conflict based on streams updates
                 UUID streamId = entry.getKey();
-                streamTailToGlobalTailMap.compute(streamId, (k, v) -> {
-                    if (v == null) {
-                        return null;
-                    }
-                    if (v > txSnapshotTimestamp) {
-                        log.debug("ABORT[{}] conflict-stream[{}](ts={})",
-                                txInfo, Utils.toReadableId(streamId), v);
-                        response.set(TokenType.TX_ABORT_CONFLICT);
-                    }
-                    return v;
-                });
+                long v = streamTailToGlobalTailMap.get(streamId, Address.NON_EXIST);
+                if (v > txSnapshotTimestamp) {
+                    log.debug("ABORT[{}] conflict-stream[{}](ts={})",
+                            txInfo, Utils.toReadableId(streamId), v);
+                    response.set(TokenType.TX_ABORT_CONFLICT);
+                }
             }
         }
 
@@ -329,7 +461,7 @@ public class SequencerServer extends AbstractServer {
             streamTails = Collections.emptyList();
         } else if (req.getStreams().size() == 1) {
             // single stream query
-            token = new Token(streamTailToGlobalTailMap.getOrDefault(streams.get(0), Address.NON_EXIST), sequencerEpoch);
+            token = new Token(streamTailToGlobalTailMap.get(streams.get(0), Address.NON_EXIST), sequencerEpoch);
             streamTails = Collections.emptyList();
         } else {
             // multiple stream query, the token is populated with the global tail and the tail queries are stored in
@@ -337,7 +469,7 @@ public class SequencerServer extends AbstractServer {
             token = new Token(globalLogTail.get() - 1, sequencerEpoch);
             streamTails = new ArrayList<>(streams.size());
             for (int x = 0; x < streams.size(); x++) {
-                streamTails.add(streamTailToGlobalTailMap.getOrDefault(streams.get(x), Address.NON_EXIST));
+                streamTails.add(streamTailToGlobalTailMap.get(streams.get(x), Address.NON_EXIST));
             }
         }
 
@@ -357,17 +489,303 @@ public class SequencerServer extends AbstractServer {
             trimMark = msg.getPayload();
         }
 
-        long entries = 0;
-        for (Map.Entry<String, Long> entry : conflictToGlobalTailCache.asMap().entrySet()) {
-            if (entry.getValue() < trimMark) {
-                conflictToGlobalTailCache.invalidate(entry.getKey());
-                entries++;
+        // Whole buckets of conflict parameters are dropped at once, the sequencer lock is not
+        // held while their entries are removed.
+        long entries = conflictToGlobalTailCache.trim(trimMark);
+        log.info("trimCache: Evicted {} entries", entries);
+        r.sendResponse(ctx, msg, CorfuMsgType.ACK.msg());
+    }
+
+    /**
+     * Service an incoming request for a snapshot of the sequencer state.
+     * This is served by the primary sequencer, and the snapshot is shipped to the standby
+     * sequencers.
+     *
+     * <p>Only the copy-on-write snapshot of the stream tails is taken under the sequencer lock.
+     * The conflict parameters are then collected on the snapshot executor, while tokens keep
+     * being issued. A parameter written meanwhile may be collected with an address above the
+     * global tail of the snapshot, which is conservative, and the wildcard is read once they
+     * are collected, so that it covers the parameters evicted meanwhile.
+     */
+    @ServerHandler(type = CorfuMsgType.SEQUENCER_SNAPSHOT_REQUEST)
+    public void handleSnapshotRequest(CorfuMsg msg, ChannelHandlerContext ctx,
+                                      IServerRouter r) {
+        final long epoch;
+        final long globalTail;
+        final long snapshotTrimMark;
+        final StreamTailMap streamTails;
+        synchronized (this) {
+            epoch = sequencerEpoch;
+            globalTail = globalLogTail.get();
+            snapshotTrimMark = trimMark;
+            streamTails = streamTailToGlobalTailMap.snapshot();
+        }
+
+        snapshotExecutor.submit(() -> {
+            ConflictTailList conflictTails = new ConflictTailList();
+            conflictToGlobalTailCache.forEach((conflictKey, address) ->
+                    addConflictTail(conflictTails, conflictKey, address));
+
+            SequencerSnapshot snapshot;
+            synchronized (this) {
+                // The conflict cache is reset by a bootstrap, the snapshot is then dropped.
+                snapshot = sequencerEpoch != epoch ? SequencerSnapshot.empty()
+                        : new SequencerSnapshot(epoch, globalTail, snapshotTrimMark,
+                        Math.max(maxConflictWildcard, maxConflictNewSequencer), streamTails,
+                        conflictTails);
             }
+            log.debug("handleSnapshotRequest: snapshot at globalTail = {} with {} streams and "
+                            + "{} conflict keys", snapshot.getGlobalTail(),
+                    snapshot.getStreamTails().size(), snapshot.getConflictTails().size());
+            r.sendResponse(ctx, msg,
+                    CorfuMsgType.SEQUENCER_SNAPSHOT_RESPONSE.payloadMsg(snapshot));
+        });
+    }
+
+    /**
+     * Service an incoming snapshot shipped from the primary sequencer.
+     * The snapshot is retained until this sequencer is bootstrapped from it. A snapshot older
+     * than the retained one is discarded.
+     */
+    @ServerHandler(type = CorfuMsgType.SEQUENCER_SNAPSHOT_INSTALL)
+    public void handleSnapshotInstall(CorfuPayloadMsg<SequencerSnapshot> msg,
+                                      ChannelHandlerContext ctx, IServerRouter r) {
+        SequencerSnapshot snapshot = msg.getPayload();
+        SequencerSnapshot current = standbySnapshot;
+        if (snapshot.getSequencerEpoch() < current.getSequencerEpoch()
+                || (snapshot.getSequencerEpoch().equals(current.getSequencerEpoch())
+                && snapshot.getGlobalTail() < current.getGlobalTail())) {
+            log.debug("handleSnapshotInstall: Discarding stale snapshot at globalTail = {}, "
+                    + "current snapshot at globalTail = {}", snapshot.getGlobalTail(),
+                    current.getGlobalTail());
+            r.sendResponse(ctx, msg, CorfuMsgType.NACK.msg());
+            return;
         }
-        log.info("trimCache: Evicted {} entries", entries);
+        standbySnapshot = snapshot;
         r.sendResponse(ctx, msg, CorfuMsgType.ACK.msg());
     }
 
+    /**
+     * Service an incoming request for the coverage of the installed standby snapshot.
+     */
+    @ServerHandler(type = CorfuMsgType.SEQUENCER_STANDBY_SNAPSHOT_REQUEST)
+    public void handleStandbySnapshotRequest(CorfuMsg msg, ChannelHandlerContext ctx,
+                                             IServerRouter r) {
+        r.sendResponse(ctx, msg, CorfuMsgType.SEQUENCER_SNAPSHOT_RESPONSE
+                .payloadMsg(standbySnapshot.header()));
+    }
+
+    /**
+     * Returns all the streams involved in a token request, written or read.
+     */
+    private Set<UUID> getRequestStreams(TokenRequest req) {
+        Set<UUID> streams = new HashSet<>();
+        if (req.getStreams() != null) {
+            streams.addAll(req.getStreams());
+        }
+        if (req.getTxnResolution() != null) {
+            streams.addAll(req.getTxnResolution().getConflictSet().keySet());
+            streams.addAll(req.getTxnResolution().getWriteConflictParams().keySet());
+        }
+        return streams;
+    }
+
+    /**
+     * Returns true if a stream of the token request is fenced by a prepared cross-shard
+     * request. Fences which timed out are released.
+     */
+    private boolean isFenced(TokenRequest req) {
+        if (fencedStreams.isEmpty()) {
+            return false;
+        }
+        for (UUID streamId : getRequestStreams(req)) {
+            UUID requestId = fencedStreams.get(streamId);
+            if (requestId == null) {
+                continue;
+            }
+            if (preparedShardRequests.get(requestId).getDeadline() - System.nanoTime() > 0) {
+                return true;
+            }
+            log.warn("isFenced: Releasing fences of timed out request {}", requestId);
+            releaseFences(requestId);
+        }
+        return false;
+    }
+
+    /**
+     * Releases the fences of a prepared cross-shard request.
+     *
+     * @return The prepared request, or null if it is not prepared on this shard.
+     */
+    private PreparedShardRequest releaseFences(UUID requestId) {
+        PreparedShardRequest prepared = preparedShardRequests.remove(requestId);
+        if (prepared != null) {
+            prepared.getStreams().forEach(streamId -> fencedStreams.remove(streamId, requestId));
+        }
+        return prepared;
+    }
+
+    /**
+     * Reserves global addresses, from the global log tail or, for a shard, from its lease.
+     *
+     * <p>The addresses of a shard are also above the tails of the streams written by the
+     * request, which a cross-shard request may have committed above the lease. The part of
+     * the lease below these tails is skipped, or the whole lease is dropped if the rest of
+     * it does not hold enough addresses.
+     *
+     * @param req The token request to reserve addresses for.
+     * @return The first reserved address, or {@link Address#NON_ADDRESS} if the lease of this
+     *     shard does not hold enough addresses.
+     */
+    private long reserveAddresses(TokenRequest req) {
+        final long numTokens = req.getNumTokens();
+        if (!addressLeasing) {
+            return globalLogTail.getAndAdd(numTokens);
+        }
+
+        long start = leaseNext;
+        for (UUID streamId : req.getStreams()) {
+            start = Math.max(start, streamTailToGlobalTailMap.get(streamId,
+                    Address.NON_EXIST) + 1);
+        }
+        if (req.getTxnResolution() != null) {
+            for (UUID streamId : req.getTxnResolution().getWriteConflictParams().keySet()) {
+                start = Math.max(start, streamTailToGlobalTailMap.get(streamId,
+                        Address.NON_EXIST) + 1);
+            }
+        }
+
+        if (leaseEnd - start < numTokens) {
+            leaseNext = leaseEnd;
+            return Address.NON_ADDRESS;
+        }
+        leaseNext = start + numTokens;
+        leaseLastIssue = System.nanoTime();
+        return start;
+    }
+
+    /**
+     * Service an incoming block of addresses leased to this shard by the primary sequencer.
+     * The lease replaces the current one only if the current one holds fewer addresses, so
+     * that concurrent grants do not waste each other.
+     */
+    @ServerHandler(type = CorfuMsgType.SEQUENCER_LEASE_GRANT)
+    public synchronized void handleLeaseGrant(CorfuPayloadMsg<SequencerLease> msg,
+                                              ChannelHandlerContext ctx, IServerRouter r) {
+        SequencerLease lease = msg.getPayload();
+        if (!addressLeasing
+                || leaseEnd - leaseNext >= lease.getCount()
+                || lease.getStart() < Math.max(leaseFloor, leaseEnd)) {
+            log.debug("handleLeaseGrant: Rejecting lease {}, current lease [{}, {}), floor {}",
+                    lease, leaseNext, leaseEnd, leaseFloor);
+            r.sendResponse(ctx, msg, CorfuMsgType.NACK.msg());
+            return;
+        }
+        leaseNext = lease.getStart();
+        leaseEnd = lease.getStart() + lease.getCount();
+        leaseLastIssue = System.nanoTime();
+        r.sendResponse(ctx, msg, CorfuMsgType.ACK.msg());
+    }
+
+    /**
+     * Service an incoming query of the lowest address this shard may still issue, sent to the
+     * shards with the tail of the primary sequencer when the global tail is queried.
+     *
+     * <p>The lease floor is raised to the tail of the primary sequencer, and a lease which has
+     * been idle for {@link SequencerServer#SHARD_LEASE_IDLE_TIMEOUT_NANOS} is dropped. The
+     * response carries the next address of the lease, or {@link Address#MAX} if the shard
+     * holds no lease.
+     */
+    @ServerHandler(type = CorfuMsgType.SEQUENCER_SHARD_TAIL_QUERY)
+    public synchronized void handleShardTailQuery(CorfuPayloadMsg<Long> msg,
+                                                  ChannelHandlerContext ctx, IServerRouter r) {
+        long next = Address.MAX;
+        if (addressLeasing) {
+            leaseFloor = Math.max(leaseFloor, msg.getPayload());
+            if (leaseNext < leaseEnd
+                    && System.nanoTime() - leaseLastIssue > SHARD_LEASE_IDLE_TIMEOUT_NANOS) {
+                log.debug("handleShardTailQuery: Dropping idle lease [{}, {})",
+                        leaseNext, leaseEnd);
+                leaseNext = leaseEnd;
+            }
+            if (leaseNext < leaseEnd) {
+                next = leaseNext;
+            }
+        }
+        r.sendResponse(ctx, msg, CorfuMsgType.TOKEN_RES.payloadMsg(new TokenResponse(
+                TokenType.NORMAL, TokenResponse.NO_CONFLICT_KEY, new Token(next, sequencerEpoch),
+                Collections.emptyMap(), Collections.emptyList())));
+    }
+
+    /**
+     * Service the first phase of a cross-shard token request. If the request can commit on
+     * this shard, its streams are fenced until it is committed or aborted.
+     */
+    @ServerHandler(type = CorfuMsgType.SEQUENCER_SHARD_PREPARE)
+    public synchronized void handleShardPrepare(CorfuPayloadMsg<ShardPrepareRequest> msg,
+                                                ChannelHandlerContext ctx, IServerRouter r) {
+        final UUID requestId = msg.getPayload().getRequestId();
+        final TokenRequest req = msg.getPayload().getTokenRequest();
+
+        TokenType tokenType = TokenType.NORMAL;
+        AtomicReference<byte[]> conflictKey = new AtomicReference<>(TokenResponse.NO_CONFLICT_KEY);
+        if (isFenced(req)) {
+            tokenType = SHARD_FENCED;
+        } else if (req.getReqType() == TokenRequest.TK_TX) {
+            tokenType = txnCanCommit(req.getTxnResolution(), conflictKey);
+        }
+
+        if (tokenType == TokenType.NORMAL) {
+            Set<UUID> streams = getRequestStreams(req);
+            preparedShardRequests.put(requestId, new PreparedShardRequest(req, streams,
+                    System.nanoTime() + SHARD_FENCE_TIMEOUT_NANOS));
+            streams.forEach(streamId -> fencedStreams.put(streamId, requestId));
+        }
+
+        long address = tokenType == TokenType.NORMAL ? Address.NON_ADDRESS : Address.ABORTED;
+        r.sendResponse(ctx, msg, CorfuMsgType.TOKEN_RES.payloadMsg(new TokenResponse(tokenType,
+                conflictKey.get(), new Token(address, sequencerEpoch), Collections.emptyMap(),
+                Collections.emptyList())));
+    }
+
+    /**
+     * Service the second phase of a cross-shard token request, which releases its fences and,
+     * unless aborted, applies it at the address allocated by the primary sequencer.
+     */
+    @ServerHandler(type = CorfuMsgType.SEQUENCER_SHARD_COMMIT)
+    public synchronized void handleShardCommit(CorfuPayloadMsg<ShardCommitRequest> msg,
+                                               ChannelHandlerContext ctx, IServerRouter r) {
+        final ShardCommitRequest commit = msg.getPayload();
+        final PreparedShardRequest prepared = releaseFences(commit.getRequestId());
+
+        if (commit.isAbort()) {
+            r.sendResponse(ctx, msg, CorfuMsgType.TOKEN_RES.payloadMsg(new TokenResponse(
+                    TokenType.NORMAL, TokenResponse.NO_CONFLICT_KEY,
+                    new Token(Address.ABORTED, sequencerEpoch), Collections.emptyMap(),
+                    Collections.emptyList())));
+            return;
+        }
+
+        if (prepared == null) {
+            // The fences timed out, the streams may have moved past the allocated address.
+            log.warn("handleShardCommit: Request {} is not prepared", commit.getRequestId());
+            r.sendResponse(ctx, msg, CorfuMsgType.TOKEN_RES.payloadMsg(new TokenResponse(
+                    SHARD_FENCED, TokenResponse.NO_CONFLICT_KEY,
+                    new Token(Address.ABORTED, sequencerEpoch), Collections.emptyMap(),
+                    Collections.emptyList())));
+            return;
+        }
+
+        // The tails of the streams move to the committed address, and the lease of this
+        // shard then only issues addresses above them on these streams.
+        final TokenRequest req = prepared.getTokenRequest();
+        Map<UUID, Long> backPointerMap = applyAllocation(req, commit.getAddress());
+        r.sendResponse(ctx, msg, CorfuMsgType.TOKEN_RES.payloadMsg(new TokenResponse(
+                TokenType.NORMAL, TokenResponse.NO_CONFLICT_KEY,
+                new Token(commit.getAddress(), sequencerEpoch), backPointerMap,
+                Collections.emptyList())));
+    }
+
     /**
      * Service an incoming request to reset the sequencer.
      */
@@ -375,7 +793,7 @@ public class SequencerServer extends AbstractServer {
     public synchronized void resetServer(CorfuPayloadMsg<SequencerTailsRecoveryMsg> msg,
                                          ChannelHandlerContext ctx, IServerRouter r) {
         long initialToken = msg.getPayload().getGlobalTail();
-        final Map<UUID, Long> streamTails = msg.getPayload().getStreamTails();
+        final StreamTailMap streamTails = msg.getPayload().getStreamTails();
         final long bootstrapMsgEpoch = msg.getPayload().getSequencerEpoch();
 
         // Boolean flag to denote whether this bootstrap message is just updating an existing
@@ -383,6 +801,8 @@ public class SequencerServer extends AbstractServer {
         // NOT_READY sequencer.
         final boolean bootstrapWithoutTailsUpdate = msg.getPayload()
                 .getBootstrapWithoutTailsUpdate();
+        final long snapshotTail = msg.getPayload().getSnapshotTail();
+        final SequencerSnapshot snapshot = standbySnapshot;
 
         // If sequencerEpoch is -1 (startup) OR bootstrapMsgEpoch is not the consecutive epoch of
         // the sequencerEpoch then the sequencer should not accept bootstrapWithoutTailsUpdate
@@ -404,6 +824,15 @@ public class SequencerServer extends AbstractServer {
             return;
         }
 
+        // A bootstrap from a snapshot is only valid if this sequencer holds that very snapshot,
+        // as the stream tails in the message only cover the log written after it.
+        if (Address.isAddress(snapshotTail) && snapshot.getGlobalTail() != snapshotTail) {
+            log.warn("Cannot bootstrap from snapshot at {}. Installed snapshot at {}",
+                    snapshotTail, snapshot.getGlobalTail());
+            r.sendResponse(ctx, msg, CorfuMsgType.NACK.msg());
+            return;
+        }
+
         // If the sequencer is reset, then we can't know when was
         // the latest update to any stream or conflict parameter.
         // hence, we will accept any bootstrap message with a higher epoch and forget any existing
@@ -411,7 +840,24 @@ public class SequencerServer extends AbstractServer {
         //
         // Note, this is correct, but conservative (may lead to false abort).
         // It is necessary because we reset the sequencer.
-        if (!bootstrapWithoutTailsUpdate) {
+        if (!bootstrapWithoutTailsUpdate && Address.isAddress(snapshotTail)) {
+            // Bootstrapping from a snapshot, the conflict cache and the stream tails are
+            // restored from the snapshot and the streams written after it are merged in.
+            globalLogTail.set(initialToken);
+            trimMark = Math.max(trimMark, snapshot.getTrimMark());
+            conflictToGlobalTailCache.invalidateAll();
+            maxConflictWildcard = snapshot.getMaxConflictWildcard();
+            maxConflictNewSequencer = maxConflictWildcard;
+            snapshot.getConflictTails().forEach((streamId, conflictParam, address) ->
+                    conflictToGlobalTailCache.put(getConflictHashCode(streamId, conflictParam),
+                            address));
+
+            streamTailToGlobalTailMap.clear();
+            streamTailToGlobalTailMap.putAll(snapshot.getStreamTails());
+            streamTails.forEach(streamTailToGlobalTailMap::putMax);
+            snapshotGapStreamTails = streamTails;
+            standbySnapshot = SequencerSnapshot.empty();
+        } else if (!bootstrapWithoutTailsUpdate) {
             globalLogTail.set(initialToken);
             maxConflictWildcard = initialToken - 1;
             maxConflictNewSequencer = maxConflictWildcard;
@@ -420,15 +866,26 @@ public class SequencerServer extends AbstractServer {
             // Clear the existing map as it could have been populated by an earlier reset.
             streamTailToGlobalTailMap.clear();
             streamTailToGlobalTailMap.putAll(streamTails);
+            snapshotGapStreamTails = new StreamTailMap();
+        }
+
+        if (!bootstrapWithoutTailsUpdate) {
+            // A shard issues no address below the global tail it is bootstrapped with, and
+            // waits for a lease. Pending cross-shard requests are forgotten.
+            addressLeasing = msg.getPayload().getAddressLeasing();
+            leaseNext = 0L;
+            leaseEnd = 0L;
+            leaseFloor = initialToken;
+            preparedShardRequests.clear();
+            fencedStreams.clear();
         }
 
         // Mark the sequencer as ready after the tails have been populated.
         sequencerEpoch = bootstrapMsgEpoch;
         serverContext.setSequencerEpoch(bootstrapMsgEpoch);
 
-        log.info("Sequencer reset with token = {}, streamTailToGlobalTailMap = {},"
-                        + " sequencerEpoch = {}",
-                globalLogTail.get(), streamTailToGlobalTailMap, sequencerEpoch);
+        log.info("Sequencer reset with token = {}, {} stream tails, sequencerEpoch = {}",
+                globalLogTail.get(), streamTailToGlobalTailMap.size(), sequencerEpoch);
         r.sendResponse(ctx, msg, CorfuMsgType.ACK.msg());
     }
 
@@ -452,6 +909,15 @@ public class SequencerServer extends AbstractServer {
                                           ChannelHandlerContext ctx, IServerRouter r) {
         TokenRequest req = msg.getPayload();
 
+        // a request on streams fenced by a cross-shard request must be retried
+        if (req.getReqType() != TokenRequest.TK_QUERY && isFenced(req)) {
+            r.sendResponse(ctx, msg, CorfuMsgType.TOKEN_RES.payloadMsg(new TokenResponse(
+                    SHARD_FENCED, TokenResponse.NO_CONFLICT_KEY,
+                    new Token(Address.ABORTED, sequencerEpoch), Collections.emptyMap(),
+                    Collections.emptyList())));
+            return;
+        }
+
         // dispatch request handler according to request type
         switch (req.getReqType()) {
             case TokenRequest.TK_QUERY:
@@ -484,7 +950,12 @@ public class SequencerServer extends AbstractServer {
                                 ChannelHandlerContext ctx, IServerRouter r) {
         final TokenRequest req = msg.getPayload();
 
-        Token token = new Token(globalLogTail.getAndAdd(req.getNumTokens()), sequencerEpoch);
+        long currentTail = reserveAddresses(req);
+        if (!Address.isAddress(currentTail)) {
+            sendLeaseRequired(msg, ctx, r);
+            return;
+        }
+        Token token = new Token(currentTail, sequencerEpoch);
         r.sendResponse(ctx, msg, CorfuMsgType.TOKEN_RES.payloadMsg(new TokenResponse(
                 TokenType.NORMAL, TokenResponse.NO_CONFLICT_KEY, token, Collections.emptyMap(), Collections.emptyList())));
 
@@ -545,63 +1016,92 @@ public class SequencerServer extends AbstractServer {
 
         // extend the tail of the global log by the requested # of tokens
         // currentTail is the first available position in the global log
-        long currentTail = globalLogTail.getAndAdd(req.getNumTokens());
+        long currentTail = reserveAddresses(req);
+        if (!Address.isAddress(currentTail)) {
+            sendLeaseRequired(msg, ctx, r);
+            return;
+        }
+        Map<UUID, Long> backPointerMap = applyAllocation(req, currentTail);
+
+        // return the token response with the new global tail
+        // and the streams backpointers
+        Token token = new Token(currentTail, sequencerEpoch);
+        r.sendResponse(ctx, msg, CorfuMsgType.TOKEN_RES.payloadMsg(new TokenResponse(
+                TokenType.NORMAL, TokenResponse.NO_CONFLICT_KEY, token,
+                backPointerMap, Collections.emptyList())));
+    }
+
+    /**
+     * Responds to a shard token request which its lease cannot serve.
+     */
+    private void sendLeaseRequired(CorfuPayloadMsg<TokenRequest> msg,
+                                   ChannelHandlerContext ctx, IServerRouter r) {
+        r.sendResponse(ctx, msg, CorfuMsgType.TOKEN_RES.payloadMsg(new TokenResponse(
+                SHARD_LEASE_REQUIRED, TokenResponse.NO_CONFLICT_KEY,
+                new Token(Address.NON_ADDRESS, sequencerEpoch), Collections.emptyMap(),
+                Collections.emptyList())));
+    }
+
+    /**
+     * Applies an allocation of log addresses to the stream tails and the conflict parameters.
+     *
+     * @param req         the token request
+     * @param currentTail the first address allocated to the request
+     * @return the backpointers of the streams of the request
+     */
+    private Map<UUID, Long> applyAllocation(TokenRequest req, long currentTail) {
         long newTail = currentTail + req.getNumTokens();
 
         // for each streams:
         //   1. obtain the last back-pointer for this streams, if exists; -1L otherwise.
         //   2. record the new global tail as back-pointer for this streams.
         //   3. extend the tail by the requested # tokens.
-        ImmutableMap.Builder<UUID, Long> backPointerMap = ImmutableMap.builder();
-        for (UUID id : req.getStreams()) {
-
+        List<UUID> streams = req.getStreams();
+        Map<UUID, Long> backPointerMap;
+        if (streams.size() == 1) {
             // step 1. and 2. (comment above)
-            streamTailToGlobalTailMap.compute(id, (k, v) -> {
-                if (v == null) {
-                    backPointerMap.put(k, Address.NON_EXIST);
-                    return newTail - 1;
-                } else {
-                    backPointerMap.put(k, v);
-                    return newTail - 1;
-                }
-            });
+            UUID id = streams.get(0);
+            backPointerMap = Collections.singletonMap(id,
+                    streamTailToGlobalTailMap.put(id, newTail - 1, Address.NON_EXIST));
+        } else {
+            backPointerMap = new HashMap<>(streams.size() * 2);
+            for (UUID id : streams) {
+                // step 1. and 2. (comment above)
+                backPointerMap.put(id,
+                        streamTailToGlobalTailMap.put(id, newTail - 1, Address.NON_EXIST));
+            }
         }
 
         // update the cache of conflict parameters
         if (req.getTxnResolution() != null) {
-            req.getTxnResolution().getWriteConflictParams().entrySet()
-                    .stream()
-                    // for each entry
-                    .forEach(txEntry ->
-                            // and for each conflict param
-                            txEntry.getValue().stream().forEach(conflictParam ->
-                                    // insert an entry with the new timestamp
-                                    // using the hash code based on the param
-                                    // and the stream id.
-                                    conflictToGlobalTailCache.put(
-                                            getConflictHashCode(txEntry
-                                                    .getKey(), conflictParam),
-                                            newTail - 1)));
+            // for each entry
+            req.getTxnResolution().getWriteConflictParams().forEach((streamId, params) -> {
+                // and for each conflict param
+                for (long conflictParam : params) {
+                    // insert an entry with the new timestamp
+                    // using the hash code based on the param
+                    // and the stream id.
+                    conflictToGlobalTailCache.put(getConflictHashCode(streamId, conflictParam),
+                            newTail - 1);
+                }
+            });
         }
 
         log.trace("token {} backpointers {}",
-                currentTail, backPointerMap.build());
-        // return the token response with the new global tail
-        // and the streams backpointers
-        Token token = new Token(currentTail, sequencerEpoch);
-        r.sendResponse(ctx, msg, CorfuMsgType.TOKEN_RES.payloadMsg(new TokenResponse(
-                TokenType.NORMAL, TokenResponse.NO_CONFLICT_KEY, token,
-                backPointerMap.build(), Collections.emptyList())));
+                currentTail, backPointerMap);
+        return backPointerMap;
     }
 
     @Override
     public void shutdown() {
         super.shutdown();
         executor.shutdownNow();
+        snapshotExecutor.shutdownNow();
+        evictionExecutor.shutdownNow();
     }
 
     @VisibleForTesting
-    public Cache<String, Long> getConflictToGlobalTailCache() {
+    public SequencerConflictCache getConflictToGlobalTailCache() {
         return conflictToGlobalTailCache;
     }
 }
@@ -170,11 +170,51 @@ public class ServerContext implements AutoCloseable {
         return ChannelImplementation.valueOf(type.toUpperCase());
     }
 
+    /**
+     * Whether the event loops should busy poll their channels instead of blocking.
+     *
+     * @return  True, if busy polling is enabled.
+     */
+    public boolean isBusyPollEnabled() {
+        return Boolean.TRUE.equals(getServerConfig(Boolean.class, "--busy-poll"));
+    }
+
+    /**
+     * The path of the unix domain socket the server also listens on, for runtimes on the
+     * same host.
+     *
+     * @return  The path of the socket, or null if the server only listens on TCP.
+     */
+    public String getUnixSocketPath() {
+        return getServerConfig(String.class, "--unix-socket");
+    }
+
+    /**
+     * Whether TCP segments should be acknowledged immediately, on epoll channels.
+     *
+     * @return  True, if TCP quick acknowledgements are enabled.
+     */
+    public boolean isTcpQuickAckEnabled() {
+        return Boolean.TRUE.equals(getServerConfig(Boolean.class, "--tcp-quickack"));
+    }
+
+    /**
+     * Whether epoll channels should be level-triggered rather than edge-triggered.
+     *
+     * @return  True, if epoll channels are level-triggered.
+     */
+    public boolean isEpollLevelTriggered() {
+        return Boolean.TRUE.equals(getServerConfig(Boolean.class, "--epoll-level-triggered"));
+    }
+
 
     public CorfuRuntimeParameters getDefaultRuntimeParameters() {
         return CorfuRuntime.CorfuRuntimeParameters.builder()
                 .nettyEventLoop(clientGroup)
                 .shutdownNettyEventLoop(false)
+                .socketType(getChannelImplementation())
+                .tcpQuickAckEnabled(isTcpQuickAckEnabled())
+                .epollEdgeTriggered(!isEpollLevelTriggered())
                 .tlsEnabled((Boolean) serverConfig.get("--enable-tls"))
                 .keyStore((String) serverConfig.get("--keystore"))
                 .ksPasswordFile((String) serverConfig.get("--keystore-password-file"))
@@ -489,7 +529,7 @@ public class ServerContext implements AutoCloseable {
         final int numThreads = requestedThreads == 0
                 ? Runtime.getRuntime().availableProcessors() * 2
                 : requestedThreads;
-        EventLoopGroup group = getChannelImplementation().getGenerator()
+        EventLoopGroup group = getChannelImplementation().getGenerator(isBusyPollEnabled())
             .generate(numThreads, threadFactory);
 
         log.info("getWorkerGroup: Type {} with {} threads",
@@ -511,7 +551,7 @@ public class ServerContext implements AutoCloseable {
         final int numThreads = requestedThreads == 0
             ? Runtime.getRuntime().availableProcessors() * 2
             : requestedThreads;
-        EventLoopGroup group = getChannelImplementation().getGenerator()
+        EventLoopGroup group = getChannelImplementation().getGenerator(isBusyPollEnabled())
             .generate(numThreads, threadFactory);
 
         log.info("getClientGroup: Type {} with {} threads",
@@ -20,4 +20,13 @@ public @interface ServerHandler {
      * @return the type of corfu message
      */
     CorfuMsgType type();
+
+    /**
+     * Returns whether the handler never blocks. Non-blocking handlers are run inline on the
+     * event loop which received the message, instead of being handed off to the executor of
+     * the server. Only handlers which do not wait on locks, disk or network should be
+     * declared non-blocking, since they hold up every other channel of the event loop.
+     * @return true if the handler does not block
+     */
+    boolean nonBlocking() default false;
 }
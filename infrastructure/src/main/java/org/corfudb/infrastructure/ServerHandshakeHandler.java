@@ -7,12 +7,14 @@ import io.netty.handler.timeout.ReadTimeoutException;
 import io.netty.handler.timeout.ReadTimeoutHandler;
 import io.netty.util.AttributeKey;
 import lombok.extern.slf4j.Slf4j;
+import org.corfudb.protocols.wireprotocol.CompressionCodec;
 import org.corfudb.protocols.wireprotocol.CorfuMsg;
 import org.corfudb.protocols.wireprotocol.CorfuMsgType;
 import org.corfudb.protocols.wireprotocol.CorfuPayloadMsg;
 import org.corfudb.protocols.wireprotocol.HandshakeMsg;
 import org.corfudb.protocols.wireprotocol.HandshakeResponse;
 import org.corfudb.protocols.wireprotocol.HandshakeState;
+import org.corfudb.protocols.wireprotocol.NettyCompressionHandler;
 
 import java.util.LinkedList;
 import java.util.Queue;
@@ -117,15 +119,31 @@ public class ServerHandshakeHandler extends ChannelDuplexHandler {
         log.debug("channelRead: Sending handshake response: Node Id: {} Corfu Version: {}",
                 this.nodeId, this.corfuVersion);
 
+        // Accept the codec requested by the client, if this pipeline can compress.
+        NettyCompressionHandler compressionHandler =
+                ctx.pipeline().get(NettyCompressionHandler.class);
+        CompressionCodec compressionCodec = compressionHandler == null
+                ? CompressionCodec.NONE : handshake.getPayload().getCompressionCodec();
+
         CorfuMsg handshakeResponse = CorfuMsgType.HANDSHAKE_RESPONSE
-                .payloadMsg(new HandshakeResponse(this.nodeId, this.corfuVersion));
+                .payloadMsg(new HandshakeResponse(this.nodeId, this.corfuVersion,
+                        compressionCodec, true));
         ctx.writeAndFlush(handshakeResponse);
 
+        // The response itself is sent uncompressed, the client enables compression as it
+        // reads it.
+        if (compressionCodec != CompressionCodec.NONE) {
+            log.info("channelRead: Compressing messages with {}.", compressionCodec);
+            compressionHandler.enable(compressionCodec,
+                    handshake.getPayload().getCompressionThreshold());
+        }
+
         // Flush messages in queue
         log.debug("channelRead: There are [{}] messages in queue to be flushed.", this.messages.size());
         while (!messages.isEmpty()) {
-            ctx.writeAndFlush(messages.poll());
+            ctx.write(messages.poll());
         }
+        ctx.flush();
 
         // Remove this handler from the pipeline; handshake is completed.
         log.info("channelRead: Removing handshake handler from pipeline.");
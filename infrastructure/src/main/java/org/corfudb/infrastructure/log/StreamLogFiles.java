@@ -18,6 +18,7 @@ import org.corfudb.format.Types.Metadata;
 import org.corfudb.format.Types.TrimEntry;
 import org.corfudb.infrastructure.ServerContext;
 import org.corfudb.protocols.logprotocol.CheckpointEntry;
+import org.corfudb.protocols.wireprotocol.CompressionCodec;
 import org.corfudb.protocols.wireprotocol.IMetadata;
 import org.corfudb.protocols.wireprotocol.LogData;
 import org.corfudb.runtime.exceptions.DataCorruptionException;
@@ -529,6 +530,10 @@ public class StreamLogFiles implements StreamLog, StreamLogWithRankedAddressSpac
         if (entry.hasThreadId()) {
             logData.setThreadId(entry.getThreadId());
         }
+        if (entry.hasPayloadCodec()) {
+            logData.setPayloadCodec(CompressionCodec.typeMap
+                    .get((byte) entry.getPayloadCodec()));
+        }
         if (entry.hasClientIdLeastSignificant() && entry.hasClientIdMostSignificant()){
             long lsd = entry.getClientIdLeastSignificant();
             long msd = entry.getClientIdMostSignificant();
@@ -953,6 +958,10 @@ public class StreamLogFiles implements StreamLog, StreamLogWithRankedAddressSpac
             logEntryBuilder.setThreadId(entry.getThreadId());
         }
 
+        if (entry.getPayloadCodec() != CompressionCodec.NONE) {
+            logEntryBuilder.setPayloadCodec(entry.getPayloadCodec().asByte());
+        }
+
         if (entry.hasCheckpointMetadata()) {
             logEntryBuilder.setCheckpointEntryType(
                     Types.CheckpointEntryType.forNumber(
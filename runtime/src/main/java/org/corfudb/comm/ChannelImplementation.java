@@ -3,13 +3,18 @@ package org.corfudb.comm;
 import io.netty.channel.Channel;
 import io.netty.channel.DefaultEventLoopGroup;
 import io.netty.channel.EventLoopGroup;
+import io.netty.channel.SelectStrategyFactory;
 import io.netty.channel.ServerChannel;
 import io.netty.channel.epoll.Epoll;
+import io.netty.channel.epoll.EpollDomainSocketChannel;
 import io.netty.channel.epoll.EpollEventLoopGroup;
+import io.netty.channel.epoll.EpollServerDomainSocketChannel;
 import io.netty.channel.epoll.EpollServerSocketChannel;
 import io.netty.channel.epoll.EpollSocketChannel;
 import io.netty.channel.kqueue.KQueue;
+import io.netty.channel.kqueue.KQueueDomainSocketChannel;
 import io.netty.channel.kqueue.KQueueEventLoopGroup;
+import io.netty.channel.kqueue.KQueueServerDomainSocketChannel;
 import io.netty.channel.kqueue.KQueueServerSocketChannel;
 import io.netty.channel.kqueue.KQueueSocketChannel;
 import io.netty.channel.local.LocalChannel;
@@ -17,6 +22,7 @@ import io.netty.channel.local.LocalServerChannel;
 import io.netty.channel.nio.NioEventLoopGroup;
 import io.netty.channel.socket.nio.NioServerSocketChannel;
 import io.netty.channel.socket.nio.NioSocketChannel;
+import java.nio.channels.spi.SelectorProvider;
 import java.util.concurrent.ThreadFactory;
 import javax.annotation.Nonnull;
 import lombok.AllArgsConstructor;
@@ -62,6 +68,111 @@ public enum ChannelImplementation {
     @Getter
     final EventLoopGroupGenerator generator;
 
+    /**
+     * A select strategy which never blocks: the event loop polls its channels without
+     * waiting (selectNow or a zero timeout epoll_wait) and spins until they become ready.
+     * This trades a core per event loop thread for a lower wake-up latency.
+     */
+    private static final SelectStrategyFactory BUSY_POLL_STRATEGY =
+            () -> (selectSupplier, hasTasks) -> selectSupplier.get();
+
+    /**
+     * Get the implementation actually used by this implementation on this platform.
+     *
+     * @return  The native implementation selected for {@link ChannelImplementation#AUTO},
+     *          or this implementation otherwise.
+     */
+    public ChannelImplementation resolve() {
+        if (this != AUTO) {
+            return this;
+        }
+        return Epoll.isAvailable() ? EPOLL : KQueue.isAvailable() ? KQUEUE : NIO;
+    }
+
+    /**
+     * Whether channels of this implementation are epoll channels, which accept the
+     * {@link io.netty.channel.epoll.EpollChannelOption}s.
+     *
+     * @return  True, if this implementation uses the native epoll transport.
+     */
+    public boolean isEpoll() {
+        return resolve() == EPOLL;
+    }
+
+    /**
+     * Whether this implementation can connect and listen on unix domain sockets.
+     *
+     * @return  True, if this implementation uses the native epoll or kqueue transport.
+     */
+    public boolean supportsDomainSockets() {
+        return resolve() == EPOLL || resolve() == KQUEUE;
+    }
+
+    /**
+     * Get the {@link Channel} class connecting to unix domain sockets with this implementation.
+     *
+     * @return  The domain socket channel class.
+     * @throws UnsupportedOperationException If this implementation does not support domain
+     *                                       sockets.
+     */
+    public Class<? extends Channel> getDomainSocketChannelClass() {
+        switch (resolve()) {
+            case EPOLL:
+                return EpollDomainSocketChannel.class;
+            case KQUEUE:
+                return KQueueDomainSocketChannel.class;
+            default:
+                throw new UnsupportedOperationException("Unix domain sockets are not supported "
+                        + "by the " + resolve() + " channel implementation");
+        }
+    }
+
+    /**
+     * Get the {@link ServerChannel} class listening on unix domain sockets with this
+     * implementation.
+     *
+     * @return  The domain socket server channel class.
+     * @throws UnsupportedOperationException If this implementation does not support domain
+     *                                       sockets.
+     */
+    public Class<? extends ServerChannel> getServerDomainSocketChannelClass() {
+        switch (resolve()) {
+            case EPOLL:
+                return EpollServerDomainSocketChannel.class;
+            case KQUEUE:
+                return KQueueServerDomainSocketChannel.class;
+            default:
+                throw new UnsupportedOperationException("Unix domain sockets are not supported "
+                        + "by the " + resolve() + " channel implementation");
+        }
+    }
+
+    /**
+     * Get a generator of event loop groups, which may busy poll their channels.
+     *
+     * @param busyPoll  Whether the event loops should spin instead of blocking while
+     *                  waiting for their channels. Ignored by {@link ChannelImplementation#LOCAL}.
+     * @return          A generator of event loop groups.
+     */
+    public EventLoopGroupGenerator getGenerator(boolean busyPoll) {
+        if (!busyPoll) {
+            return generator;
+        }
+        switch (resolve()) {
+            case NIO:
+                return (numThreads, factory) -> new NioEventLoopGroup(numThreads, factory,
+                        SelectorProvider.provider(), BUSY_POLL_STRATEGY);
+            case EPOLL:
+                return (numThreads, factory) ->
+                        new EpollEventLoopGroup(numThreads, factory, BUSY_POLL_STRATEGY);
+            case KQUEUE:
+                return (numThreads, factory) ->
+                        new KQueueEventLoopGroup(numThreads, factory, BUSY_POLL_STRATEGY);
+            default:
+                return generator;
+        }
+    }
+
     /**
      * A functional interface for generating event loops.
      */
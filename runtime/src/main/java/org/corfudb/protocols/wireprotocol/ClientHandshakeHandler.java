@@ -5,6 +5,7 @@ import io.netty.channel.ChannelHandlerContext;
 import io.netty.channel.ChannelPromise;
 import io.netty.handler.timeout.ReadTimeoutException;
 import io.netty.handler.timeout.ReadTimeoutHandler;
+import io.netty.util.AttributeKey;
 import lombok.NonNull;
 import lombok.extern.slf4j.Slf4j;
 
@@ -29,10 +30,16 @@ public class ClientHandshakeHandler extends ChannelDuplexHandler {
     private final UUID clientId;
     private final UUID nodeId;
     private final int handshakeTimeout;
+    private final CompressionCodec compressionCodec;
+    private final int compressionThreshold;
     private final HandshakeState handshakeState;
     private final Queue<CorfuMsg> messages = new LinkedList<>();
     private static final String READ_TIMEOUT_HANDLER = "readTimeoutHandler";
 
+    /** Whether the server of the channel serves compact reads, once the handshake succeeded. */
+    public static final AttributeKey<Boolean> COMPACT_READ_SUPPORTED =
+            AttributeKey.valueOf("compactReadSupported");
+
     /** Events that the handshaker sends to downstream handlers.
      *
      */
@@ -49,6 +56,22 @@ public class ClientHandshakeHandler extends ChannelDuplexHandler {
      * @param serverId Remote Server Identifier to connect to.
      */
     public ClientHandshakeHandler(@NonNull UUID clientId, UUID serverId, int handshakeTimeout) {
+        this(clientId, serverId, handshakeTimeout, CompressionCodec.NONE, 0);
+    }
+
+    /**
+     * Creates a new ClientHandshakeHandler which will handle the handshake between the
+     * current client and a remote server, and request the messages of the connection to be
+     * compressed.
+     *
+     * @param clientId Current Client Identifier.
+     * @param serverId Remote Server Identifier to connect to.
+     * @param compressionCodec The codec to request.
+     * @param compressionThreshold Messages smaller than this number of bytes are not compressed.
+     */
+    public ClientHandshakeHandler(@NonNull UUID clientId, UUID serverId, int handshakeTimeout,
+                                  @NonNull CompressionCodec compressionCodec,
+                                  int compressionThreshold) {
         this.clientId = clientId;
         if (serverId == null) {
             // A null identifier, indicates node ID matching is not required. Send a default
@@ -58,6 +81,8 @@ public class ClientHandshakeHandler extends ChannelDuplexHandler {
             this.nodeId = serverId;
         }
         this.handshakeTimeout = handshakeTimeout;
+        this.compressionCodec = compressionCodec;
+        this.compressionThreshold = compressionThreshold;
         this.handshakeState = new HandshakeState();
     }
 
@@ -129,11 +154,24 @@ public class ClientHandshakeHandler extends ChannelDuplexHandler {
         }
 
         log.info("channelRead: Handshake succeeded. Server Corfu Version: [{}]", corfuVersion);
+
+        // The server compresses the messages following its response, so compression is
+        // enabled before any of them is read, and before the queued messages are flushed.
+        CompressionCodec acceptedCodec = handshakeResponse.getPayload().getCompressionCodec();
+        NettyCompressionHandler compressionHandler =
+                ctx.pipeline().get(NettyCompressionHandler.class);
+        if (compressionHandler != null && acceptedCodec != CompressionCodec.NONE) {
+            log.info("channelRead: Compressing messages with {}.", acceptedCodec);
+            compressionHandler.enable(acceptedCodec, this.compressionThreshold);
+        }
+        ctx.channel().attr(COMPACT_READ_SUPPORTED)
+                .set(handshakeResponse.getPayload().isCompactReadSupported());
         log.debug("channelRead: There are [{}] messages in queue to be flushed.", this.messages.size());
         // Flush messages in queue
         while (!messages.isEmpty()) {
-            ctx.writeAndFlush(messages.poll());
+            ctx.write(messages.poll());
         }
+        ctx.flush();
 
         // Remove this handler from the pipeline; handshake is completed.
         log.info("channelRead: Removing handshake handler from pipeline.");
@@ -154,7 +192,8 @@ public class ClientHandshakeHandler extends ChannelDuplexHandler {
 
         // Write the handshake & add a timeout listener.
         CorfuMsg handshake = CorfuMsgType.HANDSHAKE_INITIATE
-            .payloadMsg(new HandshakeMsg(this.clientId, this.nodeId));
+            .payloadMsg(new HandshakeMsg(this.clientId, this.nodeId, this.compressionCodec,
+                    this.compressionThreshold));
 
         log.info("channelActive: Initiate handshake. Send handshake message.");
         ctx.writeAndFlush(handshake);
@@ -0,0 +1,117 @@
+package org.corfudb.protocols.wireprotocol;
+
+import com.google.common.collect.Range;
+
+import io.netty.buffer.ByteBuf;
+
+import java.util.List;
+
+import lombok.Data;
+
+/**
+ * A request to read a set of addresses, which is answered by a {@link CompactReadResponse}.
+ *
+ * <p>The addresses are sorted, and encoded as runs of contiguous addresses, each one being
+ * its first address and its length. A range read is a single run.</p>
+ */
+@Data
+public class CompactReadRequest implements ICorfuPayload<CompactReadRequest> {
+
+    /** The addresses to read, sorted and without duplicates. */
+    final long[] addresses;
+
+    /**
+     * Deserialization Constructor from ByteBuf to CompactReadRequest.
+     *
+     * @param buf The buffer to deserialize
+     */
+    public CompactReadRequest(ByteBuf buf) {
+        addresses = runsFromBuffer(buf);
+    }
+
+    /**
+     * Creates a request to read a range of addresses, both endpoints included.
+     *
+     * @param range The range of addresses.
+     */
+    public CompactReadRequest(Range<Long> range) {
+        long start = range.lowerEndpoint();
+        addresses = new long[Math.toIntExact(range.upperEndpoint() - start + 1)];
+        for (int i = 0; i < addresses.length; i++) {
+            addresses[i] = start + i;
+        }
+    }
+
+    /**
+     * Creates a request to read a list of addresses.
+     *
+     * @param addresses The addresses, in any order.
+     */
+    public CompactReadRequest(List<Long> addresses) {
+        this.addresses = addresses.stream().mapToLong(Long::longValue).sorted().distinct()
+                .toArray();
+    }
+
+    @Override
+    public void doSerialize(ByteBuf buf) {
+        serializeRuns(buf, addresses);
+    }
+
+    /**
+     * Serializes sorted addresses as runs of contiguous addresses: the number of runs,
+     * followed by the first address and the length of each run.
+     *
+     * @param buf       The buffer to serialize to.
+     * @param addresses The addresses, sorted and without duplicates.
+     */
+    static void serializeRuns(ByteBuf buf, long[] addresses) {
+        int numRunsIndex = buf.writerIndex();
+        buf.writeInt(0);
+        int numRuns = 0;
+        int runStart = 0;
+        for (int i = 1; i <= addresses.length; i++) {
+            if (i == addresses.length || addresses[i] != addresses[i - 1] + 1) {
+                buf.writeLong(addresses[runStart]);
+                buf.writeInt(i - runStart);
+                numRuns++;
+                runStart = i;
+            }
+        }
+        buf.setInt(numRunsIndex, numRuns);
+    }
+
+    /**
+     * Deserializes the addresses serialized by
+     * {@link CompactReadRequest#serializeRuns(ByteBuf, long[])}.
+     *
+     * @param buf The buffer to deserialize from.
+     * @return The sorted addresses.
+     */
+    static long[] runsFromBuffer(ByteBuf buf) {
+        int numRuns = buf.readInt();
+        long[] runStarts = new long[numRuns];
+        int[] runLengths = new int[numRuns];
+        int numAddresses = 0;
+        for (int i = 0; i < numRuns; i++) {
+            runStarts[i] = buf.readLong();
+            runLengths[i] = buf.readInt();
+            numAddresses = Math.addExact(numAddresses, runLengths[i]);
+        }
+
+        long[] addresses = new long[numAddresses];
+        int index = 0;
+        for (int i = 0; i < numRuns; i++) {
+            for (int j = 0; j < runLengths[i]; j++) {
+                addresses[index++] = runStarts[i] + j;
+            }
+        }
+        return addresses;
+    }
+
+    @Override
+    public String toString() {
+        return "CompactReadRequest(" + addresses.length + " addresses from "
+                + (addresses.length == 0 ? "none" : addresses[0] + " to "
+                + addresses[addresses.length - 1]) + ")";
+    }
+}
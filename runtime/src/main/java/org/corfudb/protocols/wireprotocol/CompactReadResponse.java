@@ -0,0 +1,122 @@
+package org.corfudb.protocols.wireprotocol;
+
+import io.netty.buffer.ByteBuf;
+
+import java.util.Map;
+
+import org.corfudb.util.AddressMap;
+
+/**
+ * A read response with a compact encoding, which answers a {@link CompactReadRequest}.
+ *
+ * <p>The addresses are encoded as runs of contiguous addresses. They are followed by a bitmap
+ * of the empty slots and a bitmap of the trimmed slots, for the empty and trimmed entries
+ * which carry nothing but their address. Only the other entries are serialized, in address
+ * order. The response is decoded into an {@link AddressMap}, which is keyed by primitive
+ * addresses and ordered by address.</p>
+ */
+public class CompactReadResponse extends ReadResponse {
+
+    public CompactReadResponse() {
+        super(new AddressMap<>());
+    }
+
+    /**
+     * Deserialization Constructor from ByteBuf to CompactReadResponse.
+     *
+     * @param buf The buffer to deserialize
+     */
+    public CompactReadResponse(ByteBuf buf) {
+        this(buf, false);
+    }
+
+    /**
+     * Deserialization Constructor from ByteBuf to CompactReadResponse.
+     *
+     * @param buf            The buffer to deserialize
+     * @param retainPayloads True, if the log data keep retained slices of the buffer instead
+     *                       of copying their payloads
+     */
+    public CompactReadResponse(ByteBuf buf, boolean retainPayloads) {
+        this();
+        long[] addresses = CompactReadRequest.runsFromBuffer(buf);
+        int bitmapLength = getBitmapLength(addresses.length);
+        ByteBuf emptyBitmap = buf.readSlice(bitmapLength);
+        ByteBuf trimmedBitmap = buf.readSlice(bitmapLength);
+
+        for (int i = 0; i < addresses.length; i++) {
+            if (isSet(emptyBitmap, i)) {
+                put(addresses[i], LogData.getEmpty(addresses[i]));
+            } else if (isSet(trimmedBitmap, i)) {
+                put(addresses[i], LogData.getTrimmed(addresses[i]));
+            } else {
+                put(addresses[i], new LogData(buf, retainPayloads));
+            }
+        }
+        if (retainPayloads) {
+            LogData.shareRetainedBytes(getAddresses().values(), buf.capacity());
+        }
+    }
+
+    @Override
+    public void doSerialize(ByteBuf buf) {
+        AddressMap<LogData> entries = getAddressMap();
+        long[] addresses = entries.addressArray();
+        CompactReadRequest.serializeRuns(buf, addresses);
+
+        int bitmapLength = getBitmapLength(addresses.length);
+        int emptyBitmapIndex = buf.writerIndex();
+        buf.writeZero(bitmapLength);
+        int trimmedBitmapIndex = buf.writerIndex();
+        buf.writeZero(bitmapLength);
+
+        for (int i = 0; i < addresses.length; i++) {
+            LogData logData = entries.getValue(i);
+            if (isAddressOnly(logData, addresses[i]) && logData.getType() == DataType.EMPTY) {
+                set(buf, emptyBitmapIndex, i);
+            } else if (isAddressOnly(logData, addresses[i])
+                    && logData.getType() == DataType.TRIMMED) {
+                set(buf, trimmedBitmapIndex, i);
+            } else {
+                logData.doSerialize(buf);
+            }
+        }
+    }
+
+    /**
+     * Returns the entries in address order. They are held in an {@link AddressMap}, unless
+     * another map was set, which is then sorted into one.
+     */
+    @SuppressWarnings("unchecked")
+    private AddressMap<LogData> getAddressMap() {
+        Map<Long, LogData> entries = getAddresses();
+        if (entries instanceof AddressMap) {
+            return (AddressMap<LogData>) entries;
+        }
+        AddressMap<LogData> sorted = new AddressMap<>(entries.size());
+        entries.forEach(sorted::put);
+        return sorted;
+    }
+
+    /**
+     * Returns whether a log data carries no metadata but its address, and can be rebuilt
+     * from its type and address.
+     */
+    private static boolean isAddressOnly(LogData logData, long address) {
+        return logData.getMetadataMap().size() == 1
+                && Long.valueOf(address).equals(logData.getGlobalAddress());
+    }
+
+    private static int getBitmapLength(int numSlots) {
+        return (numSlots + Byte.SIZE - 1) / Byte.SIZE;
+    }
+
+    private static boolean isSet(ByteBuf bitmap, int slot) {
+        return (bitmap.getByte(slot / Byte.SIZE) & (1 << (slot % Byte.SIZE))) != 0;
+    }
+
+    private static void set(ByteBuf buf, int bitmapIndex, int slot) {
+        int index = bitmapIndex + slot / Byte.SIZE;
+        buf.setByte(index, buf.getByte(index) | (1 << (slot % Byte.SIZE)));
+    }
+}
@@ -77,6 +77,18 @@ public class CorfuMsg {
      * @return The corresponding message.
      */
     public static CorfuMsg deserialize(ByteBuf buffer) {
+        return deserialize(buffer, false);
+    }
+
+    /**
+     * Take the given bytebuffer and deserialize it into a message.
+     *
+     * @param buffer        The buffer to deserialize.
+     * @param retainLogData True, if the log data of read responses keep retained slices of
+     *                      the buffer instead of copying their payloads.
+     * @return The corresponding message.
+     */
+    public static CorfuMsg deserialize(ByteBuf buffer, boolean retainLogData) {
         int marker = buffer.readInt();
         if (marker != markerField) {
             throw new RuntimeException("Attempt to deserialize a message which is not a CorfuMsg, "
@@ -92,7 +104,11 @@ public class CorfuMsg {
         msg.requestID = requestId;
         msg.epoch = epoch;
         msg.msgType = message;
-        msg.fromBuffer(buffer);
+        if (retainLogData) {
+            msg.fromBufferRetainingLogData(buffer);
+        } else {
+            msg.fromBuffer(buffer);
+        }
         msg.buf = buffer;
         return msg;
     }
@@ -124,6 +140,16 @@ public class CorfuMsg {
         // we don't do anything here since in the base message, no fields remain.
     }
 
+    /**
+     * Parse the rest of the message from the buffer, keeping retained slices of the buffer
+     * for the payloads of the log data of the message, if it carries any.
+     *
+     * @param buffer contains the message from the buffer
+     */
+    public void fromBufferRetainingLogData(ByteBuf buffer) {
+        fromBuffer(buffer);
+    }
+
     /**
      * Copy the base fields over to this message.
      */
@@ -13,6 +13,7 @@ import java.lang.invoke.MethodHandle;
 import java.lang.invoke.MethodHandles;
 import java.lang.invoke.MethodType;
 import java.lang.reflect.Constructor;
+import java.lang.reflect.ParameterizedType;
 
 /**
  * Created by mwei on 8/8/16.
@@ -51,15 +52,23 @@ public enum CorfuMsgType {
     SEQUENCER_TRIM_REQ(23, new TypeToken<CorfuPayloadMsg<Long>>() {}),
     SEQUENCER_METRICS_REQUEST(24, TypeToken.of(CorfuMsg.class), true),
     SEQUENCER_METRICS_RESPONSE(25, new TypeToken<CorfuPayloadMsg<SequencerMetrics>>(){}, true),
+    SEQUENCER_SNAPSHOT_REQUEST(26, TypeToken.of(CorfuMsg.class)),
+    SEQUENCER_SNAPSHOT_RESPONSE(27, new TypeToken<CorfuPayloadMsg<SequencerSnapshot>>(){}),
+    SEQUENCER_SNAPSHOT_INSTALL(28, new TypeToken<CorfuPayloadMsg<SequencerSnapshot>>(){}),
+    SEQUENCER_STANDBY_SNAPSHOT_REQUEST(29, TypeToken.of(CorfuMsg.class)),
 
     // Logging Unit Messages
     WRITE(30, new TypeToken<CorfuPayloadMsg<WriteRequest>>() {}),
     READ_REQUEST(31, new TypeToken<CorfuPayloadMsg<ReadRequest>>() {}),
     READ_RESPONSE(32, new TypeToken<CorfuPayloadMsg<ReadResponse>>() {}),
     MULTIPLE_READ_REQUEST(35, new TypeToken<CorfuPayloadMsg<MultipleReadRequest>>() {}),
+    COMPACT_READ_REQUEST(36, new TypeToken<CorfuPayloadMsg<CompactReadRequest>>() {}),
+    COMPACT_READ_RESPONSE(37, new TypeToken<CorfuPayloadMsg<CompactReadResponse>>() {}),
     TRIM(33, new TypeToken<CorfuPayloadMsg<TrimRequest>>() {}),
     FILL_HOLE(34, new TypeToken<CorfuPayloadMsg<TrimRequest>>() {}),
     PREFIX_TRIM(38, new TypeToken<CorfuPayloadMsg<TrimRequest>>() {}),
+    READ_WAIT_REQUEST(39, new TypeToken<CorfuPayloadMsg<ReadWaitRequest>>() {}),
+    TAIL_WATCH_REQUEST(40, new TypeToken<CorfuPayloadMsg<TailWatchRequest>>() {}, true),
     TAIL_REQUEST(41, TypeToken.of(CorfuMsg.class), true),
     TAIL_RESPONSE(42, new TypeToken<CorfuPayloadMsg<Long>>(){}, true),
     COMPACT_REQUEST(43, TypeToken.of(CorfuMsg.class), true),
@@ -67,6 +76,9 @@ public enum CorfuMsgType {
     TRIM_MARK_REQUEST(45, TypeToken.of(CorfuMsg.class), true),
     TRIM_MARK_RESPONSE(46, new TypeToken<CorfuPayloadMsg<Long>>(){}, true),
     RESET_LOGUNIT(47, new TypeToken<CorfuPayloadMsg<Long>>(){}, true),
+    TAIL_WATCH_RESPONSE(48, new TypeToken<CorfuPayloadMsg<TailWatchResponse>>(){}, true),
+    MULTIPLE_WRITE(49, new TypeToken<CorfuPayloadMsg<RangeWriteMsg>>(){}),
+    MULTIPLE_WRITE_RESPONSE(63, new TypeToken<CorfuPayloadMsg<MultipleWriteResponse>>(){}),
 
     WRITE_OK(50, TypeToken.of(CorfuMsg.class)),
     ERROR_TRIMMED(51, TypeToken.of(CorfuMsg.class)),
@@ -97,6 +109,12 @@ public enum CorfuMsgType {
     ORCHESTRATOR_RESPONSE(78, new TypeToken<CorfuPayloadMsg<OrchestratorResponse>>() {}, true),
     MANAGEMENT_LAYOUT_REQUEST(79, TypeToken.of(CorfuMsg.class), true),
 
+    // Sequencer shard Messages
+    SEQUENCER_LEASE_GRANT(90, new TypeToken<CorfuPayloadMsg<SequencerLease>>(){}),
+    SEQUENCER_SHARD_TAIL_QUERY(91, new TypeToken<CorfuPayloadMsg<Long>>(){}),
+    SEQUENCER_SHARD_PREPARE(92, new TypeToken<CorfuPayloadMsg<ShardPrepareRequest>>(){}),
+    SEQUENCER_SHARD_COMMIT(93, new TypeToken<CorfuPayloadMsg<ShardCommitRequest>>(){}),
+
     ERROR_SERVER_EXCEPTION(200, new TypeToken<CorfuPayloadMsg<ExceptionMsg>>() {}, true),
 
     // Handshake Messages
@@ -126,6 +144,25 @@ public enum CorfuMsgType {
     @Getter(lazy = true)
     private final MessageConstructor<? extends CorfuMsg> constructor = resolveConstructor();
 
+    /** The decoder of the payload of this message type, if it is a payload message. */
+    @Getter(lazy = true)
+    private final ICorfuPayload.PayloadConstructor<?> payloadConstructor =
+            resolvePayloadConstructor();
+
+    /** Resolve the decoder of the payload of this message type once, so that decoding a
+     *  message does not inspect its type. */
+    private ICorfuPayload.PayloadConstructor<?> resolvePayloadConstructor() {
+        if (!(messageType.getType() instanceof ParameterizedType)) {
+            return null;
+        }
+        Class<?> payloadClass = (Class<?>) ((ParameterizedType) messageType.getType())
+                .getActualTypeArguments()[0];
+        ICorfuPayload.PayloadConstructor<?> constructor =
+                ICorfuPayload.constructorMap.get(payloadClass);
+        return constructor != null ? constructor
+                : buf -> ICorfuPayload.fromBuffer(buf, payloadClass);
+    }
+
     public byte asByte() {
         return (byte) type;
     }
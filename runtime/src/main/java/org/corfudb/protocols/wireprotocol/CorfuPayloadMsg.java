@@ -2,8 +2,6 @@ package org.corfudb.protocols.wireprotocol;
 
 import io.netty.buffer.ByteBuf;
 
-import java.lang.reflect.ParameterizedType;
-
 import lombok.Getter;
 import lombok.NoArgsConstructor;
 
@@ -55,8 +53,24 @@ public class CorfuPayloadMsg<T> extends CorfuMsg {
     @Override
     @SuppressWarnings("unchecked")
     public void fromBuffer(ByteBuf buffer) {
-        payload = (T) ICorfuPayload.fromBuffer(buffer,
-                (Class)((ParameterizedType)msgType.messageType.getType())
-                        .getActualTypeArguments()[0]);
+        payload = (T) msgType.getPayloadConstructor().construct(buffer);
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * <p>Only read responses carry log data worth slicing, other messages are parsed as
+     * usual.</p>
+     */
+    @Override
+    @SuppressWarnings("unchecked")
+    public void fromBufferRetainingLogData(ByteBuf buffer) {
+        if (msgType == CorfuMsgType.READ_RESPONSE) {
+            payload = (T) new ReadResponse(buffer, true);
+        } else if (msgType == CorfuMsgType.COMPACT_READ_RESPONSE) {
+            payload = (T) new CompactReadResponse(buffer, true);
+        } else {
+            fromBuffer(buffer);
+        }
     }
 }
@@ -19,6 +19,22 @@ public class HandshakeMsg implements ICorfuPayload<HandshakeMsg> {
     private UUID clientId;
     private UUID serverId;
 
+    /** The codec the client requests to compress the messages of the connection with. */
+    private CompressionCodec compressionCodec;
+
+    /** Messages smaller than this number of bytes are sent uncompressed. */
+    private int compressionThreshold;
+
+    /**
+     * Constructor to generate an initiating Handshake Message Payload, without compression.
+     *
+     * @param clientId The client identifier.
+     * @param serverId The asserted server identifier.
+     */
+    public HandshakeMsg(UUID clientId, UUID serverId) {
+        this(clientId, serverId, CompressionCodec.NONE, 0);
+    }
+
     /**
      * Constructor to generate an initiating Handshake Message Payload.
      *
@@ -27,11 +43,20 @@ public class HandshakeMsg implements ICorfuPayload<HandshakeMsg> {
     public HandshakeMsg(ByteBuf buf) {
         clientId = ICorfuPayload.fromBuffer(buf, UUID.class);
         serverId = ICorfuPayload.fromBuffer(buf, UUID.class);
+        // Clients prior to compression do not send the codec.
+        if (buf.isReadable()) {
+            compressionCodec = ICorfuPayload.fromBuffer(buf, CompressionCodec.class);
+            compressionThreshold = ICorfuPayload.fromBuffer(buf, Integer.class);
+        } else {
+            compressionCodec = CompressionCodec.NONE;
+        }
     }
 
     @Override
     public void doSerialize(ByteBuf buf) {
         ICorfuPayload.serialize(buf, clientId);
         ICorfuPayload.serialize(buf, serverId);
+        ICorfuPayload.serialize(buf, compressionCodec);
+        ICorfuPayload.serialize(buf, compressionThreshold);
     }
 }
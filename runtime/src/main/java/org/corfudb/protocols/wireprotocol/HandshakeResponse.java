@@ -19,14 +19,32 @@ public class HandshakeResponse implements ICorfuPayload<HandshakeResponse> {
     private UUID serverId;
     private String corfuVersion;
 
+    /** The codec the server accepted to compress the messages of the connection with. */
+    private CompressionCodec compressionCodec;
+
+    /** Whether the server serves {@link CorfuMsgType#COMPACT_READ_REQUEST}s. */
+    private boolean compactReadSupported;
+
+    public HandshakeResponse(UUID serverId, String corfuVersion) {
+        this(serverId, corfuVersion, CompressionCodec.NONE, true);
+    }
+
     public HandshakeResponse(ByteBuf buf) {
         serverId = ICorfuPayload.fromBuffer(buf, UUID.class);
         corfuVersion = ICorfuPayload.fromBuffer(buf, String.class);
+        // Servers prior to compression do not send the codec, and servers prior to compact
+        // reads do not send whether they support them.
+        compressionCodec = buf.isReadable()
+                ? ICorfuPayload.fromBuffer(buf, CompressionCodec.class)
+                : CompressionCodec.NONE;
+        compactReadSupported = buf.isReadable() && ICorfuPayload.fromBuffer(buf, Boolean.class);
     }
 
     @Override
     public void doSerialize(ByteBuf buf) {
         ICorfuPayload.serialize(buf, serverId);
         ICorfuPayload.serialize(buf, corfuVersion);
+        ICorfuPayload.serialize(buf, compressionCodec);
+        ICorfuPayload.serialize(buf, compactReadSupported);
     }
 }
@@ -78,6 +78,7 @@ public interface ICorfuPayload<T> {
                     x.readerIndex(x.readerIndex() + bytes);
                     return b;
                 })
+                .putAll(CorfuPayloadCodecs.getDecoders())
                 .build());
 
 
@@ -86,7 +87,9 @@ public interface ICorfuPayload<T> {
     java.lang.invoke.MethodHandles.Lookup lookup = MethodHandles.lookup();
 
     /**
-     * Build payload from Buffer
+     * Build payload from Buffer. The payloads annotated with
+     * {@link org.corfudb.annotations.PayloadCodec} are decoded by their generated codecs,
+     * other payloads are resolved by reflection on first use.
      * @param buf        The buffer to deserialize.
      * @param cls        The class of the payload.
      * @param <T>        The type of the payload.
@@ -141,16 +144,29 @@ public interface ICorfuPayload<T> {
      */
     @SuppressWarnings("unchecked")
     static <T> T fromBuffer(ByteBuf buf, TypeToken<T> token) {
+        return (T) decoderOf(token).construct(buf);
+    }
+
+    /**
+     * Resolve the decoder of a type, so that values of a generic type can be decoded
+     * without resolving their type arguments each time.
+     * @param token      The type to decode.
+     * @return A decoder of the type.
+     */
+    static PayloadConstructor<?> decoderOf(TypeToken<?> token) {
         Class<?> rawType = token.getRawType();
         if (rawType.isAssignableFrom(Map.class)) {
-            return (T) mapFromBuffer(buf, token.resolveType(
-                    Map.class.getTypeParameters()[0]).getRawType(),
-                    token.resolveType(Map.class.getTypeParameters()[1]).getRawType());
+            Class<?> keyClass = token.resolveType(Map.class.getTypeParameters()[0]).getRawType();
+            Class<?> valueClass = token.resolveType(Map.class.getTypeParameters()[1])
+                    .getRawType();
+            return buf -> mapFromBuffer(buf, keyClass, valueClass);
         } else if (rawType.isAssignableFrom(Set.class)) {
-            return (T) setFromBuffer(buf, token.resolveType(
-                    Set.class.getTypeParameters()[0]).getRawType());
+            Class<?> valueClass = token.resolveType(Set.class.getTypeParameters()[0])
+                    .getRawType();
+            return buf -> setFromBuffer(buf, valueClass);
         }
-        return (T) fromBuffer(buf, rawType);
+        PayloadConstructor<?> constructor = constructorMap.get(rawType);
+        return constructor != null ? constructor : buf -> fromBuffer(buf, rawType);
     }
 
     /** A really simple flat map implementation. The first entry is the size of the map as an int,
@@ -257,7 +273,7 @@ public interface ICorfuPayload<T> {
         byte numEntries = buf.readByte();
         while (numEntries > 0 && buf.isReadable()) {
             K type = fromBuffer(buf, keyClass);
-            V value = (V)fromBuffer(buf, type.getComponentType());
+            V value = (V) type.getComponentDecoder().construct(buf);
             metadataMap.put(type, value);
             numEntries--;
         }
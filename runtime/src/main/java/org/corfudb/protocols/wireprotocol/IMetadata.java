@@ -213,6 +213,19 @@ public interface IMetadata {
         getMetadataMap().put(CHECKPOINTED_STREAM_START_LOG_ADDRESS, startLogAddress);
     }
 
+    /**
+     * Returns the codec the payload is compressed with.
+     */
+    default CompressionCodec getPayloadCodec() {
+        return (CompressionCodec) getMetadataMap()
+                .getOrDefault(LogUnitMetadataType.PAYLOAD_CODEC, CompressionCodec.NONE);
+    }
+
+    default void setPayloadCodec(CompressionCodec codec) {
+        getMetadataMap().put(LogUnitMetadataType.PAYLOAD_CODEC, codec);
+    }
+
+    @CorfuPayload
     @RequiredArgsConstructor
     public enum LogUnitMetadataType implements ITypedEnum {
         RANK(1, TypeToken.of(DataRank.class)),
@@ -225,12 +238,18 @@ public interface IMetadata {
         CHECKPOINTED_STREAM_START_LOG_ADDRESS(9, TypeToken.of(Long.class)),
         CLIENT_ID(10, TypeToken.of(UUID.class)),
         THREAD_ID(11, TypeToken.of(Long.class)),
-        EPOCH(12, TypeToken.of(Long.class))
+        EPOCH(12, TypeToken.of(Long.class)),
+        PAYLOAD_CODEC(13, TypeToken.of(CompressionCodec.class))
         ;
         final int type;
         @Getter
         final TypeToken<?> componentType;
 
+        /** The decoder of the values of this type, resolved once from the component type. */
+        @Getter(lazy = true)
+        private final ICorfuPayload.PayloadConstructor<?> componentDecoder =
+                ICorfuPayload.decoderOf(componentType);
+
         public byte asByte() {
             return (byte) type;
         }
@@ -10,6 +10,15 @@ public interface ITypedEnum<T extends Enum<T>> extends ICorfuPayload<T>  {
 
     TypeToken<?> getComponentType();
 
+    /**
+     * Get the decoder of the values of this type.
+     *
+     * @return The decoder of the component type.
+     */
+    default ICorfuPayload.PayloadConstructor<?> getComponentDecoder() {
+        return ICorfuPayload.decoderOf(getComponentType());
+    }
+
     byte asByte();
 
     @Override
@@ -6,6 +6,8 @@ import io.netty.buffer.Unpooled;
 import java.util.EnumMap;
 import java.util.concurrent.atomic.AtomicReference;
 
+import javax.annotation.Nonnull;
+
 import lombok.Getter;
 import lombok.extern.slf4j.Slf4j;
 
@@ -25,9 +27,20 @@ public class LogData implements ICorfuPayload<LogData>, IMetadata, ILogData {
     @Getter
     final DataType type;
 
-    @Getter
     byte[] data;
 
+    /**
+     * In lazy mode, a retained slice of the inbound buffer holding the serialized payload,
+     * until the payload is deserialized, the data is read or the buffer is released.
+     */
+    private volatile ByteBuf dataBuf = null;
+
+    /**
+     * The share of the inbound buffer which this log data pins while it retains a slice of
+     * it, so that the size estimate reflects the retained bytes rather than the slice.
+     */
+    private volatile int retainedSize = NOT_KNOWN;
+
     private ByteBuf serializedCache = null;
 
     private int lastKnownSize = NOT_KNOWN;
@@ -52,6 +65,56 @@ public class LogData implements ICorfuPayload<LogData>, IMetadata, ILogData {
         return logData;
     }
 
+    /**
+     * Spreads the bytes of an inbound buffer over the log data which retain slices of it, in
+     * proportion to the size of their slices. Each of these log data pins the whole buffer,
+     * so that their size estimates add up to the bytes the buffer retains.
+     *
+     * @param entries       The log data decoded from the buffer.
+     * @param retainedBytes The number of bytes the buffer retains.
+     */
+    static void shareRetainedBytes(@Nonnull Iterable<LogData> entries, int retainedBytes) {
+        long sliced = 0;
+        for (LogData entry : entries) {
+            ByteBuf slice = entry.dataBuf;
+            if (slice != null) {
+                sliced += slice.readableBytes();
+            }
+        }
+        if (sliced == 0) {
+            return;
+        }
+        for (LogData entry : entries) {
+            ByteBuf slice = entry.dataBuf;
+            if (slice != null) {
+                entry.retainedSize = (int) Math.max(slice.readableBytes(),
+                        (long) retainedBytes * slice.readableBytes() / sliced);
+            }
+        }
+    }
+
+    /**
+     * Return the serialized payload.
+     */
+    public byte[] getData() {
+        if (dataBuf != null) {
+            detachBuffer();
+        }
+        return data;
+    }
+
+    /**
+     * Copies the payload out of the slice of the inbound buffer, if it retains one, and
+     * releases the slice, so that this log data no longer pins the inbound buffer.
+     */
+    public synchronized void detachBuffer() {
+        if (dataBuf != null) {
+            data = byteArrayFromBuf(dataBuf);
+            dataBuf.release();
+            dataBuf = null;
+        }
+    }
+
     /**
      * Return the payload.
      */
@@ -61,10 +124,35 @@ public class LogData implements ICorfuPayload<LogData>, IMetadata, ILogData {
             synchronized (this.payload) {
                 value = this.payload.get();
                 if (value == null) {
+                    ByteBuf lazyData = retainDataBuf();
+                    if (lazyData != null && getPayloadCodec() == CompressionCodec.NONE) {
+                        // The payload is deserialized from the inbound buffer, without a copy.
+                        final Object actualValue;
+                        try {
+                            actualValue = Serializers.CORFU.deserialize(lazyData, runtime);
+                            lastKnownSize = lazyData.writerIndex();
+                        } finally {
+                            lazyData.release();
+                        }
+                        if (actualValue instanceof LogEntry) {
+                            ((LogEntry) actualValue).setEntry(this);
+                            ((LogEntry) actualValue).setRuntime(runtime);
+                        }
+                        value = actualValue == null ? this.payload : actualValue;
+                        this.payload.set(value);
+                        releaseDataBuf();
+                        return value;
+                    } else if (lazyData != null) {
+                        lazyData.release();
+                    }
+
+                    byte[] data = getData();
                     if (data == null) {
                         this.payload.set(null);
                     } else {
-                        ByteBuf copyBuf = Unpooled.wrappedBuffer(data);
+                        CompressionCodec codec = getPayloadCodec();
+                        ByteBuf copyBuf = Unpooled.wrappedBuffer(codec == CompressionCodec.NONE
+                                ? data : codec.decompress(data));
                         final Object actualValue =
                                 Serializers.CORFU.deserialize(copyBuf, runtime);
                         // TODO: Remove circular dependency on logentry.
@@ -76,7 +164,7 @@ public class LogData implements ICorfuPayload<LogData>, IMetadata, ILogData {
                         this.payload.set(value);
                         copyBuf.release();
                         lastKnownSize = data.length;
-                        data = null;
+                        this.data = null;
                     }
                 }
             }
@@ -85,6 +173,61 @@ public class LogData implements ICorfuPayload<LogData>, IMetadata, ILogData {
         return value;
     }
 
+    /**
+     * Returns a retained duplicate of the slice of the inbound buffer, or null if it was
+     * released. The caller must release it.
+     */
+    private synchronized ByteBuf retainDataBuf() {
+        return dataBuf == null ? null : dataBuf.retainedDuplicate();
+    }
+
+    /**
+     * Releases the slice of the inbound buffer, once the payload no longer needs it.
+     */
+    private synchronized void releaseDataBuf() {
+        if (dataBuf != null) {
+            dataBuf.release();
+            dataBuf = null;
+        }
+    }
+
+    /**
+     * Compresses the serialized payload, if it is at least the given size and shrinks
+     * when compressed. The compressed payload is written, stored and served by the log
+     * units as is, and only decompressed when the payload is deserialized.
+     *
+     * @param codec     The codec to compress the payload with.
+     * @param threshold Payloads smaller than this number of bytes are not compressed.
+     */
+    public synchronized void compressPayload(CompressionCodec codec, int threshold) {
+        if (type != DataType.DATA || codec == CompressionCodec.NONE
+                || getPayloadCodec() != CompressionCodec.NONE || serializedCache != null) {
+            return;
+        }
+
+        byte[] serialized = getData();
+        if (serialized == null) {
+            ByteBuf buf = Unpooled.buffer();
+            Serializers.CORFU.serialize(payload.get(), buf);
+            serialized = byteArrayFromBuf(buf);
+        }
+        if (serialized.length < threshold) {
+            return;
+        }
+
+        byte[] compressed = codec.compress(serialized);
+        if (compressed.length < serialized.length) {
+            data = compressed;
+            setPayloadCodec(codec);
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * <p>A lazily decoded log data also copies its payload out of the inbound buffer and
+     * releases its slice, so that it no longer retains the inbound buffer.</p>
+     */
     @Override
     public synchronized void releaseBuffer() {
         if (serializedCache != null) {
@@ -93,6 +236,7 @@ public class LogData implements ICorfuPayload<LogData>, IMetadata, ILogData {
                 serializedCache = null;
             }
         }
+        detachBuffer();
     }
 
     @Override
@@ -109,8 +253,12 @@ public class LogData implements ICorfuPayload<LogData>, IMetadata, ILogData {
     @Override
     public int getSizeEstimate() {
         byte[] tempData = data;
+        ByteBuf tempDataBuf = dataBuf;
         if (tempData != null) {
             return tempData.length;
+        } else if (tempDataBuf != null) {
+            int tempRetainedSize = retainedSize;
+            return tempRetainedSize != NOT_KNOWN ? tempRetainedSize : tempDataBuf.writerIndex();
         } else if (lastKnownSize != NOT_KNOWN) {
             return lastKnownSize;
         }
@@ -126,9 +274,24 @@ public class LogData implements ICorfuPayload<LogData>, IMetadata, ILogData {
      * Return the payload.
      */
     public LogData(ByteBuf buf) {
-        type = ICorfuPayload.fromBuffer(buf, DataType.class);
-        if (type == DataType.DATA) {
-            data = ICorfuPayload.fromBuffer(buf, byte[].class);
+        this(buf, false);
+    }
+
+    /**
+     * Deserializes a log data.
+     *
+     * @param buf           The buffer to deserialize from.
+     * @param retainPayload True, to keep a retained slice of the buffer instead of copying the
+     *                      payload, which is then only deserialized or copied on first access.
+     */
+    public LogData(ByteBuf buf, boolean retainPayload) {
+        type = DataType.typeMap.get(buf.readByte());
+        if (type == DataType.DATA && retainPayload) {
+            data = null;
+            dataBuf = buf.readRetainedSlice(buf.readInt());
+        } else if (type == DataType.DATA) {
+            data = new byte[buf.readInt()];
+            buf.readBytes(data);
         } else {
             data = null;
         }
@@ -209,7 +372,15 @@ public class LogData implements ICorfuPayload<LogData>, IMetadata, ILogData {
     void doSerializeInternal(ByteBuf buf) {
         ICorfuPayload.serialize(buf, type);
         if (type == DataType.DATA) {
-            if (data == null) {
+            ByteBuf lazyData = data == null ? retainDataBuf() : null;
+            if (lazyData != null) {
+                try {
+                    buf.writeInt(lazyData.readableBytes());
+                    buf.writeBytes(lazyData);
+                } finally {
+                    lazyData.release();
+                }
+            } else if (data == null) {
                 int lengthIndex = buf.writerIndex();
                 buf.writeInt(0);
                 Serializers.CORFU.serialize(payload.get(), buf);
@@ -0,0 +1,110 @@
+package org.corfudb.protocols.wireprotocol;
+
+import io.netty.buffer.ByteBuf;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import lombok.Data;
+
+import org.corfudb.runtime.exceptions.DataOutrankedException;
+import org.corfudb.runtime.exceptions.LogUnitException;
+import org.corfudb.runtime.exceptions.OverwriteCause;
+import org.corfudb.runtime.exceptions.OverwriteException;
+import org.corfudb.runtime.exceptions.ValueAdoptedException;
+
+/**
+ * The answer to a multiple write, with the outcome of the write of each address.
+ *
+ * <p>Only the writes which failed are listed, with the error a single write of the address
+ * would have returned: an overwrite, an outranked write or an adopted value.</p>
+ */
+@CorfuPayload
+@Data
+public class MultipleWriteResponse implements ICorfuPayload<MultipleWriteResponse> {
+
+    private static final byte OVERWRITE = 0;
+    private static final byte DATA_OUTRANKED = 1;
+    private static final byte VALUE_ADOPTED = 2;
+
+    /** The writes which failed, by address. The other addresses were written. */
+    final Map<Long, LogUnitException> failures;
+
+    public MultipleWriteResponse() {
+        failures = new HashMap<>();
+    }
+
+    /**
+     * Deserialization Constructor from ByteBuf to MultipleWriteResponse.
+     *
+     * @param buf The buffer to deserialize
+     */
+    public MultipleWriteResponse(ByteBuf buf) {
+        int numFailures = buf.readInt();
+        failures = new HashMap<>(numFailures);
+        for (int i = 0; i < numFailures; i++) {
+            long address = buf.readLong();
+            byte type = buf.readByte();
+            switch (type) {
+                case OVERWRITE:
+                    failures.put(address,
+                            new OverwriteException(OverwriteCause.fromId(buf.readInt())));
+                    break;
+                case DATA_OUTRANKED:
+                    failures.put(address, new DataOutrankedException());
+                    break;
+                case VALUE_ADOPTED:
+                    failures.put(address, new ValueAdoptedException(
+                            ICorfuPayload.fromBuffer(buf, ReadResponse.class)));
+                    break;
+                default:
+                    throw new IllegalStateException("Unknown write failure " + type);
+            }
+        }
+    }
+
+    /**
+     * Record the failure of the write of an address.
+     *
+     * @param address The address which was not written.
+     * @param e       An {@link OverwriteException}, a {@link DataOutrankedException} or a
+     *                {@link ValueAdoptedException}.
+     */
+    public void fail(long address, LogUnitException e) {
+        failures.put(address, e);
+    }
+
+    /**
+     * Get the outcome of the write of an address, as a single write would return it.
+     *
+     * @param address The address.
+     * @return True, if the address was written.
+     * @throws LogUnitException If the write of the address failed.
+     */
+    public boolean checkWritten(long address) {
+        LogUnitException e = failures.get(address);
+        if (e != null) {
+            throw e;
+        }
+        return true;
+    }
+
+    @Override
+    public void doSerialize(ByteBuf buf) {
+        buf.writeInt(failures.size());
+        failures.forEach((address, e) -> {
+            buf.writeLong(address);
+            if (e instanceof OverwriteException) {
+                buf.writeByte(OVERWRITE);
+                buf.writeInt(((OverwriteException) e).getOverWriteCause().getId());
+            } else if (e instanceof DataOutrankedException) {
+                buf.writeByte(DATA_OUTRANKED);
+            } else if (e instanceof ValueAdoptedException) {
+                buf.writeByte(VALUE_ADOPTED);
+                ICorfuPayload.serialize(buf, ((ValueAdoptedException) e).getReadResponse());
+            } else {
+                throw new IllegalArgumentException("Unexpected write failure " + e);
+            }
+        });
+    }
+}
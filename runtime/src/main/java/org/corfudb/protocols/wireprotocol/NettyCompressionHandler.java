@@ -0,0 +1,149 @@
+package org.corfudb.protocols.wireprotocol;
+
+import com.codahale.metrics.Counter;
+import com.codahale.metrics.MetricRegistry;
+import com.codahale.metrics.Timer;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.handler.codec.MessageToMessageCodec;
+
+import java.util.List;
+
+import lombok.Getter;
+import lombok.NonNull;
+import lombok.extern.slf4j.Slf4j;
+
+import org.corfudb.util.MetricsUtils;
+
+/**
+ * Compresses the frames of a connection, once a codec has been negotiated by the handshake.
+ *
+ * <p>This handler sits between the frame codec and the message codec. Until
+ * {@link NettyCompressionHandler#enable(CompressionCodec, int)} is called, frames pass through
+ * untouched, so that the handshake itself is never compressed. Afterwards, each frame starts with
+ * the byte of the codec it was compressed with, or of {@link CompressionCodec#NONE} if it was
+ * smaller than the threshold or did not compress, followed by the length of the uncompressed
+ * frame for the compressed ones.</p>
+ *
+ * <p>The number of bytes before and after compression, as well as the time spent compressing and
+ * decompressing, are reported to the metrics registry, so that the compression ratio and its CPU
+ * cost can be tracked.</p>
+ */
+@Slf4j
+public class NettyCompressionHandler extends MessageToMessageCodec<ByteBuf, ByteBuf> {
+
+    /** The codec frames are compressed with, or null until enabled. */
+    @Getter
+    private volatile CompressionCodec codec = null;
+
+    /** Frames smaller than this number of bytes are not compressed. */
+    private int threshold;
+
+    private final boolean isMetricsEnabled;
+
+    private final Counter counterUncompressedBytes;
+
+    private final Counter counterCompressedBytes;
+
+    private final Timer timerCompress;
+
+    private final Timer timerDecompress;
+
+    /**
+     * Creates a compression handler reporting to a metrics registry.
+     *
+     * @param metrics      The metrics registry.
+     * @param metricPrefix The prefix of the metric names.
+     */
+    public NettyCompressionHandler(@NonNull MetricRegistry metrics, @NonNull String metricPrefix) {
+        isMetricsEnabled = MetricsUtils.isMetricsCollectionEnabled();
+        counterUncompressedBytes = metrics.counter(metricPrefix + "compression-uncompressed-bytes");
+        counterCompressedBytes = metrics.counter(metricPrefix + "compression-compressed-bytes");
+        timerCompress = metrics.timer(metricPrefix + "compression-compress");
+        timerDecompress = metrics.timer(metricPrefix + "compression-decompress");
+    }
+
+    /**
+     * Enables compression on this connection. Must be called from the event loop, between
+     * the last uncompressed frame and the first compressed one in both directions.
+     *
+     * @param codec     The negotiated codec.
+     * @param threshold Frames smaller than this number of bytes are not compressed.
+     */
+    public void enable(@NonNull CompressionCodec codec, int threshold) {
+        log.debug("enable: Compressing frames of at least {} bytes with {}", threshold, codec);
+        this.threshold = threshold;
+        this.codec = codec;
+    }
+
+    @Override
+    protected void encode(ChannelHandlerContext ctx, ByteBuf frame, List<Object> out) {
+        if (codec == null) {
+            out.add(frame.retain());
+            return;
+        }
+
+        int length = frame.readableBytes();
+        MetricsUtils.incConditionalCounter(isMetricsEnabled, counterUncompressedBytes, length);
+        if (codec != CompressionCodec.NONE && length >= threshold) {
+            ByteBuf compressed = ctx.alloc().buffer(length);
+            Timer.Context context = MetricsUtils.getConditionalContext(isMetricsEnabled,
+                    timerCompress);
+            try {
+                compressed.writeByte(codec.asByte());
+                compressed.writeInt(length);
+                codec.compress(frame.slice(), compressed);
+            } catch (RuntimeException e) {
+                compressed.release();
+                throw e;
+            } finally {
+                MetricsUtils.stopConditionalContext(context);
+            }
+            if (compressed.readableBytes() < length) {
+                MetricsUtils.incConditionalCounter(isMetricsEnabled, counterCompressedBytes,
+                        compressed.readableBytes());
+                out.add(compressed);
+                return;
+            }
+            // The frame did not compress, it is sent as is.
+            compressed.release();
+        }
+
+        MetricsUtils.incConditionalCounter(isMetricsEnabled, counterCompressedBytes, length + 1);
+        ByteBuf header = ctx.alloc().buffer(1);
+        header.writeByte(CompressionCodec.NONE.asByte());
+        out.add(ctx.alloc().compositeBuffer(2)
+                .addComponents(true, header, frame.retain()));
+    }
+
+    @Override
+    protected void decode(ChannelHandlerContext ctx, ByteBuf frame, List<Object> out) {
+        if (codec == null) {
+            out.add(frame.retain());
+            return;
+        }
+
+        CompressionCodec frameCodec = CompressionCodec.typeMap.get(frame.readByte());
+        if (frameCodec == null) {
+            throw new IllegalStateException("Frame compressed with an unknown codec");
+        }
+        if (frameCodec == CompressionCodec.NONE) {
+            out.add(frame.retain());
+            return;
+        }
+
+        ByteBuf decompressed = ctx.alloc().buffer(frame.readInt());
+        Timer.Context context = MetricsUtils.getConditionalContext(isMetricsEnabled,
+                timerDecompress);
+        try {
+            frameCodec.decompress(frame, decompressed);
+        } catch (RuntimeException e) {
+            decompressed.release();
+            throw e;
+        } finally {
+            MetricsUtils.stopConditionalContext(context);
+        }
+        out.add(decompressed);
+    }
+}
@@ -16,10 +16,26 @@ import lombok.extern.slf4j.Slf4j;
 @Slf4j
 public class NettyCorfuMessageDecoder extends ByteToMessageDecoder {
 
+    /**
+     * Whether log data are decoded lazily. The log data of read responses then keep retained
+     * slices of the frame instead of copying their payloads, which are deserialized on first
+     * access. The frame is not copied, and is released once its log data have deserialized,
+     * copied or released their payloads. Other messages are decoded as usual.
+     */
+    private final boolean lazyLogData;
+
+    public NettyCorfuMessageDecoder() {
+        this(false);
+    }
+
+    public NettyCorfuMessageDecoder(boolean lazyLogData) {
+        this.lazyLogData = lazyLogData;
+    }
+
     @Override
     protected void decode(ChannelHandlerContext channelHandlerContext, ByteBuf byteBuf,
                           List<Object> list) throws Exception {
-        list.add(CorfuMsg.deserialize(byteBuf));
+        list.add(CorfuMsg.deserialize(byteBuf, lazyLogData));
     }
 
     @Override
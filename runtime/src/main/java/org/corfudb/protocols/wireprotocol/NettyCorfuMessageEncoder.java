@@ -16,8 +16,53 @@ import java.util.function.LongBinaryOperator;
 public class NettyCorfuMessageEncoder extends MessageToByteEncoder<CorfuMsg> {
 
 
+    /**
+     * Bytes allocated for the header and the metadata of a message, on top of the estimated
+     * size of its log data.
+     */
+    private static final int MESSAGE_OVERHEAD = 256;
+
     final LongAccumulator maxValue = new LongAccumulator(Math::max, Long.MIN_VALUE);
 
+    /**
+     * Allocates a pooled direct buffer large enough for the estimated size of the message,
+     * so that serializing large log data does not grow the buffer in several copies.
+     */
+    @Override
+    protected ByteBuf allocateBuffer(ChannelHandlerContext ctx, CorfuMsg corfuMsg,
+                                     boolean preferDirect) {
+        return ctx.alloc().ioBuffer(getSizeEstimate(corfuMsg));
+    }
+
+    /**
+     * Returns an estimate of the serialized size of a message, from the size of the log data
+     * it carries.
+     */
+    public static int getSizeEstimate(CorfuMsg corfuMsg) {
+        if (!(corfuMsg instanceof CorfuPayloadMsg)) {
+            return MESSAGE_OVERHEAD;
+        }
+        Object payload = ((CorfuPayloadMsg<?>) corfuMsg).getPayload();
+        long estimate = MESSAGE_OVERHEAD;
+        if (payload instanceof WriteRequest) {
+            estimate += getDataSizeEstimate(((WriteRequest) payload).getData());
+        } else if (payload instanceof ILogData) {
+            estimate += getDataSizeEstimate((ILogData) payload);
+        } else if (payload instanceof ReadResponse) {
+            for (LogData logData : ((ReadResponse) payload).getAddresses().values()) {
+                estimate += getDataSizeEstimate(logData) + MESSAGE_OVERHEAD;
+            }
+        }
+        return (int) Math.min(estimate, Integer.MAX_VALUE);
+    }
+
+    /**
+     * Only data entries carry a payload, holes and trimmed entries have no size estimate.
+     */
+    private static int getDataSizeEstimate(ILogData logData) {
+        return logData.getType() == DataType.DATA ? logData.getSizeEstimate() : 0;
+    }
+
     @Override
     protected void encode(ChannelHandlerContext channelHandlerContext,
                           CorfuMsg corfuMsg,
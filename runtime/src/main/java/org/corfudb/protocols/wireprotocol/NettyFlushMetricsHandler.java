@@ -0,0 +1,91 @@
+package org.corfudb.protocols.wireprotocol;
+
+import com.codahale.metrics.Histogram;
+import com.codahale.metrics.MetricRegistry;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufHolder;
+import io.netty.channel.ChannelHandler;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.ChannelOutboundHandlerAdapter;
+import io.netty.channel.ChannelPromise;
+
+import lombok.Getter;
+import lombok.NonNull;
+
+/**
+ * Measures how many messages and bytes each flush of a channel writes to the socket.
+ *
+ * <p>This handler sits at the head of the pipeline, where it sees the bytes written to the
+ * socket by each flush. Its {@link NettyFlushMetricsHandler#getMessageCounter()} handler sits
+ * before the message encoder, where it counts the messages written. The messages and bytes
+ * written between two flushes are reported to the messages-per-flush and bytes-per-flush
+ * histograms, which show how well writes are coalesced.</p>
+ *
+ * <p>Both handlers are only called from the event loop of the channel.</p>
+ */
+public class NettyFlushMetricsHandler extends ChannelOutboundHandlerAdapter {
+
+    /**
+     * The number of flushes the channels consolidate before flushing explicitly, even while a
+     * read is in progress.
+     */
+    public static final int MAX_CONSOLIDATED_FLUSHES = 256;
+
+    private final Histogram histogramMessagesPerFlush;
+
+    private final Histogram histogramBytesPerFlush;
+
+    /** Messages written since the last flush. */
+    private int pendingMessages = 0;
+
+    /** Bytes written since the last flush. */
+    private long pendingBytes = 0;
+
+    /**
+     * Counts the messages written, to be added before the message encoder.
+     */
+    @Getter
+    private final ChannelHandler messageCounter = new ChannelOutboundHandlerAdapter() {
+        @Override
+        public void write(ChannelHandlerContext ctx, Object msg, ChannelPromise promise)
+                throws Exception {
+            pendingMessages++;
+            ctx.write(msg, promise);
+        }
+    };
+
+    /**
+     * Creates a flush metrics handler reporting to a metrics registry.
+     *
+     * @param metrics      The metrics registry.
+     * @param metricPrefix The prefix of the metric names.
+     */
+    public NettyFlushMetricsHandler(@NonNull MetricRegistry metrics,
+                                    @NonNull String metricPrefix) {
+        histogramMessagesPerFlush = metrics.histogram(metricPrefix + "messages-per-flush");
+        histogramBytesPerFlush = metrics.histogram(metricPrefix + "bytes-per-flush");
+    }
+
+    @Override
+    public void write(ChannelHandlerContext ctx, Object msg, ChannelPromise promise)
+            throws Exception {
+        if (msg instanceof ByteBuf) {
+            pendingBytes += ((ByteBuf) msg).readableBytes();
+        } else if (msg instanceof ByteBufHolder) {
+            pendingBytes += ((ByteBufHolder) msg).content().readableBytes();
+        }
+        ctx.write(msg, promise);
+    }
+
+    @Override
+    public void flush(ChannelHandlerContext ctx) throws Exception {
+        if (pendingBytes > 0) {
+            histogramMessagesPerFlush.update(pendingMessages);
+            histogramBytesPerFlush.update(pendingBytes);
+            pendingMessages = 0;
+            pendingBytes = 0;
+        }
+        ctx.flush();
+    }
+}
@@ -2,29 +2,52 @@ package org.corfudb.protocols.wireprotocol;
 
 import io.netty.buffer.ByteBuf;
 
-import java.util.HashMap;
 import java.util.Map;
 
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.Getter;
 
+import org.corfudb.annotations.PayloadCodec;
+import org.corfudb.annotations.PayloadField;
+import org.corfudb.util.AddressMap;
+
 /**
  * Created by mwei on 8/15/16.
  */
+@PayloadCodec
 @Data
 @AllArgsConstructor
 public class ReadResponse implements ICorfuPayload<ReadResponse> {
 
     @Getter
+    @PayloadField(decodeAs = AddressMap.class)
     Map<Long, LogData> addresses;
 
-    public ReadResponse(ByteBuf buf) {
-        addresses = ICorfuPayload.mapFromBuffer(buf, Long.class, LogData.class);
+    /**
+     * Deserialization Constructor from ByteBuf to ReadResponse, which keeps the payloads of
+     * the log data in slices of the buffer. Other read responses are decoded by the generated
+     * {@link ReadResponseCodec}.
+     *
+     * @param buf            The buffer to deserialize
+     * @param retainPayloads True, if the log data keep retained slices of the buffer instead
+     *                       of copying their payloads
+     */
+    public ReadResponse(ByteBuf buf, boolean retainPayloads) {
+        int numEntries = buf.readInt();
+        AddressMap<LogData> entries = new AddressMap<>(numEntries);
+        for (int i = 0; i < numEntries; i++) {
+            long address = buf.readLong();
+            entries.put(address, new LogData(buf, retainPayloads));
+        }
+        if (retainPayloads) {
+            LogData.shareRetainedBytes(entries.values(), buf.capacity());
+        }
+        addresses = entries;
     }
 
     public ReadResponse() {
-        addresses = new HashMap<Long, LogData>();
+        addresses = new AddressMap<>();
     }
 
     public void put(Long address, LogData data) {
@@ -33,6 +56,6 @@ public class ReadResponse implements ICorfuPayload<ReadResponse> {
 
     @Override
     public void doSerialize(ByteBuf buf) {
-        ICorfuPayload.serialize(buf, addresses);
+        ReadResponseCodec.encode(buf, this);
     }
 }
@@ -0,0 +1,38 @@
+package org.corfudb.protocols.wireprotocol;
+
+import io.netty.buffer.ByteBuf;
+
+import lombok.Data;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * A request to read an address, which the log unit holds until the address is written or the
+ * timeout expires.
+ */
+@CorfuPayload
+@Data
+@RequiredArgsConstructor
+public class ReadWaitRequest implements ICorfuPayload<ReadWaitRequest> {
+
+    /** The address to read. */
+    final long address;
+
+    /** The time to wait for the address to be written, in milliseconds. */
+    final long timeout;
+
+    /**
+     * Deserialization Constructor from ByteBuf to ReadWaitRequest.
+     *
+     * @param buf The buffer to deserialize
+     */
+    public ReadWaitRequest(ByteBuf buf) {
+        address = ICorfuPayload.fromBuffer(buf, Long.class);
+        timeout = ICorfuPayload.fromBuffer(buf, Long.class);
+    }
+
+    @Override
+    public void doSerialize(ByteBuf buf) {
+        ICorfuPayload.serialize(buf, address);
+        ICorfuPayload.serialize(buf, timeout);
+    }
+}
@@ -0,0 +1,36 @@
+package org.corfudb.protocols.wireprotocol;
+
+import io.netty.buffer.ByteBuf;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+/**
+ * A block of global addresses allocated by the primary sequencer and leased to a sequencer
+ * shard, which issues tokens from it without coordinating with the primary sequencer.
+ */
+@Data
+@AllArgsConstructor
+public class SequencerLease implements ICorfuPayload<SequencerLease> {
+
+    /**
+     * First global address of the block.
+     */
+    private Long start;
+
+    /**
+     * Number of addresses in the block.
+     */
+    private Long count;
+
+    public SequencerLease(ByteBuf buf) {
+        start = ICorfuPayload.fromBuffer(buf, Long.class);
+        count = ICorfuPayload.fromBuffer(buf, Long.class);
+    }
+
+    @Override
+    public void doSerialize(ByteBuf buf) {
+        ICorfuPayload.serialize(buf, start);
+        ICorfuPayload.serialize(buf, count);
+    }
+}
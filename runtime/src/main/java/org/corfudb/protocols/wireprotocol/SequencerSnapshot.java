@@ -0,0 +1,98 @@
+package org.corfudb.protocols.wireprotocol;
+
+import io.netty.buffer.ByteBuf;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import org.corfudb.runtime.view.Address;
+import org.corfudb.runtime.view.Layout;
+import org.corfudb.util.ConflictTailList;
+import org.corfudb.util.StreamTailMap;
+
+/**
+ * A point-in-time copy of the primary sequencer's state, shipped to standby sequencers so that
+ * a newly promoted sequencer can bootstrap from it and only scan the log written after it.
+ *
+ * <p>The snapshot covers every token issued below {@link SequencerSnapshot#globalTail}. The
+ * stream and conflict tails are serialized in a compact primitive form, see
+ * {@link StreamTailMap#serialize(ByteBuf)} and {@link ConflictTailList#serialize(ByteBuf)}.
+ */
+@Data
+@AllArgsConstructor
+public class SequencerSnapshot implements ICorfuPayload<SequencerSnapshot> {
+
+    /**
+     * Epoch of the sequencer which took this snapshot.
+     */
+    private Long sequencerEpoch;
+
+    /**
+     * First global address not covered by this snapshot.
+     */
+    private Long globalTail;
+
+    /**
+     * Trim mark of the sequencer at the time of the snapshot.
+     */
+    private Long trimMark;
+
+    /**
+     * Max timestamp of all conflict keys evicted from the conflict cache.
+     */
+    private Long maxConflictWildcard;
+
+    /**
+     * Tails of the streams.
+     */
+    private StreamTailMap streamTails;
+
+    /**
+     * Conflict parameters and their latest global address.
+     */
+    private ConflictTailList conflictTails;
+
+    public SequencerSnapshot(ByteBuf buf) {
+        sequencerEpoch = ICorfuPayload.fromBuffer(buf, Long.class);
+        globalTail = ICorfuPayload.fromBuffer(buf, Long.class);
+        trimMark = ICorfuPayload.fromBuffer(buf, Long.class);
+        maxConflictWildcard = ICorfuPayload.fromBuffer(buf, Long.class);
+        streamTails = StreamTailMap.fromBuffer(buf);
+        conflictTails = ConflictTailList.fromBuffer(buf);
+    }
+
+    /**
+     * Returns an empty snapshot, reported by a standby sequencer which has not received any.
+     */
+    public static SequencerSnapshot empty() {
+        return new SequencerSnapshot(Layout.INVALID_EPOCH, Address.NON_ADDRESS,
+                Address.NON_ADDRESS, Address.NOT_FOUND,
+                new StreamTailMap(), new ConflictTailList());
+    }
+
+    /**
+     * Returns true if this snapshot covers any part of the log.
+     */
+    public boolean isPresent() {
+        return Address.isAddress(globalTail);
+    }
+
+    /**
+     * Returns a copy of this snapshot without the stream and conflict tails, used when only the
+     * coverage of the snapshot is of interest.
+     */
+    public SequencerSnapshot header() {
+        return new SequencerSnapshot(sequencerEpoch, globalTail, trimMark, maxConflictWildcard,
+                new StreamTailMap(), new ConflictTailList());
+    }
+
+    @Override
+    public void doSerialize(ByteBuf buf) {
+        ICorfuPayload.serialize(buf, sequencerEpoch);
+        ICorfuPayload.serialize(buf, globalTail);
+        ICorfuPayload.serialize(buf, trimMark);
+        ICorfuPayload.serialize(buf, maxConflictWildcard);
+        streamTails.serialize(buf);
+        conflictTails.serialize(buf);
+    }
+}
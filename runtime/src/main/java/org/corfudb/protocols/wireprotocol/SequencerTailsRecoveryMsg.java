@@ -8,6 +8,9 @@ import java.util.UUID;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 
+import org.corfudb.runtime.view.Address;
+import org.corfudb.util.StreamTailMap;
+
 /**
  * Created by rmichoud on 6/20/17.
  */
@@ -16,7 +19,11 @@ import lombok.Data;
 public class SequencerTailsRecoveryMsg implements ICorfuPayload<SequencerTailsRecoveryMsg> {
 
     private Long globalTail;
-    private Map<UUID, Long> streamTails;
+
+    /**
+     * Tails of the streams, serialized sorted by tail with delta-encoded addresses.
+     */
+    private StreamTailMap streamTails;
     private Long sequencerEpoch;
 
     /**
@@ -26,20 +33,66 @@ public class SequencerTailsRecoveryMsg implements ICorfuPayload<SequencerTailsRe
      */
     private Boolean bootstrapWithoutTailsUpdate;
 
+    /**
+     * Global tail of the standby snapshot this bootstrap builds upon, or
+     * {@link Address#NON_ADDRESS} if the stream tails cover the whole log. If set, the stream
+     * tails only contain the streams written at or after this address.
+     */
+    private Long snapshotTail;
+
+    /**
+     * True if the sequencer is a shard which issues addresses leased from the primary
+     * sequencer, rather than owning the global log tail.
+     */
+    private Boolean addressLeasing;
+
+    /**
+     * Creates a bootstrap message with stream tails covering the whole log.
+     */
+    public SequencerTailsRecoveryMsg(Long globalTail, Map<UUID, Long> streamTails,
+                                     Long sequencerEpoch, Boolean bootstrapWithoutTailsUpdate) {
+        this(globalTail, streamTails, sequencerEpoch, bootstrapWithoutTailsUpdate,
+                Address.NON_ADDRESS);
+    }
+
+    /**
+     * Creates a bootstrap message for a sequencer owning the global log tail.
+     */
+    public SequencerTailsRecoveryMsg(Long globalTail, Map<UUID, Long> streamTails,
+                                     Long sequencerEpoch, Boolean bootstrapWithoutTailsUpdate,
+                                     Long snapshotTail) {
+        this(globalTail, streamTails, sequencerEpoch, bootstrapWithoutTailsUpdate,
+                snapshotTail, false);
+    }
+
+    /**
+     * Creates a bootstrap message from the stream tails of a boxed map.
+     */
+    public SequencerTailsRecoveryMsg(Long globalTail, Map<UUID, Long> streamTails,
+                                     Long sequencerEpoch, Boolean bootstrapWithoutTailsUpdate,
+                                     Long snapshotTail, Boolean addressLeasing) {
+        this(globalTail, new StreamTailMap(streamTails), sequencerEpoch,
+                bootstrapWithoutTailsUpdate, snapshotTail, addressLeasing);
+    }
+
     public SequencerTailsRecoveryMsg(ByteBuf buf) {
         globalTail = ICorfuPayload.fromBuffer(buf, Long.class);
-        streamTails = ICorfuPayload.mapFromBuffer(buf, UUID.class, Long.class);
+        streamTails = StreamTailMap.fromBuffer(buf);
         sequencerEpoch = ICorfuPayload.fromBuffer(buf, Long.class);
         bootstrapWithoutTailsUpdate = ICorfuPayload.fromBuffer(buf, Boolean.class);
+        snapshotTail = ICorfuPayload.fromBuffer(buf, Long.class);
+        addressLeasing = ICorfuPayload.fromBuffer(buf, Boolean.class);
     }
 
     @Override
     public void doSerialize(ByteBuf buf) {
 
         ICorfuPayload.serialize(buf, globalTail);
-        ICorfuPayload.serialize(buf, streamTails);
+        streamTails.serialize(buf);
         ICorfuPayload.serialize(buf, sequencerEpoch);
         ICorfuPayload.serialize(buf, bootstrapWithoutTailsUpdate);
+        ICorfuPayload.serialize(buf, snapshotTail);
+        ICorfuPayload.serialize(buf, addressLeasing);
     }
 }
 
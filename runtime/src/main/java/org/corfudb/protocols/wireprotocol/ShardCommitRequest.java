@@ -0,0 +1,48 @@
+package org.corfudb.protocols.wireprotocol;
+
+import io.netty.buffer.ByteBuf;
+
+import java.util.UUID;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import org.corfudb.runtime.view.Address;
+
+/**
+ * Second phase of a token request spanning several sequencer shards, which releases the
+ * fences taken by the {@link ShardPrepareRequest} and, unless aborted, applies the request
+ * at the global address allocated by the primary sequencer.
+ */
+@Data
+@AllArgsConstructor
+public class ShardCommitRequest implements ICorfuPayload<ShardCommitRequest> {
+
+    /**
+     * Identifies the request across the shards.
+     */
+    private UUID requestId;
+
+    /**
+     * Global address allocated to the request, or {@link Address#NON_ADDRESS} to abort it.
+     */
+    private Long address;
+
+    public ShardCommitRequest(ByteBuf buf) {
+        requestId = ICorfuPayload.fromBuffer(buf, UUID.class);
+        address = ICorfuPayload.fromBuffer(buf, Long.class);
+    }
+
+    /**
+     * Returns true if this request aborts the prepared request.
+     */
+    public boolean isAbort() {
+        return !Address.isAddress(address);
+    }
+
+    @Override
+    public void doSerialize(ByteBuf buf) {
+        ICorfuPayload.serialize(buf, requestId);
+        ICorfuPayload.serialize(buf, address);
+    }
+}
@@ -0,0 +1,39 @@
+package org.corfudb.protocols.wireprotocol;
+
+import io.netty.buffer.ByteBuf;
+
+import java.util.UUID;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+/**
+ * First phase of a token request spanning several sequencer shards. The shard resolves its
+ * part of the request and fences the streams involved until the request is committed or
+ * aborted with a {@link ShardCommitRequest}.
+ */
+@Data
+@AllArgsConstructor
+public class ShardPrepareRequest implements ICorfuPayload<ShardPrepareRequest> {
+
+    /**
+     * Identifies the request across the shards.
+     */
+    private UUID requestId;
+
+    /**
+     * The part of the token request owned by the shard.
+     */
+    private TokenRequest tokenRequest;
+
+    public ShardPrepareRequest(ByteBuf buf) {
+        requestId = ICorfuPayload.fromBuffer(buf, UUID.class);
+        tokenRequest = ICorfuPayload.fromBuffer(buf, TokenRequest.class);
+    }
+
+    @Override
+    public void doSerialize(ByteBuf buf) {
+        ICorfuPayload.serialize(buf, requestId);
+        ICorfuPayload.serialize(buf, tokenRequest);
+    }
+}
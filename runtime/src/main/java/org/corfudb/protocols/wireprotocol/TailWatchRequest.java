@@ -0,0 +1,50 @@
+package org.corfudb.protocols.wireprotocol;
+
+import io.netty.buffer.ByteBuf;
+
+import lombok.Data;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * A request to watch the tail and the trim mark of a log unit. The log unit holds the request
+ * until either of them differs from the values the client knows, and then answers it once the
+ * coalescing interval has elapsed, with their latest values. A request is also answered once
+ * its timeout expires.
+ */
+@CorfuPayload
+@Data
+@RequiredArgsConstructor
+public class TailWatchRequest implements ICorfuPayload<TailWatchRequest> {
+
+    /** The tail the client knows. */
+    final long tail;
+
+    /** The trim mark the client knows. */
+    final long trimMark;
+
+    /** The time over which changes are coalesced into a single answer, in milliseconds. */
+    final long interval;
+
+    /** The time to wait for a change, in milliseconds. */
+    final long timeout;
+
+    /**
+     * Deserialization Constructor from ByteBuf to TailWatchRequest.
+     *
+     * @param buf The buffer to deserialize
+     */
+    public TailWatchRequest(ByteBuf buf) {
+        tail = ICorfuPayload.fromBuffer(buf, Long.class);
+        trimMark = ICorfuPayload.fromBuffer(buf, Long.class);
+        interval = ICorfuPayload.fromBuffer(buf, Long.class);
+        timeout = ICorfuPayload.fromBuffer(buf, Long.class);
+    }
+
+    @Override
+    public void doSerialize(ByteBuf buf) {
+        ICorfuPayload.serialize(buf, tail);
+        ICorfuPayload.serialize(buf, trimMark);
+        ICorfuPayload.serialize(buf, interval);
+        ICorfuPayload.serialize(buf, timeout);
+    }
+}
@@ -0,0 +1,37 @@
+package org.corfudb.protocols.wireprotocol;
+
+import io.netty.buffer.ByteBuf;
+
+import lombok.Data;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * The answer to a {@link TailWatchRequest}, with the tail and the trim mark of the log unit.
+ */
+@CorfuPayload
+@Data
+@RequiredArgsConstructor
+public class TailWatchResponse implements ICorfuPayload<TailWatchResponse> {
+
+    /** The maximum address written to the log unit. */
+    final long tail;
+
+    /** The trim mark of the log unit. */
+    final long trimMark;
+
+    /**
+     * Deserialization Constructor from ByteBuf to TailWatchResponse.
+     *
+     * @param buf The buffer to deserialize
+     */
+    public TailWatchResponse(ByteBuf buf) {
+        tail = ICorfuPayload.fromBuffer(buf, Long.class);
+        trimMark = ICorfuPayload.fromBuffer(buf, Long.class);
+    }
+
+    @Override
+    public void doSerialize(ByteBuf buf) {
+        ICorfuPayload.serialize(buf, tail);
+        ICorfuPayload.serialize(buf, trimMark);
+    }
+}
@@ -8,6 +8,9 @@ import java.util.UUID;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 
+import org.corfudb.annotations.PayloadCodec;
+import org.corfudb.annotations.PayloadField;
+
 /**
  * A token request is at the heart of the Corfu log protocol.
  *
@@ -21,7 +24,10 @@ import lombok.Data;
  * 3. {@link TokenRequest::TK_TX} :
  *          First, check transaction resolution. If transaction can commit, then behave
  *          like {@link TokenRequest::TK_MULTI_STREAM}.</p>
+ *
+ * <p>The fields which a request type does not use are not written.</p>
  */
+@PayloadCodec
 @Data
 @AllArgsConstructor
 public class TokenRequest implements ICorfuPayload<TokenRequest> {
@@ -36,12 +42,15 @@ public class TokenRequest implements ICorfuPayload<TokenRequest> {
     final byte reqType;
 
     /** The number of tokens to request. */
+    @PayloadField(when = "reqType != TokenRequest.TK_QUERY", otherwise = "0L")
     final Long numTokens;
 
     /** The streams which are written to by this token request. */
+    @PayloadField(when = "reqType != TokenRequest.TK_RAW")
     final List<UUID> streams;
 
     /* used for transaction resolution. */
+    @PayloadField(when = "reqType == TokenRequest.TK_TX")
     final TxResolutionInfo txnResolution;
 
     /**
@@ -78,61 +87,8 @@ public class TokenRequest implements ICorfuPayload<TokenRequest> {
         txnResolution = null;
     }
 
-    /**
-     * Deserialization Constructor from Bytebuf to TokenRequest.
-     *
-     * @param buf The buffer to deserialize
-     */
-    public TokenRequest(ByteBuf buf) {
-        reqType = ICorfuPayload.fromBuffer(buf, Byte.class);
-
-        switch (reqType) {
-
-            case TK_QUERY:
-                numTokens = 0L;
-                streams = ICorfuPayload.listFromBuffer(buf, UUID.class);
-                txnResolution = null;
-                break;
-
-            case TK_RAW:
-                numTokens = ICorfuPayload.fromBuffer(buf, Long.class);
-                streams = null;
-                txnResolution = null;
-                break;
-
-            case TK_MULTI_STREAM:
-                numTokens = ICorfuPayload.fromBuffer(buf, Long.class);
-                streams = ICorfuPayload.listFromBuffer(buf, UUID.class);
-                txnResolution = null;
-                break;
-
-            case TK_TX:
-                numTokens = ICorfuPayload.fromBuffer(buf, Long.class);
-                streams = ICorfuPayload.listFromBuffer(buf, UUID.class);
-                txnResolution = new TxResolutionInfo(buf);
-                break;
-
-            default:
-                numTokens = -1L;
-                streams = null;
-                txnResolution = null;
-                break;
-        }
-    }
-
     @Override
     public void doSerialize(ByteBuf buf) {
-        ICorfuPayload.serialize(buf, reqType);
-        if (reqType != TK_QUERY) {
-            ICorfuPayload.serialize(buf, numTokens);
-        }
-
-        if (reqType != TK_RAW) {
-            ICorfuPayload.serialize(buf, streams);
-        }
-
-        if (reqType == TK_TX) {
-            ICorfuPayload.serialize(buf, txnResolution);
-        }
+        TokenRequestCodec.encode(buf, this);
     }
 }
\ No newline at end of file
@@ -51,6 +51,10 @@ public class TokenResponse implements ICorfuPayload<TokenResponse>, IToken {
 
     final List<Long> streamTails;
 
+    /** The time, from {@link System#nanoTime()}, at which this response was created. On a
+     * client, this is when the token was received from the sequencer. */
+    final transient long issuedNanos = System.nanoTime();
+
     /**
      * Deserialization Constructor from a Bytebuf to TokenResponse.
      *
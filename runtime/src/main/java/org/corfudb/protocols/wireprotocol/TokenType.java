@@ -34,7 +34,15 @@ public enum  TokenType implements ICorfuPayload<TokenType> {
 
     // Sent when a transaction aborts because it has an old version (i.e. older than
     // the trim mark). This is to detect slow transactions
-    TX_ABORT_SEQ_TRIM((byte) 5);
+    TX_ABORT_SEQ_TRIM((byte) 5),
+
+    // Sent by a sequencer shard when the request involves a stream fenced by a pending
+    // cross-shard request. The request should be retried.
+    SHARD_FENCED((byte) 6),
+
+    // Sent by a sequencer shard which has not enough leased addresses left to serve the
+    // request. A new lease should be granted to the shard before retrying.
+    SHARD_LEASE_REQUIRED((byte) 7);
 
     final int val;
 
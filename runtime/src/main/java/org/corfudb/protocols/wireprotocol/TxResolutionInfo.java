@@ -1,10 +1,13 @@
 package org.corfudb.protocols.wireprotocol;
 
 import com.google.common.collect.ImmutableMap;
+import com.google.common.primitives.Longs;
 
 import io.netty.buffer.ByteBuf;
 
+import java.util.Arrays;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.Map;
 import java.util.Set;
 import java.util.UUID;
@@ -12,6 +15,8 @@ import java.util.UUID;
 import lombok.Getter;
 import lombok.Setter;
 
+import net.openhft.hashing.LongHashFunction;
+
 import org.corfudb.util.Utils;
 
 /**
@@ -29,13 +34,19 @@ public class TxResolutionInfo implements ICorfuPayload<TxResolutionInfo> {
     @Setter
     Long snapshotTimestamp;
 
-    /** A set of poisoned streams, which have a conflict against all updates. */
-
+    /**
+     * Fingerprints of the conflict parameters read by the transaction, arranged by stream IDs.
+     * Each array is sorted and free of duplicates.
+     */
     @Getter
-    final Map<UUID, Set<byte[]>> conflictSet;
+    final Map<UUID, long[]> conflictSet;
 
+    /**
+     * Fingerprints of the conflict parameters written by the transaction, arranged by stream
+     * IDs. Each array is sorted and free of duplicates.
+     */
     @Getter
-    final Map<UUID, Set<byte[]>>  writeConflictParams;
+    final Map<UUID, long[]> writeConflictParams;
 
     /**
      * Constructor for TxResolutionInfo.
@@ -60,46 +71,134 @@ public class TxResolutionInfo implements ICorfuPayload<TxResolutionInfo> {
      */
     public TxResolutionInfo(UUID txId, long snapshotTimestamp, Map<UUID, Set<byte[]>>
             conflictMap, Map<UUID, Set<byte[]>> writeConflictParams) {
+        this(toFingerprints(conflictMap), toFingerprints(writeConflictParams), txId,
+                snapshotTimestamp);
+    }
+
+    private TxResolutionInfo(Map<UUID, long[]> conflictSet,
+                             Map<UUID, long[]> writeConflictParams,
+                             UUID txId, long snapshotTimestamp) {
         this.TXid = txId;
         this.snapshotTimestamp = snapshotTimestamp;
-        this.conflictSet = conflictMap;
+        this.conflictSet = conflictSet;
         this.writeConflictParams = writeConflictParams;
     }
 
+    /**
+     * Creates a TxResolutionInfo from fingerprints of conflict parameters.
+     *
+     * @param txId transaction identifier
+     * @param snapshotTimestamp transaction snapshot timestamp
+     * @param conflictSet sorted and deduplicated fingerprints of the conflict parameters,
+     *                    arranged by stream IDs
+     * @param writeConflictParams sorted and deduplicated fingerprints of the write conflict
+     *                            parameters, arranged by stream IDs
+     * @return the TxResolutionInfo
+     */
+    public static TxResolutionInfo fromFingerprints(UUID txId, long snapshotTimestamp,
+                                                    Map<UUID, long[]> conflictSet,
+                                                    Map<UUID, long[]> writeConflictParams) {
+        return new TxResolutionInfo(conflictSet, writeConflictParams, txId, snapshotTimestamp);
+    }
+
+    /**
+     * Returns the 64-bit fingerprint of a hashed conflict parameter. Hashes of 8 bytes, such as
+     * the ones of longs or the default xxHash, are taken as is, so that they never collide.
+     * Two conflict parameters with the same fingerprint are considered equal, which may only
+     * cause a false abort.
+     *
+     * @param hash the hashed conflict parameter
+     * @return the fingerprint
+     */
+    public static long fingerprint(byte[] hash) {
+        if (hash.length == Long.BYTES) {
+            return Longs.fromByteArray(hash);
+        }
+        return LongHashFunction.xx().hashBytes(hash);
+    }
+
+    /**
+     * Returns the hash sent back to the client for a fingerprint of a conflict parameter.
+     *
+     * @param fingerprint the fingerprint
+     * @return the fingerprint as a byte array
+     */
+    public static byte[] fingerprintToBytes(long fingerprint) {
+        return Longs.toByteArray(fingerprint);
+    }
+
+    /**
+     * Returns a sorted array of distinct fingerprints.
+     *
+     * @param fingerprints the fingerprints, which are sorted in place
+     * @param length       the number of fingerprints at the start of the array
+     * @return the distinct fingerprints, possibly backed by the given array
+     */
+    public static long[] sortDistinct(long[] fingerprints, int length) {
+        Arrays.sort(fingerprints, 0, length);
+        int distinct = 0;
+        for (int i = 0; i < length; i++) {
+            if (distinct == 0 || fingerprints[distinct - 1] != fingerprints[i]) {
+                fingerprints[distinct++] = fingerprints[i];
+            }
+        }
+        return distinct == fingerprints.length ? fingerprints
+                : Arrays.copyOf(fingerprints, distinct);
+    }
+
+    private static Map<UUID, long[]> toFingerprints(Map<UUID, Set<byte[]>> conflictMap) {
+        Map<UUID, long[]> fingerprints = new HashMap<>(conflictMap.size() * 2);
+        conflictMap.forEach((streamId, params) -> {
+            long[] streamFingerprints = new long[params.size()];
+            int i = 0;
+            for (byte[] param : params) {
+                streamFingerprints[i++] = fingerprint(param);
+            }
+            fingerprints.put(streamId, sortDistinct(streamFingerprints, i));
+        });
+        return fingerprints;
+    }
+
     /**
      * fast, specialized deserialization constructor, from a ByteBuf to this object
      *
      * <p>The first entry is a long, the snapshot timestamp.
      * The second is an int, the size of the map.
-     * Next, entries are serialized one by one, first the key, then each value,
-     * itself a set of objects.</p>
+     * Next, entries are serialized one by one, first the key, then the number of
+     * fingerprints of the stream followed by the packed fingerprints.</p>
      *
      * @param buf        The buffer to deserialize.
      */
     public TxResolutionInfo(ByteBuf buf) {
         TXid = ICorfuPayload.fromBuffer(buf, UUID.class);
         snapshotTimestamp = buf.readLong();
+        conflictSet = fingerprintsFromBuffer(buf);
+        writeConflictParams = fingerprintsFromBuffer(buf);
+    }
 
-        // conflictSet
+    private static Map<UUID, long[]> fingerprintsFromBuffer(ByteBuf buf) {
         int numEntries = buf.readInt();
-        ImmutableMap.Builder<UUID, Set<byte[]>> conflictMapBuilder = new ImmutableMap.Builder<>();
-        for (int i = 0; i < numEntries; i++) {
-            UUID k = ICorfuPayload.fromBuffer(buf, UUID.class);
-            Set<byte[]> v = ICorfuPayload.setFromBuffer(buf, byte[].class);
-            conflictMapBuilder.put(k, v);
-        }
-        conflictSet = conflictMapBuilder.build();
-
-        // writeConflictParams
-        numEntries = buf.readInt();
-        ImmutableMap.Builder<UUID, Set<byte[]>> writeMapBuilder = new ImmutableMap.Builder<>();
+        ImmutableMap.Builder<UUID, long[]> builder = ImmutableMap.builder();
         for (int i = 0; i < numEntries; i++) {
             UUID k = ICorfuPayload.fromBuffer(buf, UUID.class);
-            Set<byte[]> v = ICorfuPayload.setFromBuffer(buf, byte[].class);
-            writeMapBuilder.put(k, v);
+            long[] v = new long[buf.readInt()];
+            for (int j = 0; j < v.length; j++) {
+                v[j] = buf.readLong();
+            }
+            builder.put(k, v);
         }
+        return builder.build();
+    }
 
-        writeConflictParams = writeMapBuilder.build();
+    private static void serializeFingerprints(ByteBuf buf, Map<UUID, long[]> fingerprints) {
+        buf.writeInt(fingerprints.size());
+        fingerprints.forEach((streamId, v) -> {
+            ICorfuPayload.serialize(buf, streamId);
+            buf.writeInt(v.length);
+            for (long fingerprint : v) {
+                buf.writeLong(fingerprint);
+            }
+        });
     }
 
     /**
@@ -111,20 +210,8 @@ public class TxResolutionInfo implements ICorfuPayload<TxResolutionInfo> {
     public void doSerialize(ByteBuf buf) {
         ICorfuPayload.serialize(buf, TXid);
         buf.writeLong(snapshotTimestamp);
-
-        // conflictSet
-        buf.writeInt(conflictSet.size());
-        conflictSet.entrySet().stream().forEach(x -> {
-            ICorfuPayload.serialize(buf, x.getKey());
-            ICorfuPayload.serialize(buf, x.getValue());
-        });
-
-        // writeConflictParams
-        buf.writeInt(writeConflictParams.size());
-        writeConflictParams.entrySet().stream().forEach(x -> {
-            ICorfuPayload.serialize(buf, x.getKey());
-            ICorfuPayload.serialize(buf, x.getValue());
-        });
+        serializeFingerprints(buf, conflictSet);
+        serializeFingerprints(buf, writeConflictParams);
     }
 
     @Override
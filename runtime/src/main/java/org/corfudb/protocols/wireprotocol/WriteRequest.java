@@ -10,9 +10,13 @@ import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Getter;
 
+import org.corfudb.annotations.PayloadCodec;
+import org.corfudb.annotations.PayloadField;
+
 /**
  * Created by mwei on 8/9/16.
  */
+@PayloadCodec
 @Builder
 @AllArgsConstructor
 public class WriteRequest implements ICorfuPayload<WriteRequest>, IMetadata {
@@ -21,14 +25,9 @@ public class WriteRequest implements ICorfuPayload<WriteRequest>, IMetadata {
     final WriteMode writeMode;
 
     @Getter
+    @PayloadField(decodeAs = LogData.class)
     final ILogData data;
 
-    @SuppressWarnings("unchecked")
-    public WriteRequest(ByteBuf buf) {
-        writeMode = ICorfuPayload.fromBuffer(buf, WriteMode.class);
-        data = ICorfuPayload.fromBuffer(buf, LogData.class);
-    }
-
     public WriteRequest(WriteMode writeMode, Map<UUID, Long> streamAddresses, ByteBuf buf) {
         this(writeMode, DataType.DATA, streamAddresses, buf);
     }
@@ -46,8 +45,7 @@ public class WriteRequest implements ICorfuPayload<WriteRequest>, IMetadata {
 
     @Override
     public void doSerialize(ByteBuf buf) {
-        ICorfuPayload.serialize(buf, writeMode);
-        ICorfuPayload.serialize(buf, data);
+        WriteRequestCodec.encode(buf, this);
     }
 
     @Override
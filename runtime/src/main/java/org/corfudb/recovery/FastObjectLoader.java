@@ -112,8 +112,11 @@ public class FastObjectLoader {
     private boolean whiteList = false;
     private List<UUID> streamsToLoad = new ArrayList<>();
 
-    @VisibleForTesting
-    void setLogHead(long head) { this.logHead = head; }
+    /**
+     * Start loading from the given address instead of the trim mark.
+     * @param head first address to load.
+     */
+    public void setLogHead(long head) { this.logHead = head; }
 
     @VisibleForTesting
     void setLogTail(long tail) { this.logTail = tail; }
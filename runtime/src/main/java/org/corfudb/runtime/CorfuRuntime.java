@@ -17,6 +17,7 @@ import lombok.ToString;
 import lombok.experimental.Accessors;
 import lombok.extern.slf4j.Slf4j;
 import org.corfudb.comm.ChannelImplementation;
+import org.corfudb.protocols.wireprotocol.CompressionCodec;
 import org.corfudb.protocols.wireprotocol.MsgHandlingFilter;
 import org.corfudb.protocols.wireprotocol.VersionInfo;
 import org.corfudb.recovery.FastObjectLoader;
@@ -26,6 +27,7 @@ import org.corfudb.runtime.clients.LayoutClient;
 import org.corfudb.runtime.clients.LayoutHandler;
 import org.corfudb.runtime.clients.LogUnitHandler;
 import org.corfudb.runtime.clients.ManagementHandler;
+import org.corfudb.runtime.clients.MultiLaneClientRouter;
 import org.corfudb.runtime.clients.NettyClientRouter;
 import org.corfudb.runtime.clients.SequencerHandler;
 import org.corfudb.runtime.exceptions.NetworkException;
@@ -42,6 +44,8 @@ import org.corfudb.runtime.view.ManagementView;
 import org.corfudb.runtime.view.ObjectsView;
 import org.corfudb.runtime.view.SequencerView;
 import org.corfudb.runtime.view.StreamsView;
+import org.corfudb.runtime.view.replication.CommittedTailTracker;
+import org.corfudb.runtime.view.replication.HoleFillDeadline;
 import org.corfudb.util.CFUtils;
 import org.corfudb.util.GitRepositoryState;
 import org.corfudb.util.MetricsUtils;
@@ -60,6 +64,8 @@ import java.util.List;
 import java.util.Map;
 import java.util.UUID;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 import java.util.concurrent.ThreadFactory;
 import java.util.concurrent.TimeoutException;
 import java.util.function.BiFunction;
@@ -116,13 +122,40 @@ public class CorfuRuntime {
         // endregion
 
         // region Address Space Parameters
-        /** Number of times to attempt to read before hole filling. */
+        /** Number of times to attempt to read before hole filling. With chain replication,
+         *  a read waits at most this number of times 100ms for an address to be written
+         *  before hole filling. */
         @Default int holeFillRetry = 10;
 
         /** Whether or not to disable the cache. */
         @Default boolean cacheDisabled = false;
 
-        /** The maximum size of the cache, in bytes. */
+        /** The maximum size of the cache, in bytes of the cached entries. */
+        @Default long maxCacheSize = Runtime.getRuntime().maxMemory() / 10;
+
+        /** The number of consecutive addresses the cache evicts and invalidates together. */
+        @Default int cacheSegmentSize = 256;
+
+        /** Whether or not to read ahead of the streams which read the log at a constant
+         *  stride, into the cache. */
+        @Default boolean readAheadEnabled = false;
+
+        /** The largest number of addresses to read ahead of a stream. */
+        @Default int maxReadAheadWindow = 256;
+
+        /** Whether or not to cache the tail and the trim mark of the log, which the log units
+         *  then tell the runtime of as they change. */
+        @Default boolean tailCacheEnabled = false;
+
+        /** The time over which the log units coalesce the changes of the tail and the trim
+         *  mark, which bounds the staleness of the cached tail and trim mark. */
+        @Default Duration tailCacheInterval = Duration.ofMillis(50);
+
+        /** The maximum number of entries of the cache.
+         *
+         * @deprecated  The cache is bounded by {@link #maxCacheSize}, in bytes.
+         */
+        @Deprecated
         @Default long numCacheEntries = 5000;
 
         /** Sets expireAfterAccess and expireAfterWrite in seconds. */
@@ -134,11 +167,27 @@ public class CorfuRuntime {
         /** Sets the period of trimming the resolvedQueues in minutes. **/
         // FIXME: Remove this with the Stream Layer refactor.
         @Default Duration resolvedStreamTrimTimeout = Duration.ofMinutes(120);
+
+        /** The codec log data payloads are compressed with before being written, in which
+         * form they are stored and served by the log units. */
+        @Default CompressionCodec logDataCompressionCodec = CompressionCodec.NONE;
         // endregion
 
         // region Handshake Parameters
         /** Sets handshake timeout in seconds. */
         @Default int handshakeTimeout = 10;
+
+        /** The codec this client requests to compress the messages of its connections with. */
+        @Default CompressionCodec compressionCodec = CompressionCodec.NONE;
+
+        /** Messages smaller than this number of bytes are sent uncompressed. */
+        @Default int compressionThreshold = 1024;
+
+        /** True, if the log data received by this client should be decoded lazily: their
+         *  payloads are retained slices of the inbound message instead of copies, and are
+         *  deserialized on first access.
+         */
+        @Default boolean lazyLogDataDecoding = false;
         // endregion
 
         // region Stream Parameters
@@ -148,6 +197,18 @@ public class CorfuRuntime {
         /** Whether or not hole filling should be disabled. */
         @Default boolean holeFillingDisabled = false;
 
+        /**
+         * Whether chain replication writes the middle of the chain in parallel, after the head
+         * and before the tail, instead of one member after the other.
+         */
+        @Default boolean chainFanOutEnabled = false;
+
+        /**
+         * Whether chain replication reads addresses below the committed tail of a chain from
+         * any member of the chain, instead of always reading from the tail.
+         */
+        @Default boolean chainReadFromAnyReplica = false;
+
         /** Number of times to retry on an
          * {@link org.corfudb.runtime.exceptions.OverwriteException} before giving up. */
         @Default int writeRetry = 5;
@@ -157,6 +218,16 @@ public class CorfuRuntime {
         @Default int trimRetry = 2;
         // endregion
 
+        // region Sequencer Parameters
+        /** Number of addresses leased to a sequencer shard at once, if the sequencer is
+         * sharded. */
+        @Default long sequencerLeaseSize = 1_000L;
+
+        /** Time to wait before retrying a token request on a stream fenced by a pending
+         * cross-shard request. */
+        @Default Duration sequencerFenceRetryRate = Duration.ofMillis(1);
+        // endregion
+
         //region        Security parameters
         /** True, if TLS is enabled. */
         @Default boolean tlsEnabled = false;
@@ -189,6 +260,38 @@ public class CorfuRuntime {
          */
         @Default Duration requestTimeout = Duration.ofSeconds(5);
 
+        /**
+         * The maximum number of requests in flight to each endpoint. Further requests are
+         * queued, and sent as responses come back.
+         */
+        @Default int maxInFlightRequests = 1024;
+
+        /**
+         * The maximum number of requests queued to each endpoint while its window of requests
+         * in flight is full. Further requests fail with a
+         * {@link org.corfudb.runtime.exceptions.RequestQueueFullException}.
+         */
+        @Default int maxQueuedRequests = 8192;
+
+        /**
+         * The number of connections to each endpoint carrying control traffic, such as token,
+         * tail and layout requests.
+         */
+        @Default int controlConnectionsPerEndpoint = 1;
+
+        /**
+         * The number of connections to each endpoint carrying bulk log data, such as reads
+         * and writes. If zero, bulk traffic shares the control connections.
+         */
+        @Default int bulkConnectionsPerEndpoint = 0;
+
+        /**
+         * The unix domain sockets of the servers on the same host, by endpoint. The runtime
+         * connects to these endpoints through their domain socket instead of TCP, which
+         * requires the epoll or kqueue socket type.
+         */
+        @Singular Map<String, String> unixSocketPaths;
+
         /**
          * This timeout (in seconds) is used to detect servers that
          * shutdown abruptly without terminating the connection properly.
@@ -223,12 +326,30 @@ public class CorfuRuntime {
          */
         @Default UUID clusterId = null;
 
-        /** The type of socket which {@link NettyClientRouter}s should use. By default,
-         *  an NIO based implementation is used.
+        /** The type of socket which {@link NettyClientRouter}s should use. It must match
+         *  the {@link EventLoopGroup}, if one is supplied. By default, NIO is used. Use
+         *  {@link ChannelImplementation#AUTO} for the native implementation of the platform
+         *  (epoll on Linux, kqueue on BSD), if available.
          */
         @Default
         ChannelImplementation socketType = ChannelImplementation.NIO;
 
+        /** True, if the event loops generated by the runtime should busy poll their channels
+         *  instead of blocking while waiting for them. This lowers the latency of the
+         *  replies, but each event loop thread keeps a core busy.
+         */
+        @Default boolean busyPollEnabled = false;
+
+        /** True, if TCP segments should be acknowledged immediately instead of delayed.
+         *  Only applies to epoll channels.
+         */
+        @Default boolean tcpQuickAckEnabled = false;
+
+        /** True, if epoll channels should be edge-triggered, false if level-triggered.
+         *  Only applies to epoll channels.
+         */
+        @Default boolean epollEdgeTriggered = true;
+
         /**
          * Number of retries to reconnect to an unresponsive system before invoking the
          * systemDownHandler. This is mainly required to allow the fault detection mechanism
@@ -270,6 +391,18 @@ public class CorfuRuntime {
          */
         @Default boolean shutdownNettyEventLoop = true;
 
+        /** The number of threads which run the blocking parts of the asynchronous
+         *  operations, such as validating a write of unknown outcome, so that they
+         *  neither block the {@code nettyEventLoop} nor the common pool of the JVM.
+         */
+        @Default int blockingTaskThreads = 8;
+
+        /** A string which will be used to set the
+         * {@link com.google.common.util.concurrent.ThreadFactoryBuilder#nameFormat} of the
+         * threads running the blocking tasks. By default, this is set to "blocking-%d".
+         */
+        @Default String blockingTaskThreadFormat = "blocking-%d";
+
         /** Netty channel options, if provided. If no options are set, we default to
          *  the defaults in {@link this#DEFAULT_CHANNEL_OPTIONS}.
          */
@@ -351,6 +484,12 @@ public class CorfuRuntime {
     @Getter
     private final EventLoopGroup nettyEventLoop;
 
+    /**
+     * The executor of the blocking parts of the asynchronous operations of this runtime.
+     */
+    @Getter
+    private final ExecutorService blockingExecutor;
+
     /**
      * A view of the layout service in the Corfu server instance.
      */
@@ -388,6 +527,18 @@ public class CorfuRuntime {
     @Getter(lazy = true)
     private final ManagementView managementView = new ManagementView(this);
 
+    /**
+     * The committed tails of the replication chains, for reads from any member of a chain.
+     */
+    @Getter(lazy = true)
+    private final CommittedTailTracker committedTailTracker = new CommittedTailTracker(this);
+
+    /**
+     * The time reads wait for an address to be written, derived from the write latencies.
+     */
+    @Getter(lazy = true)
+    private final HoleFillDeadline holeFillDeadline = new HoleFillDeadline();
+
     /**
      * A list of known layout servers.
      */
@@ -516,10 +667,22 @@ public class CorfuRuntime {
             overrideGetRouterFunction != null ? (address) ->
                     overrideGetRouterFunction.apply(this, address) : (address) -> {
                 NodeLocator node = NodeLocator.parseString(address);
+                String socketPath = getParameters().getUnixSocketPaths().get(address);
+                if (socketPath != null) {
+                    // Keep the host and port of a co-located server to name it.
+                    node = NodeLocator.builder()
+                            .protocol(NodeLocator.Protocol.UNIX)
+                            .host(node.getHost())
+                            .port(node.getPort())
+                            .path(socketPath)
+                            .options(node.getOptions())
+                            .build();
+                }
                 // Generate a new router, start it and add it to the table.
-                NettyClientRouter newRouter = new NettyClientRouter(node,
-                        getNettyEventLoop(),
-                        getParameters());
+                IClientRouter newRouter = getParameters().getControlConnectionsPerEndpoint()
+                        + getParameters().getBulkConnectionsPerEndpoint() > 1
+                        ? new MultiLaneClientRouter(node, getNettyEventLoop(), getParameters())
+                        : new NettyClientRouter(node, getNettyEventLoop(), getParameters());
                 log.debug("Connecting to new router {}", node);
                 try {
                     newRouter.addClient(new LayoutHandler())
@@ -563,6 +726,13 @@ public class CorfuRuntime {
         nettyEventLoop = parameters.nettyEventLoop == null ? getNewEventLoopGroup()
                                                             : parameters.nettyEventLoop;
 
+        blockingExecutor = Executors.newFixedThreadPool(parameters.blockingTaskThreads,
+                new ThreadFactoryBuilder()
+                        .setDaemon(true)
+                        .setNameFormat(parameters.blockingTaskThreadFormat)
+                        .setUncaughtExceptionHandler(this::handleUncaughtThread)
+                        .build());
+
         // Initializing the node router pool.
         nodeRouterPool = new NodeRouterPool(getRouterFunction);
 
@@ -587,7 +757,8 @@ public class CorfuRuntime {
                                     .setNameFormat(parameters.nettyEventLoopThreadFormat)
                                     .setUncaughtExceptionHandler(this::handleUncaughtThread)
                                     .build();
-        return parameters.socketType.getGenerator().generate(numThreads, factory);
+        return parameters.socketType.getGenerator(parameters.busyPollEnabled)
+                .generate(numThreads, factory);
     }
 
     /** Function which is called whenever the runtime encounters an uncaught thread.
@@ -626,6 +797,8 @@ public class CorfuRuntime {
 
         stop(true);
 
+        blockingExecutor.shutdownNow();
+
         // Shutdown the event loop
         if (parameters.shutdownNettyEventLoop) {
             nettyEventLoop.shutdownGracefully().syncUninterruptibly();
@@ -743,6 +916,62 @@ public class CorfuRuntime {
                 ? layoutServers : latestLayout.getLayoutServers());
     }
 
+    /**
+     * Invalidate a layout which a request failed with.
+     *
+     * <p>Under a reconfiguration, all the requests in flight fail at once. Only the first
+     * failure of a layout fetches a new one: the requests which failed with a layout which has
+     * since been replaced, or while a layout is being fetched, retry with the current layout
+     * instead, so that all of them wait for a single layout fetch.</p>
+     *
+     * @param staleLayout The layout the request failed with.
+     * @param minEpoch    The epoch the servers expect, such as the epoch of a wrong epoch
+     *                    error. A layout older than this epoch is stale as well.
+     * @return The future of the layout to retry the request with.
+     */
+    public CompletableFuture<Layout> invalidateLayout(@Nonnull Layout staleLayout,
+                                                      long minEpoch) {
+        CompletableFuture<Layout> current = layout;
+        if (!isStale(current, staleLayout, minEpoch)) {
+            return current;
+        }
+        synchronized (this) {
+            if (isStale(layout, staleLayout, minEpoch)) {
+                layout = fetchLayout(latestLayout == null
+                        ? layoutServers : latestLayout.getLayoutServers());
+            }
+            return layout;
+        }
+    }
+
+    /**
+     * Invalidate a layout which a request failed with.
+     *
+     * @param staleLayout The layout the request failed with.
+     * @return The future of the layout to retry the request with.
+     * @see CorfuRuntime#invalidateLayout(Layout, long)
+     */
+    public CompletableFuture<Layout> invalidateLayout(@Nonnull Layout staleLayout) {
+        return invalidateLayout(staleLayout, staleLayout.getEpoch());
+    }
+
+    /**
+     * Check whether a layout future holds a stale layout. A layout being fetched is not stale.
+     */
+    private static boolean isStale(CompletableFuture<Layout> layoutFuture, Layout staleLayout,
+                                   long minEpoch) {
+        if (!layoutFuture.isDone()) {
+            return false;
+        }
+        if (layoutFuture.isCompletedExceptionally()) {
+            return true;
+        }
+        Layout current = layoutFuture.getNow(null);
+        // Each fetch deserializes a new layout, so a layout fetched since the request failed
+        // is a different instance, even if its epoch did not change.
+        return current == null || current == staleLayout || current.getEpoch() < minEpoch;
+    }
+
     /** Check if the cluster Id of the layout matches the client cluster Id.
      *  If the client cluster Id is null, we update the client cluster Id.
      *
@@ -1047,7 +1276,8 @@ public class CorfuRuntime {
     /** Set the number of cache entries.
      *
      * @param numCacheEntries   The number of cache entries.
-     * @deprecated  Deprecated, set using {@link CorfuRuntimeParameters} instead.
+     * @deprecated  Deprecated, the cache is bounded by
+     *              {@link CorfuRuntimeParameters#maxCacheSize} instead.
      */
     @Deprecated
     public CorfuRuntime setNumCacheEntries(long numCacheEntries) {
@@ -15,6 +15,10 @@ import org.corfudb.util.NodeLocator;
 /**
  * Pool of client routers.
  *
+ * <p>The pool holds one router per endpoint. Depending on the runtime parameters, that router
+ * may itself spread requests over several connections to the endpoint, see
+ * {@link org.corfudb.runtime.clients.MultiLaneClientRouter}.</p>
+ *
  * <p>Created by zlokhandwala on 2/20/18.
  */
 @Slf4j
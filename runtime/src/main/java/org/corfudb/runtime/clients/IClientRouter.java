@@ -127,6 +127,16 @@ public interface IClientRouter {
      */
     Integer getPort();
 
+    /**
+     * Whether the server this router is connected to serves compact reads, as negotiated
+     * in the handshake. Routers which have not completed a handshake do not assume it.
+     *
+     * @return True, if compact read requests may be sent.
+     */
+    default boolean isCompactReadSupported() {
+        return false;
+    }
+
     /**
      * Set the Connect timeout
      *
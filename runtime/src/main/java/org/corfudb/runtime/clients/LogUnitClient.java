@@ -9,6 +9,7 @@ import io.netty.buffer.Unpooled;
 import lombok.Getter;
 import lombok.NonNull;
 import org.corfudb.protocols.logprotocol.LogEntry;
+import org.corfudb.protocols.wireprotocol.CompactReadRequest;
 import org.corfudb.protocols.wireprotocol.CorfuMsgType;
 import org.corfudb.protocols.wireprotocol.DataType;
 import org.corfudb.protocols.wireprotocol.FillHoleRequest;
@@ -16,9 +17,13 @@ import org.corfudb.protocols.wireprotocol.ILogData;
 import org.corfudb.protocols.wireprotocol.IMetadata;
 import org.corfudb.protocols.wireprotocol.LogData;
 import org.corfudb.protocols.wireprotocol.MultipleReadRequest;
+import org.corfudb.protocols.wireprotocol.MultipleWriteResponse;
 import org.corfudb.protocols.wireprotocol.RangeWriteMsg;
 import org.corfudb.protocols.wireprotocol.ReadRequest;
 import org.corfudb.protocols.wireprotocol.ReadResponse;
+import org.corfudb.protocols.wireprotocol.ReadWaitRequest;
+import org.corfudb.protocols.wireprotocol.TailWatchRequest;
+import org.corfudb.protocols.wireprotocol.TailWatchResponse;
 import org.corfudb.protocols.wireprotocol.TrimRequest;
 import org.corfudb.protocols.wireprotocol.WriteMode;
 import org.corfudb.protocols.wireprotocol.WriteRequest;
@@ -27,6 +32,7 @@ import org.corfudb.runtime.exceptions.WriteSizeException;
 import org.corfudb.util.CorfuComponent;
 import org.corfudb.util.serializer.Serializers;
 
+import java.time.Duration;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
@@ -121,6 +127,19 @@ public class LogUnitClient extends AbstractClient {
         return sendMessageWithFuture(CorfuMsgType.WRITE.payloadMsg(new WriteRequest(payload)));
     }
 
+    /**
+     * Asynchronously write several entries to the logging unit in a single request. Each entry
+     * is written as by a single write, and fails or succeeds on its own.
+     *
+     * @param entries The log data to write to the logging unit.
+     * @return A CompletableFuture which will complete with the outcome of each write.
+     */
+    public CompletableFuture<MultipleWriteResponse> writeAll(List<LogData> entries) {
+        entries.forEach(this::checkWriteSize);
+        return sendMessageWithFuture(CorfuMsgType.MULTIPLE_WRITE
+                .payloadMsg(new RangeWriteMsg(entries)));
+    }
+
     /**
      * Verify that max payload is enforced if a limit is confugred
      *
@@ -177,16 +196,44 @@ public class LogUnitClient extends AbstractClient {
         });
     }
 
+    /**
+     * Asynchronously read from the logging unit, which holds the read until the address is
+     * written or the timeout expires. The timeout should be shorter than the response timeout
+     * of the router.
+     *
+     * @param address The address to read from.
+     * @param timeout The time to wait for the address to be written.
+     * @return A CompletableFuture which will complete with a ReadResult once the address is
+     *     written, or with an empty ReadResult once the timeout expires.
+     */
+    public CompletableFuture<ReadResponse> readWait(long address, Duration timeout) {
+        Timer.Context context = getTimerContext("readWait");
+        CompletableFuture<ReadResponse> cf = sendMessageWithFuture(
+                CorfuMsgType.READ_WAIT_REQUEST.payloadMsg(
+                        new ReadWaitRequest(address, timeout.toMillis())));
+
+        return cf.thenApply(x -> {
+            context.stop();
+            return x;
+        });
+    }
+
     /**
      * Read data from the log unit server for a range of addresses.
      *
+     * <p>The addresses are sent as a compact read request if the server supports it,
+     * as negotiated in the handshake.</p>
+     *
      * @param range Range of global offsets.
      * @return CompletableFuture which returns a ReadResponse on completion.
      */
     public CompletableFuture<ReadResponse> read(Range<Long> range) {
         Timer.Context context = getTimerContext("readRange");
         CompletableFuture<ReadResponse> cf = sendMessageWithFuture(
-                CorfuMsgType.READ_REQUEST.payloadMsg(new ReadRequest(range)));
+                getRouter().isCompactReadSupported()
+                        ? CorfuMsgType.COMPACT_READ_REQUEST.payloadMsg(
+                                new CompactReadRequest(range))
+                        : CorfuMsgType.READ_REQUEST.payloadMsg(new ReadRequest(range)));
         return cf.thenApply(x -> {
             context.stop();
             return x;
@@ -196,13 +243,20 @@ public class LogUnitClient extends AbstractClient {
     /**
      * Read data from the log unit server for a list of addresses.
      *
+     * <p>The addresses are sent as a compact read request if the server supports it,
+     * as negotiated in the handshake.</p>
+     *
      * @param list list of global addresses.
      * @return CompletableFuture which returns a ReadResponse on completion.
      */
     public CompletableFuture<ReadResponse> read(List<Long> list) {
         Timer.Context context = getTimerContext("readList");
         CompletableFuture<ReadResponse> cf = sendMessageWithFuture(
-                CorfuMsgType.MULTIPLE_READ_REQUEST.payloadMsg(new MultipleReadRequest(list)));
+                getRouter().isCompactReadSupported()
+                        ? CorfuMsgType.COMPACT_READ_REQUEST.payloadMsg(
+                                new CompactReadRequest(list))
+                        : CorfuMsgType.MULTIPLE_READ_REQUEST.payloadMsg(
+                                new MultipleReadRequest(list)));
         return cf.thenApply(x -> {
             context.stop();
             return x;
@@ -227,6 +281,24 @@ public class LogUnitClient extends AbstractClient {
         return sendMessageWithFuture(CorfuMsgType.TRIM_MARK_REQUEST.msg());
     }
 
+    /**
+     * Watch the tail and the trim mark of the logging unit, which holds the request until either
+     * of them differs from the given values. The timeout should be shorter than the response
+     * timeout of the router.
+     *
+     * @param tail     The tail known by the caller.
+     * @param trimMark The trim mark known by the caller.
+     * @param interval The time over which the logging unit coalesces changes.
+     * @param timeout  The time to wait for a change.
+     * @return A CompletableFuture which will complete with the tail and the trim mark once
+     *     either of them changes, or once the timeout expires.
+     */
+    public CompletableFuture<TailWatchResponse> watchTail(long tail, long trimMark,
+                                                          Duration interval, Duration timeout) {
+        return sendMessageWithFuture(CorfuMsgType.TAIL_WATCH_REQUEST.payloadMsg(
+                new TailWatchRequest(tail, trimMark, interval.toMillis(), timeout.toMillis())));
+    }
+
     /**
      * Send a hint to the logging unit that a stream can be trimmed.
      *
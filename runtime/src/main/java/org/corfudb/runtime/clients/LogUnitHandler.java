@@ -7,10 +7,13 @@ import java.lang.invoke.MethodHandles;
 import lombok.Getter;
 import lombok.Setter;
 
+import org.corfudb.protocols.wireprotocol.CompactReadResponse;
 import org.corfudb.protocols.wireprotocol.CorfuMsg;
 import org.corfudb.protocols.wireprotocol.CorfuMsgType;
 import org.corfudb.protocols.wireprotocol.CorfuPayloadMsg;
+import org.corfudb.protocols.wireprotocol.MultipleWriteResponse;
 import org.corfudb.protocols.wireprotocol.ReadResponse;
+import org.corfudb.protocols.wireprotocol.TailWatchResponse;
 import org.corfudb.runtime.exceptions.DataCorruptionException;
 import org.corfudb.runtime.exceptions.DataOutrankedException;
 import org.corfudb.runtime.exceptions.OutOfSpaceException;
@@ -169,6 +172,32 @@ public class LogUnitHandler implements IClient, IHandler<LogUnitClient> {
         return msg.getPayload();
     }
 
+    /**
+     * Handle a COMPACT_READ_RESPONSE message.
+     *
+     * @param msg Incoming Message
+     * @param ctx Context
+     * @param r   Router
+     */
+    @ClientHandler(type = CorfuMsgType.COMPACT_READ_RESPONSE)
+    private static Object handleCompactReadResponse(CorfuPayloadMsg<CompactReadResponse> msg,
+                                                    ChannelHandlerContext ctx, IClientRouter r) {
+        return msg.getPayload();
+    }
+
+    /**
+     * Handle a MULTIPLE_WRITE_RESPONSE message.
+     *
+     * @param msg Incoming Message
+     * @param ctx Context
+     * @param r   Router
+     */
+    @ClientHandler(type = CorfuMsgType.MULTIPLE_WRITE_RESPONSE)
+    private static Object handleMultipleWriteResponse(CorfuPayloadMsg<MultipleWriteResponse> msg,
+                                                      ChannelHandlerContext ctx, IClientRouter r) {
+        return msg.getPayload();
+    }
+
     /**
      * Handle a ERROR_DATA_CORRUPTION message.
      *
@@ -206,4 +235,17 @@ public class LogUnitHandler implements IClient, IHandler<LogUnitClient> {
                                              ChannelHandlerContext ctx, IClientRouter r) {
         return msg.getPayload();
     }
+
+    /**
+     * Handle a TAIL_WATCH_RESPONSE message.
+     *
+     * @param msg Incoming Message
+     * @param ctx Context
+     * @param r   Router
+     */
+    @ClientHandler(type = CorfuMsgType.TAIL_WATCH_RESPONSE)
+    private static Object handleTailWatchResponse(CorfuPayloadMsg<TailWatchResponse> msg,
+                                                  ChannelHandlerContext ctx, IClientRouter r) {
+        return msg.getPayload();
+    }
 }
@@ -0,0 +1,358 @@
+package org.corfudb.runtime.clients;
+
+import com.google.common.collect.ContiguousSet;
+import com.google.common.collect.DiscreteDomain;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Range;
+import com.google.common.collect.Sets;
+
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.EventLoopGroup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+import javax.annotation.Nonnull;
+
+import lombok.Getter;
+import lombok.NonNull;
+import lombok.extern.slf4j.Slf4j;
+
+import org.corfudb.protocols.wireprotocol.CompactReadRequest;
+import org.corfudb.protocols.wireprotocol.CorfuMsg;
+import org.corfudb.protocols.wireprotocol.CorfuMsgType;
+import org.corfudb.protocols.wireprotocol.CorfuPayloadMsg;
+import org.corfudb.protocols.wireprotocol.LogData;
+import org.corfudb.protocols.wireprotocol.MultipleReadRequest;
+import org.corfudb.protocols.wireprotocol.NettyCorfuMessageEncoder;
+import org.corfudb.protocols.wireprotocol.ReadRequest;
+import org.corfudb.protocols.wireprotocol.ReadResponse;
+import org.corfudb.runtime.CorfuRuntime.CorfuRuntimeParameters;
+import org.corfudb.util.NodeLocator;
+
+/**
+ * A client router which spreads requests over several connections to the same endpoint.
+ *
+ * <p>Each connection, or lane, is a {@link NettyClientRouter}, and is pinned to an event loop
+ * of the group in turn, so that the lanes are served by distinct threads as long as the group
+ * has as many threads as there are lanes. Requests which carry log data, such as reads and
+ * writes, are sent on the bulk lanes, and all other requests on the control lanes, so that
+ * large reads and writes do not delay small token, tail and layout requests. Within each kind,
+ * a request is sent on the lane with the fewest bytes outstanding. If there are no bulk lanes,
+ * bulk requests are sent on the control lanes.</p>
+ *
+ * <p>A read request is small, but its response carries the entries it reads, so that it is
+ * weighted by the number of addresses it reads times the average size of the entries read so
+ * far.</p>
+ *
+ * <p>The lanes use disjoint request IDs, so that a response is completed on the lane which sent
+ * its request, whichever client handler receives it.</p>
+ */
+@Slf4j
+public class MultiLaneClientRouter implements IClientRouter {
+
+    /** The types of the requests sent on the bulk lanes. */
+    static final Set<CorfuMsgType> BULK_TYPES = Sets.immutableEnumSet(
+            CorfuMsgType.WRITE,
+            CorfuMsgType.RANGE_WRITE,
+            CorfuMsgType.MULTIPLE_WRITE,
+            CorfuMsgType.READ_REQUEST,
+            CorfuMsgType.READ_WAIT_REQUEST,
+            CorfuMsgType.MULTIPLE_READ_REQUEST,
+            CorfuMsgType.COMPACT_READ_REQUEST);
+
+    /** The {@link NodeLocator} of the endpoint. */
+    @Getter
+    private final NodeLocator node;
+
+    /** All the lanes, indexed by the remainder of their request IDs. */
+    @Getter
+    private final List<NettyClientRouter> lanes;
+
+    /** The indices of the lanes carrying control traffic. */
+    private final int[] controlLanes;
+
+    /** The indices of the lanes carrying bulk traffic. */
+    private final int[] bulkLanes;
+
+    /** The estimated bytes of the requests outstanding on each lane. */
+    private final AtomicLongArray outstandingBytes;
+
+    /** The average size of an entry before any read completes. */
+    static final long DEFAULT_ENTRY_BYTES = 1024;
+
+    /** The weight of a new sample in the average size of an entry, as a power of two. */
+    private static final int ENTRY_BYTES_SMOOTHING_SHIFT = 3;
+
+    /** The moving average of the size of the entries returned by reads. */
+    private final AtomicLong averageEntryBytes = new AtomicLong(DEFAULT_ENTRY_BYTES);
+
+    /** The clients registered to this router. */
+    private final List<IClient> clientList = new ArrayList<>();
+
+    /**
+     * Creates a router with the number of control and bulk connections of the parameters.
+     *
+     * @param node           The node to connect to.
+     * @param eventLoopGroup The {@link EventLoopGroup} for servicing I/O.
+     * @param parameters     A {@link CorfuRuntimeParameters} with the desired configuration.
+     */
+    public MultiLaneClientRouter(@Nonnull NodeLocator node,
+                                 @Nonnull EventLoopGroup eventLoopGroup,
+                                 @Nonnull CorfuRuntimeParameters parameters) {
+        this.node = node;
+        int numControlLanes = Math.max(1, parameters.getControlConnectionsPerEndpoint());
+        int numBulkLanes = Math.max(0, parameters.getBulkConnectionsPerEndpoint());
+        int numLanes = numControlLanes + numBulkLanes;
+
+        ImmutableList.Builder<NettyClientRouter> builder = ImmutableList.builder();
+        for (int i = 0; i < numLanes; i++) {
+            NettyClientRouter lane =
+                    new NettyClientRouter(node, eventLoopGroup.next(), parameters);
+            lane.stripeRequestIds(i, numLanes);
+            builder.add(lane);
+        }
+        lanes = builder.build();
+        outstandingBytes = new AtomicLongArray(numLanes);
+
+        controlLanes = new int[numControlLanes];
+        for (int i = 0; i < numControlLanes; i++) {
+            controlLanes[i] = i;
+        }
+        if (numBulkLanes == 0) {
+            bulkLanes = controlLanes;
+        } else {
+            bulkLanes = new int[numBulkLanes];
+            for (int i = 0; i < numBulkLanes; i++) {
+                bulkLanes[i] = numControlLanes + i;
+            }
+        }
+        log.debug("MultiLaneClientRouter[{}]: {} control lanes, {} bulk lanes", node,
+                numControlLanes, numBulkLanes);
+
+        addClient(new BaseHandler());
+    }
+
+    /**
+     * Select the lane with the fewest bytes outstanding among the lanes of a message type.
+     *
+     * @param type The type of the message.
+     * @return The index of the lane.
+     */
+    private int selectLane(CorfuMsgType type) {
+        int[] candidates = BULK_TYPES.contains(type) ? bulkLanes : controlLanes;
+        int selected = candidates[0];
+        for (int i = 1; i < candidates.length; i++) {
+            if (outstandingBytes.get(candidates[i]) < outstandingBytes.get(selected)) {
+                selected = candidates[i];
+            }
+        }
+        return selected;
+    }
+
+    /**
+     * Estimate the bytes of a request and its response. Reads are weighted by the entries they
+     * return, and other requests by their own size.
+     *
+     * @param message The request.
+     * @return The estimated bytes.
+     */
+    long estimateBytes(CorfuMsg message) {
+        final long addresses = countReadAddresses(message);
+        if (addresses > 0) {
+            return addresses * averageEntryBytes.get();
+        }
+        return NettyCorfuMessageEncoder.getSizeEstimate(message);
+    }
+
+    /**
+     * Count the addresses a request reads.
+     *
+     * @param message The request.
+     * @return The number of addresses read, or zero if the request is not a read.
+     */
+    @SuppressWarnings("unchecked")
+    private static long countReadAddresses(CorfuMsg message) {
+        switch (message.getMsgType()) {
+            case READ_REQUEST:
+                Range<Long> range = ((CorfuPayloadMsg<ReadRequest>) message)
+                        .getPayload().getRange();
+                return ContiguousSet.create(range, DiscreteDomain.longs()).size();
+            case MULTIPLE_READ_REQUEST:
+                return ((CorfuPayloadMsg<MultipleReadRequest>) message)
+                        .getPayload().getAddresses().size();
+            case COMPACT_READ_REQUEST:
+                return ((CorfuPayloadMsg<CompactReadRequest>) message)
+                        .getPayload().getAddresses().length;
+            case READ_WAIT_REQUEST:
+                return 1;
+            default:
+                return 0;
+        }
+    }
+
+    /**
+     * Fold the entries returned by a read into the average size of an entry.
+     *
+     * @param response The response of a request.
+     */
+    private void recordEntrySizes(Object response) {
+        if (!(response instanceof ReadResponse)) {
+            return;
+        }
+        Map<Long, LogData> entries = ((ReadResponse) response).getAddresses();
+        if (entries.isEmpty()) {
+            return;
+        }
+        long bytes = 0;
+        for (LogData entry : entries.values()) {
+            bytes += entry.getSizeEstimate();
+        }
+        final long sample = bytes / entries.size();
+        averageEntryBytes.getAndUpdate(average ->
+                average + ((sample - average) >> ENTRY_BYTES_SMOOTHING_SHIFT));
+    }
+
+    /**
+     * Get the lane which sent a request.
+     *
+     * @param requestId The ID of the request.
+     * @return The lane.
+     */
+    private NettyClientRouter getLane(long requestId) {
+        return lanes.get((int) (requestId % lanes.size()));
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * <p>The client is registered on each lane, and completes its requests through this
+     * router.</p>
+     */
+    @Override
+    public IClientRouter addClient(IClient client) {
+        client.setRouter(this);
+        lanes.forEach(lane -> lane.registerClient(client));
+        clientList.add(client);
+        return this;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T extends IClient> T getClient(Class<T> clientType) {
+        return (T) clientList.stream()
+                .filter(clientType::isInstance)
+                .findFirst().get();
+    }
+
+    @Override
+    public <T> CompletableFuture<T> sendMessageAndGetCompletable(ChannelHandlerContext ctx,
+                                                                 @NonNull CorfuMsg message) {
+        final int lane = selectLane(message.getMsgType());
+        final long bytes = estimateBytes(message);
+        outstandingBytes.addAndGet(lane, bytes);
+        CompletableFuture<T> cf = lanes.get(lane).sendMessageAndGetCompletable(ctx, message);
+        cf.whenComplete((r, e) -> {
+            outstandingBytes.addAndGet(lane, -bytes);
+            recordEntrySizes(r);
+        });
+        return cf;
+    }
+
+    @Override
+    public void sendMessage(ChannelHandlerContext ctx, CorfuMsg message) {
+        lanes.get(selectLane(message.getMsgType())).sendMessage(ctx, message);
+    }
+
+    @Override
+    public void sendResponseToServer(ChannelHandlerContext ctx, CorfuMsg inMsg,
+                                     CorfuMsg outMsg) {
+        lanes.get(controlLanes[0]).sendResponseToServer(ctx, inMsg, outMsg);
+    }
+
+    @Override
+    public <T> void completeRequest(long requestID, T completion) {
+        getLane(requestID).completeRequest(requestID, completion);
+    }
+
+    @Override
+    public void completeExceptionally(long requestID, Throwable cause) {
+        getLane(requestID).completeExceptionally(requestID, cause);
+    }
+
+    /**
+     * Get the estimated bytes of the requests outstanding on a lane.
+     *
+     * @param lane The index of the lane.
+     * @return The estimated outstanding bytes.
+     */
+    public long getOutstandingBytes(int lane) {
+        return outstandingBytes.get(lane);
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * @deprecated The lanes start automatically.
+     */
+    @Override
+    @Deprecated
+    public void start() {
+        // Do nothing, legacy call
+    }
+
+    @Override
+    public void stop() {
+        lanes.forEach(NettyClientRouter::stop);
+    }
+
+    /** {@inheritDoc}
+     *  @deprecated  Please use {@link this#stop()}.
+     */
+    @Override
+    @Deprecated
+    public void stop(boolean shutdown) {
+        stop();
+    }
+
+    @Override
+    public String getHost() {
+        return node.getHost();
+    }
+
+    @Override
+    public Integer getPort() {
+        return node.getPort();
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * <p>The lanes connect to the same server, but only the lanes which completed their
+     * handshake know what it supports.</p>
+     */
+    @Override
+    public boolean isCompactReadSupported() {
+        return lanes.stream().allMatch(NettyClientRouter::isCompactReadSupported);
+    }
+
+    @Override
+    public void setTimeoutConnect(long timeoutConnect) {
+        lanes.forEach(lane -> lane.setTimeoutConnect(timeoutConnect));
+    }
+
+    @Override
+    public void setTimeoutRetry(long timeoutRetry) {
+        lanes.forEach(lane -> lane.setTimeoutRetry(timeoutRetry));
+    }
+
+    @Override
+    public void setTimeoutResponse(long timeoutResponse) {
+        lanes.forEach(lane -> lane.setTimeoutResponse(timeoutResponse));
+    }
+}
@@ -1,7 +1,9 @@
 package org.corfudb.runtime.clients;
 
 import com.codahale.metrics.Timer;
+import com.google.common.annotations.VisibleForTesting;
 import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.Sets;
 import com.google.common.util.concurrent.ThreadFactoryBuilder;
 import io.netty.bootstrap.Bootstrap;
 import io.netty.channel.Channel;
@@ -13,51 +15,67 @@ import io.netty.channel.ChannelOption;
 import io.netty.channel.DefaultChannelPromise;
 import io.netty.channel.EventLoopGroup;
 import io.netty.channel.SimpleChannelInboundHandler;
+import io.netty.channel.epoll.EpollChannelOption;
+import io.netty.channel.epoll.EpollMode;
+import io.netty.channel.unix.DomainSocketAddress;
 import io.netty.handler.codec.LengthFieldBasedFrameDecoder;
 import io.netty.handler.codec.LengthFieldPrepender;
+import io.netty.handler.flush.FlushConsolidationHandler;
 import io.netty.handler.ssl.SslContext;
 import io.netty.handler.timeout.IdleState;
 import io.netty.handler.timeout.IdleStateEvent;
 import io.netty.handler.timeout.IdleStateHandler;
+import io.netty.util.HashedWheelTimer;
+import io.netty.util.Timeout;
 import io.netty.util.concurrent.GlobalEventExecutor;
+import lombok.AccessLevel;
+import lombok.Data;
 import lombok.Getter;
 import lombok.NonNull;
 import lombok.Setter;
 import lombok.extern.slf4j.Slf4j;
 import org.corfudb.protocols.wireprotocol.ClientHandshakeHandler;
 import org.corfudb.protocols.wireprotocol.ClientHandshakeHandler.ClientHandshakeEvent;
+import org.corfudb.protocols.wireprotocol.CompressionCodec;
 import org.corfudb.protocols.wireprotocol.CorfuMsg;
 import org.corfudb.protocols.wireprotocol.CorfuMsgType;
 import org.corfudb.protocols.wireprotocol.InboundMsgFilterHandler;
+import org.corfudb.protocols.wireprotocol.NettyCompressionHandler;
 import org.corfudb.protocols.wireprotocol.NettyCorfuMessageDecoder;
 import org.corfudb.protocols.wireprotocol.NettyCorfuMessageEncoder;
+import org.corfudb.protocols.wireprotocol.NettyFlushMetricsHandler;
 import org.corfudb.runtime.CorfuRuntime;
 import org.corfudb.runtime.CorfuRuntime.CorfuRuntimeParameters;
 import org.corfudb.runtime.exceptions.NetworkException;
+import org.corfudb.runtime.exceptions.RequestQueueFullException;
 import org.corfudb.runtime.exceptions.ShutdownException;
 import org.corfudb.runtime.exceptions.unrecoverable.UnrecoverableCorfuError;
 import org.corfudb.runtime.exceptions.unrecoverable.UnrecoverableCorfuInterruptedError;
 import org.corfudb.security.sasl.SaslUtils;
 import org.corfudb.security.sasl.plaintext.PlainTextSaslNettyClient;
 import org.corfudb.security.tls.SslContextConstructor;
-import org.corfudb.util.CFUtils;
 import org.corfudb.util.CorfuComponent;
 import org.corfudb.util.MetricsUtils;
 import org.corfudb.util.NodeLocator;
+import org.corfudb.util.NodeLocator.Protocol;
 import org.corfudb.util.Sleep;
 
 import javax.annotation.Nonnull;
 import javax.net.ssl.SSLException;
-import java.time.Duration;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
 import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ExecutionException;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.Semaphore;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicLong;
 
 
@@ -99,6 +117,13 @@ public class NettyClientRouter extends SimpleChannelInboundHandler<CorfuMsg>
     @Deprecated // TODO: Add replacement method that conforms to style
     @SuppressWarnings("checkstyle:abbreviation") // Due to deprecation
     public AtomicLong requestID;
+
+    /**
+     * The increment between the IDs of consecutive requests, so that the routers of the
+     * lanes of a {@link MultiLaneClientRouter} use disjoint request IDs.
+     */
+    private long requestIdStride = 1;
+
     /**
      * The handlers registered to this router.
      */
@@ -113,9 +138,39 @@ public class NettyClientRouter extends SimpleChannelInboundHandler<CorfuMsg>
      */
     public Map<Long, CompletableFuture> outstandingRequests;
 
+    /**
+     * The timer which times out the requests of all routers. A hashed wheel keeps the cost
+     * of scheduling and cancelling a timeout constant, and runs on a single thread.
+     */
+    private static final HashedWheelTimer requestTimer = new HashedWheelTimer(
+            new ThreadFactoryBuilder()
+                    .setDaemon(true)
+                    .setNameFormat("request-timeout-%d")
+                    .build(), 10, TimeUnit.MILLISECONDS);
+
+    /**
+     * The window of requests in flight to the endpoint.
+     */
+    private final Semaphore inFlightWindow;
+
+    /**
+     * The requests waiting for a slot in the window, in the order they were made.
+     */
+    private final BlockingQueue<PendingRequest> pendingRequests;
+
+    /**
+     * The long polls, which are held by the server until data arrives or they time out.
+     * They are sent outside of the window, so that they do not hold slots while idle.
+     */
+    private static final Set<CorfuMsgType> LONG_POLL_TYPES = Sets.immutableEnumSet(
+            CorfuMsgType.READ_WAIT_REQUEST,
+            CorfuMsgType.TAIL_WATCH_REQUEST);
+
     /**
      * The currently registered channel.
      */
+    @Getter(AccessLevel.PACKAGE)
+    @VisibleForTesting
     private volatile Channel channel = null;
 
     /**
@@ -189,6 +244,8 @@ public class NettyClientRouter extends SimpleChannelInboundHandler<CorfuMsg>
         clientList = new ArrayList<>();
         requestID = new AtomicLong();
         outstandingRequests = new ConcurrentHashMap<>();
+        inFlightWindow = new Semaphore(parameters.getMaxInFlightRequests());
+        pendingRequests = new LinkedBlockingQueue<>(parameters.getMaxQueuedRequests());
         shutdown = true;
 
         if (parameters.isTlsEnabled()) {
@@ -210,11 +267,23 @@ public class NettyClientRouter extends SimpleChannelInboundHandler<CorfuMsg>
         shutdown = false;
         Bootstrap b = new Bootstrap();
         b.group(eventLoopGroup);
-        b.channel(parameters.getSocketType().getChannelClass());
-        parameters.getNettyChannelOptions().forEach(b::option);
+        if (node.getProtocol() == Protocol.UNIX) {
+            // The TCP options do not apply to a unix domain socket.
+            b.channel(parameters.getSocketType().getDomainSocketChannelClass());
+        } else {
+            b.channel(parameters.getSocketType().getChannelClass());
+            parameters.getNettyChannelOptions().forEach(b::option);
+        }
         b.handler(getChannelInitializer());
         b.option(ChannelOption.CONNECT_TIMEOUT_MILLIS,
                 (int) parameters.getConnectionTimeout().toMillis());
+        if (parameters.getSocketType().isEpoll()) {
+            if (node.getProtocol() != Protocol.UNIX) {
+                b.option(EpollChannelOption.TCP_QUICKACK, parameters.isTcpQuickAckEnabled());
+            }
+            b.option(EpollChannelOption.EPOLL_MODE, parameters.isEpollEdgeTriggered()
+                    ? EpollMode.EDGE_TRIGGERED : EpollMode.LEVEL_TRIGGERED);
+        }
 
         // Asynchronously connect, retrying until shut down.
         // Once connected, connectionFuture will be completed.
@@ -230,7 +299,17 @@ public class NettyClientRouter extends SimpleChannelInboundHandler<CorfuMsg>
     public IClientRouter addClient(IClient client) {
         // Set the client's router to this instance.
         client.setRouter(this);
+        registerClient(client);
+        return this;
+    }
 
+    /**
+     * Register a client to handle the messages received by this router, without making this
+     * router the router of the client.
+     *
+     * @param client The client to register.
+     */
+    void registerClient(IClient client) {
         // Iterate through all types of CorfuMsgType, registering the handler
         client.getHandledTypes().stream()
             .forEach(x -> {
@@ -240,7 +319,18 @@ public class NettyClientRouter extends SimpleChannelInboundHandler<CorfuMsg>
 
         // Register this type
         clientList.add(client);
-        return this;
+    }
+
+    /**
+     * Stripe the IDs of the requests of this router: the IDs are congruent to the lane modulo
+     * the number of lanes. Must be called before any request is sent.
+     *
+     * @param lane     The lane of this router.
+     * @param numLanes The number of lanes.
+     */
+    void stripeRequestIds(int lane, int numLanes) {
+        requestID.set(lane);
+        requestIdStride = numLanes;
     }
 
     /**
@@ -278,6 +368,15 @@ public class NettyClientRouter extends SimpleChannelInboundHandler<CorfuMsg>
         return new ChannelInitializer() {
             @Override
             protected void initChannel(@Nonnull Channel ch) throws Exception {
+                NettyFlushMetricsHandler flushMetricsHandler = null;
+                if (MetricsUtils.isMetricsCollectionEnabled()) {
+                    flushMetricsHandler = new NettyFlushMetricsHandler(
+                        CorfuRuntime.getDefaultMetrics(), CorfuComponent.CLIENT_ROUTER.toString());
+                    ch.pipeline().addLast(flushMetricsHandler);
+                }
+                // Consolidate the flushes of the messages written by concurrent requests.
+                ch.pipeline().addLast(new FlushConsolidationHandler(
+                    NettyFlushMetricsHandler.MAX_CONSOLIDATED_FLUSHES, true));
                 ch.pipeline().addLast(new IdleStateHandler(parameters.getIdleConnectionTimeout(),
                         parameters.getKeepAlivePeriod(), 0));
                 if (parameters.isTlsEnabled()) {
@@ -293,10 +392,19 @@ public class NettyClientRouter extends SimpleChannelInboundHandler<CorfuMsg>
                             parameters.getPasswordFile());
                     ch.pipeline().addLast("sasl/plain-text", saslNettyClient);
                 }
-                ch.pipeline().addLast(new NettyCorfuMessageDecoder());
+                if (parameters.getCompressionCodec() != CompressionCodec.NONE) {
+                    ch.pipeline().addLast(new NettyCompressionHandler(
+                        CorfuRuntime.getDefaultMetrics(), CorfuComponent.CLIENT_ROUTER.toString()));
+                }
+                ch.pipeline().addLast(
+                        new NettyCorfuMessageDecoder(parameters.isLazyLogDataDecoding()));
                 ch.pipeline().addLast(new NettyCorfuMessageEncoder());
+                if (flushMetricsHandler != null) {
+                    ch.pipeline().addLast(flushMetricsHandler.getMessageCounter());
+                }
                 ch.pipeline().addLast(new ClientHandshakeHandler(parameters.getClientId(),
-                    node.getNodeId(), parameters.getHandshakeTimeout()));
+                    node.getNodeId(), parameters.getHandshakeTimeout(),
+                    parameters.getCompressionCodec(), parameters.getCompressionThreshold()));
 
                 // If parameters include message filters, add corresponding filter handler
                 if (parameters.getNettyClientInboundMsgFilters() != null) {
@@ -348,7 +456,9 @@ public class NettyClientRouter extends SimpleChannelInboundHandler<CorfuMsg>
                 .setFailure(new ShutdownException("Runtime already shutdown!"));
         }
         // Use the bootstrap to create a new channel.
-        ChannelFuture f = bootstrap.connect(node.getHost(), node.getPort());
+        ChannelFuture f = node.getProtocol() == Protocol.UNIX
+                ? bootstrap.connect(new DomainSocketAddress(node.getPath()))
+                : bootstrap.connect(node.getHost(), node.getPort());
         f.addListener((ChannelFuture cf) -> channelConnectionFutureHandler(cf, bootstrap));
         return f;
     }
@@ -446,7 +556,7 @@ public class NettyClientRouter extends SimpleChannelInboundHandler<CorfuMsg>
                 .getConditionalContext(isEnabled, roundTripMsgTimer);
 
         // Get the next request ID.
-        final long thisRequest = requestID.getAndIncrement();
+        final long thisRequest = requestID.getAndAdd(requestIdStride);
 
         // Set the message fields.
         message.setClientID(parameters.getClientId());
@@ -456,31 +566,107 @@ public class NettyClientRouter extends SimpleChannelInboundHandler<CorfuMsg>
         final CompletableFuture<T> cf = new CompletableFuture<>();
         outstandingRequests.put(thisRequest, cf);
 
-        // Write the message out to the channel.
-        if (ctx == null) {
-            channel.writeAndFlush(message, channel.voidPromise());
+        // Time the request out if it is not completed, whether it was sent or is still
+        // waiting for a slot in the window.
+        final Timeout timeout = requestTimer.newTimeout(t -> {
+            if (outstandingRequests.remove(thisRequest) != null) {
+                log.debug("Remove request {} to {} due to timeout! Message:{}",
+                        thisRequest, node, message);
+                cf.completeExceptionally(new TimeoutException());
+            }
+        }, timeoutResponse, TimeUnit.MILLISECONDS);
+        cf.whenComplete((r, e) -> timeout.cancel());
+
+        // Write the message out to the channel if the window has room, otherwise queue it,
+        // or fail the request if the queue is full. Long polls are written out directly.
+        final AtomicBoolean holdsSlot = new AtomicBoolean();
+        final Runnable write = () -> {
+            if (ctx == null) {
+                channel.writeAndFlush(message, channel.voidPromise());
+            } else {
+                ctx.writeAndFlush(message, ctx.voidPromise());
+            }
+            log.trace("Sent message: {}", message);
+        };
+        if (LONG_POLL_TYPES.contains(message.getMsgType())) {
+            write.run();
+        } else if (inFlightWindow.tryAcquire()) {
+            holdsSlot.set(true);
+            write.run();
+        } else if (pendingRequests.offer(new PendingRequest(cf, write, holdsSlot))) {
+            // A slot may have been released before the request was queued.
+            sendPendingRequests();
         } else {
-            ctx.writeAndFlush(message, ctx.voidPromise());
+            outstandingRequests.remove(thisRequest);
+            cf.completeExceptionally(new RequestQueueFullException(node.toString(),
+                    parameters.getMaxQueuedRequests()));
         }
-        log.trace("Sent message: {}", message);
 
-        // Generate a benchmarked future to measure the underlying request
-        final CompletableFuture<T> cfBenchmarked = cf.thenApply(x -> {
+        // Generate a benchmarked future to measure the underlying request. The slot of the
+        // request is released before the future is completed, so that a request sent once
+        // this one completes finds the slot free.
+        return cf.whenComplete((r, e) -> releaseSlot(holdsSlot)).thenApply(x -> {
             MetricsUtils.stopConditionalContext(roundTripMsgContext);
             return x;
         });
+    }
 
-        // Generate a timeout future, which will complete exceptionally
-        // if the main future is not completed.
-        final CompletableFuture<T> cfTimeout =
-            CFUtils.within(cfBenchmarked, Duration.ofMillis(timeoutResponse));
-        cfTimeout.exceptionally(e -> {
-            outstandingRequests.remove(thisRequest);
-            log.debug("Remove request {} to {} due to timeout! Message:{}",
-                    thisRequest, node, message);
-            return null;
-        });
-        return cfTimeout;
+    /**
+     * Release the slot a request holds in the window, if it still holds it, once the request
+     * is completed, by a response, a timeout or a disconnection.
+     *
+     * @param holdsSlot Whether the request holds a slot, cleared once the slot is released.
+     */
+    private void releaseSlot(AtomicBoolean holdsSlot) {
+        if (holdsSlot.compareAndSet(true, false)) {
+            inFlightWindow.release();
+            sendPendingRequests();
+        }
+    }
+
+    /**
+     * Send the queued requests which fit in the window. Requests which were completed while
+     * queued, by a timeout or a disconnection, are dropped.
+     */
+    private void sendPendingRequests() {
+        while (!pendingRequests.isEmpty() && inFlightWindow.tryAcquire()) {
+            PendingRequest pending = pendingRequests.poll();
+            if (pending == null || pending.getFuture().isDone()) {
+                inFlightWindow.release();
+                continue;
+            }
+            pending.getHoldsSlot().set(true);
+            if (pending.getFuture().isDone()) {
+                // The request completed before it took the slot, so that it did not
+                // release it.
+                releaseSlot(pending.getHoldsSlot());
+            } else {
+                pending.getWrite().run();
+            }
+        }
+    }
+
+    @VisibleForTesting
+    int getInFlightRequests() {
+        return parameters.getMaxInFlightRequests() - inFlightWindow.availablePermits();
+    }
+
+    @VisibleForTesting
+    int getQueuedRequests() {
+        return pendingRequests.size();
+    }
+
+    /** A request waiting for a slot in the window. */
+    @Data
+    private static class PendingRequest {
+        /** The future of the request. */
+        final CompletableFuture<?> future;
+
+        /** Writes the request out to the channel. */
+        final Runnable write;
+
+        /** Whether the request holds a slot in the window. */
+        final AtomicBoolean holdsSlot;
     }
 
     /**
@@ -491,7 +677,7 @@ public class NettyClientRouter extends SimpleChannelInboundHandler<CorfuMsg>
      */
     public void sendMessage(ChannelHandlerContext ctx, CorfuMsg message) {
         // Get the next request ID.
-        final long thisRequest = requestID.getAndIncrement();
+        final long thisRequest = requestID.getAndAdd(requestIdStride);
         // Set the base fields for this message.
         message.setClientID(parameters.getClientId());
         message.setRequestID(thisRequest);
@@ -631,6 +817,18 @@ public class NettyClientRouter extends SimpleChannelInboundHandler<CorfuMsg>
         }
     }
 
+    /**
+     * {@inheritDoc}
+     *
+     * <p>The support is recorded on the channel by the handshake.</p>
+     */
+    @Override
+    public boolean isCompactReadSupported() {
+        Channel currentChannel = channel;
+        return currentChannel != null && Boolean.TRUE.equals(currentChannel
+                .attr(ClientHandshakeHandler.COMPACT_READ_SUPPORTED).get());
+    }
+
     // region Deprecated Methods
     // The methods below are deprecated and may be removed in a future release.
     /**
@@ -685,7 +883,8 @@ public class NettyClientRouter extends SimpleChannelInboundHandler<CorfuMsg>
     public NettyClientRouter(@Nonnull NodeLocator node,
         @Nonnull CorfuRuntimeParameters parameters) {
         this(node, parameters.getSocketType()
-            .getGenerator().generate(Runtime.getRuntime().availableProcessors() * 2,
+            .getGenerator(parameters.isBusyPollEnabled())
+            .generate(Runtime.getRuntime().availableProcessors() * 2,
                 new ThreadFactoryBuilder()
                     .setDaemon(true)
                     .setNameFormat(parameters.getNettyEventLoopThreadFormat())
@@ -6,11 +6,16 @@ import java.util.UUID;
 import java.util.concurrent.CompletableFuture;
 
 import org.corfudb.protocols.wireprotocol.CorfuMsgType;
+import org.corfudb.protocols.wireprotocol.SequencerLease;
 import org.corfudb.protocols.wireprotocol.SequencerMetrics;
+import org.corfudb.protocols.wireprotocol.SequencerSnapshot;
 import org.corfudb.protocols.wireprotocol.SequencerTailsRecoveryMsg;
+import org.corfudb.protocols.wireprotocol.ShardCommitRequest;
+import org.corfudb.protocols.wireprotocol.ShardPrepareRequest;
 import org.corfudb.protocols.wireprotocol.TokenRequest;
 import org.corfudb.protocols.wireprotocol.TokenResponse;
 import org.corfudb.protocols.wireprotocol.TxResolutionInfo;
+import org.corfudb.runtime.view.Address;
 
 
 /**
@@ -63,6 +68,124 @@ public class SequencerClient extends AbstractClient {
         return sendMessageWithFuture(CorfuMsgType.SEQUENCER_TRIM_REQ.payloadMsg(address));
     }
 
+    /**
+     * Grants a block of global addresses, allocated by the primary sequencer, to a sequencer
+     * shard.
+     *
+     * @param lease The block of addresses.
+     * @return A completable future which completes with true if the shard took the lease, false
+     *     if it still holds enough addresses or the block is below its address floor.
+     */
+    public CompletableFuture<Boolean> grantLease(SequencerLease lease) {
+        return sendMessageWithFuture(CorfuMsgType.SEQUENCER_LEASE_GRANT.payloadMsg(lease));
+    }
+
+    /**
+     * Queries the lowest address a sequencer shard may still issue from its lease. The shard
+     * takes no lease starting below the given tail of the primary sequencer afterwards.
+     *
+     * @param primaryTail The next address of the primary sequencer.
+     * @return A completable future with the token response of the shard, whose token is the
+     *     next address of its lease, or {@link Address#MAX} if it holds no lease.
+     */
+    public CompletableFuture<TokenResponse> queryShardTail(long primaryTail) {
+        return sendMessageWithFuture(CorfuMsgType.SEQUENCER_SHARD_TAIL_QUERY
+                .payloadMsg(primaryTail));
+    }
+
+    /**
+     * Prepares the part of a cross-shard token request owned by a sequencer shard.
+     *
+     * @param requestId    Identifies the request across the shards.
+     * @param tokenRequest The part of the request owned by the shard.
+     * @return A completable future with the token response of the shard, of type
+     *     {@link org.corfudb.protocols.wireprotocol.TokenType#NORMAL} if prepared.
+     */
+    public CompletableFuture<TokenResponse> prepareShard(UUID requestId,
+                                                        TokenRequest tokenRequest) {
+        return sendMessageWithFuture(CorfuMsgType.SEQUENCER_SHARD_PREPARE.payloadMsg(
+                new ShardPrepareRequest(requestId, tokenRequest)));
+    }
+
+    /**
+     * Commits or aborts a prepared cross-shard token request on a sequencer shard.
+     *
+     * @param requestId Identifies the request across the shards.
+     * @param address   Global address allocated to the request, or
+     *                  {@link Address#NON_ADDRESS} to abort.
+     * @return A completable future with the token response of the shard, carrying the
+     *     backpointers of its streams.
+     */
+    public CompletableFuture<TokenResponse> commitShard(UUID requestId, long address) {
+        return sendMessageWithFuture(CorfuMsgType.SEQUENCER_SHARD_COMMIT.payloadMsg(
+                new ShardCommitRequest(requestId, address)));
+    }
+
+    /**
+     * Requests a snapshot of the state of the primary sequencer.
+     *
+     * @return A completable future with the snapshot of the sequencer state.
+     */
+    public CompletableFuture<SequencerSnapshot> requestSnapshot() {
+        return sendMessageWithFuture(CorfuMsgType.SEQUENCER_SNAPSHOT_REQUEST.msg());
+    }
+
+    /**
+     * Ships a snapshot of the primary sequencer state to a standby sequencer.
+     *
+     * @param snapshot Snapshot of the primary sequencer.
+     * @return A completable future which completes with true once the snapshot is installed.
+     */
+    public CompletableFuture<Boolean> installSnapshot(SequencerSnapshot snapshot) {
+        return sendMessageWithFuture(CorfuMsgType.SEQUENCER_SNAPSHOT_INSTALL.payloadMsg(snapshot));
+    }
+
+    /**
+     * Requests the coverage of the latest snapshot installed on a standby sequencer.
+     * The returned snapshot does not carry any stream or conflict tails.
+     *
+     * @return A completable future with the header of the installed snapshot.
+     */
+    public CompletableFuture<SequencerSnapshot> requestStandbySnapshot() {
+        return sendMessageWithFuture(CorfuMsgType.SEQUENCER_STANDBY_SNAPSHOT_REQUEST.msg());
+    }
+
+    /**
+     * Resets the sequencer from its installed standby snapshot, with the stream tails written
+     * after the snapshot.
+     *
+     * @param initialToken    Token Number which the sequencer starts distributing.
+     * @param sequencerTails  Tails of the streams written at or after the snapshot tail.
+     * @param readyStateEpoch Epoch at which the sequencer is ready and to stamp tokens.
+     * @param snapshotTail    Global tail of the installed snapshot to bootstrap from.
+     * @return A CompletableFuture which completes once the sequencer is reset. False if the
+     *     sequencer does not hold the requested snapshot.
+     */
+    public CompletableFuture<Boolean> bootstrapFromSnapshot(Long initialToken,
+                                                            Map<UUID, Long> sequencerTails,
+                                                            Long readyStateEpoch,
+                                                            Long snapshotTail) {
+        return sendMessageWithFuture(CorfuMsgType.BOOTSTRAP_SEQUENCER.payloadMsg(
+                new SequencerTailsRecoveryMsg(initialToken, sequencerTails, readyStateEpoch,
+                        false, snapshotTail)));
+    }
+
+    /**
+     * Resets a sequencer shard, which issues addresses leased from the primary sequencer.
+     *
+     * @param globalTail      Global tail of the log, below which the shard issues no address.
+     * @param sequencerTails  Tails of the streams owned by the shard.
+     * @param readyStateEpoch Epoch at which the sequencer is ready and to stamp tokens.
+     * @return A CompletableFuture which completes once the sequencer is reset.
+     */
+    public CompletableFuture<Boolean> bootstrapShard(Long globalTail,
+                                                     Map<UUID, Long> sequencerTails,
+                                                     Long readyStateEpoch) {
+        return sendMessageWithFuture(CorfuMsgType.BOOTSTRAP_SEQUENCER.payloadMsg(
+                new SequencerTailsRecoveryMsg(globalTail, sequencerTails, readyStateEpoch,
+                        false, Address.NON_ADDRESS, true)));
+    }
+
     /**
      * Resets the sequencer with the specified initialToken
      *
@@ -0,0 +1,20 @@
+package org.corfudb.runtime.exceptions;
+
+import lombok.Getter;
+
+/**
+ * Thrown when a request is made to an endpoint whose window of requests in flight is full,
+ * and which already has the maximum number of requests queued behind it.
+ */
+public class RequestQueueFullException extends RuntimeException {
+
+    /** The endpoint the request was made to. */
+    @Getter
+    private final String endpoint;
+
+    public RequestQueueFullException(String endpoint, int maxQueuedRequests) {
+        super("Request queue to " + endpoint + " is full: " + maxQueuedRequests
+                + " requests queued");
+        this.endpoint = endpoint;
+    }
+}
@@ -293,8 +293,8 @@ public abstract class AbstractTransactionalContext implements
      *
      * @return A set of longs representing all the conflict params
      */
-    Map<UUID, Set<byte[]>> collectWriteConflictParams() {
-        return getWriteSetInfo().getHashedConflictSet();
+    Map<UUID, long[]> collectWriteConflictParams() {
+        return getWriteSetInfo().getConflictFingerprints();
     }
 
     void mergeWriteSetInto(WriteSetInfo other) {
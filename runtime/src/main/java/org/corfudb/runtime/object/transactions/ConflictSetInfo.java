@@ -6,10 +6,11 @@ import java.util.HashSet;
 import java.util.Map;
 import java.util.Set;
 import java.util.UUID;
-import java.util.stream.Collectors;
 
+import org.corfudb.protocols.wireprotocol.TxResolutionInfo;
 import org.corfudb.runtime.object.ICorfuSMRProxyInternal;
 
+import lombok.AccessLevel;
 import lombok.Getter;
 
 /**
@@ -23,30 +24,47 @@ public class ConflictSetInfo {
     /** Set of objects this conflict set conflicts with. */
     protected Map<ICorfuSMRProxyInternal, Set<Object>> conflicts = new HashMap<>();
 
+    /** Fingerprints of the conflict set, or null if the conflict set changed. */
+    @Getter(AccessLevel.NONE)
+    private Map<UUID, long[]> conflictFingerprints;
+
     /** Get a hash for the object, given a proxy. */
     public static byte[] generateHashFromObject(ICorfuSMRProxyInternal p, Object o) {
         return p.getSerializer().hash(o);
     }
 
-    /** Get the hashed conflict set.
-     * @return              The hashed conflict set.
+    /** Get the fingerprints of the conflict set, which are computed once and reused by
+     * the commit attempts until the conflict set changes.
+     * @return              The sorted and deduplicated fingerprints, arranged by stream IDs.
      */
-    public Map<UUID, Set<byte[]>> getHashedConflictSet() {
-        return conflicts.entrySet().stream()
-                .collect(Collectors.toMap(
-                        // Key = UUID
-                        e -> e.getKey().getStreamID(),
-                        // Value = Generated hash.
-                        e -> e.getValue().stream()
-                                .map(o -> ConflictSetInfo.generateHashFromObject(e.getKey(), o))
-                                .collect(Collectors.toSet()),
-                        // Merge function, in case key was already mapped
-                        // (If two proxies have the same stream).
-                        (v1,v2) -> {
-                            // Combine the two sets.
-                            v1.addAll(v2);
-                            return v1;
-                        }));
+    public Map<UUID, long[]> getConflictFingerprints() {
+        if (conflictFingerprints == null) {
+            Map<UUID, long[]> fingerprints = new HashMap<>();
+            // Several proxies may have the same stream, so the fingerprints of a stream are
+            // accumulated before being deduplicated.
+            Map<UUID, Integer> lengths = new HashMap<>();
+            conflicts.forEach((proxy, objects) -> {
+                UUID streamId = proxy.getStreamID();
+                int length = lengths.getOrDefault(streamId, 0);
+                long[] streamFingerprints = fingerprints.get(streamId);
+                if (streamFingerprints == null) {
+                    streamFingerprints = new long[objects.size()];
+                } else {
+                    streamFingerprints = Arrays.copyOf(streamFingerprints,
+                            length + objects.size());
+                }
+                for (Object o : objects) {
+                    streamFingerprints[length++] = TxResolutionInfo.fingerprint(
+                            generateHashFromObject(proxy, o));
+                }
+                fingerprints.put(streamId, streamFingerprints);
+                lengths.put(streamId, length);
+            });
+            fingerprints.replaceAll((streamId, streamFingerprints) ->
+                    TxResolutionInfo.sortDistinct(streamFingerprints, lengths.get(streamId)));
+            conflictFingerprints = fingerprints;
+        }
+        return conflictFingerprints;
     }
 
     /** Merge a conflict set into this conflict set.
@@ -54,6 +72,7 @@ public class ConflictSetInfo {
      */
     public void mergeInto(ConflictSetInfo other) {
         conflicts.putAll(other.conflicts);
+        conflictFingerprints = null;
     }
 
     /** Add an operation into this conflict set. */
@@ -61,6 +80,7 @@ public class ConflictSetInfo {
         if (conflictObjects == null) {
             return;
         }
+        conflictFingerprints = null;
 
         // Add the conflict objects to the set for this proxy,
         // creating a new set if needed.
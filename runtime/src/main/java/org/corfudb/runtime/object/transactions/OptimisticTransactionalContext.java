@@ -286,10 +286,10 @@ public class OptimisticTransactionalContext extends AbstractTransactionalContext
             // 2. a map of conflict params, arranged by streamID's
             // 3. a map of write conflict-params, arranged by
             // streamID's
-            new TxResolutionInfo(getTransactionID(),
+            TxResolutionInfo.fromFingerprints(getTransactionID(),
                 getSnapshotTimestamp(),
-                conflictSet.getHashedConflictSet(),
-                getWriteSetInfo().getHashedConflictSet());
+                conflictSet.getConflictFingerprints(),
+                getWriteSetInfo().getConflictFingerprints());
 
         try {
             address = this.builder.runtime.getStreamsView()
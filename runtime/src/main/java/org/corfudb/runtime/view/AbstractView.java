@@ -1,9 +1,11 @@
 package org.corfudb.runtime.view;
 
 import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.TimeoutException;
 import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Function;
 
 import javax.annotation.Nonnull;
 
@@ -13,6 +15,7 @@ import org.corfudb.runtime.exceptions.NetworkException;
 import org.corfudb.runtime.exceptions.ServerNotReadyException;
 import org.corfudb.runtime.exceptions.WrongEpochException;
 import org.corfudb.runtime.exceptions.unrecoverable.UnrecoverableCorfuInterruptedError;
+import org.corfudb.util.CFUtils;
 import org.corfudb.util.Sleep;
 
 /**
@@ -23,7 +26,8 @@ import org.corfudb.util.Sleep;
  * <p>The layoutHelper function is called whenever a view tries to access a layout.
  * If the layoutHelper catches an exception which is due to connection issues
  * or an incorrect epoch, it asks the runtime to invalidate that layout
- * by reporting it to a layout server, and retries the function.</p>
+ * by reporting it to a layout server, and retries the function. The requests which fail
+ * with the same layout share a single layout fetch.</p>
  *
  * <p>Created by mwei on 12/10/15.</p>
  */
@@ -128,14 +132,10 @@ public abstract class AbstractView {
         while (true) {
 
             final Layout layout = getLayoutUninterruptibly();
+            long minEpoch = layout.getEpoch();
 
             try {
-                return function.apply(runtimeLayout.updateAndGet(rLayout -> {
-                    if (rLayout == null || rLayout.getLayout().getEpoch() != layout.getEpoch()) {
-                        return new RuntimeLayout(layout, runtime);
-                    }
-                    return rLayout;
-                }));
+                return function.apply(getRuntimeLayout(layout));
             } catch (RuntimeException re) {
                 if (re.getCause() instanceof TimeoutException) {
                     log.warn("Timeout executing remote call, invalidating view and retrying "
@@ -147,6 +147,7 @@ public abstract class AbstractView {
                     WrongEpochException we = (WrongEpochException) re;
                     log.warn("Got a wrong epoch exception, updating epoch to {} and "
                             + "invalidate view", we.getCorrectEpoch());
+                    minEpoch = we.getCorrectEpoch();
                 } else if (re instanceof NetworkException) {
                     log.warn("layoutHelper: System seems unavailable", re);
                 } else {
@@ -168,11 +169,123 @@ public abstract class AbstractView {
                 runtime.getParameters().getSystemDownHandler().run();
             }
 
-            runtime.invalidateLayout();
+            runtime.invalidateLayout(layout, minEpoch);
             Sleep.sleepUninterruptibly(retryRate);
         }
     }
 
+    /**
+     * Get the RuntimeLayout of a layout, reusing the current one if it has the same epoch.
+     *
+     * @param layout The layout.
+     * @return The RuntimeLayout stamped with the layout.
+     */
+    private RuntimeLayout getRuntimeLayout(Layout layout) {
+        return runtimeLayout.updateAndGet(rLayout -> {
+            if (rLayout == null || rLayout.getLayout().getEpoch() != layout.getEpoch()) {
+                return new RuntimeLayout(layout, runtime);
+            }
+            return rLayout;
+        });
+    }
+
+    /**
+     * Asynchronous counterpart of {@link #layoutHelper(LayoutFunction, boolean)}.
+     *
+     * <p>The function is applied to the layout once it is fetched, and returns a future
+     * instead of blocking. If the future fails with an exception which layoutHelper retries on,
+     * the layout is invalidated and the function is applied again after the connection retry
+     * rate, without holding a thread in between. Since the function may be applied on the
+     * thread which completed the previous attempt, such as an event loop thread, it must not
+     * block.</p>
+     *
+     * @param function             The function to execute.
+     * @param rethrowAllExceptions if all exceptions are rethrown to caller.
+     * @param <T>                  The return type of the function.
+     * @return A future completed with the value of the function.
+     */
+    public <T> CompletableFuture<T> layoutHelperAsync(
+            @Nonnull Function<RuntimeLayout, CompletableFuture<T>> function,
+            boolean rethrowAllExceptions) {
+        runtime.getParameters().getBeforeRpcHandler().run();
+        CompletableFuture<T> result = new CompletableFuture<>();
+        layoutHelperAsync(function, rethrowAllExceptions, result, 0);
+        return result;
+    }
+
+    /**
+     * Asynchronous counterpart of {@link #layoutHelper(LayoutFunction)}.
+     *
+     * @see AbstractView#layoutHelperAsync(Function, boolean)
+     */
+    public <T> CompletableFuture<T> layoutHelperAsync(
+            @Nonnull Function<RuntimeLayout, CompletableFuture<T>> function) {
+        return layoutHelperAsync(function, false);
+    }
+
+    /**
+     * Apply the function once, completing the result or scheduling the next attempt.
+     */
+    private <T> void layoutHelperAsync(Function<RuntimeLayout, CompletableFuture<T>> function,
+                                       boolean rethrowAllExceptions,
+                                       CompletableFuture<T> result,
+                                       int systemDownTriggerCounter) {
+        runtime.layout.whenComplete((layout, layoutException) -> {
+            if (layoutException != null) {
+                // Invalidate layout since the layout completable future contains an exception.
+                runtime.invalidateLayout();
+                log.error("layoutHelperAsync: Encountered exception while fetching layout",
+                        layoutException);
+                result.completeExceptionally(CFUtils.unwrap(layoutException));
+                return;
+            }
+
+            CFUtils.callAsync(() -> function.apply(getRuntimeLayout(layout)))
+                    .whenComplete((value, exception) -> {
+                        if (exception == null) {
+                            result.complete(value);
+                            return;
+                        }
+
+                        Throwable cause = CFUtils.unwrap(exception);
+                        if (!(cause instanceof TimeoutException
+                                || cause.getCause() instanceof TimeoutException
+                                || cause instanceof ServerNotReadyException
+                                || cause instanceof WrongEpochException
+                                || cause instanceof NetworkException)) {
+                            result.completeExceptionally(cause);
+                            return;
+                        }
+                        if (rethrowAllExceptions) {
+                            result.completeExceptionally(new RuntimeException(cause));
+                            return;
+                        }
+                        log.warn("layoutHelperAsync: Retrying after {}, invalidating view",
+                                cause.getClass().getSimpleName());
+
+                        // Invoking the systemDownHandler if the client cannot connect to the
+                        // server. The handler may abort the operation by throwing.
+                        if (systemDownTriggerCounter + 1
+                                >= runtime.getParameters().getSystemDownHandlerTriggerLimit()) {
+                            log.info("layoutHelperAsync: Invoking the systemDownHandler.");
+                            try {
+                                runtime.getParameters().getSystemDownHandler().run();
+                            } catch (RuntimeException | Error e) {
+                                result.completeExceptionally(e);
+                                return;
+                            }
+                        }
+
+                        runtime.invalidateLayout(layout, cause instanceof WrongEpochException
+                                ? ((WrongEpochException) cause).getCorrectEpoch()
+                                : layout.getEpoch());
+                        CFUtils.runAfter(runtime.getParameters().getConnectionRetryRate(),
+                                () -> layoutHelperAsync(function, rethrowAllExceptions, result,
+                                        systemDownTriggerCounter + 1));
+                    });
+        });
+    }
+
     @FunctionalInterface
     public interface LayoutFunction<V, R, A extends Throwable,
             B extends Throwable, C extends Throwable, D extends Throwable> {
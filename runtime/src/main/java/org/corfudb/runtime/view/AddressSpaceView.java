@@ -4,18 +4,21 @@ import static org.corfudb.util.LambdaUtils.runSansThrow;
 import static org.corfudb.util.Utils.getMaxGlobalTail;
 import com.codahale.metrics.Gauge;
 import com.codahale.metrics.MetricRegistry;
-import com.github.benmanes.caffeine.cache.CacheLoader;
-import com.github.benmanes.caffeine.cache.Caffeine;
-import com.github.benmanes.caffeine.cache.LoadingCache;
 import com.google.common.annotations.VisibleForTesting;
-import com.google.common.collect.Iterables;
+import com.google.common.collect.Lists;
 import com.google.common.util.concurrent.ThreadFactoryBuilder;
 
+import java.util.ArrayList;
 import java.util.Comparator;
 import java.util.HashMap;
+import java.util.IdentityHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.TreeSet;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
@@ -29,6 +32,7 @@ import org.corfudb.protocols.wireprotocol.DataType;
 import org.corfudb.protocols.wireprotocol.ILogData;
 import org.corfudb.protocols.wireprotocol.IToken;
 import org.corfudb.protocols.wireprotocol.LogData;
+import org.corfudb.protocols.wireprotocol.TokenResponse;
 import org.corfudb.runtime.CorfuRuntime;
 import org.corfudb.runtime.clients.LogUnitClient;
 import org.corfudb.runtime.exceptions.OverwriteCause;
@@ -38,6 +42,7 @@ import org.corfudb.runtime.exceptions.TrimmedException;
 import org.corfudb.runtime.exceptions.WriteSizeException;
 import org.corfudb.runtime.exceptions.WrongEpochException;
 import org.corfudb.runtime.exceptions.unrecoverable.UnrecoverableCorfuError;
+import org.corfudb.runtime.view.Layout.LayoutStripe;
 import org.corfudb.util.CFUtils;
 import org.corfudb.util.CorfuComponent;
 
@@ -50,6 +55,11 @@ import org.corfudb.util.CorfuComponent;
 @Slf4j
 public class AddressSpaceView extends AbstractView {
 
+    /**
+     * The number of threads reading ahead of the streams.
+     */
+    private static final int READ_AHEAD_THREADS = 2;
+
     /**
      * Scheduler for periodically retrieving the latest trim mark and flush cache.
      */
@@ -59,24 +69,26 @@ public class AddressSpaceView extends AbstractView {
                     .build());
 
     /**
-     * A cache for read results.
+     * A cache for read results, bounded by the estimated bytes of the entries.
      */
-    final LoadingCache<Long, ILogData> readCache = Caffeine.<Long, ILogData>newBuilder()
-            .maximumSize(runtime.getParameters().getNumCacheEntries())
-            .expireAfterAccess(runtime.getParameters().getCacheExpiryTime(), TimeUnit.SECONDS)
-            .expireAfterWrite(runtime.getParameters().getCacheExpiryTime(), TimeUnit.SECONDS)
-            .recordStats()
-            .build(new CacheLoader<Long, ILogData>() {
-                @Override
-                public ILogData load(Long value) throws Exception {
-                    return cacheFetch(value);
-                }
+    final SegmentedReadCache readCache;
 
-                @Override
-                public Map<Long, ILogData> loadAll(Iterable<? extends Long> keys) throws Exception {
-                    return cacheFetch((Iterable<Long>) keys);
-                }
-            });
+    /**
+     * Executes the reads ahead of the streams, if reading ahead is enabled.
+     */
+    private final ExecutorService readAheadExecutor;
+
+    /**
+     * Reads ahead of the streams into the read cache, or null if reading ahead is disabled.
+     */
+    @Nullable
+    private final ReadAheadPrefetcher readAheadPrefetcher;
+
+    /**
+     * Caches the tail and the trim mark of the log, or null if the cache is disabled.
+     */
+    @Nullable
+    private final LogTailCache logTailCache;
 
     /**
      * Constructor for the Address Space View.
@@ -86,11 +98,37 @@ public class AddressSpaceView extends AbstractView {
         MetricRegistry metrics = runtime.getMetrics();
         final String pfx = String.format("%s0x%x.cache.", CorfuComponent.ADDRESS_SPACE_VIEW.toString(),
                                          this.hashCode());
+        readCache = new SegmentedReadCache(runtime.getParameters(), this::cacheFetch,
+                this::cacheFetch, metrics, pfx);
         metrics.register(pfx + "cache-size", (Gauge<Long>) readCache::estimatedSize);
-        metrics.register(pfx + "evictions", (Gauge<Long>) () -> readCache.stats().evictionCount());
-        metrics.register(pfx + "hit-rate", (Gauge<Double>) () -> readCache.stats().hitRate());
-        metrics.register(pfx + "hits", (Gauge<Long>) () -> readCache.stats().hitCount());
-        metrics.register(pfx + "misses", (Gauge<Long>) () -> readCache.stats().missCount());
+        metrics.register(pfx + "cache-weight", (Gauge<Long>) readCache::weightedSize);
+        metrics.register(pfx + "evictions", (Gauge<Long>) readCache::evictionCount);
+        metrics.register(pfx + "hit-rate", (Gauge<Double>) readCache::hitRate);
+        metrics.register(pfx + "hits", (Gauge<Long>) readCache::hitCount);
+        metrics.register(pfx + "misses", (Gauge<Long>) readCache::missCount);
+
+        if (runtime.getParameters().isReadAheadEnabled()
+                && !runtime.getParameters().isCacheDisabled()) {
+            readAheadExecutor = Executors.newFixedThreadPool(READ_AHEAD_THREADS,
+                    new ThreadFactoryBuilder().setDaemon(true)
+                            .setNameFormat("ReadAhead-%d")
+                            .build());
+            readAheadPrefetcher = new ReadAheadPrefetcher(
+                    runtime.getParameters().getMaxReadAheadWindow(), this::peekAll, readCache,
+                    readAheadExecutor);
+        } else {
+            readAheadExecutor = null;
+            readAheadPrefetcher = null;
+        }
+
+        if (runtime.getParameters().isTailCacheEnabled()) {
+            // Learn of the trims as the log units tell of them, rather than once per period.
+            logTailCache = new LogTailCache(runtime,
+                    runtime.getParameters().getTailCacheInterval(),
+                    () -> scheduler.execute(() -> runSansThrow(TrimMarkSyncTask::new)));
+        } else {
+            logTailCache = null;
+        }
 
         scheduler.scheduleWithFixedDelay(() -> runSansThrow(TrimMarkSyncTask::new),
                 runtime.getParameters().getTrimMarkSyncPeriod().toMillis(),
@@ -106,6 +144,12 @@ public class AddressSpaceView extends AbstractView {
         try {
             readCache.invalidateAll();
             scheduler.shutdownNow();
+            if (logTailCache != null) {
+                logTailCache.shutdown();
+            }
+            if (readAheadExecutor != null) {
+                readAheadExecutor.shutdownNow();
+            }
         } catch (Exception e) {
             log.error("Failed to shutdown AddressSpaceView.", e);
         }
@@ -161,7 +205,9 @@ public class AddressSpaceView extends AbstractView {
      * @throws WrongEpochException  If the token epoch is invalid.
      */
     public void write(@Nonnull IToken token, @Nonnull Object data, @Nonnull CacheOption cacheOption) {
-        final ILogData ld = new LogData(DataType.DATA, data);
+        final LogData ld = new LogData(DataType.DATA, data);
+        ld.compressPayload(runtime.getParameters().getLogDataCompressionCodec(),
+                runtime.getParameters().getCompressionThreshold());
 
         layoutHelper(e -> {
             Layout l = e.getLayout();
@@ -203,10 +249,95 @@ public class AddressSpaceView extends AbstractView {
             return null;
         }, true);
 
+        recordWriteLatency(token);
+
         // Cache the successful write
         if (!runtime.getParameters().isCacheDisabled() && cacheOption == CacheOption.WRITE_THROUGH) {
             readCache.put(token.getTokenValue(), ld);
         }
+        if (logTailCache != null) {
+            logTailCache.recordWrite(token.getTokenValue());
+        }
+    }
+
+    /** Record the latency of a committed write, from the time its token was issued, so that
+     * readers wait for unwritten addresses for about as long as writes take to commit.
+     *
+     * @param token The token of the committed write.
+     */
+    private void recordWriteLatency(IToken token) {
+        if (token instanceof TokenResponse) {
+            runtime.getHoleFillDeadline().recordWrite(
+                    System.nanoTime() - ((TokenResponse) token).getIssuedNanos());
+        }
+    }
+
+    /** Write the given log data using a token without blocking.
+     *
+     * <p>The write is composed on the futures of the replication protocol, and
+     * behaves like {@link AddressSpaceView#write(IToken, Object, CacheOption)}:
+     * the returned future fails with an OverwriteException if another value has
+     * been adopted, or a StaleTokenException if the token epoch is invalid. If the
+     * outcome of the write is unknown, its state is validated by a read, which is
+     * done on the blocking executor of the runtime, as reads may block.</p>
+     *
+     * @param token        The token to use for the write.
+     * @param data         The data to write.
+     * @param cacheOption  The caching behaviour for this write
+     * @return A future completed once the write is committed.
+     */
+    public CompletableFuture<Void> writeAsync(@Nonnull IToken token, @Nonnull Object data,
+                                              @Nonnull CacheOption cacheOption) {
+        final LogData ld = new LogData(DataType.DATA, data);
+        ld.compressPayload(runtime.getParameters().getLogDataCompressionCodec(),
+                runtime.getParameters().getCompressionThreshold());
+
+        return layoutHelperAsync(e -> {
+            Layout l = e.getLayout();
+            // Check if the token issued is in the same
+            // epoch as the layout we are about to write
+            // to.
+            if (token.getEpoch() != l.getEpoch()) {
+                throw new StaleTokenException(l.getEpoch());
+            }
+
+            // Set the data to use the token
+            ld.useToken(token);
+            ld.setId(runtime.getParameters().getClientId());
+
+            // Do the write
+            return l.getReplicationMode(token.getTokenValue())
+                    .getReplicationProtocol(runtime)
+                    .writeAsync(e, ld)
+                    .handle((r, ex) -> ex)
+                    .thenCompose(ex -> {
+                        if (ex == null) {
+                            return CompletableFuture.<Void>completedFuture(null);
+                        }
+                        Throwable cause = CFUtils.unwrap(ex);
+                        if (cause instanceof WriteSizeException || cause instanceof Error
+                                || (cause instanceof OverwriteException
+                                && ((OverwriteException) cause).getOverWriteCause()
+                                != OverwriteCause.SAME_DATA)) {
+                            return CFUtils.<Void>failedFuture(cause);
+                        }
+                        // We may or may not have written: validate the state of the write.
+                        return CompletableFuture.runAsync(() ->
+                                validateStateOfWrittenEntry(token.getTokenValue(), ld),
+                                runtime.getBlockingExecutor());
+                    });
+        }, true).thenRun(() -> {
+            recordWriteLatency(token);
+
+            // Cache the successful write
+            if (!runtime.getParameters().isCacheDisabled()
+                    && cacheOption == CacheOption.WRITE_THROUGH) {
+                readCache.put(token.getTokenValue(), ld);
+            }
+            if (logTailCache != null) {
+                logTailCache.recordWrite(token.getTokenValue());
+            }
+        });
     }
 
     /**
@@ -234,6 +365,32 @@ public class AddressSpaceView extends AbstractView {
                     .peek(e, address));
     }
 
+    /** Directly read from the log the committed values of the given addresses,
+     * without hole filling the addresses which have not been committed.
+     *
+     * @param addresses The addresses to read from.
+     * @return          The committed data stored in the log, for the
+     *                  addresses which have been committed.
+     */
+    Map<Long, ILogData> peekAll(@Nonnull List<Long> addresses) {
+        return layoutHelper(e -> {
+            Map<LayoutStripe, Set<Long>> stripes = new IdentityHashMap<>();
+            for (long address : addresses) {
+                stripes.computeIfAbsent(e.getLayout().getStripe(address),
+                        stripe -> new TreeSet<>()).add(address);
+            }
+
+            Map<Long, ILogData> allAddresses = new HashMap<>();
+            for (Set<Long> stripeAddresses : stripes.values()) {
+                allAddresses.putAll(e.getLayout()
+                        .getReplicationMode(stripeAddresses.iterator().next())
+                        .getReplicationProtocol(runtime)
+                        .peekAll(e, stripeAddresses));
+            }
+            return allAddresses;
+        });
+    }
+
     /**
      * Read the given object from an address and streams.
      *
@@ -254,6 +411,23 @@ public class AddressSpaceView extends AbstractView {
         return fetch(address);
     }
 
+    /**
+     * Read the given object from an address, on behalf of a stream. If reading ahead is
+     * enabled, the addresses which the stream is expected to read next are read into the
+     * cache in the background.
+     *
+     * @param address An address to read from.
+     * @param stream  The stream which reads the address.
+     * @return A result, which be cached.
+     */
+    public @Nonnull ILogData read(long address, @Nonnull UUID stream) {
+        if (readAheadPrefetcher != null) {
+            readAheadPrefetcher.recordRead(stream, address,
+                    readCache.getIfPresent(address) != null);
+        }
+        return read(address);
+    }
+
     /**
      * Read the given object from a range of addresses.
      *
@@ -279,8 +453,17 @@ public class AddressSpaceView extends AbstractView {
 
     /**
      * Get the first address in the address space.
+     *
+     * <p>If the tail cache is enabled, the trim mark is answered by the cache while all the
+     * log units are watched.</p>
      */
     public long getTrimMark() {
+        if (logTailCache != null) {
+            Long trimMark = logTailCache.getTrimMark(runtime.getLayoutView().getLayout());
+            if (trimMark != null) {
+                return trimMark;
+            }
+        }
         return layoutHelper(
                 e -> e.getLayout().segments.stream()
                         .flatMap(seg -> seg.getStripes().stream())
@@ -292,9 +475,18 @@ public class AddressSpaceView extends AbstractView {
     }
 
     /**
-     * Get the last address in the address space
+     * Get the last address in the address space.
+     *
+     * <p>If the tail cache is enabled, the tail is answered by the cache while the log units
+     * are watched, at most one coalescing interval behind the log units.</p>
      */
     public long getLogTail() {
+        if (logTailCache != null) {
+            Long tail = logTailCache.getLogTail(runtime.getLayoutView().getLayout());
+            if (tail != null) {
+                return tail;
+            }
+        }
         return layoutHelper(
                 e -> getMaxGlobalTail(e.getLayout(), runtime));
     }
@@ -375,18 +567,8 @@ public class AddressSpaceView extends AbstractView {
      * @param address Keys less than the input log address will be invalidated.
      */
     public void invalidateClientCache(long address) {
-        // TODO: Might need to do some statistics to clear up cache when the amount to
-        // invalidate is huge.
-        readCache.asMap().keySet().forEach(k -> {
-            if (k < address) {
-                try {
-                    readCache.invalidate(k);
-                } catch (RuntimeException e) {
-                    log.error("invalidateClientCache: Error while invalidating cache entry with key={}",
-                            k, e);
-                }
-            }
-        });
+        // The entries are invalidated a segment of addresses at a time.
+        readCache.invalidateBefore(address);
         log.info("invalidateClientCache: Keys less than {} are invalidated in cache.", address);
     }
 
@@ -409,31 +591,48 @@ public class AddressSpaceView extends AbstractView {
     /**
      * Fetch a collection of addresses for insertion into the cache.
      *
+     * <p>The addresses are grouped by the stripe serving them, and split into batches of
+     * the bulk read size. The batches of all the stripes are read concurrently, so the
+     * fetch takes about as many round trips as the largest stripe has batches.</p>
+     *
      * @param addresses collection of addresses to read from.
      * @return A result to be cached
      */
     public @Nonnull
     Map<Long, ILogData> cacheFetch(Iterable<Long> addresses) {
-        Map<Long, ILogData> allAddresses = new HashMap<>();
+        try {
+            return layoutHelper(e -> {
+                // Group the addresses by stripe, as each stripe is read from its own log units.
+                Map<LayoutStripe, List<Long>> stripes = new IdentityHashMap<>();
+                for (long address : addresses) {
+                    stripes.computeIfAbsent(e.getLayout().getStripe(address),
+                            stripe -> new ArrayList<>()).add(address);
+                }
 
-        Iterable<List<Long>> batches = Iterables.partition(addresses,
-            runtime.getParameters().getBulkReadSize());
+                List<CompletableFuture<Map<Long, ILogData>>> batches = new ArrayList<>();
+                for (List<Long> stripeAddresses : stripes.values()) {
+                    for (List<Long> batch : Lists.partition(stripeAddresses,
+                            runtime.getParameters().getBulkReadSize())) {
+                        //doesn't handle the case where some address have a different
+                        // replication mode
+                        batches.add(e.getLayout()
+                                .getReplicationMode(batch.get(0))
+                                .getReplicationProtocol(runtime)
+                                .readAllAsync(e, batch));
+                    }
+                }
 
-        for (List<Long> batch : batches) {
-            try {
-                //doesn't handle the case where some address have a different replication mode
-                allAddresses.putAll(layoutHelper(e -> e.getLayout()
-                        .getReplicationMode(batch.iterator().next())
-                        .getReplicationProtocol(runtime)
-                        .readAll(e, batch)));
-            } catch (Exception e) {
-                log.error("cacheFetch: Couldn't read addresses {}", batch, e);
-                throw new UnrecoverableCorfuError(
-                    "Unexpected error during cacheFetch", e);
-            }
+                Map<Long, ILogData> allAddresses = new HashMap<>();
+                for (CompletableFuture<Map<Long, ILogData>> batch : batches) {
+                    allAddresses.putAll(CFUtils.getUninterruptibly(batch));
+                }
+                return allAddresses;
+            });
+        } catch (Exception e) {
+            log.error("cacheFetch: Couldn't read addresses {}", addresses, e);
+            throw new UnrecoverableCorfuError(
+                "Unexpected error during cacheFetch", e);
         }
-
-        return allAddresses;
     }
 
     /**
@@ -464,7 +663,7 @@ public class AddressSpaceView extends AbstractView {
     }
 
     @VisibleForTesting
-    LoadingCache<Long, ILogData> getReadCache() {
+    SegmentedReadCache getReadCache() {
         return readCache;
     }
 
@@ -5,7 +5,9 @@ import static java.util.Objects.requireNonNull;
 import com.google.gson.Gson;
 import com.google.gson.GsonBuilder;
 
+import java.time.Duration;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
@@ -26,7 +28,9 @@ import org.corfudb.runtime.CorfuRuntime;
 import org.corfudb.runtime.exceptions.QuorumUnreachableException;
 import org.corfudb.runtime.view.ClusterStatusReport.ClusterStatus;
 import org.corfudb.runtime.view.replication.ChainReplicationProtocol;
+import org.corfudb.runtime.view.replication.CommittedTailTracker;
 import org.corfudb.runtime.view.replication.IReplicationProtocol;
+import org.corfudb.runtime.view.replication.LongPollHoleFillPolicy;
 import org.corfudb.runtime.view.replication.NeverHoleFillPolicy;
 import org.corfudb.runtime.view.replication.QuorumReplicationProtocol;
 import org.corfudb.runtime.view.replication.ReadWaitHoleFillPolicy;
@@ -86,6 +90,16 @@ public class Layout {
     @Getter
     UUID clusterId;
 
+    /**
+     * Sequencers which partition token allocation by stream. If less than two of these are
+     * active sequencers, the primary sequencer owns all the streams. The primary sequencer
+     * always allocates the global addresses, and leases blocks of them to the other shards.
+     */
+    @Getter
+    @Setter
+    @NonNull
+    List<String> sequencerShards = new ArrayList<>();
+
     /**
      * Defensive constructor since we can create a Layout from a JSON file.
      * JSON deserialize is forced through this constructor.
@@ -189,6 +203,57 @@ public class Layout {
         return sequencers.get(0);
     }
 
+    /**
+     * Returns the sequencer shards which are active, i.e. which are responsive sequencers of
+     * this layout. If less than two shards are active, token allocation is not sharded and
+     * this returns an empty list.
+     *
+     * @return The active sequencer shards, in shard order.
+     */
+    public List<String> getActiveSequencerShards() {
+        List<String> activeShards = sequencerShards.stream()
+                .filter(sequencers::contains)
+                .filter(shard -> !unresponsiveServers.contains(shard))
+                .distinct()
+                .collect(Collectors.toList());
+        return activeShards.size() > 1 ? activeShards : Collections.emptyList();
+    }
+
+    /**
+     * Returns true if the token allocation is partitioned across several sequencer shards.
+     */
+    public boolean isSequencerSharded() {
+        return !getActiveSequencerShards().isEmpty();
+    }
+
+    /**
+     * Returns the sequencer which owns the tail of a stream. Streams are partitioned into
+     * equal ranges of the most significant bits of their ID, one range per active shard.
+     *
+     * @param streamId The stream ID.
+     * @return The sequencer owning the stream.
+     */
+    public String getSequencerShard(@Nonnull UUID streamId) {
+        List<String> activeShards = getActiveSequencerShards();
+        if (activeShards.isEmpty()) {
+            return getPrimarySequencer();
+        }
+        return activeShards.get(getShardIndex(streamId, activeShards.size()));
+    }
+
+    /**
+     * Returns the index of the shard owning a stream, among a given number of shards.
+     *
+     * @param streamId  The stream ID.
+     * @param numShards The number of shards.
+     * @return The shard index, in the range [0, numShards).
+     */
+    public static int getShardIndex(@Nonnull UUID streamId, int numShards) {
+        // The top 32 unsigned bits times the number of shards fits in a long.
+        long highBits = streamId.getMostSignificantBits() >>> Integer.SIZE;
+        return (int) ((highBits * numShards) >>> Integer.SIZE);
+    }
+
     /**
      * Given the log's global address, return equivalent local address for a striped log segment.
      *
@@ -324,6 +389,7 @@ public class Layout {
         this.unresponsiveServers = layoutCopy.getUnresponsiveServers();
         this.epoch = layoutCopy.getEpoch();
         this.clusterId = layoutCopy.clusterId;
+        this.sequencerShards = layoutCopy.getSequencerShards();
     }
 
     public enum ReplicationMode {
@@ -348,11 +414,21 @@ public class Layout {
 
             @Override
             public IReplicationProtocol getReplicationProtocol(CorfuRuntime r) {
+                CommittedTailTracker committedTailTracker =
+                        r.getParameters().isChainReadFromAnyReplica()
+                                ? r.getCommittedTailTracker() : null;
                 if (r.getParameters().isHoleFillingDisabled()) {
-                    return new ChainReplicationProtocol(new NeverHoleFillPolicy(100));
+                    return new ChainReplicationProtocol(new NeverHoleFillPolicy(100),
+                            r.getParameters().isChainFanOutEnabled(), committedTailTracker);
                 } else {
-                    return new ChainReplicationProtocol(new ReadWaitHoleFillPolicy(100,
-                            r.getParameters().getHoleFillRetry()));
+                    // The tail holds a waiting read, which must be answered before the
+                    // request times out.
+                    Duration maxWait = Duration.ofMillis(Math.min(
+                            100L * r.getParameters().getHoleFillRetry(),
+                            r.getParameters().getRequestTimeout().toMillis() / 2));
+                    return new ChainReplicationProtocol(new LongPollHoleFillPolicy(
+                            maxWait, r.getHoleFillDeadline()),
+                            r.getParameters().isChainFanOutEnabled(), committedTailTracker);
                 }
             }
 
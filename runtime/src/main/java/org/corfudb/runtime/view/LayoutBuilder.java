@@ -481,12 +481,14 @@ public class LayoutBuilder {
      * @return new layout
      */
     public Layout build() {
-        return new Layout(
+        Layout newLayout = new Layout(
                 layout.getLayoutServers(),
                 layout.getSequencers(),
                 layout.getSegments(),
                 layout.getUnresponsiveServers(),
                 this.epoch,
                 layout.getClusterId());
+        newLayout.setSequencerShards(layout.getSequencerShards());
+        return newLayout;
     }
 }
@@ -34,6 +34,10 @@ public class LayoutDeserializer implements JsonDeserializer {
         Layout safeLayout = new Layout(unsafeLayout.layoutServers, unsafeLayout.sequencers,
                 unsafeLayout.segments, unsafeLayout.unresponsiveServers, unsafeLayout.epoch,
                 unsafeLayout.clusterId);
+        /* Sequencer shards are an optional field in the json as well. */
+        if (unsafeLayout.sequencerShards != null) {
+            safeLayout.setSequencerShards(unsafeLayout.sequencerShards);
+        }
 
         return safeLayout;
 
@@ -7,14 +7,17 @@ import java.util.Map;
 import java.util.Set;
 import java.util.UUID;
 import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Collectors;
 
 import javax.annotation.Nonnull;
 
 import lombok.NonNull;
 import lombok.extern.slf4j.Slf4j;
 
+import org.corfudb.protocols.wireprotocol.SequencerSnapshot;
 import org.corfudb.recovery.FastObjectLoader;
 import org.corfudb.runtime.CorfuRuntime;
+import org.corfudb.runtime.clients.SequencerClient;
 import org.corfudb.runtime.exceptions.LayoutModificationException;
 import org.corfudb.runtime.exceptions.OutrankedException;
 import org.corfudb.runtime.exceptions.QuorumUnreachableException;
@@ -385,6 +388,8 @@ public class LayoutManagementView extends AbstractView {
      * If the primary sequencer has changed in the new layout,
      * the global tail of the log units are queried and used to set
      * the initial token of the new primary sequencer.
+     * If the new primary sequencer holds a snapshot shipped from the previous primary, it is
+     * bootstrapped from that snapshot and only the log written after it is scanned.
      *
      * @param originalLayout   Current layout to get the latest state of servers.
      * @param newLayout        New Layout to be reconfigured.
@@ -408,10 +413,23 @@ public class LayoutManagementView extends AbstractView {
                 Map<UUID, Long> streamTails = Collections.emptyMap();
                 boolean bootstrapWithoutTailsUpdate = true;
 
-                // Reconfigure Primary Sequencer if required
+                // Reconfigure Primary Sequencer if required. The sequencer shards are all
+                // reconfigured if they change or if any of them cannot move to the new epoch.
+                boolean sharded = newLayout.isSequencerSharded()
+                        || originalLayout.isSequencerSharded();
                 if (forceReconfigure
                         || !originalLayout.getPrimarySequencer()
-                        .equals(newLayout.getPrimarySequencer())) {
+                        .equals(newLayout.getPrimarySequencer())
+                        || !originalLayout.getActiveSequencerShards()
+                        .equals(newLayout.getActiveSequencerShards())
+                        || (sharded && !updateShardEpochs(newLayout))) {
+
+                    if (!sharded && bootstrapFromStandbySnapshot(newLayout)) {
+                        lastKnownSequencerEpoch = newLayout.getEpoch();
+                        log.info("reconfigureSequencerServers: Sequencer bootstrap from "
+                                + "snapshot successful.");
+                        return;
+                    }
 
                     FastObjectLoader fastObjectLoader = new FastObjectLoader(runtime);
                     fastObjectLoader.setRecoverSequencerMode(true);
@@ -426,6 +444,12 @@ public class LayoutManagementView extends AbstractView {
                     // Incrementing the maxTokenRequested value for sequencer reset.
                     maxTokenRequested++;
                     bootstrapWithoutTailsUpdate = false;
+
+                    if (newLayout.isSequencerSharded()) {
+                        bootstrapShards(newLayout, maxTokenRequested, streamTails);
+                        streamTails = getShardStreamTails(newLayout,
+                                newLayout.getPrimarySequencer(), streamTails);
+                    }
                 }
 
                 // Configuring the new sequencer.
@@ -449,6 +473,116 @@ public class LayoutManagementView extends AbstractView {
         }
     }
 
+    /**
+     * Moves the sequencer shards other than the primary sequencer to the epoch of the new layout,
+     * keeping their state.
+     *
+     * @param newLayout New layout.
+     * @return True if all the shards moved to the new epoch, false if any of them requires a
+     *     full bootstrap.
+     */
+    private boolean updateShardEpochs(Layout newLayout) {
+        try {
+            for (String shard : newLayout.getActiveSequencerShards()) {
+                if (!shard.equals(newLayout.getPrimarySequencer())
+                        && !CFUtils.getUninterruptibly(runtime.getLayoutView()
+                        .getRuntimeLayout(newLayout).getSequencerClient(shard)
+                        .bootstrap(Address.NON_ADDRESS, Collections.emptyMap(),
+                                newLayout.getEpoch(), true))) {
+                    log.warn("updateShardEpochs: Shard {} requires a full bootstrap", shard);
+                    return false;
+                }
+            }
+        } catch (Exception e) {
+            log.warn("updateShardEpochs: Unable to update the shard epochs.", e);
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * Bootstraps the sequencer shards other than the primary sequencer, each with the tails of
+     * the streams it owns. They issue no address below the global tail and wait for a lease.
+     *
+     * @param newLayout   New layout.
+     * @param globalTail  Global tail the primary sequencer is bootstrapped with.
+     * @param streamTails Tails of all the streams.
+     */
+    private void bootstrapShards(Layout newLayout, long globalTail,
+                                 Map<UUID, Long> streamTails) {
+        for (String shard : newLayout.getActiveSequencerShards()) {
+            if (shard.equals(newLayout.getPrimarySequencer())) {
+                continue;
+            }
+            boolean result = CFUtils.getUninterruptibly(runtime.getLayoutView()
+                    .getRuntimeLayout(newLayout).getSequencerClient(shard)
+                    .bootstrapShard(globalTail, getShardStreamTails(newLayout, shard, streamTails),
+                            newLayout.getEpoch()));
+            if (!result) {
+                log.warn("bootstrapShards: Shard {} bootstrap failed. Already bootstrapped.",
+                        shard);
+            }
+        }
+    }
+
+    /**
+     * Returns the tails of the streams owned by a sequencer shard.
+     */
+    private Map<UUID, Long> getShardStreamTails(Layout layout, String shard,
+                                                Map<UUID, Long> streamTails) {
+        return streamTails.entrySet().stream()
+                .filter(entry -> layout.getSequencerShard(entry.getKey()).equals(shard))
+                .collect(Collectors.toMap(Map.Entry::getKey, Map.Entry::getValue));
+    }
+
+    /**
+     * Attempts to bootstrap the new primary sequencer from the snapshot installed on it.
+     * The stream tails are recovered by scanning the log from the snapshot tail onwards.
+     *
+     * @param newLayout New layout with the primary sequencer to bootstrap.
+     * @return True if the sequencer was bootstrapped from its snapshot. False if it does not
+     *     hold a usable snapshot and needs a full bootstrap.
+     */
+    private boolean bootstrapFromStandbySnapshot(Layout newLayout) {
+        SequencerClient sequencerClient = runtime.getLayoutView().getRuntimeLayout(newLayout)
+                .getPrimarySequencerClient();
+        SequencerSnapshot snapshot;
+        try {
+            snapshot = CFUtils.getUninterruptibly(sequencerClient.requestStandbySnapshot());
+        } catch (Exception e) {
+            log.warn("bootstrapFromStandbySnapshot: Unable to query the standby snapshot.", e);
+            return false;
+        }
+
+        // The log written between the snapshot and the trim mark cannot be scanned.
+        if (!snapshot.isPresent()
+                || snapshot.getGlobalTail() < runtime.getAddressSpaceView().getTrimMark()) {
+            return false;
+        }
+
+        FastObjectLoader fastObjectLoader = new FastObjectLoader(runtime);
+        fastObjectLoader.setRecoverSequencerMode(true);
+        fastObjectLoader.setLoadInCache(false);
+        fastObjectLoader.setLogHead(snapshot.getGlobalTail());
+        fastObjectLoader.loadMaps();
+
+        // The loader restarts from the trim mark if the log got trimmed during the scan.
+        if (fastObjectLoader.getLogHead() != snapshot.getGlobalTail()) {
+            return false;
+        }
+
+        Map<UUID, Long> streamTails = fastObjectLoader.getStreamTails();
+        verifyStreamTailsMap(streamTails);
+
+        // Tokens issued by the previous primary might not have been written yet.
+        long initialToken = Math.max(fastObjectLoader.getLogTail() + 1,
+                snapshot.getGlobalTail());
+        log.info("bootstrapFromStandbySnapshot: Bootstrapping from snapshot at {} with {} "
+                + "streams written since", snapshot.getGlobalTail(), streamTails.size());
+        return CFUtils.getUninterruptibly(sequencerClient.bootstrapFromSnapshot(initialToken,
+                streamTails, newLayout.getEpoch(), snapshot.getGlobalTail()));
+    }
+
     /**
      * Verifies whether there are any invalid streamTails.
      *
@@ -0,0 +1,208 @@
+package org.corfudb.runtime.view;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+import lombok.extern.slf4j.Slf4j;
+
+import org.corfudb.runtime.CorfuRuntime;
+
+/**
+ * Caches the tail and the trim mark of the log, as told by the log units.
+ *
+ * <p>The cache watches every log unit of the layout: a log unit holds the watch until its tail
+ * or its trim mark changes, and answers it once its coalescing interval has elapsed, after
+ * which the cache watches it again. While all the log units needed are watched, the tail and
+ * the trim mark are answered locally, at most an interval behind the log units, instead of
+ * querying the log units. The tail also includes the writes of this runtime, so that it never
+ * lags behind them.</p>
+ *
+ * <p>If a watch fails, for instance because the log unit is unreachable, the cache does not
+ * answer until the log unit is watched again, and the callers query the log units.</p>
+ */
+@Slf4j
+class LogTailCache {
+
+    /** The values of a log unit which is not answered yet, which differ from any value. */
+    private static final long UNKNOWN = Long.MIN_VALUE;
+
+    /** The tail and the trim mark of a log unit, as last answered to its watch. */
+    private static class LogUnitState {
+        volatile long tail = UNKNOWN;
+        volatile long trimMark = UNKNOWN;
+
+        /** Whether the values were answered, and the log unit is watched since. */
+        volatile boolean live = false;
+
+        /** Whether a watch of the log unit is in progress. */
+        final AtomicBoolean watching = new AtomicBoolean();
+    }
+
+    private final CorfuRuntime runtime;
+
+    /** The time over which the log units coalesce the changes. */
+    private final Duration interval;
+
+    /** The time a log unit holds a watch without changes. */
+    private final Duration timeout;
+
+    /** Notified when the trim mark of a log unit increases. */
+    private final Runnable trimMarkListener;
+
+    /** The epoch of the layout whose log units are watched. */
+    private volatile long epoch = Layout.INVALID_EPOCH;
+
+    /** The log units watched, by endpoint. */
+    private volatile Map<String, LogUnitState> logUnits = new ConcurrentHashMap<>();
+
+    /** The highest address written by this runtime, in the epoch watched. */
+    private final AtomicLong localTail = new AtomicLong(Address.NON_ADDRESS);
+
+    private volatile boolean shutdown = false;
+
+    /**
+     * Creates a cache.
+     *
+     * @param runtime          The runtime to watch the log units with.
+     * @param interval         The time over which the log units coalesce the changes, which
+     *                         bounds the staleness of the cache.
+     * @param trimMarkListener Notified when the trim mark of a log unit increases.
+     */
+    LogTailCache(@Nonnull CorfuRuntime runtime, @Nonnull Duration interval,
+                 @Nonnull Runnable trimMarkListener) {
+        this.runtime = runtime;
+        this.interval = interval;
+        // A watch must be answered before the router times it out.
+        this.timeout = runtime.getParameters().getRequestTimeout().dividedBy(2);
+        this.trimMarkListener = trimMarkListener;
+    }
+
+    /**
+     * Get the tail of the log.
+     *
+     * @param layout The current layout.
+     * @return The tail, or null if the log units needed are not watched, or if the latest
+     *     segment is not chain replicated.
+     */
+    @Nullable
+    Long getLogTail(@Nonnull Layout layout) {
+        Map<String, LogUnitState> states = watch(layout);
+        Layout.LayoutSegment segment = layout.getLatestSegment();
+        if (segment.getReplicationMode() != Layout.ReplicationMode.CHAIN_REPLICATION) {
+            return null;
+        }
+
+        // The head of every stripe has written its whole tail.
+        long tail = localTail.get();
+        for (Layout.LayoutStripe stripe : segment.getStripes()) {
+            LogUnitState head = states.get(stripe.getLogServers().get(0));
+            if (head == null || !head.live) {
+                return null;
+            }
+            tail = Math.max(tail, head.tail);
+        }
+        return tail;
+    }
+
+    /**
+     * Get the trim mark of the log.
+     *
+     * @param layout The current layout.
+     * @return The trim mark, or null if the log units are not all watched.
+     */
+    @Nullable
+    Long getTrimMark(@Nonnull Layout layout) {
+        Map<String, LogUnitState> states = watch(layout);
+        long trimMark = UNKNOWN;
+        for (LogUnitState state : states.values()) {
+            if (!state.live) {
+                return null;
+            }
+            trimMark = Math.max(trimMark, state.trimMark);
+        }
+        return trimMark == UNKNOWN ? null : trimMark;
+    }
+
+    /**
+     * Record a write of this runtime.
+     *
+     * @param address The address written.
+     */
+    void recordWrite(long address) {
+        localTail.accumulateAndGet(address, Math::max);
+    }
+
+    /** Stop watching the log units. */
+    void shutdown() {
+        shutdown = true;
+    }
+
+    /**
+     * Watch the log units of a layout which are not watched.
+     *
+     * @param layout The layout.
+     * @return The log units of the layout, by endpoint.
+     */
+    private Map<String, LogUnitState> watch(Layout layout) {
+        Map<String, LogUnitState> states;
+        synchronized (this) {
+            if (layout.getEpoch() != epoch) {
+                // The watches of the previous layout stop once they are answered.
+                logUnits = new ConcurrentHashMap<>();
+                localTail.set(Address.NON_ADDRESS);
+                epoch = layout.getEpoch();
+            }
+            states = logUnits;
+        }
+
+        for (Layout.LayoutSegment segment : layout.getSegments()) {
+            for (Layout.LayoutStripe stripe : segment.getStripes()) {
+                for (String endpoint : stripe.getLogServers()) {
+                    LogUnitState state = states.computeIfAbsent(endpoint,
+                            e -> new LogUnitState());
+                    if (state.watching.compareAndSet(false, true)) {
+                        watch(layout, endpoint, state);
+                    }
+                }
+            }
+        }
+        return states;
+    }
+
+    private void watch(Layout layout, String endpoint, LogUnitState state) {
+        if (shutdown || layout.getEpoch() != epoch) {
+            state.live = false;
+            state.watching.set(false);
+            return;
+        }
+
+        runtime.getLayoutView().getRuntimeLayout(layout).getLogUnitClient(endpoint)
+                .watchTail(state.tail, state.trimMark, interval, timeout)
+                // Watch again off the event loop of the router.
+                .whenCompleteAsync((response, ex) -> {
+                    if (ex != null) {
+                        log.debug("watch[{}]: failed, querying until watched again",
+                                endpoint, ex);
+                        state.live = false;
+                        state.watching.set(false);
+                        return;
+                    }
+
+                    final boolean trimmed = state.trimMark != UNKNOWN
+                            && response.getTrimMark() > state.trimMark;
+                    state.tail = response.getTail();
+                    state.trimMark = response.getTrimMark();
+                    state.live = true;
+                    if (trimmed) {
+                        trimMarkListener.run();
+                    }
+                    watch(layout, endpoint, state);
+                });
+    }
+}
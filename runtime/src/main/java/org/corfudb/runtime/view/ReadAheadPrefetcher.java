@@ -0,0 +1,198 @@
+package org.corfudb.runtime.view;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.function.Function;
+
+import javax.annotation.Nonnull;
+
+import lombok.extern.slf4j.Slf4j;
+
+import org.corfudb.protocols.wireprotocol.ILogData;
+
+/**
+ * Reads ahead of the streams which read the log sequentially, into the read cache.
+ *
+ * <p>The prefetcher follows the addresses read by each stream. Once a stream reads addresses
+ * at a constant stride, forwards or backwards, it reads the next window of addresses at the
+ * same stride in the background, so that the stream finds them in the cache. The addresses
+ * are only peeked, so reading ahead never hole fills an address which is not written yet.</p>
+ *
+ * <p>The window doubles each time the stream misses in the cache while the pattern holds,
+ * since the stream then reads faster than the prefetcher, up to a maximum. It halves each
+ * time the pattern breaks.</p>
+ */
+@Slf4j
+class ReadAheadPrefetcher {
+
+    /** The number of addresses read ahead when a pattern is first detected. */
+    static final int MIN_WINDOW = 4;
+
+    /** The number of streams whose accesses are followed. */
+    static final int MAX_STREAMS = 1024;
+
+    /** The accesses of a stream. */
+    private static class AccessPattern {
+        long lastAddress = Address.NON_ADDRESS;
+        long stride = 0;
+        boolean sequential = false;
+        int window = MIN_WINDOW;
+
+        /** The furthest address read ahead and found written, in the direction of the
+         *  stride. */
+        long frontier = Address.NON_ADDRESS;
+
+        /** Whether a read ahead of the stream is in progress. */
+        boolean inFlight = false;
+    }
+
+    private final int maxWindow;
+
+    /** Peeks addresses, returning the entries which are written. */
+    private final Function<List<Long>, Map<Long, ILogData>> peekFunction;
+
+    private final SegmentedReadCache cache;
+
+    private final Executor executor;
+
+    private final Cache<UUID, AccessPattern> patterns = Caffeine.newBuilder()
+            .maximumSize(MAX_STREAMS)
+            .build();
+
+    /**
+     * Creates a prefetcher.
+     *
+     * @param maxWindow    The largest number of addresses to read ahead of a stream.
+     * @param peekFunction Peeks addresses, returning the entries which are written.
+     * @param cache        The cache to read ahead into.
+     * @param executor     The executor of the reads ahead.
+     */
+    ReadAheadPrefetcher(int maxWindow,
+                        @Nonnull Function<List<Long>, Map<Long, ILogData>> peekFunction,
+                        @Nonnull SegmentedReadCache cache,
+                        @Nonnull Executor executor) {
+        this.maxWindow = Math.max(MIN_WINDOW, maxWindow);
+        this.peekFunction = peekFunction;
+        this.cache = cache;
+        this.executor = executor;
+    }
+
+    /**
+     * Record a read of a stream, and read ahead of it if it reads at a constant stride.
+     *
+     * @param stream  The stream which read.
+     * @param address The address read.
+     * @param hit     Whether the address was read from the cache.
+     */
+    void recordRead(@Nonnull UUID stream, long address, boolean hit) {
+        AccessPattern pattern = patterns.get(stream, s -> new AccessPattern());
+        List<Long> addresses = new ArrayList<>();
+        final long patternStride;
+        synchronized (pattern) {
+            long stride = address - pattern.lastAddress;
+            if (Address.isAddress(pattern.lastAddress) && stride != 0
+                    && stride == pattern.stride) {
+                if (!pattern.sequential) {
+                    pattern.sequential = true;
+                    pattern.frontier = address;
+                }
+            } else {
+                if (pattern.sequential) {
+                    pattern.window = Math.max(MIN_WINDOW, pattern.window / 2);
+                }
+                pattern.sequential = false;
+                pattern.stride = Address.isAddress(pattern.lastAddress) ? stride : 0;
+            }
+            pattern.lastAddress = address;
+            if (!pattern.sequential) {
+                return;
+            }
+
+            if (!hit) {
+                // The stream reads faster than the prefetcher.
+                pattern.window = Math.min(maxWindow, pattern.window * 2);
+            }
+            long ahead = (pattern.frontier - address) / pattern.stride;
+            if (ahead < 0) {
+                pattern.frontier = address;
+                ahead = 0;
+            }
+            // Read ahead again once the stream has consumed half the window.
+            if (pattern.inFlight || ahead > pattern.window / 2) {
+                return;
+            }
+
+            // The frontier only advances over addresses which are written, so that a stream
+            // which reads up to the tail reads ahead again once the tail moves.
+            long next = pattern.frontier;
+            for (long i = ahead; i < pattern.window; i++) {
+                next += pattern.stride;
+                if (!Address.isAddress(next)) {
+                    break;
+                }
+                if (cache.getIfPresent(next) == null) {
+                    addresses.add(next);
+                } else if (addresses.isEmpty()) {
+                    pattern.frontier = next;
+                }
+            }
+            if (addresses.isEmpty()) {
+                return;
+            }
+            pattern.inFlight = true;
+            patternStride = pattern.stride;
+        }
+
+        log.trace("recordRead[{}]: read ahead of {} at {}", stream, address, addresses);
+        try {
+            executor.execute(() -> readAhead(pattern, patternStride, addresses));
+        } catch (RejectedExecutionException e) {
+            log.debug("recordRead[{}]: read ahead rejected", stream, e);
+            synchronized (pattern) {
+                pattern.inFlight = false;
+            }
+        }
+    }
+
+    /**
+     * Peek the addresses ahead of a stream into the cache, and advance its frontier to the
+     * furthest address found written.
+     *
+     * @param pattern   The accesses of the stream.
+     * @param stride    The stride of the stream.
+     * @param addresses The addresses to peek.
+     */
+    private void readAhead(AccessPattern pattern, long stride, List<Long> addresses) {
+        long furthest = Address.NON_ADDRESS;
+        try {
+            for (Map.Entry<Long, ILogData> entry : peekFunction.apply(addresses).entrySet()) {
+                ILogData data = entry.getValue();
+                if (data != null && !data.isEmpty()) {
+                    cache.put(entry.getKey(), data);
+                    if (!Address.isAddress(furthest)
+                            || (entry.getKey() - furthest) * stride > 0) {
+                        furthest = entry.getKey();
+                    }
+                }
+            }
+        } catch (RuntimeException e) {
+            // The stream reads the addresses itself.
+            log.debug("readAhead: failed to read {}", addresses, e);
+        } finally {
+            synchronized (pattern) {
+                if (Address.isAddress(furthest)
+                        && (furthest - pattern.frontier) * stride > 0) {
+                    pattern.frontier = furthest;
+                }
+                pattern.inFlight = false;
+            }
+        }
+    }
+}
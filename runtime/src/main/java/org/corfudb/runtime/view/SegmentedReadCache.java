@@ -0,0 +1,387 @@
+package org.corfudb.runtime.view;
+
+import com.codahale.metrics.Counter;
+import com.codahale.metrics.MetricRegistry;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.RemovalCause;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+import lombok.extern.slf4j.Slf4j;
+
+import org.corfudb.protocols.wireprotocol.ILogData;
+import org.corfudb.protocols.wireprotocol.LogData;
+import org.corfudb.runtime.CorfuRuntime.CorfuRuntimeParameters;
+import org.corfudb.util.CFUtils;
+
+/**
+ * The read cache of the {@link AddressSpaceView}.
+ *
+ * <p>The entries are grouped in segments of consecutive addresses. The segments are held in a
+ * Caffeine cache weighted by the estimated bytes of their entries, so the cache is bounded by a
+ * memory budget rather than by a number of entries, and segments are evicted and expired as a
+ * whole. Invalidating the addresses below a trim mark takes one operation per segment instead
+ * of one per address.</p>
+ *
+ * <p>The cache counts its hits and misses in total, and for each stream of the entries read.
+ * The counters of at most {@link #MAX_TRACKED_STREAMS} streams are registered, favoring the
+ * streams read most often, and the counters of the other streams are removed from the registry.
+ * Concurrent reads of an address which is not cached share a single load.</p>
+ */
+@Slf4j
+class SegmentedReadCache {
+
+    /** The estimated bytes of an entry besides its payload. */
+    static final int ENTRY_OVERHEAD = 64;
+
+    /** The number of streams whose hits and misses are counted. */
+    static final int MAX_TRACKED_STREAMS = 1024;
+
+    /**
+     * A segment of consecutive addresses. Updating a segment replaces it with a new segment,
+     * which shares its entries, so that the cache weighs it again.
+     */
+    private static class Segment {
+        final Map<Long, ILogData> entries;
+
+        /** The estimated bytes of the entries. */
+        final long bytes;
+
+        Segment(Map<Long, ILogData> entries, long bytes) {
+            this.entries = entries;
+            this.bytes = bytes;
+        }
+
+        int getWeight() {
+            return (int) Math.min(Integer.MAX_VALUE, bytes);
+        }
+    }
+
+    /** The hit and miss counters of a stream. */
+    private static class StreamStats {
+        final String prefix;
+        final Counter hits;
+        final Counter misses;
+
+        StreamStats(MetricRegistry metrics, String prefix) {
+            this.prefix = prefix;
+            hits = metrics.counter(prefix + "hits");
+            misses = metrics.counter(prefix + "misses");
+        }
+
+        void unregister(MetricRegistry metrics) {
+            metrics.remove(prefix + "hits");
+            metrics.remove(prefix + "misses");
+        }
+    }
+
+    /** The number of consecutive addresses in a segment. */
+    private final int segmentSize;
+
+    /** The segments, by address divided by the segment size. */
+    private final Cache<Long, Segment> segments;
+
+    /** Loads an address which is not cached. */
+    private final Function<Long, ILogData> loader;
+
+    /** Loads addresses which are not cached. */
+    private final Function<Iterable<Long>, Map<Long, ILogData>> bulkLoader;
+
+    /** The loads in progress, by address. */
+    private final Map<Long, CompletableFuture<ILogData>> loading = new ConcurrentHashMap<>();
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+
+    private final MetricRegistry metrics;
+    private final String metricsPrefix;
+    private final Cache<UUID, StreamStats> streamStats;
+
+    /**
+     * Creates a read cache.
+     *
+     * @param parameters    The parameters of the runtime, which size the cache.
+     * @param loader        Loads an address which is not cached.
+     * @param bulkLoader    Loads addresses which are not cached.
+     * @param metrics       The registry of the per stream counters.
+     * @param metricsPrefix The prefix of the names of the per stream counters.
+     */
+    SegmentedReadCache(@Nonnull CorfuRuntimeParameters parameters,
+                       @Nonnull Function<Long, ILogData> loader,
+                       @Nonnull Function<Iterable<Long>, Map<Long, ILogData>> bulkLoader,
+                       @Nonnull MetricRegistry metrics,
+                       @Nonnull String metricsPrefix) {
+        this.segmentSize = Math.max(1, parameters.getCacheSegmentSize());
+        this.loader = loader;
+        this.bulkLoader = bulkLoader;
+        this.metrics = metrics;
+        this.metricsPrefix = metricsPrefix;
+        this.segments = Caffeine.newBuilder()
+                .<Long, Segment>weigher((k, segment) -> segment.getWeight())
+                .maximumWeight(parameters.getMaxCacheSize())
+                .expireAfterAccess(parameters.getCacheExpiryTime(), TimeUnit.SECONDS)
+                .expireAfterWrite(parameters.getCacheExpiryTime(), TimeUnit.SECONDS)
+                .removalListener(this::onRemoval)
+                .recordStats()
+                .build();
+        this.streamStats = Caffeine.newBuilder()
+                .maximumSize(MAX_TRACKED_STREAMS)
+                .<UUID, StreamStats>removalListener((stream, stats, cause) -> {
+                    if (stats != null) {
+                        stats.unregister(metrics);
+                    }
+                })
+                .executor(Runnable::run)
+                .build();
+    }
+
+    /**
+     * Detaches the entries of a segment which leaves the cache from the inbound messages
+     * they were lazily decoded from, so that entries which were never read do not pin these
+     * messages. A replaced segment shares its entries with the new segment, and is skipped:
+     * the entries dropped or replaced within a segment are detached when they are updated.
+     */
+    private void onRemoval(Long key, Segment segment, RemovalCause cause) {
+        if (segment == null || cause == RemovalCause.REPLACED) {
+            return;
+        }
+        segment.entries.values().forEach(SegmentedReadCache::detach);
+    }
+
+    /** Detaches an entry which leaves the cache from the inbound message it was decoded from. */
+    private static void detach(ILogData data) {
+        if (data instanceof LogData) {
+            ((LogData) data).detachBuffer();
+        }
+    }
+
+    private long getSegment(long address) {
+        return Math.floorDiv(address, segmentSize);
+    }
+
+    private static long weigh(ILogData data) {
+        return (long) data.getSizeEstimate() + ENTRY_OVERHEAD;
+    }
+
+    /**
+     * Get a cached address.
+     *
+     * @param address The address.
+     * @return The cached entry, or null if the address is not cached.
+     */
+    @Nullable
+    ILogData getIfPresent(long address) {
+        Segment segment = segments.getIfPresent(getSegment(address));
+        return segment == null ? null : segment.entries.get(address);
+    }
+
+    /**
+     * Get an address, loading it if it is not cached.
+     *
+     * @param address The address.
+     * @return The entry at the address.
+     */
+    @Nonnull
+    ILogData get(long address) {
+        ILogData data = getIfPresent(address);
+        if (data != null) {
+            recordHit(data);
+            return data;
+        }
+
+        CompletableFuture<ILogData> load = new CompletableFuture<>();
+        CompletableFuture<ILogData> inFlight = loading.putIfAbsent(address, load);
+        if (inFlight != null) {
+            return CFUtils.getUninterruptibly(inFlight);
+        }
+        try {
+            data = loader.apply(address);
+            put(address, data);
+            recordMiss(data);
+            load.complete(data);
+            return data;
+        } catch (RuntimeException | Error e) {
+            load.completeExceptionally(e);
+            throw e;
+        } finally {
+            loading.remove(address, load);
+        }
+    }
+
+    /**
+     * Get addresses, loading those which are not cached at once.
+     *
+     * @param addresses The addresses.
+     * @return The entries at the addresses, in the order of the addresses.
+     */
+    @Nonnull
+    Map<Long, ILogData> getAll(@Nonnull Iterable<Long> addresses) {
+        Map<Long, ILogData> cached = new TreeMap<>();
+        List<Long> missing = new ArrayList<>();
+        for (long address : addresses) {
+            ILogData data = getIfPresent(address);
+            if (data == null) {
+                missing.add(address);
+            } else {
+                recordHit(data);
+                cached.put(address, data);
+            }
+        }
+
+        if (!missing.isEmpty()) {
+            bulkLoader.apply(missing).forEach((address, data) -> {
+                put(address, data);
+                recordMiss(data);
+                cached.put(address, data);
+            });
+        }
+
+        Map<Long, ILogData> result = new LinkedHashMap<>();
+        for (long address : addresses) {
+            ILogData data = cached.get(address);
+            if (data != null) {
+                result.put(address, data);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Cache an entry.
+     *
+     * @param address The address of the entry.
+     * @param data    The entry.
+     */
+    void put(long address, @Nonnull ILogData data) {
+        final long bytes = weigh(data);
+        segments.asMap().compute(getSegment(address), (k, segment) -> {
+            if (segment == null) {
+                segment = new Segment(new ConcurrentHashMap<>(), 0);
+            }
+            ILogData previous = segment.entries.put(address, data);
+            if (previous != null && previous != data) {
+                detach(previous);
+            }
+            return new Segment(segment.entries,
+                    segment.bytes + bytes - (previous == null ? 0 : weigh(previous)));
+        });
+    }
+
+    /** Invalidate all the entries. */
+    void invalidateAll() {
+        segments.invalidateAll();
+    }
+
+    /**
+     * Invalidate the entries below an address, such as the trimmed entries. The segments below
+     * the segment of the address are invalidated as a whole.
+     *
+     * @param address The lowest address to keep.
+     */
+    void invalidateBefore(long address) {
+        final long boundary = getSegment(address);
+        for (long segment : segments.asMap().keySet()) {
+            if (segment < boundary) {
+                segments.invalidate(segment);
+            }
+        }
+        segments.asMap().computeIfPresent(boundary, (k, segment) -> {
+            long bytes = segment.bytes;
+            Iterator<Map.Entry<Long, ILogData>> entries = segment.entries.entrySet().iterator();
+            while (entries.hasNext()) {
+                Map.Entry<Long, ILogData> entry = entries.next();
+                if (entry.getKey() < address) {
+                    bytes -= weigh(entry.getValue());
+                    entries.remove();
+                    detach(entry.getValue());
+                }
+            }
+            return segment.entries.isEmpty() ? null : new Segment(segment.entries, bytes);
+        });
+    }
+
+    /** Perform the pending evictions now, rather than on the next access. */
+    void cleanUp() {
+        segments.cleanUp();
+        streamStats.cleanUp();
+    }
+
+    /** Get the number of cached entries. */
+    long estimatedSize() {
+        return segments.asMap().values().stream()
+                .mapToLong(segment -> segment.entries.size())
+                .sum();
+    }
+
+    /** Get the estimated bytes of the cached entries. */
+    long weightedSize() {
+        return segments.asMap().values().stream()
+                .mapToLong(segment -> segment.bytes)
+                .sum();
+    }
+
+    /** Get the number of segments evicted, because of the memory budget or of expiry. */
+    long evictionCount() {
+        return segments.stats().evictionCount();
+    }
+
+    long hitCount() {
+        return hits.sum();
+    }
+
+    long missCount() {
+        return misses.sum();
+    }
+
+    /** Get the ratio of the reads which were served by the cache. */
+    double hitRate() {
+        long hitCount = hitCount();
+        long requestCount = hitCount + missCount();
+        return requestCount == 0 ? 1.0 : (double) hitCount / requestCount;
+    }
+
+    /**
+     * Get a snapshot of the cached entries.
+     *
+     * @return The cached entries, by address.
+     */
+    Map<Long, ILogData> getEntries() {
+        Map<Long, ILogData> entries = new TreeMap<>();
+        segments.asMap().values().forEach(segment -> entries.putAll(segment.entries));
+        return entries;
+    }
+
+    private StreamStats getStreamStats(UUID stream) {
+        return streamStats.get(stream, s -> new StreamStats(metrics,
+                metricsPrefix + "stream." + s + "."));
+    }
+
+    private void recordHit(ILogData data) {
+        hits.increment();
+        for (UUID stream : data.getStreams()) {
+            getStreamStats(stream).hits.inc();
+        }
+    }
+
+    private void recordMiss(ILogData data) {
+        misses.increment();
+        for (UUID stream : data.getStreams()) {
+            getStreamStats(stream).misses.inc();
+        }
+    }
+}
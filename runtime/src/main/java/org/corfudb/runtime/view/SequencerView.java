@@ -1,21 +1,40 @@
 package org.corfudb.runtime.view;
 
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collection;
 import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.Collectors;
 
 import com.google.common.collect.Lists;
+import lombok.extern.slf4j.Slf4j;
+import org.corfudb.protocols.wireprotocol.SequencerLease;
+import org.corfudb.protocols.wireprotocol.Token;
+import org.corfudb.protocols.wireprotocol.TokenRequest;
 import org.corfudb.protocols.wireprotocol.TokenResponse;
+import org.corfudb.protocols.wireprotocol.TokenType;
 import org.corfudb.protocols.wireprotocol.TxResolutionInfo;
 import org.corfudb.runtime.CorfuRuntime;
 import org.corfudb.util.CFUtils;
+import org.corfudb.util.Sleep;
 
 
 /**
  * Created by mwei on 12/10/15.
+ *
+ * <p>If the layout shards the sequencer, token requests are routed to the shards owning their
+ * streams. The global tail is the lowest address which the primary sequencer or any shard may
+ * still issue. A request spanning several shards is prepared on each of them and committed at
+ * an address allocated by the primary sequencer.</p>
  */
-
+@Slf4j
 public class SequencerView extends AbstractView {
 
     public SequencerView(CorfuRuntime runtime) {
@@ -30,13 +49,13 @@ public class SequencerView extends AbstractView {
      * @return the global tail or a list of tails
      */
     public TokenResponse query(UUID... streamIds) {
-        if (streamIds.length == 0) {
-            return layoutHelper(e -> CFUtils.getUninterruptibly(e.getPrimarySequencerClient()
-                    .nextToken(Collections.emptyList(), 0)));
-        } else {
-            return layoutHelper(e -> CFUtils.getUninterruptibly(e.getPrimarySequencerClient()
-                    .nextToken(Arrays.asList(streamIds), 0)));
-        }
+        return layoutHelper(e -> {
+            if (e.getLayout().isSequencerSharded()) {
+                return queryShards(e, Arrays.asList(streamIds));
+            }
+            return CFUtils.getUninterruptibly(e.getPrimarySequencerClient()
+                    .nextToken(Arrays.asList(streamIds), 0));
+        });
     }
 
     /**
@@ -46,8 +65,7 @@ public class SequencerView extends AbstractView {
      * @return The first token retrieved.
      */
     public TokenResponse next(UUID ... streamIds) {
-        return layoutHelper(e -> CFUtils.getUninterruptibly(e.getPrimarySequencerClient()
-                .nextToken(Arrays.asList(streamIds), 1)));
+        return nextToken(Arrays.asList(streamIds), 1, null);
     }
 
     /**
@@ -59,8 +77,31 @@ public class SequencerView extends AbstractView {
      * @return First token to be written for the streams if there are no conflicts
      */
     public TokenResponse next(TxResolutionInfo conflictInfo, UUID ... streamIds) {
-        return layoutHelper(e -> CFUtils.getUninterruptibly(e.getPrimarySequencerClient()
-                .nextToken(Arrays.asList(streamIds), 1, conflictInfo)));
+        return nextToken(Arrays.asList(streamIds), 1, conflictInfo);
+    }
+
+    /**
+     * Acquire a token for a number of streams without blocking, if there are no conflicts.
+     *
+     * <p>Tokens of a sharded sequencer take several dependent round trips, so they are
+     * acquired on the blocking executor of the runtime instead.</p>
+     *
+     * @param conflictInfo transaction conflict info, or null if not a transaction
+     * @param streamIds streams to acquire the token for
+     * @return A future completed with the first token to be written for the streams
+     */
+    public CompletableFuture<TokenResponse> nextAsync(TxResolutionInfo conflictInfo,
+                                                      UUID ... streamIds) {
+        final List<UUID> streams = Arrays.asList(streamIds);
+        return layoutHelperAsync(e -> {
+            if (e.getLayout().isSequencerSharded()) {
+                return CompletableFuture.supplyAsync(() -> nextToken(streams, 1, conflictInfo),
+                        runtime.getBlockingExecutor());
+            }
+            return conflictInfo == null
+                    ? e.getPrimarySequencerClient().nextToken(streams, 1)
+                    : e.getPrimarySequencerClient().nextToken(streams, 1, conflictInfo);
+        });
     }
 
     /**
@@ -76,18 +117,277 @@ public class SequencerView extends AbstractView {
      */
     @Deprecated
     public TokenResponse nextToken(Set<UUID> streamIDs, int numTokens) {
-        return layoutHelper(e -> CFUtils.getUninterruptibly(e.getPrimarySequencerClient()
-                .nextToken(Lists.newArrayList(streamIDs), numTokens)));
+        if (numTokens == 0) {
+            return query(streamIDs.toArray(new UUID[0]));
+        }
+        return nextToken(Lists.newArrayList(streamIDs), numTokens, null);
     }
 
     @Deprecated
     public TokenResponse nextToken(Set<UUID> streamIDs, int numTokens,
                                    TxResolutionInfo conflictInfo) {
-        return layoutHelper(e -> CFUtils.getUninterruptibly(e.getPrimarySequencerClient()
-                .nextToken(Lists.newArrayList(streamIDs), numTokens, conflictInfo)));
+        return nextToken(Lists.newArrayList(streamIDs), numTokens, conflictInfo);
     }
 
     public void trimCache(long address) {
-        runtime.getLayoutView().getRuntimeLayout().getPrimarySequencerClient().trimCache(address);
+        RuntimeLayout runtimeLayout = runtime.getLayoutView().getRuntimeLayout();
+        for (String shard : runtimeLayout.getLayout().getActiveSequencerShards()) {
+            if (!shard.equals(runtimeLayout.getLayout().getPrimarySequencer())) {
+                runtimeLayout.getSequencerClient(shard).trimCache(address);
+            }
+        }
+        runtimeLayout.getPrimarySequencerClient().trimCache(address);
+    }
+
+    /**
+     * Acquire tokens from the sequencer owning the streams, or from all the shards involved.
+     *
+     * @param streamIds    The streams to acquire the tokens for.
+     * @param numTokens    The number of tokens to reserve.
+     * @param conflictInfo Transaction conflict info, or null if not a transaction.
+     * @return The first token retrieved.
+     */
+    private TokenResponse nextToken(List<UUID> streamIds, long numTokens,
+                                    TxResolutionInfo conflictInfo) {
+        return layoutHelper(e -> {
+            if (!e.getLayout().isSequencerSharded()) {
+                return CFUtils.getUninterruptibly(conflictInfo == null
+                        ? e.getPrimarySequencerClient().nextToken(streamIds, numTokens)
+                        : e.getPrimarySequencerClient().nextToken(streamIds, numTokens,
+                        conflictInfo));
+            }
+
+            Map<String, TokenRequest> shardRequests =
+                    splitByShard(e.getLayout(), streamIds, numTokens, conflictInfo);
+            if (shardRequests.isEmpty()) {
+                // A raw token is allocated by the primary sequencer.
+                return CFUtils.getUninterruptibly(e.getPrimarySequencerClient()
+                        .nextToken(streamIds, numTokens));
+            }
+            if (shardRequests.size() == 1) {
+                Map.Entry<String, TokenRequest> entry = shardRequests.entrySet().iterator().next();
+                return nextShardToken(e, entry.getKey(), entry.getValue());
+            }
+            return nextCrossShardToken(e, shardRequests, numTokens, conflictInfo != null);
+        });
+    }
+
+    /**
+     * Acquire tokens from a single shard, granting it a new lease if it runs out of addresses.
+     */
+    private TokenResponse nextShardToken(RuntimeLayout runtimeLayout, String shard,
+                                         TokenRequest request) {
+        while (true) {
+            TokenResponse response = CFUtils.getUninterruptibly(request.getTxnResolution() == null
+                    ? runtimeLayout.getSequencerClient(shard)
+                    .nextToken(request.getStreams(), request.getNumTokens())
+                    : runtimeLayout.getSequencerClient(shard)
+                    .nextToken(request.getStreams(), request.getNumTokens(),
+                            request.getTxnResolution()));
+            if (response.getRespType() == TokenType.SHARD_LEASE_REQUIRED) {
+                grantLease(runtimeLayout, shard, request.getNumTokens());
+            } else if (response.getRespType() == TokenType.SHARD_FENCED) {
+                Sleep.sleepUninterruptibly(runtime.getParameters().getSequencerFenceRetryRate());
+            } else {
+                return response;
+            }
+        }
+    }
+
+    /**
+     * Acquire tokens on streams owned by several shards. The request is prepared on each shard,
+     * in shard order, which fences its streams. The addresses are then allocated by the
+     * primary sequencer and the request is committed on each shard at these addresses.
+     *
+     * <p>A non-transactional request is retried until it commits on every shard. If a
+     * transactional request fails to commit on a shard after committing on others, it aborts
+     * with {@link TokenType#TX_ABORT_NEWSEQ}, and the allocated addresses are left as holes.
+     */
+    private TokenResponse nextCrossShardToken(RuntimeLayout runtimeLayout,
+                                              Map<String, TokenRequest> shardRequests,
+                                              long numTokens, boolean transactional) {
+        while (true) {
+            final UUID requestId = UUID.randomUUID();
+            final List<String> prepared = new ArrayList<>();
+            TokenResponse failure = null;
+
+            for (Map.Entry<String, TokenRequest> entry : shardRequests.entrySet()) {
+                TokenResponse response = CFUtils.getUninterruptibly(runtimeLayout
+                        .getSequencerClient(entry.getKey())
+                        .prepareShard(requestId, entry.getValue()));
+                if (response.getRespType() != TokenType.NORMAL) {
+                    failure = response;
+                    break;
+                }
+                prepared.add(entry.getKey());
+            }
+
+            if (failure != null) {
+                commitShards(runtimeLayout, prepared, requestId, Address.NON_ADDRESS);
+                if (failure.getRespType() != TokenType.SHARD_FENCED) {
+                    // The transaction aborts on one of the shards.
+                    return failure;
+                }
+                Sleep.sleepUninterruptibly(runtime.getParameters().getSequencerFenceRetryRate());
+                continue;
+            }
+
+            TokenResponse raw = CFUtils.getUninterruptibly(runtimeLayout
+                    .getPrimarySequencerClient().nextToken(Collections.emptyList(), numTokens));
+            List<TokenResponse> committed =
+                    commitShards(runtimeLayout, prepared, requestId, raw.getTokenValue());
+
+            Map<UUID, Long> backpointerMap = new HashMap<>();
+            boolean aborted = false;
+            for (TokenResponse response : committed) {
+                if (response.getRespType() != TokenType.NORMAL) {
+                    aborted = true;
+                }
+                backpointerMap.putAll(response.getBackpointerMap());
+            }
+
+            if (!aborted) {
+                return new TokenResponse(TokenType.NORMAL, TokenResponse.NO_CONFLICT_KEY,
+                        raw.getToken(), backpointerMap, Collections.emptyList());
+            }
+            log.warn("nextCrossShardToken: Request {} timed out on a shard, address {} is left "
+                    + "as a hole", requestId, raw.getTokenValue());
+            if (transactional) {
+                return new TokenResponse(TokenType.TX_ABORT_NEWSEQ, TokenResponse.NO_CONFLICT_KEY,
+                        new Token(Address.ABORTED, raw.getEpoch()), Collections.emptyMap(),
+                        Collections.emptyList());
+            }
+        }
+    }
+
+    /**
+     * Commits, or aborts if the address is not an address, a prepared request on the shards.
+     */
+    private List<TokenResponse> commitShards(RuntimeLayout runtimeLayout,
+                                             Collection<String> shards, UUID requestId,
+                                             long address) {
+        List<CompletableFuture<TokenResponse>> futures = shards.stream()
+                .map(shard -> runtimeLayout.getSequencerClient(shard)
+                        .commitShard(requestId, address))
+                .collect(Collectors.toList());
+        return futures.stream()
+                .map(CFUtils::getUninterruptibly)
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Allocates a block of addresses from the primary sequencer and leases it to a shard.
+     * The shard rejects the lease if a concurrent grant already provided enough addresses.
+     */
+    private void grantLease(RuntimeLayout runtimeLayout, String shard, long numTokens) {
+        long count = Math.max(runtime.getParameters().getSequencerLeaseSize(), numTokens);
+        TokenResponse raw = CFUtils.getUninterruptibly(runtimeLayout.getPrimarySequencerClient()
+                .nextToken(Collections.emptyList(), count));
+        CFUtils.getUninterruptibly(runtimeLayout.getSequencerClient(shard)
+                .grantLease(new SequencerLease(raw.getTokenValue(), count)));
+    }
+
+    /**
+     * Query the global tail and/or stream tails of a sharded sequencer.
+     *
+     * <p>A single stream is queried from its shard. Otherwise, the tail of the primary sequencer
+     * is queried first, and then the next address of the lease of each other shard, which takes
+     * no lease cut below the queried tail afterwards. The global tail is below all of them, so
+     * that no address below it is issued afterwards, and the leases are left to the shards.
+     */
+    private TokenResponse queryShards(RuntimeLayout runtimeLayout, List<UUID> streamIds) {
+        final Layout layout = runtimeLayout.getLayout();
+        if (streamIds.size() == 1) {
+            return CFUtils.getUninterruptibly(runtimeLayout
+                    .getSequencerClient(layout.getSequencerShard(streamIds.get(0)))
+                    .nextToken(streamIds, 0));
+        }
+
+        Map<String, List<UUID>> shardStreams = streamIds.stream()
+                .distinct()
+                .collect(Collectors.groupingBy(layout::getSequencerShard));
+        Map<String, CompletableFuture<TokenResponse>> streamTails = new HashMap<>();
+        shardStreams.forEach((shard, streams) -> streamTails.put(shard,
+                runtimeLayout.getSequencerClient(shard).nextToken(streams, 0)));
+
+        TokenResponse primaryTail = CFUtils.getUninterruptibly(runtimeLayout
+                .getPrimarySequencerClient().nextToken(Collections.emptyList(), 0));
+        List<CompletableFuture<TokenResponse>> shardTails =
+                layout.getActiveSequencerShards().stream()
+                        .filter(shard -> !shard.equals(layout.getPrimarySequencer()))
+                        .map(shard -> runtimeLayout.getSequencerClient(shard)
+                                .queryShardTail(primaryTail.getTokenValue() + 1))
+                        .collect(Collectors.toList());
+        long globalTail = primaryTail.getTokenValue();
+        for (CompletableFuture<TokenResponse> shardTail : shardTails) {
+            globalTail = Math.min(globalTail,
+                    CFUtils.getUninterruptibly(shardTail).getTokenValue() - 1);
+        }
+        final Token token = new Token(globalTail, primaryTail.getEpoch());
+        if (streamIds.isEmpty()) {
+            return new TokenResponse(TokenType.NORMAL, TokenResponse.NO_CONFLICT_KEY, token,
+                    Collections.emptyMap(), Collections.emptyList());
+        }
+
+        Map<UUID, Long> tails = new HashMap<>();
+        shardStreams.forEach((shard, streams) -> {
+            TokenResponse response = CFUtils.getUninterruptibly(streamTails.get(shard));
+            if (streams.size() == 1) {
+                tails.put(streams.get(0), response.getTokenValue());
+            } else {
+                for (int i = 0; i < streams.size(); i++) {
+                    tails.put(streams.get(i), response.getStreamTails().get(i));
+                }
+            }
+        });
+
+        return new TokenResponse(TokenType.NORMAL, TokenResponse.NO_CONFLICT_KEY, token,
+                Collections.emptyMap(),
+                streamIds.stream().map(tails::get).collect(Collectors.toList()));
+    }
+
+    /**
+     * Split a token request into the parts owned by each shard, in shard order. A shard owns
+     * the streams written by the request, and the conflict parameters of a transaction.
+     *
+     * @return The part of the request owned by each shard, empty for a raw token request.
+     */
+    private Map<String, TokenRequest> splitByShard(Layout layout, List<UUID> streamIds,
+                                                   long numTokens,
+                                                   TxResolutionInfo conflictInfo) {
+        Map<String, List<UUID>> streams = new HashMap<>();
+        Map<String, Map<UUID, long[]>> conflictSets = new HashMap<>();
+        Map<String, Map<UUID, long[]>> writeConflictParams = new HashMap<>();
+
+        streamIds.forEach(streamId -> streams
+                .computeIfAbsent(layout.getSequencerShard(streamId), k -> new ArrayList<>())
+                .add(streamId));
+        if (conflictInfo != null) {
+            conflictInfo.getConflictSet().forEach((streamId, params) -> conflictSets
+                    .computeIfAbsent(layout.getSequencerShard(streamId), k -> new HashMap<>())
+                    .put(streamId, params));
+            conflictInfo.getWriteConflictParams().forEach((streamId, params) ->
+                    writeConflictParams.computeIfAbsent(layout.getSequencerShard(streamId),
+                            k -> new HashMap<>()).put(streamId, params));
+        }
+
+        Map<String, TokenRequest> requests = new LinkedHashMap<>();
+        for (String shard : layout.getActiveSequencerShards()) {
+            List<UUID> shardStreams = streams.getOrDefault(shard, Collections.emptyList());
+            if (conflictInfo == null) {
+                if (!shardStreams.isEmpty()) {
+                    requests.put(shard, new TokenRequest(numTokens, shardStreams));
+                }
+            } else if (!shardStreams.isEmpty() || conflictSets.containsKey(shard)
+                    || writeConflictParams.containsKey(shard)) {
+                requests.put(shard, new TokenRequest(numTokens, shardStreams,
+                        TxResolutionInfo.fromFingerprints(conflictInfo.getTXid(),
+                                conflictInfo.getSnapshotTimestamp(),
+                                conflictSets.getOrDefault(shard, Collections.emptyMap()),
+                                writeConflictParams.getOrDefault(shard,
+                                        Collections.emptyMap()))));
+            }
+        }
+        return requests;
     }
-}
\ No newline at end of file
+}
@@ -3,6 +3,7 @@ package org.corfudb.runtime.view;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
 import java.util.stream.Collectors;
 
 import javax.annotation.Nonnull;
@@ -20,8 +21,10 @@ import org.corfudb.runtime.exceptions.AppendException;
 import org.corfudb.runtime.exceptions.OverwriteException;
 import org.corfudb.runtime.exceptions.StaleTokenException;
 import org.corfudb.runtime.exceptions.TransactionAbortedException;
+import org.corfudb.runtime.object.transactions.AbstractTransactionalContext;
 import org.corfudb.runtime.object.transactions.TransactionalContext;
 import org.corfudb.runtime.view.stream.IStreamView;
+import org.corfudb.util.CFUtils;
 import org.corfudb.util.Utils;
 
 /**
@@ -83,30 +86,10 @@ public class StreamsView extends AbstractView {
         for (int x = 0; x < runtime.getParameters().getWriteRetry(); x++) {
 
             // Is our token a valid type?
-            if (tokenResponse.getRespType() == TokenType.TX_ABORT_CONFLICT) {
-                throw new TransactionAbortedException(
-                        conflictInfo,
-                        tokenResponse.getConflictKey(),
-                        AbortCause.CONFLICT,
-                        TransactionalContext.getCurrentContext());
-            } else if (tokenResponse.getRespType() == TokenType.TX_ABORT_NEWSEQ) {
-                throw new TransactionAbortedException(
-                        conflictInfo,
-                        tokenResponse.getConflictKey(),
-                        AbortCause.NEW_SEQUENCER,
-                        TransactionalContext.getCurrentContext());
-            } else if (tokenResponse.getRespType() == TokenType.TX_ABORT_SEQ_OVERFLOW) {
-                throw new TransactionAbortedException(
-                        conflictInfo,
-                        tokenResponse.getConflictKey(),
-                        AbortCause.SEQUENCER_OVERFLOW,
-                        TransactionalContext.getCurrentContext());
-            } else if (tokenResponse.getRespType() == TokenType.TX_ABORT_SEQ_TRIM) {
-                throw new TransactionAbortedException(
-                        conflictInfo,
-                        tokenResponse.getConflictKey(),
-                        AbortCause.SEQUENCER_TRIM,
-                        TransactionalContext.getCurrentContext());
+            TransactionAbortedException abort = getAbort(tokenResponse, conflictInfo,
+                    TransactionalContext.getCurrentContext());
+            if (abort != null) {
+                throw abort;
             }
 
             // Attempt to write to the log
@@ -136,11 +119,7 @@ public class StreamsView extends AbstractView {
                     temp = runtime.getSequencerView().next(conflictInfo, streamIDs);
                 }
 
-                // We need to fix the token (to use the stream addresses- may
-                // eventually be deprecated since these are no longer used)
-                tokenResponse = new TokenResponse(
-                        temp.getRespType(), tokenResponse.getConflictKey(),
-                        temp.getToken(), temp.getBackpointerMap(), Collections.emptyList());
+                tokenResponse = getRetryToken(tokenResponse, temp);
 
             } catch (StaleTokenException se) {
                 // the epoch changed from when we grabbed the token from sequencer
@@ -163,6 +142,155 @@ public class StreamsView extends AbstractView {
         throw new AppendException();
     }
 
+    /**
+     * Append to multiple streams simultaneously without blocking, possibly providing
+     * information on how to resolve conflicts.
+     *
+     * <p>The token acquisition, the write and its retries on overwrites are composed on
+     * futures, so a single thread may have many appends in flight. The returned future fails
+     * like {@link StreamsView#append(Object, TxResolutionInfo, CacheOption, UUID...)} throws.</p>
+     *
+     * @param streamIDs    The streams to append to.
+     * @param object       The object to append to each stream.
+     * @param conflictInfo Conflict information for the sequencer to check.
+     * @param cacheOption  The caching mode for write/append
+     * @return A future completed with the address the entry was written to.
+     */
+    public CompletableFuture<Long> appendAsync(@Nonnull Object object,
+                                               @Nullable TxResolutionInfo conflictInfo,
+                                               @Nonnull CacheOption cacheOption,
+                                               @Nonnull UUID ... streamIDs) {
+        // The transactional context is thread local, so it is captured by the caller.
+        final AbstractTransactionalContext context = TransactionalContext.getCurrentContext();
+        return runtime.getSequencerView().nextAsync(conflictInfo, streamIDs)
+                .thenCompose(tokenResponse -> appendAsync(object, conflictInfo, cacheOption,
+                        streamIDs, context, tokenResponse, 0));
+    }
+
+    /**
+     * Append to multiple streams without blocking and caches the result.
+     *
+     * @see StreamsView#appendAsync(Object, TxResolutionInfo, CacheOption, UUID...)
+     */
+    public CompletableFuture<Long> appendAsync(@Nonnull Object object,
+                                               @Nullable TxResolutionInfo conflictInfo,
+                                               @Nonnull UUID ... streamIDs) {
+        return appendAsync(object, conflictInfo, CacheOption.WRITE_THROUGH, streamIDs);
+    }
+
+    /**
+     * Attempt an asynchronous append with a token, acquiring a new token and attempting again
+     * if the write is overwritten.
+     */
+    private CompletableFuture<Long> appendAsync(Object object, TxResolutionInfo conflictInfo,
+                                                CacheOption cacheOption, UUID[] streamIDs,
+                                                AbstractTransactionalContext context,
+                                                TokenResponse tokenResponse, int attempt) {
+        if (attempt >= runtime.getParameters().getWriteRetry()) {
+            log.error("appendAsync[{}]: failed after {} retries , streams {}, write size {} "
+                            + "bytes",
+                    tokenResponse.getTokenValue(),
+                    runtime.getParameters().getWriteRetry(),
+                    Arrays.stream(streamIDs).map(Utils::toReadableId).collect(Collectors.toSet()),
+                    ILogData.getSerializedSize(object));
+            return CFUtils.failedFuture(new AppendException());
+        }
+
+        // Is our token a valid type?
+        TransactionAbortedException abort = getAbort(tokenResponse, conflictInfo, context);
+        if (abort != null) {
+            return CFUtils.failedFuture(abort);
+        }
+
+        // Attempt to write to the log
+        return runtime.getAddressSpaceView().writeAsync(tokenResponse, object, cacheOption)
+                .handle((r, ex) -> ex)
+                .thenCompose(ex -> {
+                    if (ex == null) {
+                        // If we're here, we succeeded, return the acquired token
+                        return CompletableFuture.completedFuture(tokenResponse.getTokenValue());
+                    }
+
+                    Throwable cause = CFUtils.unwrap(ex);
+                    if (cause instanceof OverwriteException) {
+                        // We were overwritten, get a new token and try again.
+                        log.warn("appendAsync[{}]: Overwritten after {} retries, streams {}",
+                                tokenResponse.getTokenValue(),
+                                attempt,
+                                Arrays.stream(streamIDs).map(Utils::toReadableId)
+                                        .collect(Collectors.toSet()));
+
+                        if (conflictInfo != null) {
+                            // On retry, check for conflicts only from the previous
+                            // attempt position
+                            conflictInfo.setSnapshotTimestamp(
+                                    tokenResponse.getToken().getTokenValue());
+                        }
+                        return runtime.getSequencerView().nextAsync(conflictInfo, streamIDs)
+                                .thenCompose(temp -> appendAsync(object, conflictInfo,
+                                        cacheOption, streamIDs, context,
+                                        getRetryToken(tokenResponse, temp), attempt + 1));
+                    } else if (cause instanceof StaleTokenException) {
+                        // the epoch changed from when we grabbed the token from sequencer
+                        log.warn("appendAsync[{}]: StaleToken , streams {}",
+                                tokenResponse.getTokenValue(),
+                                Arrays.stream(streamIDs).map(Utils::toReadableId)
+                                        .collect(Collectors.toSet()));
+                        return CFUtils.failedFuture(new TransactionAbortedException(
+                                conflictInfo,
+                                tokenResponse.getConflictKey(),
+                                AbortCause.NEW_SEQUENCER,
+                                context));
+                    }
+                    return CFUtils.failedFuture(cause);
+                });
+    }
+
+    /**
+     * Get the exception aborting an append whose token was rejected by the sequencer.
+     *
+     * @param tokenResponse The token.
+     * @param conflictInfo  Conflict information the sequencer checked.
+     * @param context       The transactional context of the append.
+     * @return The exception to abort the append with, or null if the token is valid.
+     */
+    private static TransactionAbortedException getAbort(TokenResponse tokenResponse,
+                                                        TxResolutionInfo conflictInfo,
+                                                        AbstractTransactionalContext context) {
+        final AbortCause abortCause;
+        if (tokenResponse.getRespType() == TokenType.TX_ABORT_CONFLICT) {
+            abortCause = AbortCause.CONFLICT;
+        } else if (tokenResponse.getRespType() == TokenType.TX_ABORT_NEWSEQ) {
+            abortCause = AbortCause.NEW_SEQUENCER;
+        } else if (tokenResponse.getRespType() == TokenType.TX_ABORT_SEQ_OVERFLOW) {
+            abortCause = AbortCause.SEQUENCER_OVERFLOW;
+        } else if (tokenResponse.getRespType() == TokenType.TX_ABORT_SEQ_TRIM) {
+            abortCause = AbortCause.SEQUENCER_TRIM;
+        } else {
+            return null;
+        }
+        return new TransactionAbortedException(
+                conflictInfo,
+                tokenResponse.getConflictKey(),
+                abortCause,
+                context);
+    }
+
+    /**
+     * Get the token to retry an overwritten append with.
+     *
+     * @param tokenResponse The token of the overwritten append.
+     * @param temp          The new token acquired from the sequencer.
+     * @return The token to retry with.
+     */
+    private static TokenResponse getRetryToken(TokenResponse tokenResponse, TokenResponse temp) {
+        // We need to fix the token (to use the stream addresses- may
+        // eventually be deprecated since these are no longer used)
+        return new TokenResponse(
+                temp.getRespType(), tokenResponse.getConflictKey(),
+                temp.getToken(), temp.getBackpointerMap(), Collections.emptyList());
+    }
+
     /**
      * Append to multiple streams and caches the result.
      *
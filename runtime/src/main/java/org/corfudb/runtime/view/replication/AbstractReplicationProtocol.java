@@ -1,11 +1,14 @@
 package org.corfudb.runtime.view.replication;
 
+import java.time.Duration;
 import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
 
 import lombok.extern.slf4j.Slf4j;
 import org.corfudb.protocols.wireprotocol.ILogData;
 import org.corfudb.runtime.exceptions.HoleFillRequiredException;
 import org.corfudb.runtime.view.RuntimeLayout;
+import org.corfudb.util.Sleep;
 
 /**
  * Created by mwei on 4/6/17.
@@ -28,7 +31,8 @@ public abstract class AbstractReplicationProtocol implements IReplicationProtoco
     /** {@inheritDoc}
      *
      *  <p>In the base implementation, we attempt to read data
-     *  using the peek method. If data is returned by peek,
+     *  using the peek method, and waiting for it to be written
+     *  with the peekWait method. If data is returned by either,
      *  we use it. Otherwise, we invoke the hole filling
      *  protocol.
      *
@@ -39,7 +43,8 @@ public abstract class AbstractReplicationProtocol implements IReplicationProtoco
         try {
             return holeFillPolicy
                 .peekUntilHoleFillRequired(globalAddress,
-                        a -> peek(runtimeLayout, a));
+                        a -> peek(runtimeLayout, a),
+                        (a, timeout) -> peekWait(runtimeLayout, a, timeout));
         } catch (HoleFillRequiredException e) {
             log.debug("HoleFill[{}] due to {}", globalAddress, e.getMessage());
             holeFill(runtimeLayout, globalAddress);
@@ -47,6 +52,24 @@ public abstract class AbstractReplicationProtocol implements IReplicationProtoco
         }
     }
 
+    /**
+     * Wait for the given address to be written, and peek it.
+     *
+     * <p>The base implementation sleeps for the timeout, and then
+     * peeks the address.
+     *
+     * @param runtimeLayout  The RuntimeLayout to read with.
+     * @param globalAddress  The address to wait for.
+     * @param timeout        The longest time to wait.
+     * @return               The data at the address, or null, if
+     *                       the address was not written in time.
+     */
+    protected @Nullable ILogData peekWait(RuntimeLayout runtimeLayout, long globalAddress,
+                                          Duration timeout) {
+        Sleep.sleepUninterruptibly(timeout);
+        return peek(runtimeLayout, globalAddress);
+    }
+
     /**
      * Write a special hole filling entry using the
      * given address. When this call returns, either
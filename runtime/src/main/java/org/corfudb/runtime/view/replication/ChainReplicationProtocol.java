@@ -2,14 +2,23 @@ package org.corfudb.runtime.view.replication;
 
 import com.google.common.collect.Range;
 
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.Function;
 import javax.annotation.Nullable;
 import lombok.extern.slf4j.Slf4j;
+import org.corfudb.protocols.wireprotocol.DataType;
 import org.corfudb.protocols.wireprotocol.ILogData;
 import org.corfudb.protocols.wireprotocol.LogData;
+import org.corfudb.protocols.wireprotocol.ReadResponse;
+import org.corfudb.runtime.clients.LogUnitClient;
 import org.corfudb.runtime.exceptions.OverwriteException;
 import org.corfudb.runtime.exceptions.RecoveryException;
 import org.corfudb.runtime.view.RuntimeLayout;
@@ -20,12 +29,50 @@ import org.corfudb.util.CFUtils;
 
 /**
  * Created by mwei on 4/6/17.
+ *
+ * <p>With fan-out enabled, a write is propagated from the head to the middle of the chain in
+ * parallel, and to the tail once every other member has it. Readers read the tail, so a write
+ * they observe is still on every member of the chain, and the latency of a write is three
+ * round trips whatever the length of the chain. The middle members are written in any order.
+ * When the head is lost with a partially propagated write, a hole fill adopts the write from
+ * the middle of the chain instead of filling a hole, whether or not this runtime fans out its
+ * own writes, so that runtimes with and without fan-out can share a chain.</p>
+ *
+ * <p>With a {@link CommittedTailTracker}, the addresses below the committed tail of a chain are
+ * read from any member of the chain, so that the reads of a chain are not all served by its
+ * tail. The writes and the reads served by the tail advance the committed tail.</p>
  */
 @Slf4j
 public class ChainReplicationProtocol extends AbstractReplicationProtocol {
 
+    /** Whether the middle of the chain is written in parallel. */
+    private final boolean fanOut;
+
+    /** The committed tails of the chains, or null if all reads are served by the tail. */
+    @Nullable
+    private final CommittedTailTracker committedTailTracker;
+
     public ChainReplicationProtocol(IHoleFillPolicy holeFillPolicy) {
+        this(holeFillPolicy, false);
+    }
+
+    public ChainReplicationProtocol(IHoleFillPolicy holeFillPolicy, boolean fanOut) {
+        this(holeFillPolicy, fanOut, null);
+    }
+
+    /**
+     * Creates a chain replication protocol.
+     *
+     * @param holeFillPolicy       The hole fill policy of reads.
+     * @param fanOut               Whether the middle of the chain is written in parallel.
+     * @param committedTailTracker The committed tails of the chains, or null if all reads are
+     *                             served by the tail.
+     */
+    public ChainReplicationProtocol(IHoleFillPolicy holeFillPolicy, boolean fanOut,
+                                    @Nullable CommittedTailTracker committedTailTracker) {
         super(holeFillPolicy);
+        this.fanOut = fanOut;
+        this.committedTailTracker = committedTailTracker;
     }
 
     /**
@@ -48,6 +95,7 @@ public class ChainReplicationProtocol extends AbstractReplicationProtocol {
                                 .write(sh.getSerialized()),
                         OverwriteException.class);
                 propagate(runtimeLayout, globalAddress, sh.getSerialized());
+                commit(runtimeLayout, globalAddress);
             } catch (OverwriteException oe) {
                 // Some other wrote here (usually due to hole fill)
                 // We need to invoke the recovery protocol, in case
@@ -58,20 +106,118 @@ public class ChainReplicationProtocol extends AbstractReplicationProtocol {
         }
     }
 
+    /**
+     * {@inheritDoc}
+     *
+     * <p>The write to the chain head, its propagation down the chain and the recovery of an
+     * overwritten write are composed on the futures of the log unit clients, so that no thread
+     * waits for the responses of the log units.</p>
+     */
+    @Override
+    public CompletableFuture<Void> writeAsync(RuntimeLayout runtimeLayout, ILogData data) {
+        final long globalAddress = data.getGlobalAddress();
+        final int numUnits = runtimeLayout.getLayout().getSegmentLength(globalAddress);
+
+        // To reduce the overhead of serialization, we serialize only the
+        // first time we write, saving when we go down the chain.
+        final ILogData.SerializationHandle sh = data.getSerializedForm();
+        log.trace("WriteAsync[{}]: chain head {}/{}", globalAddress, 1, numUnits);
+        CompletableFuture<Void> cf = CFUtils.callAsync(() -> runtimeLayout
+                .getLogUnitClient(globalAddress, 0)
+                .write(sh.getSerialized()))
+                .handle((written, ex) -> ex)
+                .thenCompose(ex -> {
+                    if (ex == null) {
+                        return propagateAsync(runtimeLayout, globalAddress, sh.getSerialized(),
+                                1).thenRun(() -> commit(runtimeLayout, globalAddress));
+                    }
+                    Throwable cause = CFUtils.unwrap(ex);
+                    if (cause instanceof OverwriteException) {
+                        // Some other wrote here (usually due to hole fill). We need to
+                        // drive the other write to completion before failing.
+                        return recoverAsync(runtimeLayout, globalAddress)
+                                .thenCompose(v -> CFUtils.failedFuture(cause));
+                    }
+                    return CFUtils.failedFuture(cause);
+                });
+        cf.whenComplete((r, ex) -> sh.close());
+        return cf;
+    }
+
     /**
      * {@inheritDoc}
      */
     @Override
     public ILogData peek(RuntimeLayout runtimeLayout, long globalAddress) {
         int numUnits = runtimeLayout.getLayout().getSegmentLength(globalAddress);
+        String tail = getTail(runtimeLayout, globalAddress);
+        String endpoint = getReadEndpoint(runtimeLayout, globalAddress, globalAddress);
+        if (!endpoint.equals(tail)) {
+            log.trace("Read[{}]: committed, replica {}", globalAddress, endpoint);
+            ILogData ret = CFUtils.getUninterruptibly(
+                    sendRead(runtimeLayout, endpoint, client -> client.read(globalAddress)))
+                    .getAddresses().getOrDefault(globalAddress, null);
+            if (ret != null && !ret.isEmpty()) {
+                return ret;
+            }
+        }
+
         log.trace("Read[{}]: chain {}/{}", globalAddress, numUnits, numUnits);
-        // In chain replication, we read from the last unit, though we can optimize if we
-        // know where the committed tail is.
-        ILogData ret = CFUtils.getUninterruptibly(
-                runtimeLayout
-                        .getLogUnitClient(globalAddress, numUnits - 1)
-                        .read(globalAddress)).getAddresses()
-                .getOrDefault(globalAddress, null);
+        // In chain replication, we read from the last unit, unless we know the address is
+        // below the committed tail.
+        Map<Long, LogData> logResult = CFUtils.getUninterruptibly(
+                sendRead(runtimeLayout, tail, client -> client.read(globalAddress)))
+                .getAddresses();
+        commitRead(runtimeLayout, globalAddress, tail, logResult);
+        ILogData ret = logResult.getOrDefault(globalAddress, null);
+        return ret == null || ret.isEmpty() ? null : ret;
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * <p>The addresses are peeked with a single read from the chain of the first address, so
+     * they should all be in the same stripe.</p>
+     */
+    @Override
+    public Map<Long, ILogData> peekAll(RuntimeLayout runtimeLayout, Set<Long> globalAddresses) {
+        long startAddress = globalAddresses.iterator().next();
+        String endpoint = getReadEndpoint(runtimeLayout, startAddress,
+                Collections.max(globalAddresses));
+        log.trace("peekAll[{}]: chain {}", globalAddresses, endpoint);
+
+        Map<Long, LogData> logResult = CFUtils.getUninterruptibly(
+                sendRead(runtimeLayout, endpoint,
+                        client -> client.read(new ArrayList<>(globalAddresses))))
+                .getAddresses();
+        commitRead(runtimeLayout, startAddress, endpoint, logResult);
+
+        Map<Long, ILogData> returnResult = new TreeMap<>();
+        logResult.forEach((address, data) -> {
+            if (data != null && !data.isEmpty()) {
+                returnResult.put(address, data);
+            }
+        });
+        return returnResult;
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * <p>The tail of the chain holds the read until the address is written, since a write is
+     * committed once it reaches the tail.</p>
+     */
+    @Override
+    protected ILogData peekWait(RuntimeLayout runtimeLayout, long globalAddress,
+                                Duration timeout) {
+        String tail = getTail(runtimeLayout, globalAddress);
+        log.trace("ReadWait[{}]: chain tail {} for {}ms", globalAddress, tail,
+                timeout.toMillis());
+        Map<Long, LogData> logResult = CFUtils.getUninterruptibly(
+                sendRead(runtimeLayout, tail, client -> client.readWait(globalAddress, timeout)))
+                .getAddresses();
+        commitRead(runtimeLayout, globalAddress, tail, logResult);
+        ILogData ret = logResult.getOrDefault(globalAddress, null);
         return ret == null || ret.isEmpty() ? null : ret;
     }
 
@@ -82,12 +228,14 @@ public class ChainReplicationProtocol extends AbstractReplicationProtocol {
     public Map<Long, ILogData> readAll(RuntimeLayout runtimeLayout, List<Long> globalAddresses) {
         long startAddress = globalAddresses.iterator().next();
         int numUnits = runtimeLayout.getLayout().getSegmentLength(startAddress);
-        log.trace("readAll[{}]: chain {}/{}", globalAddresses, numUnits, numUnits);
+        String endpoint = getReadEndpoint(runtimeLayout, startAddress,
+                Collections.max(globalAddresses));
+        log.trace("readAll[{}]: chain {}/{}, {}", globalAddresses, numUnits, numUnits, endpoint);
 
         Map<Long, LogData> logResult = CFUtils.getUninterruptibly(
-                runtimeLayout
-                        .getLogUnitClient(startAddress, numUnits - 1)
-                        .read(globalAddresses)).getAddresses();
+                sendRead(runtimeLayout, endpoint, client -> client.read(globalAddresses)))
+                .getAddresses();
+        commitRead(runtimeLayout, startAddress, endpoint, logResult);
 
         //in case of a hole, do a normal read and use its hole fill policy
         Map<Long, ILogData> returnResult = new TreeMap<>();
@@ -103,18 +251,64 @@ public class ChainReplicationProtocol extends AbstractReplicationProtocol {
         return returnResult;
     }
 
+    /**
+     * {@inheritDoc}
+     *
+     * <p>The addresses are read from the chain of the first address, so they should all be in
+     * the same stripe. If some addresses are holes, they are read again with the hole fill
+     * policy on the runtime's blocking executor, since hole filling blocks.</p>
+     */
+    @Override
+    public CompletableFuture<Map<Long, ILogData>> readAllAsync(RuntimeLayout runtimeLayout,
+                                                               List<Long> globalAddresses) {
+        long startAddress = globalAddresses.iterator().next();
+        int numUnits = runtimeLayout.getLayout().getSegmentLength(startAddress);
+        String endpoint = getReadEndpoint(runtimeLayout, startAddress,
+                Collections.max(globalAddresses));
+        log.trace("readAllAsync[{}]: chain {}/{}, {}", globalAddresses, numUnits, numUnits,
+                endpoint);
+
+        return sendRead(runtimeLayout, endpoint, client -> client.read(globalAddresses))
+                .thenCompose(response -> {
+                    commitRead(runtimeLayout, startAddress, endpoint, response.getAddresses());
+                    Map<Long, ILogData> returnResult = new TreeMap<>();
+                    List<Long> holes = new ArrayList<>();
+                    for (Map.Entry<Long, LogData> entry : response.getAddresses().entrySet()) {
+                        ILogData value = entry.getValue();
+                        if (value == null || value.isEmpty()) {
+                            holes.add(entry.getKey());
+                        } else {
+                            returnResult.put(entry.getKey(), value);
+                        }
+                    }
+                    if (holes.isEmpty()) {
+                        return CompletableFuture.completedFuture(returnResult);
+                    }
+                    //in case of a hole, do a normal read and use its hole fill policy,
+                    //on the blocking executor as the read may wait for the address
+                    return CompletableFuture.supplyAsync(() -> {
+                        for (long hole : holes) {
+                            returnResult.put(hole, read(runtimeLayout, hole));
+                        }
+                        return returnResult;
+                    }, runtimeLayout.getRuntime().getBlockingExecutor());
+                });
+    }
+
     @Override
     public Map<Long, ILogData> readRange(RuntimeLayout runtimeLayout, Set<Long> globalAddresses) {
         Range<Long> range = Range.encloseAll(globalAddresses);
         long startAddress = range.lowerEndpoint();
         long endAddress = range.upperEndpoint();
         int numUnits = runtimeLayout.getLayout().getSegmentLength(startAddress);
-        log.trace("readRange[{}-{}]: chain {}/{}", startAddress, endAddress, numUnits, numUnits);
+        String endpoint = getReadEndpoint(runtimeLayout, startAddress, endAddress);
+        log.trace("readRange[{}-{}]: chain {}/{}, {}", startAddress, endAddress, numUnits,
+                numUnits, endpoint);
 
         Map<Long, LogData> logResult = CFUtils.getUninterruptibly(
-                runtimeLayout
-                        .getLogUnitClient(startAddress, numUnits - 1)
-                        .read(range)).getAddresses();
+                sendRead(runtimeLayout, endpoint, client -> client.read(range)))
+                .getAddresses();
+        commitRead(runtimeLayout, startAddress, endpoint, logResult);
 
         //in case of a hole, do a normal read and use its hole fill policy
         Map<Long, ILogData> returnResult = new TreeMap<>();
@@ -130,6 +324,88 @@ public class ChainReplicationProtocol extends AbstractReplicationProtocol {
         return returnResult;
     }
 
+    /**
+     * Get the endpoint of the tail of the chain of an address.
+     *
+     * @param runtimeLayout The RuntimeLayout to read with.
+     * @param globalAddress An address of the chain.
+     * @return The endpoint of the tail.
+     */
+    private String getTail(RuntimeLayout runtimeLayout, long globalAddress) {
+        List<String> logServers = runtimeLayout.getLayout().getStripe(globalAddress)
+                .getLogServers();
+        return logServers.get(logServers.size() - 1);
+    }
+
+    /**
+     * Get the endpoint to read addresses of a chain from.
+     *
+     * @param runtimeLayout The RuntimeLayout to read with.
+     * @param globalAddress An address of the chain.
+     * @param maxAddress    The highest address to read.
+     * @return The endpoint of a member of the chain, which is the tail unless all the addresses
+     *         are below the committed tail.
+     */
+    private String getReadEndpoint(RuntimeLayout runtimeLayout, long globalAddress,
+                                   long maxAddress) {
+        if (committedTailTracker == null) {
+            return getTail(runtimeLayout, globalAddress);
+        }
+        return committedTailTracker.selectReplica(runtimeLayout.getLayout(), globalAddress,
+                maxAddress);
+    }
+
+    /**
+     * Send a read to a member of a chain.
+     *
+     * @param runtimeLayout The RuntimeLayout to read with.
+     * @param endpoint      The endpoint of the member.
+     * @param read          The read to send with the log unit client of the member.
+     * @return The future of the read.
+     */
+    private CompletableFuture<ReadResponse> sendRead(RuntimeLayout runtimeLayout,
+            String endpoint, Function<LogUnitClient, CompletableFuture<ReadResponse>> read) {
+        if (committedTailTracker == null) {
+            return CFUtils.callAsync(() -> read.apply(runtimeLayout.getLogUnitClient(endpoint)));
+        }
+        return committedTailTracker.trackRead(endpoint,
+                () -> read.apply(runtimeLayout.getLogUnitClient(endpoint)));
+    }
+
+    /**
+     * Advance the committed tail of the chain of an address.
+     *
+     * @param runtimeLayout The RuntimeLayout of the chain.
+     * @param globalAddress The address acknowledged by the tail.
+     */
+    private void commit(RuntimeLayout runtimeLayout, long globalAddress) {
+        if (committedTailTracker != null) {
+            committedTailTracker.commit(runtimeLayout.getLayout(), globalAddress);
+        }
+    }
+
+    /**
+     * Advance the committed tail of a chain to the highest address returned by a read, if the
+     * read was served by the tail.
+     *
+     * @param runtimeLayout The RuntimeLayout of the chain.
+     * @param globalAddress An address of the chain.
+     * @param endpoint      The endpoint which served the read.
+     * @param addresses     The addresses returned by the read.
+     */
+    private void commitRead(RuntimeLayout runtimeLayout, long globalAddress, String endpoint,
+                            Map<Long, LogData> addresses) {
+        if (committedTailTracker == null || !endpoint.equals(getTail(runtimeLayout,
+                globalAddress))) {
+            return;
+        }
+        addresses.entrySet().stream()
+                .filter(e -> e.getValue() != null && !e.getValue().isEmpty())
+                .mapToLong(Map.Entry::getKey)
+                .max()
+                .ifPresent(address -> commit(runtimeLayout, address));
+    }
+
     /**
      * Propagate a write down the chain, ignoring
      * any overwrite errors. It is expected that the
@@ -146,6 +422,10 @@ public class ChainReplicationProtocol extends AbstractReplicationProtocol {
                              long globalAddress,
                              @Nullable ILogData data) {
         int numUnits = runtimeLayout.getLayout().getSegmentLength(globalAddress);
+        if (fanOut && numUnits > 2) {
+            CFUtils.getUninterruptibly(propagateAsync(runtimeLayout, globalAddress, data, 1));
+            return;
+        }
 
         for (int i = 1; i < numUnits; i++) {
             log.trace("Propogate[{}]: chain {}/{}", globalAddress, i + 1, numUnits);
@@ -168,6 +448,99 @@ public class ChainReplicationProtocol extends AbstractReplicationProtocol {
         }
     }
 
+    /**
+     * Propagate a write down the chain without blocking, starting at the given unit
+     * and ignoring any overwrite errors. With fan-out, the units before the tail are
+     * written in parallel, then the tail.
+     *
+     * @param runtimeLayout The epoch stamped client containing the layout to use for propagation.
+     * @param globalAddress The global address to write at.
+     * @param data          The data to propagate, or NULL, if it is to be a hole.
+     * @param unit          The index of the first unit in the chain to write to.
+     * @return              A future completed once every remaining unit has the write.
+     */
+    private CompletableFuture<Void> propagateAsync(RuntimeLayout runtimeLayout,
+                                                   long globalAddress,
+                                                   @Nullable ILogData data,
+                                                   int unit) {
+        int numUnits = runtimeLayout.getLayout().getSegmentLength(globalAddress);
+        if (unit >= numUnits) {
+            return CompletableFuture.completedFuture(null);
+        }
+
+        if (fanOut && unit < numUnits - 1) {
+            log.trace("PropagateAsync[{}]: fan out chain {}-{}/{}", globalAddress, unit + 1,
+                    numUnits - 1, numUnits);
+            CompletableFuture<?>[] middle = new CompletableFuture<?>[numUnits - 1 - unit];
+            for (int i = unit; i < numUnits - 1; i++) {
+                middle[i - unit] = propagateToUnit(runtimeLayout, globalAddress, data, i);
+            }
+            return CompletableFuture.allOf(middle).thenCompose(v ->
+                    propagateToUnit(runtimeLayout, globalAddress, data, numUnits - 1));
+        }
+
+        log.trace("PropagateAsync[{}]: chain {}/{}", globalAddress, unit + 1, numUnits);
+        return propagateToUnit(runtimeLayout, globalAddress, data, unit)
+                .thenCompose(v -> propagateAsync(runtimeLayout, globalAddress, data, unit + 1));
+    }
+
+    /**
+     * Write to a single unit of the chain without blocking, ignoring any overwrite error.
+     *
+     * @param runtimeLayout The epoch stamped client containing the layout to use for propagation.
+     * @param globalAddress The global address to write at.
+     * @param data          The data to write, or NULL, if it is to be a hole.
+     * @param unit          The index of the unit in the chain.
+     * @return              A future completed once the unit has the write, or another one.
+     */
+    private CompletableFuture<Void> propagateToUnit(RuntimeLayout runtimeLayout,
+                                                    long globalAddress,
+                                                    @Nullable ILogData data,
+                                                    int unit) {
+        return CFUtils.callAsync(() -> data != null
+                ? runtimeLayout.getLogUnitClient(globalAddress, unit).write(data)
+                : runtimeLayout.getLogUnitClient(globalAddress, unit).fillHole(globalAddress))
+                .handle((written, ex) -> {
+                    if (ex != null) {
+                        Throwable cause = CFUtils.unwrap(ex);
+                        if (!(cause instanceof OverwriteException)) {
+                            throw new CompletionException(cause);
+                        }
+                        log.trace("PropagateAsync[{}]: Completed by other writer at chain {}",
+                                globalAddress, unit + 1);
+                    }
+                    return null;
+                });
+    }
+
+    /**
+     * Recover a failed write at the given global address without blocking.
+     *
+     * @param runtimeLayout     The RuntimeLayout to use for the recovery.
+     * @param globalAddress     The global address to drive the recovery protocol.
+     * @return                  A future completed once the address holds a committed value,
+     *                          or failed with a {@link RecoveryException} if there was
+     *                          nothing to recover at the chain head.
+     * @see ChainReplicationProtocol#recover(RuntimeLayout, long)
+     */
+    private CompletableFuture<Void> recoverAsync(RuntimeLayout runtimeLayout,
+                                                 long globalAddress) {
+        log.debug("RecoverAsync[{}]: read chain head {}/{}", globalAddress, 1,
+                runtimeLayout.getLayout().getSegmentLength(globalAddress));
+        return CFUtils.callAsync(() -> runtimeLayout
+                .getLogUnitClient(globalAddress, 0)
+                .read(globalAddress))
+                .thenCompose(response -> {
+                    ILogData ld = response.getAddresses().getOrDefault(globalAddress, null);
+                    if (ld == null || ld.isEmpty()) {
+                        return CFUtils.failedFuture(new RecoveryException(
+                                "Failed to read data during recovery at chain head."));
+                    }
+                    return propagateAsync(runtimeLayout, globalAddress, ld, 1)
+                            .thenRun(() -> commit(runtimeLayout, globalAddress));
+                });
+    }
+
     /** Recover a failed write at the given global address,
      * driving it to completion by invoking the recovery
      * protocol.
@@ -207,6 +580,12 @@ public class ChainReplicationProtocol extends AbstractReplicationProtocol {
         if (ld == null || ld.isEmpty()) {
             throw new RecoveryException("Failed to read data during recovery at chain head.");
         }
+        if (fanOut && numUnits > 2) {
+            log.debug("Recover[{}]: fan out chain {}-{}", layout, 2, numUnits);
+            propagate(runtimeLayout, globalAddress, ld);
+            commit(runtimeLayout, globalAddress);
+            return;
+        }
         // now we go down the chain and write, ignoring any overwrite exception we get.
         for (int i = 1; i < numUnits; i++) {
             log.debug("Recover[{}]: write chain {}/{}", layout, i + 1, numUnits);
@@ -224,6 +603,30 @@ public class ChainReplicationProtocol extends AbstractReplicationProtocol {
                 log.debug("Recover[{}]: overwritten at chain {}/{}", layout, i + 1, numUnits);
             }
         }
+        commit(runtimeLayout, globalAddress);
+    }
+
+    /**
+     * Read the middle of the chain for a write which did not reach the tail.
+     *
+     * @param runtimeLayout The RuntimeLayout to read with.
+     * @param globalAddress The global address to read.
+     * @return The first data written between the head and the tail, or null.
+     */
+    private @Nullable ILogData getPartialWrite(RuntimeLayout runtimeLayout, long globalAddress) {
+        int numUnits = runtimeLayout.getLayout().getSegmentLength(globalAddress);
+        List<CompletableFuture<ReadResponse>> reads = new ArrayList<>();
+        for (int i = 1; i < numUnits - 1; i++) {
+            reads.add(runtimeLayout.getLogUnitClient(globalAddress, i).read(globalAddress));
+        }
+        for (CompletableFuture<ReadResponse> read : reads) {
+            ILogData ld = CFUtils.getUninterruptibly(read).getAddresses()
+                    .getOrDefault(globalAddress, null);
+            if (ld != null && ld.getType() == DataType.DATA) {
+                return ld;
+            }
+        }
+        return null;
     }
 
     /**
@@ -232,6 +635,24 @@ public class ChainReplicationProtocol extends AbstractReplicationProtocol {
     @Override
     protected void holeFill(RuntimeLayout runtimeLayout, long globalAddress) {
         int numUnits = runtimeLayout.getLayout().getSegmentLength(globalAddress);
+        if (numUnits > 2) {
+            ILogData partial = getPartialWrite(runtimeLayout, globalAddress);
+            if (partial != null) {
+                // A write reached the middle of the chain but not the tail, and the head
+                // may have been replaced since. Adopt the write instead of filling a hole.
+                log.debug("fillHole[{}]: adopting write from the middle of the chain",
+                        globalAddress);
+                try {
+                    CFUtils.getUninterruptibly(runtimeLayout
+                            .getLogUnitClient(globalAddress, 0)
+                            .write(partial), OverwriteException.class);
+                } catch (OverwriteException oe) {
+                    log.trace("fillHole[{}]: chain head already written", globalAddress);
+                }
+                recover(runtimeLayout, globalAddress);
+                return;
+            }
+        }
         log.trace("fillHole[{}]: chain head {}/{}", globalAddress, 1, numUnits);
         // In chain replication, we write synchronously to every unit in
         // the chain.
@@ -240,6 +661,7 @@ public class ChainReplicationProtocol extends AbstractReplicationProtocol {
                     .getLogUnitClient(globalAddress, 0)
                     .fillHole(globalAddress), OverwriteException.class);
             propagate(runtimeLayout, globalAddress, null);
+            commit(runtimeLayout, globalAddress);
         } catch (OverwriteException oe) {
             // The hole-fill failed. We must ensure the other writer's
             // value is adopted before returning.
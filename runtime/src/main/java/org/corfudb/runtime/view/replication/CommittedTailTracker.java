@@ -0,0 +1,156 @@
+package org.corfudb.runtime.view.replication;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import javax.annotation.Nonnull;
+
+import lombok.Value;
+import lombok.extern.slf4j.Slf4j;
+
+import org.corfudb.runtime.CorfuRuntime;
+import org.corfudb.runtime.view.Address;
+import org.corfudb.runtime.view.Layout;
+import org.corfudb.util.CFUtils;
+
+/**
+ * Tracks the committed tail of each replication chain, so that reads below it can be served by
+ * any member of the chain instead of the tail.
+ *
+ * <p>The committed tail of a chain is the highest address which the tail of the chain has
+ * acknowledged to this runtime, either as the last write of a chain replicated write or as the
+ * answer to a read. In chain replication every member of the chain holds the value written to
+ * the head, so below the committed tail a member either returns the value the tail returns or
+ * nothing, in which case the read falls back to the tail. The committed tails are kept per
+ * epoch, since a reconfiguration may change the members of a chain.</p>
+ *
+ * <p>Among the members of a chain, a read is sent to a co-located member, reachable over a
+ * unix domain socket, if there is one, and then to the member with the fewest reads
+ * outstanding from this runtime.</p>
+ */
+@Slf4j
+public class CommittedTailTracker {
+
+    /** A chain, identified by the epoch and the log servers of a stripe. */
+    @Value
+    private static class Chain {
+        long epoch;
+        List<String> logServers;
+    }
+
+    private final CorfuRuntime runtime;
+
+    /** The committed tail of each chain. */
+    private final Map<Chain, Long> committedTails = new ConcurrentHashMap<>();
+
+    /** The number of reads outstanding on each log server. */
+    private final Map<String, AtomicInteger> outstandingReads = new ConcurrentHashMap<>();
+
+    public CommittedTailTracker(@Nonnull CorfuRuntime runtime) {
+        this.runtime = runtime;
+    }
+
+    private static Chain getChain(Layout layout, long globalAddress) {
+        return new Chain(layout.getEpoch(), layout.getStripe(globalAddress).getLogServers());
+    }
+
+    /**
+     * Get the committed tail of the chain of an address.
+     *
+     * @param layout        The layout of the chain.
+     * @param globalAddress An address of the chain.
+     * @return The committed tail, or {@link Address#NON_ADDRESS} if it is not known.
+     */
+    public long getCommittedTail(@Nonnull Layout layout, long globalAddress) {
+        return committedTails.getOrDefault(getChain(layout, globalAddress),
+                Address.NON_ADDRESS);
+    }
+
+    /**
+     * Record that the tail of the chain of an address acknowledged the address.
+     *
+     * @param layout        The layout of the chain.
+     * @param globalAddress The acknowledged address.
+     */
+    public void commit(@Nonnull Layout layout, long globalAddress) {
+        Chain chain = getChain(layout, globalAddress);
+        if (!committedTails.containsKey(chain)) {
+            // A new epoch makes the committed tails of the previous epochs useless.
+            committedTails.keySet().removeIf(c -> c.getEpoch() < chain.getEpoch());
+        }
+        committedTails.merge(chain, globalAddress, Math::max);
+    }
+
+    /**
+     * Select the log server to read addresses of a chain from.
+     *
+     * @param layout         The layout of the chain.
+     * @param globalAddress  An address of the chain.
+     * @param maxAddress     The highest address to read.
+     * @return The endpoint of any member of the chain if the addresses are at or below the
+     *         committed tail, or of the tail of the chain otherwise.
+     */
+    public String selectReplica(@Nonnull Layout layout, long globalAddress, long maxAddress) {
+        List<String> logServers = layout.getStripe(globalAddress).getLogServers();
+        if (maxAddress > getCommittedTail(layout, globalAddress)) {
+            return logServers.get(logServers.size() - 1);
+        }
+
+        Map<String, String> localServers = runtime.getParameters().getUnixSocketPaths();
+        // Start at a random member, so that idle members share the reads.
+        int start = ThreadLocalRandom.current().nextInt(logServers.size());
+        String selected = null;
+        for (int i = 0; i < logServers.size(); i++) {
+            String candidate = logServers.get((start + i) % logServers.size());
+            if (selected == null) {
+                selected = candidate;
+                continue;
+            }
+            boolean candidateLocal = localServers.containsKey(candidate);
+            boolean selectedLocal = localServers.containsKey(selected);
+            if (candidateLocal != selectedLocal) {
+                if (candidateLocal) {
+                    selected = candidate;
+                }
+            } else if (getOutstandingReads(candidate) < getOutstandingReads(selected)) {
+                selected = candidate;
+            }
+        }
+        log.trace("selectReplica[{}]: {} of {}", maxAddress, selected, logServers);
+        return selected;
+    }
+
+    /**
+     * Count a read as outstanding on a log server until it completes.
+     *
+     * @param endpoint The endpoint of the log server.
+     * @param read     A supplier sending the read.
+     * @param <T>      The type of the response.
+     * @return The future of the read.
+     */
+    public <T> CompletableFuture<T> trackRead(@Nonnull String endpoint,
+                                              @Nonnull Supplier<CompletableFuture<T>> read) {
+        AtomicInteger outstanding = outstandingReads.computeIfAbsent(endpoint,
+                e -> new AtomicInteger());
+        outstanding.incrementAndGet();
+        CompletableFuture<T> cf = CFUtils.callAsync(read);
+        cf.whenComplete((r, e) -> outstanding.decrementAndGet());
+        return cf;
+    }
+
+    /**
+     * Get the number of reads outstanding on a log server.
+     *
+     * @param endpoint The endpoint of the log server.
+     * @return The number of outstanding reads.
+     */
+    public int getOutstandingReads(@Nonnull String endpoint) {
+        AtomicInteger outstanding = outstandingReads.get(endpoint);
+        return outstanding == null ? 0 : outstanding.get();
+    }
+}
@@ -0,0 +1,69 @@
+package org.corfudb.runtime.view.replication;
+
+import com.codahale.metrics.Histogram;
+import com.codahale.metrics.SlidingWindowReservoir;
+
+import java.time.Duration;
+
+import javax.annotation.Nonnull;
+
+/**
+ * Derives how long a reader waits for an address to be written before hole filling it, from
+ * the latencies of the writes of this runtime.
+ *
+ * <p>An address is unwritten from the time its token is issued until the write of its token
+ * is committed, so the latency of a write is measured over that whole span. A write in
+ * progress normally completes within a small multiple of the usual latency, so a reader waits
+ * for a multiple of the 99th percentile of the recent write latencies, bounded by the wait
+ * budget of the runtime. Until a write has been observed, readers wait for the whole
+ * budget.</p>
+ *
+ * <p>The latencies are those of the writers of this runtime only, while the address a reader
+ * waits for may be written by another process. The wait is therefore never shorter than a
+ * fraction of the budget, so that adapting to fast local writes does not make hole fills
+ * much more aggressive than waiting for the whole budget.</p>
+ */
+public class HoleFillDeadline {
+
+    /** The multiple of the 99th percentile write latency to wait for. */
+    static final int LATENCY_MULTIPLIER = 4;
+
+    /** The fraction of the wait budget which is the shortest wait. */
+    static final int MIN_DEADLINE_DIVISOR = 4;
+
+    /** The number of recent writes the percentile is computed from. */
+    static final int WINDOW_SIZE = 1024;
+
+    private final Histogram writeLatencies = new Histogram(
+            new SlidingWindowReservoir(WINDOW_SIZE));
+
+    /**
+     * Record the latency of a write, from the time its token was issued until the write is
+     * committed.
+     *
+     * @param latencyNanos The latency of the write, in nanoseconds.
+     */
+    public void recordWrite(long latencyNanos) {
+        writeLatencies.update(latencyNanos);
+    }
+
+    /**
+     * Get the time to wait for an address to be written.
+     *
+     * @param maxDeadline The wait budget of the runtime.
+     * @return A multiple of the 99th percentile write latency, bounded by the wait budget
+     *         and by a fraction of it.
+     */
+    public Duration getDeadline(@Nonnull Duration maxDeadline) {
+        if (writeLatencies.getCount() == 0) {
+            return maxDeadline;
+        }
+        Duration deadline = Duration.ofNanos((long) writeLatencies.getSnapshot()
+                .get99thPercentile() * LATENCY_MULTIPLIER);
+        Duration minDeadline = maxDeadline.dividedBy(MIN_DEADLINE_DIVISOR);
+        if (deadline.compareTo(minDeadline) < 0) {
+            deadline = minDeadline;
+        }
+        return deadline.compareTo(maxDeadline) > 0 ? maxDeadline : deadline;
+    }
+}
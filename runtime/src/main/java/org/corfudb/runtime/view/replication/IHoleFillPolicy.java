@@ -1,5 +1,7 @@
 package org.corfudb.runtime.view.replication;
 
+import java.time.Duration;
+import java.util.function.BiFunction;
 import java.util.function.Function;
 import javax.annotation.Nonnull;
 
@@ -27,4 +29,29 @@ public interface IHoleFillPolicy {
     ILogData peekUntilHoleFillRequired(long address,
                                        Function<Long, ILogData> peekFunction)
             throws HoleFillRequiredException;
+
+    /** Apply the given peek function, and the given wait function, which waits for the
+     * address to be written, until hole filling is required or committed data is returned.
+     * If hole filling is required a HoleFillRequiredException is thrown.
+     *
+     * <p>The default implementation does not wait, and only applies the peek function.
+     *
+     * @param address                   The address to apply the functions.
+     *
+     * @param peekFunction              The function to use to peek data
+     *                                  from the log.
+     *
+     * @param waitFunction              The function to use to wait, at most the
+     *                                  given duration, for data to be written.
+     *
+     * @return                          The committed data at the given address.
+     * @throws HoleFillRequiredException  If hole filling is required.
+     */
+    @Nonnull
+    default ILogData peekUntilHoleFillRequired(long address,
+                                               Function<Long, ILogData> peekFunction,
+                                               BiFunction<Long, Duration, ILogData> waitFunction)
+            throws HoleFillRequiredException {
+        return peekUntilHoleFillRequired(address, peekFunction);
+    }
 }
@@ -1,9 +1,11 @@
 package org.corfudb.runtime.view.replication;
 
 import java.util.AbstractMap;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
 import java.util.stream.Collectors;
 import javax.annotation.Nonnull;
 
@@ -39,6 +41,52 @@ public interface IReplicationProtocol {
      */
     void write(RuntimeLayout runtimeLayout, ILogData data) throws OverwriteException;
 
+    /** Write data to the log at the given address, without blocking.
+     *
+     * <p>This function returns a future which completes once -a- write at
+     * the global address is committed to the log. The future fails with an
+     * OverwriteException if the committed write was not the result of this call.
+     *
+     * <p>The default implementation performs a blocking write on the blocking executor of
+     * the runtime, for protocols which cannot compose their writes. The calling thread may
+     * be an event loop which must deliver the responses the write waits for.
+     *
+     * @param  runtimeLayout        The RuntimeLayout stamped with layout to use for the write.
+     * @param  data                 The ILogData to write to the log.
+     * @return                      A future completed once the write is committed.
+     */
+    default CompletableFuture<Void> writeAsync(RuntimeLayout runtimeLayout, ILogData data) {
+        return CompletableFuture.runAsync(() -> write(runtimeLayout, data),
+                runtimeLayout.getRuntime().getBlockingExecutor());
+    }
+
+    /** Write data to the log at several addresses.
+     *
+     * <p>This function blocks until -a- write at each of the addresses is
+     * committed to the log. Each address is committed or overwritten on its
+     * own, as by a single write.
+     *
+     * <p>The default implementation writes each address in turn, but a
+     * protocol may write the addresses with bulk requests.
+     *
+     * @param  runtimeLayout        The RuntimeLayout stamped with layout to use for the write.
+     * @param  data                 The ILogData to write to the log, each with its address.
+     * @return                      The OverwriteException of each address whose committed
+     *                              write was not the result of this call.
+     */
+    default @Nonnull Map<Long, OverwriteException> writeAll(RuntimeLayout runtimeLayout,
+                                                            List<ILogData> data) {
+        Map<Long, OverwriteException> failures = new HashMap<>();
+        for (ILogData entry : data) {
+            try {
+                write(runtimeLayout, entry);
+            } catch (OverwriteException e) {
+                failures.put(entry.getGlobalAddress(), e);
+            }
+        }
+        return failures;
+    }
+
     /** Read data from a given address.
      *
      * <p>This function only returns committed data. If the
@@ -75,6 +123,25 @@ public interface IReplicationProtocol {
                 .collect(Collectors.toMap(r -> r.getKey(), r -> r.getValue()));
     }
 
+    /** Read data from all the given addresses, without waiting for the log units.
+     *
+     * <p>This method functions exactly like a readAll, except that it returns a
+     * future, so that reads to several log units may be in flight at once.
+     *
+     * <p>The default implementation performs a blocking readAll on the blocking executor
+     * of the runtime, for protocols which cannot compose their reads.
+     *
+     * @param runtimeLayout         The RuntimeLayout stamped with layout to use for the read.
+     * @param globalAddresses       A list of addresses to read from.
+     * @return                      A future completed with a map of addresses to committed
+     *                              addresses, hole filling if necessary.
+     */
+    default @Nonnull CompletableFuture<Map<Long, ILogData>> readAllAsync(
+            RuntimeLayout runtimeLayout, List<Long> globalAddresses) {
+        return CompletableFuture.supplyAsync(() -> readAll(runtimeLayout, globalAddresses),
+                runtimeLayout.getRuntime().getBlockingExecutor());
+    }
+
     /** Read data from a range.
      *
      * <p>This method functions exactly like a readAll, except
@@ -122,13 +189,14 @@ public interface IReplicationProtocol {
      *
      * @param runtimeLayout         The RuntimeLayout stamped with layout to use for the peekAll.
      * @param globalAddresses       A set of addresses to read from.
-     * @return                      A map of addresses to uncommitted
-     *                              addresses, without hole filling.
+     * @return                      A map of the committed addresses to their
+     *                              data, without hole filling.
      */
     default @Nonnull Map<Long, ILogData> peekAll(RuntimeLayout runtimeLayout,
                                                  Set<Long> globalAddresses) {
         return globalAddresses.parallelStream()
                 .map(a -> new AbstractMap.SimpleImmutableEntry<>(a, peek(runtimeLayout, a)))
+                .filter(r -> r.getValue() != null)
                 .collect(Collectors.toMap(r -> r.getKey(), r -> r.getValue()));
     }
 
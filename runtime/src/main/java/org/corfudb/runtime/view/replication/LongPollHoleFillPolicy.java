@@ -0,0 +1,76 @@
+package org.corfudb.runtime.view.replication;
+
+import java.time.Duration;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+import javax.annotation.Nonnull;
+
+import org.corfudb.protocols.wireprotocol.ILogData;
+import org.corfudb.runtime.exceptions.HoleFillRequiredException;
+import org.corfudb.util.Sleep;
+
+/** A hole filling policy which reads once, and then waits for the address to be written
+ * with a single long poll before requiring a hole fill.
+ *
+ * <p>The log unit answers the long poll as soon as the address is written, so a reader is
+ * not delayed past the write it waits for. The wait is bounded by a {@link HoleFillDeadline},
+ * which adapts it to the latencies of the writes of the runtime.
+ */
+public class LongPollHoleFillPolicy implements IHoleFillPolicy {
+
+    /** The longest time to wait for an address to be written. */
+    final Duration maxWait;
+
+    /** The deadline derived from the write latencies. */
+    final HoleFillDeadline deadline;
+
+    /** Create a LongPollHoleFillPolicy with the given wait budget.
+     *
+     * @param maxWait   The longest time to wait for an address to be written,
+     *                  before requiring a hole fill.
+     * @param deadline  The deadline derived from the write latencies.
+     */
+    public LongPollHoleFillPolicy(@Nonnull Duration maxWait, @Nonnull HoleFillDeadline deadline) {
+        this.maxWait = maxWait;
+        this.deadline = deadline;
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * <p>Without a wait function, the policy sleeps for the deadline and peeks again.
+     */
+    @Nonnull
+    @Override
+    public ILogData peekUntilHoleFillRequired(long address, Function<Long, ILogData> peekFunction)
+            throws HoleFillRequiredException {
+        return peekUntilHoleFillRequired(address, peekFunction, (a, timeout) -> {
+            Sleep.sleepUninterruptibly(timeout);
+            return peekFunction.apply(a);
+        });
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Nonnull
+    @Override
+    public ILogData peekUntilHoleFillRequired(long address,
+                                              Function<Long, ILogData> peekFunction,
+                                              BiFunction<Long, Duration, ILogData> waitFunction)
+            throws HoleFillRequiredException {
+        ILogData data = peekFunction.apply(address);
+        if (data != null) {
+            return data;
+        }
+
+        Duration wait = deadline.getDeadline(maxWait);
+        if (!wait.isZero()) {
+            data = waitFunction.apply(address, wait);
+            if (data != null) {
+                return data;
+            }
+        }
+        throw new HoleFillRequiredException("No data after waiting " + wait.toMillis() + "ms");
+    }
+}
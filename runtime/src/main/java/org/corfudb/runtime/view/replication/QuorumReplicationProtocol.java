@@ -7,8 +7,16 @@
 package org.corfudb.runtime.view.replication;
 
 import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import java.util.TreeMap;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicInteger;
@@ -22,6 +30,7 @@ import org.corfudb.protocols.wireprotocol.DataType;
 import org.corfudb.protocols.wireprotocol.ILogData;
 import org.corfudb.protocols.wireprotocol.IMetadata;
 import org.corfudb.protocols.wireprotocol.LogData;
+import org.corfudb.protocols.wireprotocol.MultipleWriteResponse;
 import org.corfudb.protocols.wireprotocol.ReadResponse;
 import org.corfudb.runtime.exceptions.DataOutrankedException;
 import org.corfudb.runtime.exceptions.HoleFillRequiredException;
@@ -32,6 +41,7 @@ import org.corfudb.runtime.exceptions.QuorumUnreachableException;
 import org.corfudb.runtime.exceptions.TrimmedException;
 import org.corfudb.runtime.exceptions.ValueAdoptedException;
 import org.corfudb.runtime.exceptions.unrecoverable.UnrecoverableCorfuInterruptedError;
+import org.corfudb.runtime.view.Layout.LayoutStripe;
 import org.corfudb.runtime.view.QuorumFuturesFactory;
 import org.corfudb.runtime.view.RuntimeLayout;
 import org.corfudb.util.CFUtils;
@@ -71,31 +81,107 @@ public class QuorumReplicationProtocol extends AbstractReplicationProtocol {
     public ILogData peek(RuntimeLayout runtimeLayout, long address) {
         int numUnits = runtimeLayout.getLayout().getSegmentLength(address);
         log.trace("Peek[{}]: quorum {}/{}", address, numUnits, numUnits);
-        try {
-            ReadResponse readResponse = null;
-            try {
-                CompletableFuture<ReadResponse>[] futures = new CompletableFuture[numUnits];
-                for (int i = 0; i < numUnits; i++) {
-                    futures[i] = runtimeLayout.getLogUnitClient(address, i).read(address);
-                }
-                QuorumFuturesFactory.CompositeFuture<ReadResponse> future =
-                        QuorumFuturesFactory.getQuorumFuture(new ReadResponseComparator(address),
-                                futures);
-                readResponse = CFUtils.getUninterruptibly(future, QuorumUnreachableException.class);
-            } catch (QuorumUnreachableException e) {
-                log.debug("peek: Quorum unreachable: {}", e);
-                return null;
+        CompletableFuture<ReadResponse>[] futures = new CompletableFuture[numUnits];
+        for (int i = 0; i < numUnits; i++) {
+            futures[i] = runtimeLayout.getLogUnitClient(address, i).read(address);
+        }
+        return getQuorumValue(address, futures);
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * <p>Each log unit of the stripe is sent a single read of all the addresses, so a batch
+     * costs one quorum round. The quorum is then computed for each address from the same
+     * responses, as for a peek. The entries of the responses which are not returned are
+     * detached from the inbound messages they were lazily decoded from, including those of
+     * the responses which arrive after the quorum.</p>
+     */
+    @Override
+    public Map<Long, ILogData> peekAll(RuntimeLayout runtimeLayout, Set<Long> globalAddresses) {
+        if (globalAddresses.isEmpty()) {
+            return Collections.emptyMap();
+        }
+        List<Long> addresses = new ArrayList<>(globalAddresses);
+        long startAddress = addresses.get(0);
+        int numUnits = runtimeLayout.getLayout().getSegmentLength(startAddress);
+        log.trace("PeekAll[{}]: quorum {}/{}", addresses, numUnits, numUnits);
+        CompletableFuture<ReadResponse>[] futures = new CompletableFuture[numUnits];
+        for (int i = 0; i < numUnits; i++) {
+            futures[i] = runtimeLayout.getLogUnitClient(startAddress, i).read(addresses);
+        }
+
+        Map<Long, ILogData> result = new TreeMap<>();
+        for (long address : addresses) {
+            ILogData data = getQuorumValue(address, futures);
+            if (data != null) {
+                result.put(address, data);
             }
-            if (readResponse != null) {
-                LogData result = readResponse.getAddresses().get(address);
-                if (result != null && !isEmptyType(result.getType())) {
-                    return result;
+        }
+        Map<Long, ILogData> returned = new HashMap<>(result);
+        for (CompletableFuture<ReadResponse> future : futures) {
+            future.thenAccept(response -> response.getAddresses().forEach((address, data) -> {
+                if (returned.get(address) != data) {
+                    data.detachBuffer();
                 }
-            }
+            }));
+        }
+        return result;
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * <p>The addresses are peeked in a single batch, and only the addresses which have no
+     * committed value are read again one by one with the hole fill policy.</p>
+     */
+    @Override
+    public Map<Long, ILogData> readAll(RuntimeLayout runtimeLayout, List<Long> globalAddresses) {
+        Map<Long, ILogData> committed = peekAll(runtimeLayout,
+                new LinkedHashSet<>(globalAddresses));
+        Map<Long, ILogData> result = new TreeMap<>();
+        for (long address : globalAddresses) {
+            ILogData data = committed.get(address);
+            //in case of a hole, do a normal read and use its hole fill policy
+            result.put(address, data != null ? data : read(runtimeLayout, address));
+        }
+        return result;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Map<Long, ILogData> readRange(RuntimeLayout runtimeLayout, Set<Long> globalAddresses) {
+        return readAll(runtimeLayout, new ArrayList<>(globalAddresses));
+    }
+
+    /**
+     * Get the value of an address which a quorum of log units agree on.
+     *
+     * @param address The address.
+     * @param futures The read responses of the log units, which contain the address.
+     * @return The committed value, or null if the address has no committed value or no
+     *         quorum was reached.
+     */
+    private ILogData getQuorumValue(long address, CompletableFuture<ReadResponse>[] futures) {
+        ReadResponse readResponse;
+        try {
+            QuorumFuturesFactory.CompositeFuture<ReadResponse> future =
+                    QuorumFuturesFactory.getQuorumFuture(new ReadResponseComparator(address),
+                            futures);
+            readResponse = CFUtils.getUninterruptibly(future, QuorumUnreachableException.class);
+        } catch (QuorumUnreachableException e) {
+            log.debug("peek: Quorum unreachable: {}", e);
             return null;
-        } catch (RuntimeException e) {
-            throw e;
         }
+        if (readResponse != null) {
+            LogData result = readResponse.getAddresses().get(address);
+            if (result != null && !isEmptyType(result.getType())) {
+                return result;
+            }
+        }
+        return null;
     }
 
     /**
@@ -128,23 +214,129 @@ public class QuorumReplicationProtocol extends AbstractReplicationProtocol {
                 CFUtils.getUninterruptibly(future, QuorumUnreachableException.class,
                         OverwriteException.class, DataOutrankedException.class);
             }
-        } catch (OverwriteException e) {
-            log.error("Client implementation error, race in phase 1. "
-                    + "Broken sequencer, data consistency in danger.");
-            throw e;
         } catch (LogUnitException | QuorumUnreachableException e) {
-            if (future.containsThrowableFrom(DataOutrankedException.class)
-                    || future.containsThrowableFrom(ValueAdoptedException.class)) {
-                // we are competing with other client that writes the same data or fills a hole
-                boolean adopted = recoveryWrite(runtimeLayout, data);
-                if (!adopted) {
-                    return;
+            resolveWriteFailure(runtimeLayout, data, future, e);
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * <p>The addresses of each stripe are sent to each of its log units in a single multiple
+     * write, so that the first phase of a batch costs one quorum round. The quorum is then
+     * computed for each address from the outcomes of the same responses, and the addresses
+     * which did not reach it are recovered one by one, as by a single write.</p>
+     */
+    @Override
+    public Map<Long, OverwriteException> writeAll(RuntimeLayout runtimeLayout,
+                                                  List<ILogData> data) {
+        Map<LayoutStripe, List<ILogData>> stripes = new LinkedHashMap<>();
+        for (ILogData entry : data) {
+            stripes.computeIfAbsent(runtimeLayout.getLayout()
+                    .getStripe(entry.getGlobalAddress()), s -> new ArrayList<>()).add(entry);
+        }
+        Map<Long, OverwriteException> failures = new HashMap<>();
+        for (List<ILogData> batch : stripes.values()) {
+            writeBatch(runtimeLayout, batch, failures);
+        }
+        return failures;
+    }
+
+    /**
+     * Write a batch of addresses of the same stripe.
+     *
+     * @param runtimeLayout The RuntimeLayout stamped with layout to use for the write.
+     * @param batch         The data to write.
+     * @param failures      The overwrites of the addresses, which this batch adds to.
+     */
+    private void writeBatch(RuntimeLayout runtimeLayout, List<ILogData> batch,
+                            Map<Long, OverwriteException> failures) {
+        final long startAddress = batch.get(0).getGlobalAddress();
+        final int numUnits = runtimeLayout.getLayout().getSegmentLength(startAddress);
+        log.debug("WriteAll[{}]: quorum {}/{}", batch.size(), numUnits, numUnits);
+
+        Map<Long, QuorumFuturesFactory.CompositeFuture<Boolean>> futures = new HashMap<>();
+        Map<Long, RuntimeException> errors = new HashMap<>();
+        List<ILogData.SerializationHandle> handles = new ArrayList<>(batch.size());
+        try {
+            List<LogData> entries = new ArrayList<>(batch.size());
+            for (ILogData entry : batch) {
+                entry.setRank(new IMetadata.DataRank(0));
+                ILogData.SerializationHandle handle = entry.getSerializedForm();
+                handles.add(handle);
+                entries.add((LogData) handle.getSerialized());
+            }
+            CompletableFuture<MultipleWriteResponse>[] responses =
+                    new CompletableFuture[numUnits];
+            for (int i = 0; i < numUnits; i++) {
+                responses[i] = runtimeLayout.getLogUnitClient(startAddress, i).writeAll(entries);
+            }
+
+            // The serialized entries are held until each address reaches its quorum.
+            for (ILogData entry : batch) {
+                final long address = entry.getGlobalAddress();
+                CompletableFuture<Boolean>[] writes = new CompletableFuture[numUnits];
+                for (int i = 0; i < numUnits; i++) {
+                    writes[i] = responses[i].thenApply(r -> r.checkWritten(address));
+                }
+                QuorumFuturesFactory.CompositeFuture<Boolean> future =
+                        QuorumFuturesFactory.getQuorumFuture(Boolean::compareTo, writes,
+                                OverwriteException.class, DataOutrankedException.class);
+                futures.put(address, future);
+                try {
+                    CFUtils.getUninterruptibly(future, QuorumUnreachableException.class,
+                            OverwriteException.class, DataOutrankedException.class);
+                } catch (LogUnitException | QuorumUnreachableException e) {
+                    errors.put(address, e);
+                }
+            }
+        } finally {
+            handles.forEach(ILogData.SerializationHandle::close);
+        }
+
+        for (ILogData entry : batch) {
+            final long address = entry.getGlobalAddress();
+            if (errors.containsKey(address)) {
+                try {
+                    resolveWriteFailure(runtimeLayout, entry, futures.get(address),
+                            errors.get(address));
+                } catch (OverwriteException e) {
+                    failures.put(address, e);
                 }
             }
-            throw new OverwriteException(OverwriteCause.DIFF_DATA);
         }
     }
 
+    /**
+     * Resolve a write whose first phase did not reach a quorum. If it competed with another
+     * client which writes the same address, the address is recovered, and this write is
+     * committed unless another value was adopted.
+     *
+     * @param runtimeLayout The RuntimeLayout stamped with layout to use for the write.
+     * @param data          The data written.
+     * @param future        The quorum future of the first phase.
+     * @param e             The error of the first phase.
+     * @throws OverwriteException If the committed write is not this write.
+     */
+    private void resolveWriteFailure(RuntimeLayout runtimeLayout, ILogData data,
+                                     QuorumFuturesFactory.CompositeFuture<Boolean> future,
+                                     RuntimeException e) throws OverwriteException {
+        if (e instanceof OverwriteException) {
+            log.error("Client implementation error, race in phase 1. "
+                    + "Broken sequencer, data consistency in danger.");
+            throw (OverwriteException) e;
+        }
+        if (future.containsThrowableFrom(DataOutrankedException.class)
+                || future.containsThrowableFrom(ValueAdoptedException.class)) {
+            // we are competing with other client that writes the same data or fills a hole
+            boolean adopted = recoveryWrite(runtimeLayout, data);
+            if (!adopted) {
+                return;
+            }
+        }
+        throw new OverwriteException(OverwriteCause.DIFF_DATA);
+    }
+
 
     private ILogData.SerializationHandle createEmptyData(
             long position, DataType type, IMetadata.DataRank rank) {
@@ -145,7 +145,7 @@ public class BackpointerStreamView extends AbstractQueuedStreamView {
     @Override
     protected ILogData read(final long address) {
         try {
-            return runtime.getAddressSpaceView().read(address);
+            return runtime.getAddressSpaceView().read(address, id);
         } catch (TrimmedException te) {
             processTrimmedException(te);
             throw te;
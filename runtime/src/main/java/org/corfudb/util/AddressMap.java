@@ -0,0 +1,267 @@
+package org.corfudb.util;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.ConcurrentModificationException;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+/**
+ * A map from global addresses to values, with primitive keys kept in ascending order.
+ *
+ * <p>The entries are held in parallel arrays sorted by address. Entries put in ascending
+ * order, as the entries of a read response are, are appended without searching or shifting,
+ * and lookups are binary searches. Iteration is in address order. This map is not
+ * thread-safe.</p>
+ *
+ * @param <V> The type of the values.
+ */
+public class AddressMap<V> extends AbstractMap<Long, V> {
+
+    private static final int DEFAULT_CAPACITY = 8;
+
+    private long[] addresses;
+
+    private Object[] values;
+
+    private int size = 0;
+
+    /** Number of structural modifications, to detect concurrent modifications. */
+    private int modCount = 0;
+
+    public AddressMap() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    /**
+     * Creates a map holding the given number of entries without growing.
+     *
+     * @param expectedSize The expected number of entries.
+     */
+    public AddressMap(int expectedSize) {
+        addresses = new long[Math.max(1, expectedSize)];
+        values = new Object[addresses.length];
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Returns the address of the entry at an index, in address order.
+     *
+     * @param index The index of the entry, between 0 and the size of the map.
+     * @return The address of the entry.
+     */
+    public long getAddress(int index) {
+        checkIndex(index);
+        return addresses[index];
+    }
+
+    /**
+     * Returns the addresses of the entries, in address order.
+     *
+     * @return A copy of the addresses.
+     */
+    public long[] addressArray() {
+        return Arrays.copyOf(addresses, size);
+    }
+
+    /**
+     * Returns the value of the entry at an index, in address order.
+     *
+     * @param index The index of the entry, between 0 and the size of the map.
+     * @return The value of the entry.
+     */
+    @SuppressWarnings("unchecked")
+    public V getValue(int index) {
+        checkIndex(index);
+        return (V) values[index];
+    }
+
+    /**
+     * Returns the value mapped to an address.
+     *
+     * @param address The address.
+     * @return The value, or null if the address is not mapped.
+     */
+    @SuppressWarnings("unchecked")
+    public V get(long address) {
+        int index = indexOf(address);
+        return index >= 0 ? (V) values[index] : null;
+    }
+
+    @Override
+    public V get(Object key) {
+        return key instanceof Long ? get(((Long) key).longValue()) : null;
+    }
+
+    /**
+     * Returns whether an address is mapped.
+     *
+     * @param address The address.
+     * @return True, if the address is mapped.
+     */
+    public boolean containsKey(long address) {
+        return indexOf(address) >= 0;
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        return key instanceof Long && containsKey(((Long) key).longValue());
+    }
+
+    /**
+     * Maps an address to a value.
+     *
+     * @param address The address.
+     * @param value   The value.
+     * @return The value previously mapped to the address, or null.
+     */
+    @SuppressWarnings("unchecked")
+    public V put(long address, V value) {
+        if (size == 0 || addresses[size - 1] < address) {
+            ensureCapacity(size + 1);
+            addresses[size] = address;
+            values[size] = value;
+            size++;
+            modCount++;
+            return null;
+        }
+
+        int index = indexOf(address);
+        if (index >= 0) {
+            V previous = (V) values[index];
+            values[index] = value;
+            return previous;
+        }
+
+        int insertion = -(index + 1);
+        ensureCapacity(size + 1);
+        System.arraycopy(addresses, insertion, addresses, insertion + 1, size - insertion);
+        System.arraycopy(values, insertion, values, insertion + 1, size - insertion);
+        addresses[insertion] = address;
+        values[insertion] = value;
+        size++;
+        modCount++;
+        return null;
+    }
+
+    @Override
+    public V put(Long key, V value) {
+        return put(key.longValue(), value);
+    }
+
+    @Override
+    public V remove(Object key) {
+        if (!(key instanceof Long)) {
+            return null;
+        }
+        int index = indexOf((Long) key);
+        return index >= 0 ? removeAt(index) : null;
+    }
+
+    @Override
+    public void clear() {
+        Arrays.fill(values, 0, size, null);
+        size = 0;
+        modCount++;
+    }
+
+    @Override
+    public Set<Entry<Long, V>> entrySet() {
+        return new AbstractSet<Entry<Long, V>>() {
+            @Override
+            public Iterator<Entry<Long, V>> iterator() {
+                return new EntryIterator();
+            }
+
+            @Override
+            public int size() {
+                return size;
+            }
+        };
+    }
+
+    private int indexOf(long address) {
+        return Arrays.binarySearch(addresses, 0, size, address);
+    }
+
+    @SuppressWarnings("unchecked")
+    private V removeAt(int index) {
+        V previous = (V) values[index];
+        System.arraycopy(addresses, index + 1, addresses, index, size - index - 1);
+        System.arraycopy(values, index + 1, values, index, size - index - 1);
+        size--;
+        values[size] = null;
+        modCount++;
+        return previous;
+    }
+
+    private void ensureCapacity(int capacity) {
+        if (capacity > addresses.length) {
+            int newCapacity = Math.max(capacity, addresses.length * 2);
+            addresses = Arrays.copyOf(addresses, newCapacity);
+            values = Arrays.copyOf(values, newCapacity);
+        }
+    }
+
+    private void checkIndex(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Index " + index + ", size " + size);
+        }
+    }
+
+    /**
+     * Iterates over the entries in address order.
+     */
+    private class EntryIterator implements Iterator<Entry<Long, V>> {
+
+        private int next = 0;
+
+        private int last = -1;
+
+        private int expectedModCount = modCount;
+
+        @Override
+        public boolean hasNext() {
+            return next < size;
+        }
+
+        @Override
+        public Entry<Long, V> next() {
+            if (expectedModCount != modCount) {
+                throw new ConcurrentModificationException();
+            }
+            if (next >= size) {
+                throw new NoSuchElementException();
+            }
+            last = next++;
+            final int index = last;
+            return new SimpleEntry<Long, V>(addresses[index], getValue(index)) {
+                @Override
+                public V setValue(V value) {
+                    values[index] = value;
+                    return super.setValue(value);
+                }
+            };
+        }
+
+        @Override
+        public void remove() {
+            if (last < 0) {
+                throw new IllegalStateException();
+            }
+            if (expectedModCount != modCount) {
+                throw new ConcurrentModificationException();
+            }
+            removeAt(last);
+            next = last;
+            last = -1;
+            expectedModCount = modCount;
+        }
+    }
+}
@@ -4,6 +4,7 @@ import com.google.common.util.concurrent.ThreadFactoryBuilder;
 
 import java.time.Duration;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.Executors;
 import java.util.concurrent.Future;
@@ -11,6 +12,7 @@ import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
 import java.util.function.Function;
+import java.util.function.Supplier;
 import org.corfudb.runtime.exceptions.unrecoverable.UnrecoverableCorfuInterruptedError;
 
 /**
@@ -92,6 +94,50 @@ public class CFUtils {
                 RuntimeException.class, RuntimeException.class);
     }
 
+    /**
+     * Get the cause of a failed future, unwrapping the {@link CompletionException} and
+     * {@link ExecutionException} which dependent stages and {@link Future#get()} wrap it in.
+     *
+     * @param throwable The exception a future failed with.
+     * @return          The cause of the failure.
+     */
+    public static Throwable unwrap(Throwable throwable) {
+        while ((throwable instanceof CompletionException
+                || throwable instanceof ExecutionException) && throwable.getCause() != null) {
+            throwable = throwable.getCause();
+        }
+        return throwable;
+    }
+
+    /**
+     * Generates a completable future which is already failed.
+     *
+     * @param throwable The exception to fail the future with.
+     * @param <T>       Ignored, since the future is always failed.
+     * @return          A completable future failed with the exception.
+     */
+    public static <T> CompletableFuture<T> failedFuture(Throwable throwable) {
+        final CompletableFuture<T> promise = new CompletableFuture<>();
+        promise.completeExceptionally(throwable);
+        return promise;
+    }
+
+    /**
+     * Calls a function returning a future, failing the future instead of throwing if the
+     * function throws before returning it, for example when no router can be obtained.
+     *
+     * @param function  The function returning a future.
+     * @param <T>       The return type of the future.
+     * @return          The future returned by the function, or a failed future.
+     */
+    public static <T> CompletableFuture<T> callAsync(Supplier<CompletableFuture<T>> function) {
+        try {
+            return function.get();
+        } catch (RuntimeException e) {
+            return failedFuture(e);
+        }
+    }
+
     /** A static timeout exception that we complete futures exceptionally with. */
     static final TimeoutException TIMEOUT_EXCEPTION = new TimeoutException();
 
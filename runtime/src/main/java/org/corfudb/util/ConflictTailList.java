@@ -0,0 +1,131 @@
+package org.corfudb.util;
+
+import io.netty.buffer.ByteBuf;
+
+import java.util.Arrays;
+import java.util.UUID;
+
+/**
+ * A list of conflict parameters, each made of a stream ID and the fingerprint of a conflict
+ * key, with the global address at which it was last written.
+ *
+ * <p>The entries are held in parallel primitive arrays, so that an entry costs 32 bytes and
+ * adding one does not allocate unless the arrays grow. This list is not thread-safe.</p>
+ *
+ * <p>The list is serialized with the highest address first, and each address is encoded as a
+ * variable-length distance below it. The conflict parameters are recent writes, so that the
+ * distances take a few bytes instead of eight.</p>
+ */
+public class ConflictTailList {
+
+    private static final int DEFAULT_CAPACITY = 16;
+
+    private long[] msbs = new long[DEFAULT_CAPACITY];
+
+    private long[] lsbs = new long[DEFAULT_CAPACITY];
+
+    private long[] fingerprints = new long[DEFAULT_CAPACITY];
+
+    private long[] addresses = new long[DEFAULT_CAPACITY];
+
+    private int size;
+
+    /**
+     * Consumes an entry of the list.
+     */
+    @FunctionalInterface
+    public interface EntryConsumer {
+        void accept(UUID streamId, long fingerprint, long address);
+    }
+
+    /**
+     * Adds a conflict parameter.
+     *
+     * @param streamId    The stream of the conflict parameter.
+     * @param fingerprint The fingerprint of the conflict key.
+     * @param address     The address at which the parameter was last written.
+     */
+    public void add(UUID streamId, long fingerprint, long address) {
+        add(streamId.getMostSignificantBits(), streamId.getLeastSignificantBits(), fingerprint,
+                address);
+    }
+
+    private void add(long msb, long lsb, long fingerprint, long address) {
+        if (size == msbs.length) {
+            int capacity = msbs.length << 1;
+            msbs = Arrays.copyOf(msbs, capacity);
+            lsbs = Arrays.copyOf(lsbs, capacity);
+            fingerprints = Arrays.copyOf(fingerprints, capacity);
+            addresses = Arrays.copyOf(addresses, capacity);
+        }
+        msbs[size] = msb;
+        lsbs[size] = lsb;
+        fingerprints[size] = fingerprint;
+        addresses[size] = address;
+        size++;
+    }
+
+    /**
+     * Returns the number of conflict parameters in the list.
+     */
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Calls the consumer on each entry, in the order they were added.
+     */
+    public void forEach(EntryConsumer consumer) {
+        for (int i = 0; i < size; i++) {
+            consumer.accept(new UUID(msbs[i], lsbs[i]), fingerprints[i], addresses[i]);
+        }
+    }
+
+    /**
+     * Serializes the list. The highest address is written first, and then each address as a
+     * variable-length distance below it.
+     *
+     * @param buf The buffer to serialize the list into.
+     */
+    public void serialize(ByteBuf buf) {
+        long maxAddress = Long.MIN_VALUE;
+        for (int i = 0; i < size; i++) {
+            maxAddress = Math.max(maxAddress, addresses[i]);
+        }
+
+        buf.writeInt(size);
+        buf.writeLong(maxAddress);
+        for (int i = 0; i < size; i++) {
+            buf.writeLong(msbs[i]);
+            buf.writeLong(lsbs[i]);
+            buf.writeLong(fingerprints[i]);
+            StreamTailMap.writeVarLong(buf, maxAddress - addresses[i]);
+        }
+    }
+
+    /**
+     * Deserializes a list written by {@link ConflictTailList#serialize(ByteBuf)}.
+     *
+     * @param buf The buffer to deserialize the list from.
+     * @return The deserialized list.
+     */
+    public static ConflictTailList fromBuffer(ByteBuf buf) {
+        int size = buf.readInt();
+        long maxAddress = buf.readLong();
+        ConflictTailList list = new ConflictTailList();
+        for (int i = 0; i < size; i++) {
+            list.add(buf.readLong(), buf.readLong(), buf.readLong(),
+                    maxAddress - StreamTailMap.readVarLong(buf));
+        }
+        return list;
+    }
+
+    @Override
+    public String toString() {
+        return "ConflictTailList[size=" + size + "]";
+    }
+}
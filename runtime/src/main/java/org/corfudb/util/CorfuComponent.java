@@ -14,7 +14,8 @@ public enum CorfuComponent {
     OBJECT("corfu.runtime.object."),
 
     // Infrastructure components
-    INFRA_MSG_HANDLER("corfu.infrastructure.message-handler.");
+    INFRA_MSG_HANDLER("corfu.infrastructure.message-handler."),
+    SERVER_ROUTER("corfu.infrastructure.server-router.");
 
     CorfuComponent(String value) {
         this.value = value;
@@ -28,7 +28,8 @@ public class NodeLocator implements Serializable {
 
     /** Represents protocols for Corfu nodes. */
     public enum Protocol {
-        TCP     /** Default TCP-based protocol. */
+        TCP,    /** Default TCP-based protocol. */
+        UNIX    /** Unix domain socket, for a node on the same host. */
     }
 
     /** The protocol to use. */
@@ -40,6 +41,11 @@ public class NodeLocator implements Serializable {
     /** The port number on the host the node is located on. */
     final int port;
 
+    /** The path of the unix domain socket of the node. Null unless the protocol is
+     *  {@link Protocol#UNIX}.
+     */
+    @Builder.Default private String path = null;
+
     /** The ID of the node. Can be null if node id matching is not requested. */
     @Builder.Default private UUID nodeId = null;
 
@@ -67,12 +73,20 @@ public class NodeLocator implements Serializable {
             String host = url.getHost();
             int port = url.getPort();
 
-            // Node ID is from the path, if present.
+            // A unix node has a socket path instead of a node ID.
+            String path = null;
             UUID nodeId;
-            if (url.getPath().equals("") || url.getPath().equals("/")) {
+            if (proto == Protocol.UNIX) {
+                path = url.getPath();
+                nodeId = null;
+                if (path.equals("")) {
+                    throw new IllegalArgumentException("No socket path in " + toParse);
+                }
+            } else if (url.getPath().equals("") || url.getPath().equals("/")) {
                 // No path, so nodeId is null
                 nodeId = null;
             } else {
+                // Node ID is from the path, if present.
                 nodeId = UuidUtils.fromBase64(url.getPath().replaceFirst("/", ""));
             }
 
@@ -91,6 +105,7 @@ public class NodeLocator implements Serializable {
                             .protocol(proto)
                             .host(host)
                             .port(port)
+                            .path(path)
                             .nodeId(nodeId)
                             .options(options)
                             .build();
@@ -105,11 +120,20 @@ public class NodeLocator implements Serializable {
     public String toString() {
         StringBuilder sb = new StringBuilder()
                 .append(protocol.toString().toLowerCase())
-                .append("://")
-                .append(host)
+                .append("://");
+
+        if (protocol == Protocol.UNIX) {
+            // The host and port of a unix node are optional, and only name the node.
+            if (host != null) {
+                sb.append(host).append(":").append(port);
+            }
+            sb.append(path);
+        } else {
+            sb.append(host)
                 .append(":")
                 .append(port)
                 .append("/");
+        }
 
         if (nodeId != null) {
             sb.append(UuidUtils.asBase64(nodeId));
@@ -127,11 +151,15 @@ public class NodeLocator implements Serializable {
 
     /**
      * Creates and returns the endpoint address in the legacy format host:port.
+     * A unix node has no legacy format, so its full locator is returned.
      *
      * @param nodeLocator Nodelocator to convert to legacy format.
      * @return Returns the endpoint address.
      */
     public static String getLegacyEndpoint(@NonNull NodeLocator nodeLocator) {
+        if (nodeLocator.getProtocol() == Protocol.UNIX) {
+            return nodeLocator.toString();
+        }
         return nodeLocator.getHost() + ":" + nodeLocator.getPort();
     }
 }
@@ -0,0 +1,449 @@
+package org.corfudb.util;
+
+import io.netty.buffer.ByteBuf;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * A map from stream IDs to global addresses, with primitive keys and values.
+ *
+ * <p>The map uses open addressing with linear probing over parallel arrays holding the two
+ * halves of the stream ID and the address, so that an entry costs 24 bytes and no lookup or
+ * update allocates. The all-zero stream ID is kept outside of the arrays, as it marks the free
+ * slots. This map is not thread-safe.</p>
+ *
+ * <p>The arrays are split in pages, which {@link StreamTailMap#snapshot()} shares with the
+ * snapshot instead of copying them. A page shared with a snapshot is copied by the first
+ * update of either map, so that a snapshot costs a copy of the page references, and can be
+ * read by another thread while this map is updated.</p>
+ *
+ * <p>The map is serialized with its entries sorted by address, each address being encoded as
+ * a variable-length delta from the previous one.</p>
+ */
+public class StreamTailMap {
+
+    private static final int DEFAULT_CAPACITY = 16;
+
+    private static final float LOAD_FACTOR = 0.5f;
+
+    private static final int VARINT_SHIFT = 7;
+
+    private static final int VARINT_MASK = 0x7f;
+
+    private static final int VARINT_CONTINUE = 0x80;
+
+    /** The pages hold up to 2^PAGE_SHIFT slots. */
+    private static final int PAGE_SHIFT = 10;
+
+    private long[][] msbs;
+
+    private long[][] lsbs;
+
+    private long[][] values;
+
+    /** The owner of each page. Only the pages owned by {@link StreamTailMap#owner} are not
+     * shared with a snapshot, and can be updated in place. */
+    private Object[] pageOwners;
+
+    private Object owner = new Object();
+
+    private int slotMask;
+
+    private int pageShift;
+
+    private int pageMask;
+
+    /** Number of entries in the arrays. */
+    private int arraySize;
+
+    private boolean hasZeroKey;
+
+    private long zeroKeyValue;
+
+    /** Number of entries the arrays can hold before growing. */
+    private int resizeThreshold;
+
+    /**
+     * Consumes an entry of the map.
+     */
+    @FunctionalInterface
+    public interface EntryConsumer {
+        void accept(UUID streamId, long address);
+    }
+
+    public StreamTailMap() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    /**
+     * Creates a map holding the given number of entries without growing.
+     *
+     * @param expectedSize The expected number of entries.
+     */
+    public StreamTailMap(int expectedSize) {
+        allocate(Math.max(DEFAULT_CAPACITY,
+                Integer.highestOneBit(Math.max(1, (int) (expectedSize / LOAD_FACTOR)) - 1) << 1));
+    }
+
+    /**
+     * Creates a map holding the entries of the given map.
+     *
+     * @param map The entries to copy.
+     */
+    public StreamTailMap(Map<UUID, Long> map) {
+        this(map.size());
+        putAll(map);
+    }
+
+    /**
+     * Creates a snapshot of a map, sharing its pages.
+     */
+    private StreamTailMap(StreamTailMap map) {
+        msbs = map.msbs.clone();
+        lsbs = map.lsbs.clone();
+        values = map.values.clone();
+        pageOwners = new Object[msbs.length];
+        slotMask = map.slotMask;
+        pageShift = map.pageShift;
+        pageMask = map.pageMask;
+        arraySize = map.arraySize;
+        hasZeroKey = map.hasZeroKey;
+        zeroKeyValue = map.zeroKeyValue;
+        resizeThreshold = map.resizeThreshold;
+    }
+
+    private void allocate(int capacity) {
+        int pageSize = Math.min(capacity, 1 << PAGE_SHIFT);
+        int numPages = capacity / pageSize;
+        msbs = new long[numPages][pageSize];
+        lsbs = new long[numPages][pageSize];
+        values = new long[numPages][pageSize];
+        pageOwners = new Object[numPages];
+        Arrays.fill(pageOwners, owner);
+        slotMask = capacity - 1;
+        pageShift = Integer.numberOfTrailingZeros(pageSize);
+        pageMask = pageSize - 1;
+        resizeThreshold = (int) (capacity * LOAD_FACTOR);
+    }
+
+    private long msb(int slot) {
+        return msbs[slot >>> pageShift][slot & pageMask];
+    }
+
+    private long lsb(int slot) {
+        return lsbs[slot >>> pageShift][slot & pageMask];
+    }
+
+    private long value(int slot) {
+        return values[slot >>> pageShift][slot & pageMask];
+    }
+
+    /**
+     * Writes a slot, copying its page first if it is shared with a snapshot.
+     */
+    private void set(int slot, long msb, long lsb, long value) {
+        int page = slot >>> pageShift;
+        if (pageOwners[page] != owner) {
+            msbs[page] = msbs[page].clone();
+            lsbs[page] = lsbs[page].clone();
+            values[page] = values[page].clone();
+            pageOwners[page] = owner;
+        }
+        msbs[page][slot & pageMask] = msb;
+        lsbs[page][slot & pageMask] = lsb;
+        values[page][slot & pageMask] = value;
+    }
+
+    /**
+     * Returns a snapshot of this map, which is not affected by later updates of this map.
+     * The snapshot shares the pages of this map until either map updates them.
+     *
+     * @return A snapshot of this map.
+     */
+    public StreamTailMap snapshot() {
+        StreamTailMap snapshot = new StreamTailMap(this);
+        // The pages are now shared, and are copied by the next update of this map.
+        owner = new Object();
+        return snapshot;
+    }
+
+    private static int slot(long msb, long lsb, int mask) {
+        long hash = msb ^ Long.rotateLeft(lsb, Integer.SIZE);
+        // Finalizer of MurmurHash3, the stream IDs might not be random.
+        hash = (hash ^ (hash >>> 33)) * 0xff51afd7ed558ccdL;
+        hash = (hash ^ (hash >>> 33)) * 0xc4ceb9fe1a85ec53L;
+        return (int) (hash ^ (hash >>> 33)) & mask;
+    }
+
+    /**
+     * Returns the slot of a non-zero key, or the free slot where it would be inserted.
+     */
+    private int find(long msb, long lsb) {
+        int slot = slot(msb, lsb, slotMask);
+        while (!isFree(slot) && (msb(slot) != msb || lsb(slot) != lsb)) {
+            slot = (slot + 1) & slotMask;
+        }
+        return slot;
+    }
+
+    private static boolean isZero(long msb, long lsb) {
+        return msb == 0L && lsb == 0L;
+    }
+
+    private boolean isFree(int slot) {
+        return msb(slot) == 0L && lsb(slot) == 0L;
+    }
+
+    /**
+     * Returns the address of a stream.
+     *
+     * @param streamId     The stream ID.
+     * @param defaultValue The value returned if the stream is not present.
+     * @return The address of the stream, or the default value.
+     */
+    public long get(UUID streamId, long defaultValue) {
+        long msb = streamId.getMostSignificantBits();
+        long lsb = streamId.getLeastSignificantBits();
+        if (isZero(msb, lsb)) {
+            return hasZeroKey ? zeroKeyValue : defaultValue;
+        }
+        int slot = find(msb, lsb);
+        return isFree(slot) ? defaultValue : value(slot);
+    }
+
+    /**
+     * Returns true if the stream is present.
+     */
+    public boolean containsKey(UUID streamId) {
+        long msb = streamId.getMostSignificantBits();
+        long lsb = streamId.getLeastSignificantBits();
+        if (isZero(msb, lsb)) {
+            return hasZeroKey;
+        }
+        return !isFree(find(msb, lsb));
+    }
+
+    /**
+     * Sets the address of a stream.
+     *
+     * @param streamId     The stream ID.
+     * @param address      The new address of the stream.
+     * @param defaultValue The value returned if the stream was not present.
+     * @return The previous address of the stream, or the default value.
+     */
+    public long put(UUID streamId, long address, long defaultValue) {
+        long msb = streamId.getMostSignificantBits();
+        long lsb = streamId.getLeastSignificantBits();
+        if (isZero(msb, lsb)) {
+            long previous = hasZeroKey ? zeroKeyValue : defaultValue;
+            hasZeroKey = true;
+            zeroKeyValue = address;
+            return previous;
+        }
+        int slot = find(msb, lsb);
+        if (!isFree(slot)) {
+            long previous = value(slot);
+            set(slot, msb, lsb, address);
+            return previous;
+        }
+        set(slot, msb, lsb, address);
+        if (++arraySize > resizeThreshold) {
+            grow();
+        }
+        return defaultValue;
+    }
+
+    /**
+     * Sets the address of a stream to the maximum of its current and the given address.
+     *
+     * @param streamId The stream ID.
+     * @param address  The address to merge.
+     */
+    public void putMax(UUID streamId, long address) {
+        long previous = put(streamId, address, address);
+        if (previous > address) {
+            put(streamId, previous, previous);
+        }
+    }
+
+    /**
+     * Copies all the entries of a map, replacing the present ones.
+     */
+    public void putAll(Map<UUID, Long> map) {
+        map.forEach((streamId, address) -> put(streamId, address, address));
+    }
+
+    /**
+     * Copies all the entries of a map, replacing the present ones.
+     */
+    public void putAll(StreamTailMap map) {
+        map.forEach((streamId, address) -> put(streamId, address, address));
+    }
+
+    private void grow() {
+        long[][] oldMsbs = msbs;
+        long[][] oldLsbs = lsbs;
+        long[][] oldValues = values;
+        allocate((slotMask + 1) << 1);
+        for (int page = 0; page < oldMsbs.length; page++) {
+            for (int i = 0; i < oldMsbs[page].length; i++) {
+                if (oldMsbs[page][i] != 0L || oldLsbs[page][i] != 0L) {
+                    set(find(oldMsbs[page][i], oldLsbs[page][i]), oldMsbs[page][i],
+                            oldLsbs[page][i], oldValues[page][i]);
+                }
+            }
+        }
+    }
+
+    /**
+     * Returns the number of streams in the map.
+     */
+    public int size() {
+        return arraySize + (hasZeroKey ? 1 : 0);
+    }
+
+    public boolean isEmpty() {
+        return size() == 0;
+    }
+
+    /**
+     * Removes all the entries, keeping the allocated capacity.
+     */
+    public void clear() {
+        allocate(slotMask + 1);
+        arraySize = 0;
+        hasZeroKey = false;
+    }
+
+    /**
+     * Calls the consumer on each entry, in no particular order.
+     */
+    public void forEach(EntryConsumer consumer) {
+        if (hasZeroKey) {
+            consumer.accept(new UUID(0L, 0L), zeroKeyValue);
+        }
+        for (int i = 0; i <= slotMask; i++) {
+            if (!isFree(i)) {
+                consumer.accept(new UUID(msb(i), lsb(i)), value(i));
+            }
+        }
+    }
+
+    /**
+     * Returns a copy of this map as a boxed map.
+     */
+    public Map<UUID, Long> toMap() {
+        Map<UUID, Long> map = new HashMap<>(size() * 2);
+        forEach(map::put);
+        return map;
+    }
+
+    /**
+     * Serializes the map. The entries are sorted by address, and each address is written as a
+     * variable-length delta from the previous one, which takes a few bytes instead of eight.
+     *
+     * @param buf The buffer to serialize the map into.
+     */
+    public void serialize(ByteBuf buf) {
+        int size = size();
+        long[][] entries = new long[size][];
+        int index = 0;
+        if (hasZeroKey) {
+            entries[index++] = new long[]{0L, 0L, zeroKeyValue};
+        }
+        for (int i = 0; i <= slotMask; i++) {
+            if (!isFree(i)) {
+                entries[index++] = new long[]{msb(i), lsb(i), value(i)};
+            }
+        }
+        Arrays.sort(entries, (a, b) -> Long.compare(a[2], b[2]));
+
+        buf.writeInt(size);
+        long previous = 0L;
+        for (long[] entry : entries) {
+            buf.writeLong(entry[0]);
+            buf.writeLong(entry[1]);
+            writeVarLong(buf, entry[2] - previous);
+            previous = entry[2];
+        }
+    }
+
+    /**
+     * Deserializes a map written by {@link StreamTailMap#serialize(ByteBuf)}.
+     *
+     * @param buf The buffer to deserialize the map from.
+     * @return The deserialized map.
+     */
+    public static StreamTailMap fromBuffer(ByteBuf buf) {
+        int size = buf.readInt();
+        StreamTailMap map = new StreamTailMap(size);
+        long previous = 0L;
+        for (int i = 0; i < size; i++) {
+            UUID streamId = new UUID(buf.readLong(), buf.readLong());
+            previous += readVarLong(buf);
+            map.put(streamId, previous, previous);
+        }
+        return map;
+    }
+
+    /**
+     * Writes a long as a zigzag variable-length integer, so that small negative deltas, such
+     * as the first one from a negative address, are short too.
+     */
+    static void writeVarLong(ByteBuf buf, long value) {
+        long zigzag = (value << 1) ^ (value >> (Long.SIZE - 1));
+        while ((zigzag & ~VARINT_MASK) != 0L) {
+            buf.writeByte((int) ((zigzag & VARINT_MASK) | VARINT_CONTINUE));
+            zigzag >>>= VARINT_SHIFT;
+        }
+        buf.writeByte((int) zigzag);
+    }
+
+    static long readVarLong(ByteBuf buf) {
+        long zigzag = 0L;
+        int shift = 0;
+        byte b;
+        do {
+            b = buf.readByte();
+            zigzag |= (long) (b & VARINT_MASK) << shift;
+            shift += VARINT_SHIFT;
+        } while ((b & VARINT_CONTINUE) != 0);
+        return (zigzag >>> 1) ^ -(zigzag & 1);
+    }
+
+    @Override
+    public String toString() {
+        return "StreamTailMap[size=" + size() + "]";
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof StreamTailMap)) {
+            return false;
+        }
+        StreamTailMap other = (StreamTailMap) o;
+        if (other.size() != size()) {
+            return false;
+        }
+        boolean[] equal = {true};
+        forEach((streamId, address) -> {
+            if (!other.containsKey(streamId) || other.get(streamId, address) != address) {
+                equal[0] = false;
+            }
+        });
+        return equal[0];
+    }
+
+    @Override
+    public int hashCode() {
+        long[] hash = {0L};
+        forEach((streamId, address) -> hash[0] += streamId.hashCode() ^ Long.hashCode(address));
+        return Long.hashCode(hash[0]);
+    }
+}
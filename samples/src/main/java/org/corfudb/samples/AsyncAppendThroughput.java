@@ -0,0 +1,74 @@
+package org.corfudb.samples;
+
+import org.corfudb.runtime.CorfuRuntime;
+
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Semaphore;
+
+/**
+ * Appending to a stream with {@code StreamsView.append} blocks the calling thread
+ * for a sequencer round trip and for the writes down the replication chain, so a
+ * single thread has at most one append in flight.
+ *
+ * This program compares the throughput of a single thread appending to a stream,
+ *   - synchronously, with StreamsView.append,
+ *   - asynchronously, with StreamsView.appendAsync, keeping up to a fixed number
+ *     of appends in flight from the same thread.
+ *
+ * The asynchronous appends compose the token acquisition and the writes on futures,
+ * so the thread only waits when the window of in-flight appends is full.
+ */
+public class AsyncAppendThroughput extends BaseCorfuAppUtils {
+    /**
+     * main() and standard setup methods are deferred to BaseCorfuAppUtils
+     * @return
+     */
+    static BaseCorfuAppUtils selfFactory() { return new AsyncAppendThroughput(); }
+    public static void main(String[] args) { selfFactory().start(args); }
+
+    private final int numAppends = 10_000;
+    private final int maxInFlight = 256;
+    private final byte[] payload = new byte[128];
+
+    /**
+     * this method initiates activity
+     */
+    @Override
+    void action() {
+        syncAppends();
+        asyncAppends();
+    }
+
+    @SuppressWarnings("checkstyle:printLine") // Sample code
+    void syncAppends() {
+        UUID stream = CorfuRuntime.getStreamID("sync");
+
+        long startt = System.currentTimeMillis();
+        for (int i = 0; i < numAppends; i++) {
+            getCorfuRuntime().getStreamsView().append(payload, null, stream);
+        }
+        long endt = System.currentTimeMillis();
+        System.out.println("synchronous appends per second, 1 in flight: "
+                + numAppends * 1000L / Math.max(1, endt - startt));
+    }
+
+    @SuppressWarnings("checkstyle:printLine") // Sample code
+    void asyncAppends() {
+        UUID stream = CorfuRuntime.getStreamID("async");
+        Semaphore window = new Semaphore(maxInFlight);
+
+        long startt = System.currentTimeMillis();
+        CompletableFuture<?>[] appends = new CompletableFuture<?>[numAppends];
+        for (int i = 0; i < numAppends; i++) {
+            window.acquireUninterruptibly();
+            appends[i] = getCorfuRuntime().getStreamsView()
+                    .appendAsync(payload, null, stream)
+                    .whenComplete((address, ex) -> window.release());
+        }
+        CompletableFuture.allOf(appends).join();
+        long endt = System.currentTimeMillis();
+        System.out.println("asynchronous appends per second, " + maxInFlight + " in flight: "
+                + numAppends * 1000L / Math.max(1, endt - startt));
+    }
+}
@@ -0,0 +1,61 @@
+package org.corfudb.samples;
+
+import org.corfudb.runtime.BootstrapUtil;
+import org.corfudb.runtime.CorfuRuntime;
+import org.corfudb.runtime.CorfuRuntime.CorfuRuntimeParameters;
+import org.corfudb.runtime.view.Layout;
+import org.corfudb.runtime.view.Layout.LayoutSegment;
+import org.corfudb.runtime.view.Layout.LayoutStripe;
+import org.corfudb.runtime.view.Layout.ReplicationMode;
+
+import java.time.Duration;
+import java.util.Collections;
+import java.util.List;
+import java.util.UUID;
+import java.util.function.Consumer;
+
+/**
+ * Bootstraps the cluster a benchmark runs against, on servers which were started
+ * without a layout, for instance with "corfu_server -m <port>" on each host.
+ *
+ * Each server is a layout server and a sequencer, the first one being the primary
+ * sequencer, and the log is a single stripe replicated on the given log units.
+ * The servers must be restarted before bootstrapping another layout.
+ */
+final class BenchmarkCluster {
+
+    private static final int BOOTSTRAP_RETRIES = 10;
+    private static final Duration BOOTSTRAP_RETRY_RATE = Duration.ofSeconds(1);
+
+    private BenchmarkCluster() {
+    }
+
+    /**
+     * Bootstraps the layout and its sequencers, and connects a runtime to it.
+     *
+     * @param servers    The endpoints of the servers.
+     * @param mode       The replication mode of the log.
+     * @param logUnits   The endpoints of the log units, from the head of the chain.
+     * @param customizer Customizes the layout before it is bootstrapped.
+     * @return A runtime connected to the cluster.
+     */
+    static CorfuRuntime bootstrap(List<String> servers, ReplicationMode mode,
+                                  List<String> logUnits, Consumer<Layout> customizer) {
+        Layout layout = new Layout(servers, servers, Collections.singletonList(
+                new LayoutSegment(mode, 0L, -1L,
+                        Collections.singletonList(new LayoutStripe(logUnits)))),
+                0L, UUID.randomUUID());
+        customizer.accept(layout);
+        BootstrapUtil.bootstrap(layout, BOOTSTRAP_RETRIES, BOOTSTRAP_RETRY_RATE);
+
+        CorfuRuntime runtime = CorfuRuntime.fromParameters(
+                CorfuRuntimeParameters.builder().build());
+        servers.forEach(runtime::addLayoutServer);
+        runtime.connect();
+
+        // The management servers would bootstrap the sequencers once they find them
+        // not ready, which takes several failure detection rounds.
+        runtime.getLayoutManagementView().reconfigureSequencerServers(layout, layout, true);
+        return runtime;
+    }
+}
@@ -0,0 +1,66 @@
+package org.corfudb.samples;
+
+import com.codahale.metrics.Histogram;
+import com.codahale.metrics.Snapshot;
+import com.codahale.metrics.UniformReservoir;
+import org.corfudb.runtime.CorfuRuntime;
+
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Chain replication writes the head of the chain, and then every other member of
+ * the chain one after the other, so the latency of a write grows with the
+ * replication factor. With chainFanOutEnabled, the members between the head and the
+ * tail are written in parallel, and a write takes three round trips whatever the
+ * length of the chain.
+ *
+ * This program measures the latency of appends to a chain replicated log,
+ * with and without fan-out, and prints the median and the 99th percentile.
+ * Run it against layouts with 3 and 5 log units per stripe to compare the
+ * replication factors.
+ */
+public class ChainFanOutLatency extends BaseCorfuAppUtils {
+    /**
+     * main() and standard setup methods are deferred to BaseCorfuAppUtils
+     * @return
+     */
+    static BaseCorfuAppUtils selfFactory() { return new ChainFanOutLatency(); }
+    public static void main(String[] args) { selfFactory().start(args); }
+
+    private final int numWarmup = 1_000;
+    private final int numAppends = 10_000;
+    private final byte[] payload = new byte[128];
+
+    /**
+     * this method initiates activity
+     */
+    @Override
+    void action() {
+        measure(false);
+        measure(true);
+    }
+
+    @SuppressWarnings("checkstyle:printLine") // Sample code
+    void measure(boolean fanOut) {
+        getCorfuRuntime().getParameters().setChainFanOutEnabled(fanOut);
+        UUID stream = CorfuRuntime.getStreamID("latency-" + fanOut);
+        Histogram latency = new Histogram(new UniformReservoir(numAppends));
+
+        for (int i = 0; i < numWarmup + numAppends; i++) {
+            long start = System.nanoTime();
+            getCorfuRuntime().getStreamsView().append(payload, null, stream);
+            if (i >= numWarmup) {
+                latency.update(System.nanoTime() - start);
+            }
+        }
+
+        Snapshot snapshot = latency.getSnapshot();
+        System.out.println("fan-out " + fanOut + ", replication factor "
+                + getCorfuRuntime().getLayoutView().getLayout().getSegments().get(0)
+                        .getStripes().get(0).getLogServers().size()
+                + ": p50 " + TimeUnit.NANOSECONDS.toMicros((long) snapshot.getMedian())
+                + "us, p99 " + TimeUnit.NANOSECONDS.toMicros((long) snapshot.get99thPercentile())
+                + "us");
+    }
+}
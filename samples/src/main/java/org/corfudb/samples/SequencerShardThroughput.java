@@ -0,0 +1,100 @@
+package org.corfudb.samples;
+
+import org.corfudb.runtime.CorfuRuntime;
+import org.corfudb.runtime.view.Layout;
+import org.corfudb.runtime.view.Layout.ReplicationMode;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Measures the token throughput of a sharded sequencer, from several clients issuing
+ * tokens on streams spread evenly over the shards.
+ *
+ * Start one server per sequencer shard, each on its own host, without a layout
+ * ("corfu_server -m <port>"), then run:
+ *
+ *   SequencerShardThroughput <shards> <clients> <seconds> <tokens-per-query> <endpoint>...
+ *
+ * The first <shards> endpoints are the sequencer shards, and the first endpoint is
+ * the log unit. Each client has its own runtime, and therefore its own connections.
+ * Every client also queries the global tail, as a transaction does for its snapshot, once
+ * every <tokens-per-query> tokens, or never if it is 0. Compare the throughput with 1, 2
+ * and 4 shards, restarting the servers in between.
+ *
+ * Measured on a single host with 1 CPU core, 4 in-memory servers on localhost and
+ * 8 clients for 20s each, in tokens/s:
+ *
+ *   tokens per query     0             10            10, when queries took the leases
+ *   shards 1:            20288         16123, 9425
+ *   shards 2:            18165         11881, 8948   4228, 5663
+ *   shards 4:            5374, 3180    5497, 3350    2077
+ *
+ * Every server and client shares the same core there, so these numbers cannot show
+ * any scaling, and vary widely between runs; more shards were slower. Whether the
+ * throughput grows with the shards on separate sequencer hosts is unverified.
+ */
+public class SequencerShardThroughput {
+
+    private static final int NUM_ARGS = 5;
+
+    @SuppressWarnings("checkstyle:printLine") // Sample code
+    public static void main(String[] args) throws Exception {
+        if (args.length < NUM_ARGS) {
+            System.out.println("Usage: SequencerShardThroughput <shards> <clients> <seconds>"
+                    + " <tokens-per-query> <endpoint>...");
+            return;
+        }
+        final int numShards = Integer.parseInt(args[0]);
+        final int numClients = Integer.parseInt(args[1]);
+        final long duration = TimeUnit.SECONDS.toNanos(Long.parseLong(args[2]));
+        final int tokensPerQuery = Integer.parseInt(args[3]);
+        final List<String> servers = Arrays.asList(args).subList(NUM_ARGS - 1, args.length);
+
+        CorfuRuntime bootstrapRuntime = BenchmarkCluster.bootstrap(servers,
+                ReplicationMode.CHAIN_REPLICATION, servers.subList(0, 1),
+                layout -> layout.setSequencerShards(
+                        new ArrayList<>(servers.subList(0, numShards))));
+        bootstrapRuntime.shutdown();
+
+        AtomicLong tokens = new AtomicLong();
+        List<Thread> clients = new ArrayList<>();
+        for (int i = 0; i < numClients; i++) {
+            final UUID stream = getStreamOfShard(i % numShards, numShards);
+            CorfuRuntime runtime = new CorfuRuntime(servers.get(0)).connect();
+            clients.add(new Thread(() -> {
+                final long end = System.nanoTime() + duration;
+                long issued = 0;
+                while (System.nanoTime() < end) {
+                    runtime.getSequencerView().next(stream);
+                    tokens.incrementAndGet();
+                    if (tokensPerQuery > 0 && ++issued % tokensPerQuery == 0) {
+                        runtime.getSequencerView().query();
+                    }
+                }
+                runtime.shutdown();
+            }));
+        }
+
+        clients.forEach(Thread::start);
+        for (Thread client : clients) {
+            client.join();
+        }
+        System.out.println("shards " + numShards + ", clients " + numClients
+                + ", tokens per query " + tokensPerQuery + ": "
+                + tokens.get() / TimeUnit.NANOSECONDS.toSeconds(duration) + " tokens/s");
+    }
+
+    /** Returns a new stream owned by the given shard. */
+    private static UUID getStreamOfShard(int shard, int numShards) {
+        UUID stream = UUID.randomUUID();
+        while (Layout.getShardIndex(stream, numShards) != shard) {
+            stream = UUID.randomUUID();
+        }
+        return stream;
+    }
+}
@@ -7,12 +7,14 @@ import org.corfudb.infrastructure.log.StreamLogFiles;
 import org.corfudb.protocols.wireprotocol.*;
 import org.corfudb.runtime.CorfuRuntime;
 import org.corfudb.runtime.view.Address;
+import org.corfudb.util.Sleep;
 import org.corfudb.util.serializer.Serializers;
 import org.junit.Test;
 
 import java.io.File;
 import java.io.IOException;
 import java.io.RandomAccessFile;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.Random;
 import java.util.HashMap;
@@ -421,6 +423,96 @@ public class LogUnitServerTest extends AbstractServerTest {
         assertThat(s1).hasCorrectCacheSize(randomCacheRatio);
     }
 
+    @Test
+    public void readsOfCachedAddressesAreNonBlocking() {
+        final long cachedAddress = 0L;
+        final long missingAddress = 1L;
+        LogUnitServer s1 = new LogUnitServer(new ServerContextBuilder().build());
+        this.router.reset();
+        this.router.addServer(s1);
+        rawWrite(cachedAddress, "0", "a");
+
+        assertThat(s1.isNonBlocking(CorfuMsgType.TAIL_REQUEST.msg())).isTrue();
+        assertThat(s1.isNonBlocking(CorfuMsgType.READ_REQUEST
+                .payloadMsg(new ReadRequest(cachedAddress)))).isTrue();
+        assertThat(s1.isNonBlocking(CorfuMsgType.READ_REQUEST
+                .payloadMsg(new ReadRequest(missingAddress)))).isFalse();
+        assertThat(s1.isNonBlocking(CorfuMsgType.MULTIPLE_READ_REQUEST
+                .payloadMsg(new MultipleReadRequest(
+                        Arrays.asList(cachedAddress, missingAddress))))).isFalse();
+        assertThat(s1.isNonBlocking(CorfuMsgType.COMPACT_REQUEST.msg())).isFalse();
+    }
 
-}
+    @Test
+    public void readWaitIsAnsweredWhenAddressIsWritten() {
+        final long writtenAddress = 0L;
+        final long missingAddress = 1L;
+        LogUnitServer s1 = new LogUnitServer(new ServerContextBuilder().build());
+        this.router.reset();
+        this.router.addServer(s1);
+
+        // The read is held until the address is written.
+        sendMessage(CorfuMsgType.READ_WAIT_REQUEST.payloadMsg(
+                new ReadWaitRequest(writtenAddress, PARAMETERS.TIMEOUT_LONG.toMillis())));
+        assertThat(getResponseMessages()).isEmpty();
+        rawWrite(writtenAddress, "0", "a");
+        assertThat(getLastMessage().getMsgType()).isEqualTo(CorfuMsgType.READ_RESPONSE);
+        assertThat(getLastPayloadMessageAs(ReadResponse.class).getAddresses()
+                .get(writtenAddress).getType()).isEqualTo(DataType.DATA);
+
+        // A read of an address which is not written is answered empty after its timeout.
+        final int expectedResponses = 3;
+        sendMessage(CorfuMsgType.READ_WAIT_REQUEST.payloadMsg(
+                new ReadWaitRequest(missingAddress, PARAMETERS.TIMEOUT_VERY_SHORT.toMillis())));
+        final long deadline = System.currentTimeMillis() + PARAMETERS.TIMEOUT_LONG.toMillis();
+        while (getResponseMessages().size() < expectedResponses
+                && System.currentTimeMillis() < deadline) {
+            Sleep.sleepUninterruptibly(PARAMETERS.TIMEOUT_VERY_SHORT);
+        }
+        assertThat(getLastPayloadMessageAs(ReadResponse.class).getAddresses()
+                .get(missingAddress).isEmpty()).isTrue();
+    }
+
+    @Test
+    public void watchTailIsAnsweredWhenTailChanges() {
+        final long writtenAddress = 0L;
+        LogUnitServer s1 = new LogUnitServer(new ServerContextBuilder().build());
+        this.router.reset();
+        this.router.addServer(s1);
 
+        sendMessage(CorfuMsgType.TAIL_REQUEST.msg());
+        final long tail = getLastPayloadMessageAs(Long.class);
+        sendMessage(CorfuMsgType.TRIM_MARK_REQUEST.msg());
+        final long trimMark = getLastPayloadMessageAs(Long.class);
+
+        // The watch is held until the tail changes, and answered after the interval.
+        final int heldResponses = 2;
+        sendMessage(CorfuMsgType.TAIL_WATCH_REQUEST.payloadMsg(new TailWatchRequest(tail,
+                trimMark, PARAMETERS.TIMEOUT_VERY_SHORT.toMillis(),
+                PARAMETERS.TIMEOUT_LONG.toMillis())));
+        assertThat(getResponseMessages()).hasSize(heldResponses);
+        rawWrite(writtenAddress, "0", "a");
+        final int answeredResponses = 4;
+        waitForResponses(answeredResponses);
+        assertThat(getLastMessage().getMsgType()).isEqualTo(CorfuMsgType.TAIL_WATCH_RESPONSE);
+        assertThat(getLastPayloadMessageAs(TailWatchResponse.class))
+                .isEqualTo(new TailWatchResponse(writtenAddress, trimMark));
+
+        // A watch without changes is answered with the same values after its timeout.
+        final int expiredResponses = 5;
+        sendMessage(CorfuMsgType.TAIL_WATCH_REQUEST.payloadMsg(new TailWatchRequest(
+                writtenAddress, trimMark, PARAMETERS.TIMEOUT_VERY_SHORT.toMillis(),
+                PARAMETERS.TIMEOUT_VERY_SHORT.toMillis())));
+        waitForResponses(expiredResponses);
+        assertThat(getLastPayloadMessageAs(TailWatchResponse.class))
+                .isEqualTo(new TailWatchResponse(writtenAddress, trimMark));
+    }
+
+    private void waitForResponses(int expectedResponses) {
+        final long deadline = System.currentTimeMillis() + PARAMETERS.TIMEOUT_LONG.toMillis();
+        while (getResponseMessages().size() < expectedResponses
+                && System.currentTimeMillis() < deadline) {
+            Sleep.sleepUninterruptibly(PARAMETERS.TIMEOUT_VERY_SHORT);
+        }
+    }
+}
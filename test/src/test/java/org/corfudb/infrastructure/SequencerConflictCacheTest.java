@@ -0,0 +1,66 @@
+package org.corfudb.infrastructure;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.google.common.util.concurrent.MoreExecutors;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.corfudb.runtime.view.Address;
+import org.junit.Test;
+
+public class SequencerConflictCacheTest {
+
+    private final AtomicLong maxEvicted = new AtomicLong(Address.NON_ADDRESS);
+
+    private SequencerConflictCache newCache(long maxSize) {
+        return new SequencerConflictCache(maxSize,
+                address -> maxEvicted.accumulateAndGet(address, Math::max),
+                MoreExecutors.newDirectExecutorService());
+    }
+
+    /** Test that a trim spanning several buckets evicts exactly the entries below it. */
+    @Test
+    public void trimEvictsEntriesBelowTrimMark() {
+        final int numEntries = 10_000;
+        final long trimMark = 4_321;
+        SequencerConflictCache cache = newCache(numEntries);
+        for (int i = 0; i < numEntries; i++) {
+            cache.put("key" + i, i);
+        }
+
+        assertThat(cache.trim(trimMark)).isEqualTo(trimMark);
+        assertThat(cache.size()).isEqualTo(numEntries - trimMark);
+        assertThat(cache.toMap()).hasSize(numEntries - (int) trimMark);
+        assertThat(cache.getIfPresent("key" + (trimMark - 1))).isNull();
+        assertThat(cache.getIfPresent("key" + trimMark)).isEqualTo(trimMark);
+        assertThat(maxEvicted.get()).isEqualTo(trimMark - 1);
+
+        // An entry written again after the trim mark is kept.
+        cache.put("key0", numEntries);
+        assertThat(cache.getIfPresent("key0")).isEqualTo(numEntries);
+        assertThat(cache.trim(trimMark)).isZero();
+        assertThat(cache.size()).isEqualTo(numEntries - trimMark + 1);
+    }
+
+    /** Test that a full cache evicts the oldest bucket first. */
+    @Test
+    public void sizeEvictionPrefersOldestEntries() {
+        final int maxSize = 100;
+        final long oldAddress = 0;
+        final long newAddress = 1_000_000;
+        SequencerConflictCache cache = newCache(maxSize);
+        cache.put("old", oldAddress);
+        for (int i = 0; i < maxSize; i++) {
+            cache.put("new" + i, newAddress + i);
+        }
+
+        assertThat(cache.size()).isEqualTo(maxSize);
+        assertThat(cache.getIfPresent("old")).isNull();
+        assertThat(maxEvicted.get()).isEqualTo(oldAddress);
+
+        // Moving an entry to a newer bucket does not grow the cache.
+        cache.put("new0", newAddress + maxSize);
+        assertThat(cache.size()).isEqualTo(maxSize);
+    }
+}
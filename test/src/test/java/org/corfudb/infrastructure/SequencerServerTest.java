@@ -1,12 +1,16 @@
 package org.corfudb.infrastructure;
 
 import org.corfudb.protocols.wireprotocol.*;
+import org.corfudb.runtime.view.Address;
+import org.corfudb.runtime.view.Layout;
+import org.corfudb.util.Sleep;
 import org.junit.Before;
 import org.junit.Test;
 
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.Set;
 import java.util.UUID;
 
 import static org.assertj.core.api.Assertions.assertThat;
@@ -229,4 +233,90 @@ public class SequencerServerTest extends AbstractServerTest {
                 new TokenRequest(0L, Collections.singletonList(streamC))));
         assertThat(getLastPayloadMessageAs(TokenResponse.class).getToken().getTokenValue()).isEqualTo(newTailC);
     }
+
+    /**
+     * Verifies that a sequencer bootstrapped from a snapshot of a primary sequencer keeps the
+     * conflict cache of that primary, and conservatively aborts transactions on streams written
+     * after the snapshot.
+     */
+    @Test
+    public void sequencerBootstrapFromSnapshot() {
+        UUID streamA = UUID.nameUUIDFromBytes("streamA".getBytes());
+        UUID streamB = UUID.nameUUIDFromBytes("streamB".getBytes());
+        byte[] conflictParam = "key".getBytes();
+        Map<UUID, Set<byte[]>> conflictMap =
+                Collections.singletonMap(streamA, Collections.singleton(conflictParam));
+        Map<UUID, Set<byte[]>> conflictMapB =
+                Collections.singletonMap(streamB, Collections.singleton(conflictParam));
+
+        // Commit a transaction which updates the conflict key on streamA.
+        sendMessage(new CorfuPayloadMsg<>(CorfuMsgType.TOKEN_REQ,
+                new TokenRequest(1L, Collections.singletonList(streamA),
+                        new TxResolutionInfo(UUID.randomUUID(), Address.NON_ADDRESS,
+                                conflictMap, conflictMap))));
+        long commitAddress = getLastPayloadMessageAs(TokenResponse.class).getTokenValue();
+
+        // The snapshot is sent from the snapshot executor of the sequencer.
+        sendMessage(CorfuMsgType.SEQUENCER_SNAPSHOT_REQUEST.msg());
+        while (getLastMessage().getMsgType() != CorfuMsgType.SEQUENCER_SNAPSHOT_RESPONSE) {
+            Sleep.MILLISECONDS.sleepUninterruptibly(1);
+        }
+        SequencerSnapshot snapshot = getLastPayloadMessageAs(SequencerSnapshot.class);
+        assertThat(snapshot.getGlobalTail()).isEqualTo(commitAddress + 1);
+        assertThat(snapshot.getStreamTails().get(streamA, Address.NON_EXIST))
+                .isEqualTo(commitAddress);
+        assertThat(snapshot.getConflictTails().size()).isEqualTo(1);
+
+        // The stream tails of the snapshot are not affected by later tokens.
+        sendMessage(new CorfuPayloadMsg<>(CorfuMsgType.TOKEN_REQ,
+                new TokenRequest(1L, Collections.singletonList(streamA))));
+        assertThat(snapshot.getStreamTails().get(streamA, Address.NON_EXIST))
+                .isEqualTo(commitAddress);
+
+        // Simulate a failover to a standby holding the snapshot, with streamB written after it.
+        server.setSequencerEpoch(Layout.INVALID_EPOCH);
+        sendMessage(CorfuMsgType.SEQUENCER_SNAPSHOT_INSTALL.payloadMsg(snapshot));
+        assertThat(getLastMessage().getMsgType()).isEqualTo(CorfuMsgType.ACK);
+        sendMessage(CorfuMsgType.SEQUENCER_STANDBY_SNAPSHOT_REQUEST.msg());
+        assertThat(getLastPayloadMessageAs(SequencerSnapshot.class).getGlobalTail())
+                .isEqualTo(snapshot.getGlobalTail());
+
+        final long gapAddress = snapshot.getGlobalTail();
+        final long initialToken = gapAddress + 1;
+        sendMessage(CorfuMsgType.BOOTSTRAP_SEQUENCER.payloadMsg(new SequencerTailsRecoveryMsg(
+                initialToken, Collections.singletonMap(streamB, gapAddress), 0L, false,
+                snapshot.getGlobalTail() + 1)));
+        assertThat(getLastMessage().getMsgType()).isEqualTo(CorfuMsgType.NACK);
+        sendMessage(CorfuMsgType.BOOTSTRAP_SEQUENCER.payloadMsg(new SequencerTailsRecoveryMsg(
+                initialToken, Collections.singletonMap(streamB, gapAddress), 0L, false,
+                snapshot.getGlobalTail())));
+        assertThat(getLastMessage().getMsgType()).isEqualTo(CorfuMsgType.ACK);
+
+        sendMessage(new CorfuPayloadMsg<>(CorfuMsgType.TOKEN_REQ,
+                new TokenRequest(0L, Collections.singletonList(streamA))));
+        assertThat(getLastPayloadMessageAs(TokenResponse.class).getTokenValue())
+                .isEqualTo(commitAddress);
+
+        // The conflict on streamA is known precisely from the snapshot.
+        sendMessage(new CorfuPayloadMsg<>(CorfuMsgType.TOKEN_REQ,
+                new TokenRequest(1L, Collections.singletonList(streamA),
+                        new TxResolutionInfo(UUID.randomUUID(), commitAddress - 1,
+                                conflictMap, conflictMap))));
+        assertThat(getLastPayloadMessageAs(TokenResponse.class).getRespType())
+                .isEqualTo(TokenType.TX_ABORT_CONFLICT);
+        sendMessage(new CorfuPayloadMsg<>(CorfuMsgType.TOKEN_REQ,
+                new TokenRequest(1L, Collections.singletonList(streamA),
+                        new TxResolutionInfo(UUID.randomUUID(), commitAddress,
+                                conflictMap, conflictMap))));
+        assertThat(getLastPayloadMessageAs(TokenResponse.class).getRespType())
+                .isEqualTo(TokenType.NORMAL);
+
+        // The conflict parameters of streamB written after the snapshot are unknown.
+        sendMessage(new CorfuPayloadMsg<>(CorfuMsgType.TOKEN_REQ,
+                new TokenRequest(1L, Collections.singletonList(streamB),
+                        new TxResolutionInfo(UUID.randomUUID(), gapAddress - 1,
+                                conflictMapB, conflictMapB))));
+        assertThat(getLastPayloadMessageAs(TokenResponse.class).getRespType())
+                .isEqualTo(TokenType.TX_ABORT_NEWSEQ);
+    }
 }
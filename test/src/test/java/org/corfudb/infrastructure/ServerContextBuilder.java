@@ -33,6 +33,8 @@ public class ServerContextBuilder {
     String truststorePasswordFile = "";
 
     String implementation = "local";
+    boolean busyPoll = false;
+    boolean tcpQuickAck = false;
 
     String cacheSizeHeapRatio = "0.5";
     String address = "test";
@@ -84,6 +86,8 @@ public class ServerContextBuilder {
                  .put("--enable-sasl-plain-text-auth", saslPlainTextAuth)
                  .put("--cluster-id", clusterId)
                  .put("--implementation", implementation)
+                 .put("--busy-poll", busyPoll)
+                 .put("--tcp-quickack", tcpQuickAck)
                  .put("<port>", port);
 
         // Set the prefix to the port number
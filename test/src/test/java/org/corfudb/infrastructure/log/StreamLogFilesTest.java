@@ -23,6 +23,7 @@ import org.corfudb.format.Types;
 import org.corfudb.format.Types.Metadata;
 import org.corfudb.infrastructure.ServerContext;
 import org.corfudb.infrastructure.ServerContextBuilder;
+import org.corfudb.protocols.wireprotocol.CompressionCodec;
 import org.corfudb.protocols.wireprotocol.DataType;
 import org.corfudb.protocols.wireprotocol.ILogData;
 import org.corfudb.protocols.wireprotocol.LogData;
@@ -72,6 +73,26 @@ public class StreamLogFilesTest extends AbstractCorfuTest {
         assertThat(log.read(address0).getPayload(null)).isEqualTo(streamEntry);
     }
 
+    /** Test that a compressed payload is stored and served compressed. */
+    @Test
+    public void testWriteReadCompressedPayload() throws Exception {
+        final int payloadSize = 4096;
+        StreamLog log = new StreamLogFiles(getContext(), false);
+        byte[] streamEntry = new byte[payloadSize];
+        Arrays.fill(streamEntry, (byte) 'a');
+        LogData logData = new LogData(DataType.DATA, streamEntry);
+        logData.compressPayload(CompressionCodec.SNAPPY, 0);
+        long address0 = 0;
+        log.append(address0, logData);
+        log.sync(true);
+
+        StreamLog newLog = new StreamLogFiles(getContext(), false);
+        LogData readData = newLog.read(address0);
+        assertThat(readData.getPayloadCodec()).isEqualTo(CompressionCodec.SNAPPY);
+        assertThat(readData.getData().length).isLessThan(payloadSize);
+        assertThat(readData.getPayload(null)).isEqualTo(streamEntry);
+    }
+
     @Test
     public void testBatchWrite() throws Exception {
         ServerContext sc = getContext();
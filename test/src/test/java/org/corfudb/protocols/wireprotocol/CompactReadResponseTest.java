@@ -0,0 +1,84 @@
+package org.corfudb.protocols.wireprotocol;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.google.common.collect.Range;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+
+import java.util.Arrays;
+
+import org.junit.Test;
+
+public class CompactReadResponseTest {
+
+    /** Test that addresses are read back from their runs. */
+    @Test
+    public void requestRoundTrip() {
+        final long start = 1_000_000L;
+        final long end = 1_000_999L;
+        final int runBytes = Long.BYTES + Integer.BYTES;
+
+        CompactReadRequest range = new CompactReadRequest(Range.closed(start, end));
+        ByteBuf buf = Unpooled.buffer();
+        range.doSerialize(buf);
+        assertThat(buf.readableBytes()).isEqualTo(Integer.BYTES + runBytes);
+        CompactReadRequest deserialized = new CompactReadRequest(buf);
+        assertThat(deserialized.getAddresses()).hasSize((int) (end - start + 1));
+        assertThat(deserialized.getAddresses()[0]).isEqualTo(start);
+
+        final long a = 1L;
+        final long b = 2L;
+        final long c = 3L;
+        final long d = 9L;
+        CompactReadRequest list = new CompactReadRequest(Arrays.asList(d, b, c, b, a));
+        buf = Unpooled.buffer();
+        list.doSerialize(buf);
+        assertThat(buf.readableBytes()).isEqualTo(Integer.BYTES + 2 * runBytes);
+        assertThat(new CompactReadRequest(buf).getAddresses()).containsExactly(a, b, c, d);
+    }
+
+    /** Test that a response is read back in address order, and is smaller than a v1 one. */
+    @Test
+    public void responseRoundTrip() {
+        final int numAddresses = 1_000;
+        final int dataEvery = 10;
+        final int trimmedBelow = 100;
+        CompactReadResponse response = new CompactReadResponse();
+        ReadResponse v1 = new ReadResponse();
+        for (long i = numAddresses - 1; i >= 0; i--) {
+            LogData logData;
+            if (i < trimmedBelow) {
+                logData = LogData.getTrimmed(i);
+            } else if (i % dataEvery == 0) {
+                logData = new LogData(DataType.DATA, new byte[] {(byte) i});
+                logData.setGlobalAddress(i);
+            } else {
+                logData = LogData.getEmpty(i);
+            }
+            response.put(i, logData);
+            v1.put(i, logData);
+        }
+
+        ByteBuf compact = Unpooled.buffer();
+        response.doSerialize(compact);
+        ByteBuf boxed = Unpooled.buffer();
+        v1.doSerialize(boxed);
+        assertThat(compact.readableBytes()).isLessThan(boxed.readableBytes());
+
+        CompactReadResponse deserialized = new CompactReadResponse(compact);
+        assertThat(compact.readableBytes()).isZero();
+        assertThat(deserialized.getAddresses()).hasSize(numAddresses);
+        long expected = 0;
+        for (Long address : deserialized.getAddresses().keySet()) {
+            assertThat(address).isEqualTo(expected++);
+        }
+        assertThat(deserialized.getAddresses().get(0L).isTrimmed()).isTrue();
+        assertThat(deserialized.getAddresses().get((long) trimmedBelow + 1).isEmpty()).isTrue();
+        LogData data = deserialized.getAddresses().get((long) trimmedBelow);
+        assertThat(data.getType()).isEqualTo(DataType.DATA);
+        assertThat(data.getGlobalAddress()).isEqualTo(trimmedBelow);
+        assertThat((byte[]) data.getPayload(null)).containsExactly((byte) trimmedBelow);
+    }
+}
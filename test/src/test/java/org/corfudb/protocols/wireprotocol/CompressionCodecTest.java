@@ -0,0 +1,79 @@
+package org.corfudb.protocols.wireprotocol;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import lombok.extern.slf4j.Slf4j;
+
+import org.junit.Test;
+
+@Slf4j
+public class CompressionCodecTest {
+
+    /**
+     * Returns a payload made of random words, larger than a Snappy chunk.
+     */
+    private byte[] getPayload() {
+        final int numWords = 50_000;
+        final String[] words = {"corfu", "stream", "address", "token", "sequencer", "log"};
+        Random random = new Random(0);
+        StringBuilder builder = new StringBuilder();
+        for (int i = 0; i < numWords; i++) {
+            builder.append(words[random.nextInt(words.length)]).append(' ').append(i);
+        }
+        return builder.toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    /** Test that each codec decompresses what it compressed, and report its ratio and cost. */
+    @Test
+    public void compressionRoundTrip() {
+        byte[] payload = getPayload();
+        for (CompressionCodec codec : CompressionCodec.values()) {
+            long start = System.nanoTime();
+            byte[] compressed = codec.compress(payload);
+            long compressTime = System.nanoTime() - start;
+            start = System.nanoTime();
+            byte[] decompressed = codec.decompress(compressed);
+            long decompressTime = System.nanoTime() - start;
+
+            assertThat(decompressed).isEqualTo(payload);
+            if (codec != CompressionCodec.NONE) {
+                assertThat(compressed.length).isLessThan(payload.length);
+            }
+            log.info("{}: {} bytes compressed to {} (ratio {}), compressed in {} us, "
+                            + "decompressed in {} us", codec, payload.length, compressed.length,
+                    (double) payload.length / compressed.length,
+                    TimeUnit.NANOSECONDS.toMicros(compressTime),
+                    TimeUnit.NANOSECONDS.toMicros(decompressTime));
+        }
+    }
+
+    /** Test that a compressed log data payload is sent compressed, and read back. */
+    @Test
+    public void logDataCompressedPayload() {
+        final int threshold = 1024;
+        byte[] payload = getPayload();
+        LogData logData = new LogData(DataType.DATA, payload);
+        logData.compressPayload(CompressionCodec.DEFLATE, threshold);
+        assertThat(logData.getPayloadCodec()).isEqualTo(CompressionCodec.DEFLATE);
+
+        ByteBuf buf = Unpooled.buffer();
+        logData.doSerialize(buf);
+        assertThat(buf.readableBytes()).isLessThan(payload.length);
+        LogData deserialized = new LogData(buf);
+        assertThat(deserialized.getPayloadCodec()).isEqualTo(CompressionCodec.DEFLATE);
+        assertThat(deserialized.getPayload(null)).isEqualTo(payload);
+
+        // Small payloads are not compressed.
+        LogData small = new LogData(DataType.DATA, new byte[threshold / 2]);
+        small.compressPayload(CompressionCodec.DEFLATE, threshold);
+        assertThat(small.getPayloadCodec()).isEqualTo(CompressionCodec.NONE);
+        assertThat(small.getData()).isNull();
+    }
+}
@@ -0,0 +1,103 @@
+package org.corfudb.protocols.wireprotocol;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.UUID;
+
+import org.junit.Test;
+
+public class CorfuPayloadDecodingTest {
+
+    /** Test that each message type resolves the decoder of its payload once. */
+    @Test
+    public void payloadDecodersAreResolvedOnce() {
+        assertThat(CorfuMsgType.READ_RESPONSE.getPayloadConstructor())
+                .isSameAs(CorfuMsgType.READ_RESPONSE.getPayloadConstructor());
+
+        ByteBuf buf = Unpooled.buffer();
+        DataType.TRIMMED.doSerialize(buf);
+        assertThat(ICorfuPayload.fromBuffer(buf, DataType.class)).isEqualTo(DataType.TRIMMED);
+    }
+
+    /** Test that the generated decoders are registered for the annotated payloads. */
+    @Test
+    public void generatedDecodersAreRegistered() {
+        assertThat(CorfuPayloadCodecs.getDecoders().keySet())
+                .containsOnly(ReadResponse.class, TokenRequest.class, WriteRequest.class);
+        CorfuPayloadCodecs.getDecoders().keySet().forEach(payload ->
+                assertThat(ICorfuPayload.constructorMap).containsKey(payload));
+    }
+
+    /** Test that the generated token request codec writes only the fields of its type. */
+    @Test
+    public void tokenRequestsWriteTheFieldsOfTheirType() {
+        final long numTokens = 2L;
+        UUID streamId = UUID.randomUUID();
+
+        ByteBuf raw = Unpooled.buffer();
+        new TokenRequest(numTokens, Collections.emptyList()).doSerialize(raw);
+        assertThat(raw.readByte()).isEqualTo(TokenRequest.TK_RAW);
+        assertThat(raw.readLong()).isEqualTo(numTokens);
+        assertThat(raw.readableBytes()).isZero();
+
+        ByteBuf query = Unpooled.buffer();
+        new TokenRequest(0L, Collections.singletonList(streamId)).doSerialize(query);
+        assertThat(query.readByte()).isEqualTo(TokenRequest.TK_QUERY);
+        assertThat(query.readInt()).isEqualTo(1);
+        assertThat(new UUID(query.readLong(), query.readLong())).isEqualTo(streamId);
+        assertThat(query.readableBytes()).isZero();
+
+        query.resetReaderIndex();
+        TokenRequest decoded = TokenRequestCodec.decode(query);
+        assertThat(decoded.getReqType()).isEqualTo(TokenRequest.TK_QUERY);
+        assertThat(decoded.getNumTokens()).isZero();
+        assertThat(decoded.getStreams()).containsExactly(streamId);
+        assertThat(decoded.getTxnResolution()).isNull();
+    }
+
+    /** Test that the hot payloads are decoded through their message types. */
+    @Test
+    public void hotPayloadsRoundTrip() {
+        final long numTokens = 3L;
+        final long address = 10L;
+        UUID streamId = UUID.randomUUID();
+
+        TokenRequest tokenRequest = new TokenRequest(numTokens,
+                Collections.singletonList(streamId));
+        TokenRequest decodedToken = roundTrip(CorfuMsgType.TOKEN_REQ, tokenRequest);
+        assertThat(decodedToken.getNumTokens()).isEqualTo(numTokens);
+        assertThat(decodedToken.getStreams()).containsExactly(streamId);
+
+        LogData logData = new LogData(DataType.DATA, new byte[] {1, 2});
+        logData.setGlobalAddress(address);
+        logData.setBackpointerMap(Collections.singletonMap(streamId, address - 1));
+        WriteRequest decodedWrite = roundTrip(CorfuMsgType.WRITE, new WriteRequest(logData));
+        assertThat(decodedWrite.getWriteMode()).isEqualTo(WriteMode.NORMAL);
+        assertThat(decodedWrite.getData().getGlobalAddress()).isEqualTo(address);
+        assertThat(decodedWrite.getData().getBackpointerMap())
+                .containsEntry(streamId, address - 1);
+
+        ReadResponse readResponse = new ReadResponse();
+        readResponse.put(address, logData);
+        readResponse.put(address + 1, LogData.getEmpty(address + 1));
+        ReadResponse decodedRead = roundTrip(CorfuMsgType.READ_RESPONSE, readResponse);
+        assertThat(decodedRead.getAddresses().keySet())
+                .containsExactlyElementsOf(Arrays.asList(address, address + 1));
+        assertThat(decodedRead.getAddresses().get(address).getBackpointerMap())
+                .containsEntry(streamId, address - 1);
+    }
+
+    @SuppressWarnings("unchecked")
+    private <T> T roundTrip(CorfuMsgType type, T payload) {
+        ByteBuf buf = Unpooled.buffer();
+        type.payloadMsg(payload).serialize(buf);
+        CorfuPayloadMsg<T> msg = (CorfuPayloadMsg<T>) CorfuMsg.deserialize(buf);
+        assertThat(buf.readableBytes()).isZero();
+        return msg.getPayload();
+    }
+}
@@ -0,0 +1,107 @@
+package org.corfudb.protocols.wireprotocol;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.PooledByteBufAllocator;
+import io.netty.channel.embedded.EmbeddedChannel;
+
+import java.util.Map;
+
+import org.junit.Test;
+
+public class NettyCorfuMessageDecoderTest {
+
+    private static final int NUM_ENTRIES = 100;
+
+    private static final int PAYLOAD_SIZE = 1000;
+
+    private byte[] getPayload(long address) {
+        byte[] payload = new byte[PAYLOAD_SIZE];
+        payload[0] = (byte) address;
+        return payload;
+    }
+
+    /** Returns a read response, serialized into a pooled buffer. */
+    private ByteBuf getReadResponseFrame() {
+        ReadResponse rr = new ReadResponse();
+        for (long address = 0; address < NUM_ENTRIES; address++) {
+            LogData logData = new LogData(DataType.DATA, getPayload(address));
+            logData.setGlobalAddress(address);
+            rr.put(address, logData);
+        }
+        ByteBuf frame = PooledByteBufAllocator.DEFAULT.buffer();
+        CorfuMsgType.READ_RESPONSE.payloadMsg(rr).serialize(frame);
+        return frame;
+    }
+
+    /** Test that lazily decoded log data read their payloads from the inbound message. */
+    @Test
+    @SuppressWarnings("unchecked")
+    public void logDataAreDecodedLazily() {
+        EmbeddedChannel channel = new EmbeddedChannel(new NettyCorfuMessageDecoder(true));
+        ByteBuf frame = getReadResponseFrame();
+        final int frameSize = frame.capacity();
+        channel.writeInbound(frame);
+        CorfuPayloadMsg<ReadResponse> msg = channel.readInbound();
+        Map<Long, LogData> entries = msg.getPayload().getAddresses();
+
+        // The log data retain the inbound buffer, and their size estimates add up to it.
+        assertThat(frame.refCnt()).isPositive();
+        int sizeEstimates = entries.values().stream().mapToInt(LogData::getSizeEstimate).sum();
+        assertThat(sizeEstimates).isBetween(frameSize - NUM_ENTRIES, frameSize);
+
+        LogData first = entries.get(0L);
+        assertThat(first.getSizeEstimate()).isGreaterThanOrEqualTo(PAYLOAD_SIZE);
+        assertThat(first.getPayload(null)).isEqualTo(getPayload(0L));
+        assertThat(first.getGlobalAddress()).isEqualTo(0L);
+
+        // Serializing a lazily decoded log data writes the same bytes as the original.
+        LogData second = entries.get(1L);
+        ByteBuf serialized = PooledByteBufAllocator.DEFAULT.buffer();
+        second.doSerialize(serialized);
+        LogData copy = new LogData(serialized);
+        serialized.release();
+        assertThat(copy.getPayload(null)).isEqualTo(getPayload(1L));
+
+        // Released log data copy their payload out of the inbound message.
+        LogData third = entries.get(2L);
+        third.releaseBuffer();
+        assertThat(third.getData()).isNotNull();
+        assertThat(third.getPayload(null)).isEqualTo(getPayload(2L));
+
+        // Once all the log data no longer need it, the inbound buffer is released.
+        entries.values().forEach(LogData::detachBuffer);
+        assertThat(frame.refCnt()).isZero();
+        channel.finish();
+    }
+
+    /** Test that the lazy decoder does not retain the messages without log data. */
+    @Test
+    public void otherMessagesAreNotRetained() {
+        EmbeddedChannel channel = new EmbeddedChannel(new NettyCorfuMessageDecoder(true));
+        ByteBuf frame = PooledByteBufAllocator.DEFAULT.buffer();
+        CorfuMsgType.WRITE.payloadMsg(new WriteRequest(new LogData(DataType.DATA,
+                getPayload(0L)))).serialize(frame);
+        channel.writeInbound(frame);
+        CorfuPayloadMsg<WriteRequest> msg = channel.readInbound();
+
+        assertThat(frame.refCnt()).isZero();
+        assertThat(msg.getPayload().getData().getPayload(null)).isEqualTo(getPayload(0L));
+        channel.finish();
+    }
+
+    /** Test that the eager decoder still copies the payloads. */
+    @Test
+    @SuppressWarnings("unchecked")
+    public void logDataAreDecodedEagerly() {
+        EmbeddedChannel channel = new EmbeddedChannel(new NettyCorfuMessageDecoder());
+        channel.writeInbound(getReadResponseFrame());
+        CorfuPayloadMsg<ReadResponse> msg = channel.readInbound();
+
+        LogData first = msg.getPayload().getAddresses().get(0L);
+        assertThat(first.getData().length).isGreaterThan(PAYLOAD_SIZE);
+        assertThat(first.getPayload(null)).isEqualTo(getPayload(0L));
+        channel.finish();
+    }
+}
@@ -0,0 +1,60 @@
+package org.corfudb.protocols.wireprotocol;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.codahale.metrics.Histogram;
+import com.codahale.metrics.MetricRegistry;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.channel.embedded.EmbeddedChannel;
+import io.netty.handler.codec.LengthFieldPrepender;
+
+import org.junit.Test;
+
+public class NettyFlushMetricsHandlerTest {
+
+    /** Test that the messages and bytes written by a flush are measured. */
+    @Test
+    public void messagesPerFlushAreMeasured() {
+        final int numMessages = 10;
+        final String prefix = "test.";
+        MetricRegistry metrics = new MetricRegistry();
+        NettyFlushMetricsHandler flushMetricsHandler =
+                new NettyFlushMetricsHandler(metrics, prefix);
+        EmbeddedChannel channel = new EmbeddedChannel(flushMetricsHandler,
+                new LengthFieldPrepender(Integer.BYTES),
+                new NettyCorfuMessageEncoder(),
+                flushMetricsHandler.getMessageCounter());
+
+        for (int i = 0; i < numMessages; i++) {
+            channel.pipeline().write(CorfuMsgType.PING.msg());
+        }
+        channel.pipeline().flush();
+
+        Histogram messagesPerFlush = metrics.histogram(prefix + "messages-per-flush");
+        Histogram bytesPerFlush = metrics.histogram(prefix + "bytes-per-flush");
+        assertThat(messagesPerFlush.getCount()).isEqualTo(1);
+        assertThat(messagesPerFlush.getSnapshot().getMax()).isEqualTo(numMessages);
+
+        long bytes = 0;
+        ByteBuf frame;
+        while ((frame = channel.readOutbound()) != null) {
+            bytes += frame.readableBytes();
+            frame.release();
+        }
+        assertThat(bytesPerFlush.getSnapshot().getMax()).isEqualTo(bytes);
+        channel.finish();
+    }
+
+    /** Test that the encoder sizes its buffer from the size of the log data. */
+    @Test
+    public void encoderBufferIsSizedFromLogData() {
+        final int payloadSize = 100_000;
+        LogData logData = new LogData(DataType.DATA, new byte[payloadSize]);
+        logData.acquireBuffer();
+        CorfuMsg msg = CorfuMsgType.WRITE.payloadMsg(new WriteRequest(logData));
+        assertThat(NettyCorfuMessageEncoder.getSizeEstimate(msg))
+                .isGreaterThan(payloadSize);
+        logData.releaseBuffer();
+    }
+}
@@ -0,0 +1,47 @@
+package org.corfudb.protocols.wireprotocol;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+import org.corfudb.util.Utils;
+import org.junit.Test;
+
+public class TxResolutionInfoTest {
+
+    /** Test that equal hashes of conflict parameters are sent once, as packed fingerprints. */
+    @Test
+    public void conflictParamsAreDeduplicated() {
+        final long longParam = 42L;
+        final UUID streamId = UUID.randomUUID();
+        Set<byte[]> params = new HashSet<>(Arrays.asList("key".getBytes(), "key".getBytes(),
+                Utils.longToBigEndianByteArray(longParam)));
+        Map<UUID, Set<byte[]>> conflictMap = Collections.singletonMap(streamId, params);
+
+        TxResolutionInfo txInfo = new TxResolutionInfo(UUID.randomUUID(), 0L, conflictMap,
+                conflictMap);
+        assertThat(txInfo.getConflictSet().get(streamId))
+                .hasSize(2)
+                .contains(longParam)
+                .isSorted();
+
+        ByteBuf buf = Unpooled.buffer();
+        txInfo.doSerialize(buf);
+        TxResolutionInfo deserialized = new TxResolutionInfo(buf);
+        assertThat(buf.readableBytes()).isZero();
+        assertThat(deserialized.getConflictSet().get(streamId))
+                .isEqualTo(txInfo.getConflictSet().get(streamId));
+        assertThat(deserialized.getWriteConflictParams().get(streamId))
+                .isEqualTo(txInfo.getWriteConflictParams().get(streamId));
+        assertThat(TxResolutionInfo.fingerprintToBytes(longParam))
+                .isEqualTo(Utils.longToBigEndianByteArray(longParam));
+    }
+}
@@ -7,6 +7,7 @@ import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.fail;
 import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.Range;
 
 import io.netty.buffer.ByteBuf;
 import io.netty.buffer.Unpooled;
@@ -28,6 +29,7 @@ import org.corfudb.infrastructure.LogUnitServer;
 import org.corfudb.infrastructure.ServerContext;
 import org.corfudb.infrastructure.ServerContextBuilder;
 import org.corfudb.infrastructure.log.StreamLogFiles;
+import org.corfudb.protocols.wireprotocol.CorfuMsgType;
 import org.corfudb.protocols.wireprotocol.DataType;
 import org.corfudb.protocols.wireprotocol.ILogData;
 import org.corfudb.protocols.wireprotocol.IMetadata;
@@ -375,6 +377,39 @@ public class LogUnitHandlerTest extends AbstractClientTest {
         assertThat(resp.getAddresses().size()).isEqualTo(twoBatches);
     }
 
+    @Test
+    public void readsAreCompactOnlyIfSupported() throws Exception {
+        byte[] payload = "payload".getBytes();
+        final long numAddresses = 3;
+        for (long x = 0; x < numAddresses; x++) {
+            client.write(x, Collections.emptySet(), null, payload, Collections.emptyMap()).get();
+        }
+        List<Long> addresses = new ArrayList<>();
+        for (long x = 0; x < numAddresses; x++) {
+            addresses.add(x);
+        }
+        List<CorfuMsgType> sent = new ArrayList<>();
+        router.rules.add(new TestRule().matches(m -> {
+            sent.add(m.getMsgType());
+            return false;
+        }));
+
+        assertThat(client.read(addresses).get().getAddresses()).hasSize(addresses.size());
+        assertThat(client.read(Range.closed(0L, numAddresses - 1)).get().getAddresses())
+                .hasSize(addresses.size());
+        assertThat(sent).containsExactly(CorfuMsgType.COMPACT_READ_REQUEST,
+                CorfuMsgType.COMPACT_READ_REQUEST);
+
+        // A server which did not negotiate compact reads gets the former requests.
+        sent.clear();
+        router.setCompactReadSupported(false);
+        assertThat(client.read(addresses).get().getAddresses()).hasSize(addresses.size());
+        assertThat(client.read(Range.closed(0L, numAddresses - 1)).get().getAddresses())
+                .hasSize(addresses.size());
+        assertThat(sent).containsExactly(CorfuMsgType.MULTIPLE_READ_REQUEST,
+                CorfuMsgType.READ_REQUEST);
+    }
+
     @Test
     public void backpointersCanBeWrittenAndRead()
             throws Exception {
@@ -2,18 +2,29 @@ package org.corfudb.runtime.clients;
 
 import static org.assertj.core.api.Assertions.assertThat;
 
+import com.google.common.collect.Range;
 import io.netty.bootstrap.ServerBootstrap;
 import io.netty.channel.ChannelFuture;
+import io.netty.channel.EventLoopGroup;
+import io.netty.channel.nio.NioEventLoopGroup;
 import lombok.Data;
 import lombok.extern.slf4j.Slf4j;
 import org.corfudb.AbstractCorfuTest;
+import org.corfudb.comm.ChannelImplementation;
 import org.corfudb.infrastructure.BaseServer;
 import org.corfudb.infrastructure.CorfuServer;
 import org.corfudb.infrastructure.NettyServerRouter;
 import org.corfudb.infrastructure.ServerContext;
 import org.corfudb.infrastructure.ServerContextBuilder;
+import org.corfudb.protocols.wireprotocol.CompactReadRequest;
+import org.corfudb.protocols.wireprotocol.CompressionCodec;
+import org.corfudb.protocols.wireprotocol.CorfuMsg;
+import org.corfudb.protocols.wireprotocol.CorfuMsgType;
+import org.corfudb.protocols.wireprotocol.ReadRequest;
 import org.corfudb.runtime.CorfuRuntime.CorfuRuntimeParameters;
+import org.corfudb.runtime.exceptions.RequestQueueFullException;
 import org.corfudb.util.NodeLocator;
+import org.junit.Assume;
 import org.junit.Rule;
 import org.junit.Test;
 import org.junit.rules.TemporaryFolder;
@@ -24,8 +35,13 @@ import java.io.IOException;
 import java.net.ServerSocket;
 import java.nio.file.Files;
 import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.util.ArrayList;
 import java.util.Collections;
+import java.util.List;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
 
 /**
  * Created by mwei on 3/28/16.
@@ -314,6 +330,9 @@ public class NettyCommTest extends AbstractCorfuTest {
                 (r, d) -> {
                     assertThat(getBaseClient(r).pingSync())
                             .isTrue();
+                    // The server announced compact reads in the handshake.
+                    assertThat(r.isCompactReadSupported())
+                            .isTrue();
                 });
     }
 
@@ -402,6 +421,232 @@ public class NettyCommTest extends AbstractCorfuTest {
             });
     }
 
+    @Test
+    public void nettyServerClientCompressed() throws Exception {
+        runWithBaseServer(
+            (port) -> {
+                return new NettyServerData(ServerContextBuilder.defaultContext(port));
+            },
+            (port) -> {
+                return new NettyClientRouter(
+                    NodeLocator.builder().host("localhost").port(port).build(),
+                    CorfuRuntimeParameters.builder()
+                        .compressionCodec(CompressionCodec.SNAPPY)
+                        .compressionThreshold(0)
+                        .build());
+            },
+            (r, d) -> {
+                assertThat(getBaseClient(r).pingSync())
+                    .isTrue();
+                assertThat(getBaseClient(r).getVersionInfo().get().getNodeId())
+                    .isNotNull();
+            });
+    }
+
+    @Test
+    public void nettyServerClientBoundedWindow() throws Exception {
+        final int window = 2;
+        final int numRequests = 100;
+        runWithBaseServer(
+            (port) -> {
+                return new NettyServerData(ServerContextBuilder.defaultContext(port));
+            },
+            (port) -> {
+                return new NettyClientRouter(
+                    NodeLocator.builder().host("localhost").port(port).build(),
+                    CorfuRuntimeParameters.builder()
+                        .maxInFlightRequests(window)
+                        .build());
+            },
+            (r, d) -> {
+                // Connect before measuring the window.
+                assertThat(getBaseClient(r).pingSync())
+                    .isTrue();
+                List<CompletableFuture<Boolean>> pings = new ArrayList<>();
+                for (int i = 0; i < numRequests; i++) {
+                    pings.add(getBaseClient(r).ping());
+                    assertThat(r.getInFlightRequests())
+                        .isLessThanOrEqualTo(window);
+                }
+                for (CompletableFuture<Boolean> ping : pings) {
+                    assertThat(ping.get())
+                        .isTrue();
+                }
+                assertThat(r.getInFlightRequests())
+                    .isZero();
+                assertThat(r.getQueuedRequests())
+                    .isZero();
+            });
+    }
+
+    @Test
+    public void nettyServerClientBoundedQueue() throws Exception {
+        final int numRequests = 100;
+        runWithBaseServer(
+            (port) -> {
+                return new NettyServerData(ServerContextBuilder.defaultContext(port));
+            },
+            (port) -> {
+                return new NettyClientRouter(
+                    NodeLocator.builder().host("localhost").port(port).build(),
+                    CorfuRuntimeParameters.builder()
+                        .maxInFlightRequests(1)
+                        .maxQueuedRequests(1)
+                        .build());
+            },
+            (r, d) -> {
+                assertThat(getBaseClient(r).pingSync())
+                    .isTrue();
+                List<CompletableFuture<Boolean>> pings = new ArrayList<>();
+                for (int i = 0; i < numRequests; i++) {
+                    pings.add(getBaseClient(r).ping());
+                }
+                int rejected = 0;
+                for (CompletableFuture<Boolean> ping : pings) {
+                    try {
+                        assertThat(ping.get())
+                            .isTrue();
+                    } catch (ExecutionException e) {
+                        assertThat(e.getCause())
+                            .isInstanceOf(RequestQueueFullException.class);
+                        rejected++;
+                    }
+                }
+                assertThat(rejected)
+                    .isPositive();
+                assertThat(r.getQueuedRequests())
+                    .isZero();
+            });
+    }
+
+    @Test
+    public void nettyServerClientLongPollsBypassWindow() throws Exception {
+        final Duration wait = Duration.ofSeconds(1);
+        runWithBaseServer(
+            (port) -> {
+                return new NettyServerData(ServerContextBuilder.defaultContext(port));
+            },
+            (port) -> {
+                return new NettyClientRouter(
+                    NodeLocator.builder().host("localhost").port(port).build(),
+                    CorfuRuntimeParameters.builder()
+                        .maxInFlightRequests(1)
+                        .build());
+            },
+            (r, d) -> {
+                assertThat(getBaseClient(r).pingSync())
+                    .isTrue();
+                // The base server drops the long polls, so that they stay outstanding.
+                LogUnitClient logUnitClient = new LogUnitClient(r, 0L);
+                logUnitClient.readWait(0L, wait);
+                logUnitClient.watchTail(0L, 0L, Duration.ZERO, wait);
+                assertThat(r.getInFlightRequests())
+                    .isZero();
+                assertThat(getBaseClient(r).pingSync())
+                    .isTrue();
+            });
+    }
+
+    @Test
+    public void multiLaneWeightsReadsByAddresses() throws Exception {
+        final long numAddresses = 10;
+        EventLoopGroup eventLoopGroup = new NioEventLoopGroup(1);
+        MultiLaneClientRouter r = new MultiLaneClientRouter(
+            NodeLocator.builder().host("localhost").port(findRandomOpenPort()).build(),
+            eventLoopGroup,
+            CorfuRuntimeParameters.builder()
+                .socketType(ChannelImplementation.NIO)
+                .build());
+        try {
+            CorfuMsg rangeRead = CorfuMsgType.READ_REQUEST.payloadMsg(
+                new ReadRequest(Range.closed(0L, numAddresses - 1)));
+            assertThat(r.estimateBytes(rangeRead))
+                .isEqualTo(numAddresses * MultiLaneClientRouter.DEFAULT_ENTRY_BYTES);
+            CorfuMsg compactRead = CorfuMsgType.COMPACT_READ_REQUEST.payloadMsg(
+                new CompactReadRequest(Range.closed(0L, numAddresses - 1)));
+            assertThat(r.estimateBytes(compactRead))
+                .isEqualTo(numAddresses * MultiLaneClientRouter.DEFAULT_ENTRY_BYTES);
+            assertThat(r.estimateBytes(CorfuMsgType.PING.msg()))
+                .isLessThan(MultiLaneClientRouter.DEFAULT_ENTRY_BYTES);
+        } finally {
+            r.stop();
+            eventLoopGroup.shutdownGracefully();
+        }
+    }
+
+    @Test
+    public void nettyServerClientMultiLane() throws Exception {
+        final int numRequests = 100;
+        final int controlLanes = 2;
+        final int bulkLanes = 2;
+        int port = findRandomOpenPort();
+        NettyServerData d = new NettyServerData(ServerContextBuilder.defaultContext(port));
+        d.bootstrapServer();
+        EventLoopGroup eventLoopGroup = new NioEventLoopGroup(controlLanes + bulkLanes);
+        MultiLaneClientRouter r = new MultiLaneClientRouter(
+            NodeLocator.builder().host("localhost").port(port).build(),
+            eventLoopGroup,
+            CorfuRuntimeParameters.builder()
+                .socketType(ChannelImplementation.NIO)
+                .controlConnectionsPerEndpoint(controlLanes)
+                .bulkConnectionsPerEndpoint(bulkLanes)
+                .build());
+        try {
+            // Each lane is pinned to its own event loop of the group.
+            assertThat(r.getLanes().stream().map(lane -> lane.eventLoopGroup).distinct())
+                .hasSize(controlLanes + bulkLanes);
+
+            BaseClient client = new BaseClient(r, 0L);
+            List<CompletableFuture<Boolean>> pings = new ArrayList<>();
+            for (int i = 0; i < numRequests; i++) {
+                pings.add(client.ping());
+            }
+            for (CompletableFuture<Boolean> ping : pings) {
+                assertThat(ping.get())
+                    .isTrue();
+            }
+
+            // Pings are control requests: they are spread over the control lanes only, with
+            // request IDs striped by lane.
+            for (int i = 0; i < controlLanes + bulkLanes; i++) {
+                NettyClientRouter lane = r.getLanes().get(i);
+                assertThat(lane.requestID.get() % (controlLanes + bulkLanes))
+                    .isEqualTo(i);
+                assertThat(lane.requestID.get() > i)
+                    .isEqualTo(i < controlLanes);
+                assertThat(r.getOutstandingBytes(i))
+                    .isZero();
+            }
+        } finally {
+            r.stop();
+            d.shutdownServer();
+            eventLoopGroup.shutdownGracefully();
+        }
+    }
+
+    @Test
+    public void nettyServerClientUnixSocket() throws Exception {
+        Assume.assumeTrue(ChannelImplementation.AUTO.supportsDomainSockets());
+        final String path = new File(reloadFolder.getRoot(), "corfu.sock").getAbsolutePath();
+        ServerContext serverContext = ServerContextBuilder.defaultContext(findRandomOpenPort());
+        ChannelFuture f = CorfuServer.startAndListenOnDomainSocket(serverContext.getBossGroup(),
+            serverContext.getWorkerGroup(),
+            serverContext,
+            new NettyServerRouter(Collections.singletonList(new BaseServer(serverContext))),
+            path);
+        NettyClientRouter r = new NettyClientRouter(NodeLocator.parseString("unix://" + path),
+            CorfuRuntimeParameters.builder().socketType(ChannelImplementation.AUTO).build());
+        try {
+            assertThat(r.getNode().getProtocol())
+                .isEqualTo(NodeLocator.Protocol.UNIX);
+            assertThat(getBaseClient(r).pingSync())
+                .isTrue();
+        } finally {
+            r.stop();
+            f.channel().close().awaitUninterruptibly();
+        }
+    }
+
     @Test
     public void testTlsUpdateServerTrust() throws Exception {
         reloadedTrustManagerTestHelper(false);
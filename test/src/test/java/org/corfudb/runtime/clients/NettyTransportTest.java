@@ -0,0 +1,140 @@
+package org.corfudb.runtime.clients;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+
+import io.netty.channel.Channel;
+import io.netty.channel.ChannelFuture;
+import io.netty.channel.EventLoopGroup;
+import io.netty.channel.epoll.Epoll;
+import io.netty.channel.epoll.EpollEventLoopGroup;
+import io.netty.channel.epoll.EpollMode;
+import io.netty.channel.epoll.EpollSocketChannel;
+import io.netty.channel.epoll.EpollSocketChannelConfig;
+import io.netty.channel.nio.NioEventLoopGroup;
+import io.netty.channel.socket.nio.NioSocketChannel;
+
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.util.Collections;
+import java.util.concurrent.ThreadFactory;
+import java.util.function.Consumer;
+
+import org.corfudb.AbstractCorfuTest;
+import org.corfudb.comm.ChannelImplementation;
+import org.corfudb.infrastructure.BaseServer;
+import org.corfudb.infrastructure.CorfuServer;
+import org.corfudb.infrastructure.NettyServerRouter;
+import org.corfudb.infrastructure.SequencerServer;
+import org.corfudb.infrastructure.ServerContext;
+import org.corfudb.infrastructure.ServerContextBuilder;
+import org.corfudb.runtime.CorfuRuntime.CorfuRuntimeParameters;
+import org.corfudb.util.NodeLocator;
+import org.junit.Assume;
+import org.junit.Test;
+
+/**
+ * Tests the selection of the channel implementations and the transport options of the
+ * client routers.
+ */
+public class NettyTransportTest extends AbstractCorfuTest {
+
+    private final ThreadFactory threadFactory = new ThreadFactoryBuilder()
+            .setDaemon(true)
+            .setNameFormat("transport-test-%d")
+            .build();
+
+    private Integer findRandomOpenPort() throws IOException {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        }
+    }
+
+    /** Test that runtimes use NIO unless told otherwise, which works with any NIO group. */
+    @Test
+    public void runtimeDefaultsToNio() {
+        assertThat(CorfuRuntimeParameters.builder().build().getSocketType())
+                .isEqualTo(ChannelImplementation.NIO);
+    }
+
+    /** Test that AUTO resolves to epoll, where it is available. */
+    @Test
+    public void autoResolvesToEpoll() {
+        Assume.assumeTrue(Epoll.isAvailable());
+        assertThat(ChannelImplementation.AUTO.resolve()).isEqualTo(ChannelImplementation.EPOLL);
+        assertThat(ChannelImplementation.AUTO.isEpoll()).isTrue();
+        assertThat(ChannelImplementation.AUTO.getChannelClass())
+                .isEqualTo(EpollSocketChannel.class);
+
+        EventLoopGroup group = ChannelImplementation.AUTO.getGenerator(true)
+                .generate(1, threadFactory);
+        try {
+            assertThat(group).isInstanceOf(EpollEventLoopGroup.class);
+        } finally {
+            group.shutdownGracefully();
+        }
+    }
+
+    /** Test that a router with the default parameters runs on a NIO group of the caller. */
+    @Test
+    public void defaultRouterRunsOnCallerNioGroup() throws Exception {
+        connect(ChannelImplementation.NIO, new NioEventLoopGroup(1, threadFactory),
+                CorfuRuntimeParameters.builder().build(),
+                channel -> assertThat(channel).isInstanceOf(NioSocketChannel.class));
+    }
+
+    /** Test that the epoll options of the parameters are applied to the channel. */
+    @Test
+    public void epollOptionsAreApplied() throws Exception {
+        Assume.assumeTrue(Epoll.isAvailable());
+        CorfuRuntimeParameters parameters = CorfuRuntimeParameters.builder()
+                .socketType(ChannelImplementation.EPOLL)
+                .epollEdgeTriggered(false)
+                .build();
+        connect(ChannelImplementation.EPOLL, ChannelImplementation.EPOLL.getGenerator(false)
+                .generate(1, threadFactory), parameters, channel -> {
+                    assertThat(channel).isInstanceOf(EpollSocketChannel.class);
+                    // The kernel leaves the quick ack mode on its own, so it is not checked.
+                    EpollSocketChannelConfig config = (EpollSocketChannelConfig) channel.config();
+                    assertThat(config.getEpollMode()).isEqualTo(EpollMode.LEVEL_TRIGGERED);
+                });
+    }
+
+    /**
+     * Connects a client router to a sequencer served over a channel implementation, and
+     * checks the channel of the router once a request has been answered over it.
+     */
+    private void connect(ChannelImplementation implementation, EventLoopGroup clientGroup,
+                         CorfuRuntimeParameters parameters, Consumer<Channel> check)
+            throws Exception {
+        final int port = findRandomOpenPort();
+        ServerContext serverContext = new ServerContextBuilder()
+                .setImplementation(implementation.name().toLowerCase())
+                .setNumThreads("1")
+                .setPort(port)
+                .build();
+        NettyServerRouter serverRouter = new NettyServerRouter(ImmutableList.of(
+                new BaseServer(serverContext), new SequencerServer(serverContext)));
+        ChannelFuture serverFuture = CorfuServer.startAndListen(serverContext.getBossGroup(),
+                serverContext.getWorkerGroup(),
+                b -> CorfuServer.configureBootstrapOptions(serverContext, b),
+                serverContext, serverRouter, "localhost", port);
+
+        NettyClientRouter clientRouter = new NettyClientRouter(
+                NodeLocator.builder().host("localhost").port(port).build(), clientGroup,
+                parameters);
+        try {
+            clientRouter.addClient(new SequencerHandler());
+            SequencerClient client = new SequencerClient(clientRouter, 0L);
+            assertThat(client.bootstrap(0L, Collections.emptyMap(), 0L, false).get()).isTrue();
+            check.accept(clientRouter.getChannel());
+        } finally {
+            clientRouter.stop();
+            clientGroup.shutdownGracefully();
+            serverFuture.channel().close().awaitUninterruptibly();
+            serverContext.close();
+        }
+    }
+}
@@ -111,6 +111,13 @@ public class TestClientRouter implements IClientRouter {
     @Getter
     Integer port;
 
+    /**
+     * Whether the test server serves compact reads.
+     */
+    @Getter
+    @Setter
+    boolean compactReadSupported = true;
+
     public TestClientRouter(TestServerRouter serverRouter) {
         clientList = new ArrayList<>();
         handlerMap = new ConcurrentHashMap<>();
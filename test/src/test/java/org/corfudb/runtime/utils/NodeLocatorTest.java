@@ -76,4 +76,32 @@ public class NodeLocatorTest extends AbstractViewTest {
             .isEqualToComparingFieldByField(parsed);
     }
 
+    /** Tests that a unix node parses, with and without a host and port naming it. **/
+    @Test
+    public void unixNodeCanBeConvertedBackAndForth() {
+        final int PORT_NUM = 9000;
+        NodeLocator locator = NodeLocator.parseString("unix:///var/run/corfu.sock");
+
+        assertThat(locator.getProtocol())
+            .isEqualTo(Protocol.UNIX);
+
+        assertThat(locator.getPath())
+            .isEqualTo("/var/run/corfu.sock");
+
+        assertThat(locator.getHost())
+            .isNull();
+
+        assertThat(NodeLocator.parseString(locator.toString()))
+            .isEqualTo(locator);
+
+        NodeLocator named = NodeLocator.builder()
+            .protocol(Protocol.UNIX)
+            .host("localhost")
+            .port(PORT_NUM)
+            .path("/var/run/corfu.sock")
+            .build();
+
+        assertThat(NodeLocator.parseString(NodeLocator.getLegacyEndpoint(named)))
+            .isEqualTo(named);
+    }
 }
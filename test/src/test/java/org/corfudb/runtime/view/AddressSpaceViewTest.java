@@ -1,17 +1,24 @@
 package org.corfudb.runtime.view;
 
-import com.github.benmanes.caffeine.cache.LoadingCache;
+import com.codahale.metrics.MetricRegistry;
 import com.google.common.collect.ContiguousSet;
 import com.google.common.collect.DiscreteDomain;
 import com.google.common.collect.Range;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.PooledByteBufAllocator;
+import io.netty.channel.embedded.EmbeddedChannel;
 import org.corfudb.infrastructure.LogUnitServerAssertions;
 import org.corfudb.infrastructure.TestLayoutBuilder;
 import org.corfudb.protocols.wireprotocol.*;
 import org.corfudb.runtime.CorfuRuntime;
+import org.corfudb.runtime.clients.TestRule;
+import org.corfudb.util.Sleep;
 import org.junit.Before;
 import org.junit.Test;
 
 import java.util.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
 
 import static org.assertj.core.api.Assertions.assertThat;
 
@@ -107,7 +114,7 @@ public class AddressSpaceViewTest extends AbstractViewTest {
 
         // Verify that write to address 0 is cached and that the write to address 1 isn't cached
 
-        LoadingCache<Long, ILogData> clientCache = r.getAddressSpaceView().getReadCache();
+        SegmentedReadCache clientCache = r.getAddressSpaceView().getReadCache();
 
         assertThat(clientCache.getIfPresent(0L)).isNotNull();
         assertThat(clientCache.getIfPresent(1L)).isNull();
@@ -151,7 +158,7 @@ public class AddressSpaceViewTest extends AbstractViewTest {
         spaceView.prefixTrim(inclusiveTrimAddress);
         final int trimMark = (int) spaceView.getTrimMark();
         assertThat(trimMark).isEqualTo(inclusiveTrimAddress + 1);
-        assertThat(spaceView.getReadCache().asMap().size()).isEqualTo(entryNum);
+        assertThat(spaceView.getReadCache().estimatedSize()).isEqualTo(entryNum);
 
         // Run TrimMarkSyncTask once.
         AddressSpaceView.TrimMarkSyncTask trimMarkSyncTask = spaceView.new TrimMarkSyncTask();
@@ -159,12 +166,70 @@ public class AddressSpaceViewTest extends AbstractViewTest {
 
         // Keys less than trimMark should be removed from cache.
         int expectedCacheSize = entryNum - trimMark;
-        assertThat(spaceView.getReadCache().asMap().size()).isEqualTo(expectedCacheSize);
-        assertThat(Collections.min(spaceView.getReadCache().asMap().keySet())).isEqualTo(trimMark);
+        assertThat(spaceView.getReadCache().estimatedSize()).isEqualTo(expectedCacheSize);
+        assertThat(Collections.min(spaceView.getReadCache().getEntries().keySet())).isEqualTo(trimMark);
 
         // After shutdown, cache has been cleared.
         spaceView.shutdown();
-        assertThat(spaceView.getReadCache().asMap().isEmpty()).isTrue();
+        assertThat(spaceView.getReadCache().getEntries().isEmpty()).isTrue();
+    }
+
+    /**
+     * Verifies that the read cache is bounded by the bytes of its entries, that it invalidates
+     * segments of addresses, and that it counts hits and misses per stream.
+     */
+    @Test
+    public void cacheIsBoundedByBytesAndCountsStreams() {
+        final int segmentSize = 4;
+        final int payloadSize = 1024;
+        final int entryNum = 32;
+        final long maxCacheSize = (long) payloadSize * entryNum / 2;
+        CorfuRuntime r = getNewRuntime(getDefaultNode());
+        r.getParameters().setCacheSegmentSize(segmentSize);
+        r.getParameters().setMaxCacheSize(maxCacheSize);
+        r.connect();
+
+        AddressSpaceView spaceView = r.getAddressSpaceView();
+        SegmentedReadCache cache = spaceView.getReadCache();
+        UUID streamA = CorfuRuntime.getStreamID("stream A");
+        final long epoch = r.getLayoutView().getLayout().getEpoch();
+        for (int i = 0; i < entryNum; i++) {
+            spaceView.write(new TokenResponse(i, epoch,
+                            Collections.singletonMap(streamA, Address.NO_BACKPOINTER)),
+                    new byte[payloadSize]);
+        }
+
+        cache.cleanUp();
+        assertThat(cache.weightedSize()).isLessThanOrEqualTo(maxCacheSize);
+        assertThat(cache.evictionCount()).isGreaterThan(0);
+        assertThat(cache.estimatedSize()).isLessThan(entryNum);
+
+        // A cached address is a hit, an evicted address is a miss, of the stream.
+        long cached = cache.getEntries().keySet().iterator().next();
+        long evicted = ContiguousSet.create(Range.closedOpen(0L, (long) entryNum),
+                DiscreteDomain.longs()).stream()
+                .filter(address -> cache.getIfPresent(address) == null)
+                .findFirst().get();
+        spaceView.read(cached);
+        spaceView.read(evicted);
+        assertThat(cache.hitCount()).isEqualTo(1);
+        assertThat(cache.missCount()).isEqualTo(1);
+        assertThat(r.getMetrics().getCounters((name, metric) ->
+                name.endsWith("stream." + streamA + ".hits")).values())
+                .extracting(counter -> counter.getCount()).containsExactly(1L);
+        assertThat(r.getMetrics().getCounters((name, metric) ->
+                name.endsWith("stream." + streamA + ".misses")).values())
+                .extracting(counter -> counter.getCount()).containsExactly(1L);
+
+        // Invalidating up to an address in the middle of a segment keeps the rest of it.
+        final long invalidateAddress = entryNum - segmentSize / 2;
+        spaceView.invalidateClientCache();
+        for (long address = entryNum - segmentSize; address < entryNum; address++) {
+            spaceView.read(address);
+        }
+        spaceView.invalidateClientCache(invalidateAddress);
+        assertThat(cache.getEntries().keySet())
+                .containsExactly(invalidateAddress, invalidateAddress + 1);
     }
 
     @Test
@@ -207,6 +272,79 @@ public class AddressSpaceViewTest extends AbstractViewTest {
                 .isEqualTo("3".getBytes());
     }
 
+    @Test
+    public void stripedReadAllBatchesEachStripe() {
+        CorfuRuntime r = getRuntime().connect();
+        final int numAddresses = 20;
+        final int bulkReadSize = 3;
+        r.getParameters().setBulkReadSize(bulkReadSize);
+
+        final long epoch = r.getLayoutView().getLayout().getEpoch();
+        for (long address = 0; address < numAddresses; address++) {
+            r.getAddressSpaceView().write(new Token(address, epoch),
+                    Long.toString(address).getBytes());
+        }
+        r.getAddressSpaceView().invalidateClientCache();
+
+        Range<Long> range = Range.closedOpen(0L, (long) numAddresses);
+        Map<Long, ILogData> m = r.getAddressSpaceView()
+                .read(ContiguousSet.create(range, DiscreteDomain.longs()));
+
+        assertThat(m).hasSize(numAddresses);
+        for (long address = 0; address < numAddresses; address++) {
+            assertThat(m.get(address).getGlobalAddress()).isEqualTo(address);
+            assertThat(m.get(address).getPayload(r))
+                    .isEqualTo(Long.toString(address).getBytes());
+        }
+    }
+
+    @Test
+    public void tailAndTrimMarkAreCachedFromLogUnitWatches() {
+        final long address = 0L;
+        CorfuRuntime writer = getRuntime().connect();
+        CorfuRuntime r = getNewRuntime(getDefaultNode());
+        r.getParameters().setTailCacheEnabled(true);
+        r.getParameters().setTailCacheInterval(PARAMETERS.TIMEOUT_VERY_SHORT);
+        r.connect();
+        final AtomicInteger queries = new AtomicInteger();
+        addClientRule(r, new TestRule().matches(m -> {
+            if (m.getMsgType() == CorfuMsgType.TAIL_REQUEST
+                    || m.getMsgType() == CorfuMsgType.TRIM_MARK_REQUEST) {
+                queries.incrementAndGet();
+            }
+            return false;
+        }));
+        AddressSpaceView spaceView = r.getAddressSpaceView();
+
+        // The log units are queried until they are watched.
+        assertThat(waitUntil(() -> {
+            final int previousQueries = queries.get();
+            spaceView.getLogTail();
+            spaceView.getTrimMark();
+            return queries.get() == previousQueries;
+        })).isTrue();
+        final int watchedQueries = queries.get();
+
+        // The writes and the trims of another runtime are learnt without querying.
+        writer.getAddressSpaceView().write(new Token(address,
+                writer.getLayoutView().getLayout().getEpoch()), "hello world".getBytes());
+        assertThat(waitUntil(() -> spaceView.getLogTail() == address)).isTrue();
+        writer.getAddressSpaceView().prefixTrim(address);
+        assertThat(waitUntil(() -> spaceView.getTrimMark() == address + 1)).isTrue();
+        assertThat(queries.get()).isEqualTo(watchedQueries);
+    }
+
+    private boolean waitUntil(BooleanSupplier condition) {
+        final long deadline = System.currentTimeMillis() + PARAMETERS.TIMEOUT_LONG.toMillis();
+        while (!condition.getAsBoolean()) {
+            if (System.currentTimeMillis() > deadline) {
+                return false;
+            }
+            Sleep.sleepUninterruptibly(PARAMETERS.TIMEOUT_VERY_SHORT);
+        }
+        return true;
+    }
+
     @Test
     @SuppressWarnings("unchecked")
     public void readAllWithHoleFill()
@@ -235,4 +373,75 @@ public class AddressSpaceViewTest extends AbstractViewTest {
         assertThat(m.get(ADDRESS_1).isHole());
         assertThat(m.get(ADDRESS_2).isHole());
     }
-}
\ No newline at end of file
+
+    @Test
+    public void readCacheBoundsStreamCounters() {
+        final int numStreams = SegmentedReadCache.MAX_TRACKED_STREAMS * 2;
+        MetricRegistry metrics = new MetricRegistry();
+        SegmentedReadCache cache = new SegmentedReadCache(
+                CorfuRuntime.CorfuRuntimeParameters.builder().build(),
+                address -> {
+                    throw new IllegalStateException("Unexpected load of " + address);
+                },
+                addresses -> {
+                    throw new IllegalStateException("Unexpected load of " + addresses);
+                },
+                metrics, "test.");
+
+        for (long address = 0; address < numStreams; address++) {
+            LogData data = new LogData(DataType.DATA, new byte[0]);
+            data.setBackpointerMap(Collections.singletonMap(UUID.randomUUID(), address));
+            cache.put(address, data);
+            cache.get(address);
+        }
+        cache.cleanUp();
+
+        assertThat(cache.hitCount()).isEqualTo(numStreams);
+        assertThat(metrics.getCounters((name, metric) -> name.endsWith(".hits")).size())
+                .isLessThanOrEqualTo(SegmentedReadCache.MAX_TRACKED_STREAMS);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void readCacheReleasesTrimmedAndOverwrittenEntries() {
+        final long trimmedAddress = 0L;
+        final long overwrittenAddress = 1L;
+        SegmentedReadCache cache = new SegmentedReadCache(
+                CorfuRuntime.CorfuRuntimeParameters.builder().build(),
+                address -> {
+                    throw new IllegalStateException("Unexpected load of " + address);
+                },
+                addresses -> {
+                    throw new IllegalStateException("Unexpected load of " + addresses);
+                },
+                new MetricRegistry(), "test.");
+
+        // Lazily decode two entries from a pooled inbound frame, and cache them.
+        ReadResponse rr = new ReadResponse();
+        for (long address = trimmedAddress; address <= overwrittenAddress; address++) {
+            LogData data = new LogData(DataType.DATA, new byte[] {(byte) address});
+            data.setGlobalAddress(address);
+            rr.put(address, data);
+        }
+        ByteBuf frame = PooledByteBufAllocator.DEFAULT.buffer();
+        CorfuMsgType.READ_RESPONSE.payloadMsg(rr).serialize(frame);
+        EmbeddedChannel channel = new EmbeddedChannel(new NettyCorfuMessageDecoder(true));
+        channel.writeInbound(frame);
+        CorfuPayloadMsg<ReadResponse> msg = channel.readInbound();
+        msg.getPayload().getAddresses().forEach(cache::put);
+        final int retained = frame.refCnt();
+        assertThat(retained).isPositive();
+
+        // Trimming an address of a segment detaches its entry.
+        cache.invalidateBefore(overwrittenAddress);
+        assertThat(frame.refCnt()).isEqualTo(retained - 1);
+        assertThat(cache.getIfPresent(trimmedAddress)).isNull();
+
+        // Overwriting an address detaches the replaced entry.
+        cache.put(overwrittenAddress, new LogData(DataType.DATA, new byte[0]));
+        assertThat(frame.refCnt()).isZero();
+        assertThat(msg.getPayload().getAddresses().get(trimmedAddress).getPayload(null))
+                .isEqualTo(new byte[] {(byte) trimmedAddress});
+        channel.finish();
+    }
+}
@@ -1,14 +1,28 @@
 package org.corfudb.runtime.view;
 
 import org.corfudb.infrastructure.TestLayoutBuilder;
+import org.corfudb.protocols.wireprotocol.CorfuMsgType;
+import org.corfudb.protocols.wireprotocol.ILogData;
+import org.corfudb.protocols.wireprotocol.Token;
 import org.corfudb.protocols.wireprotocol.TokenResponse;
 import org.corfudb.runtime.CorfuRuntime;
+import org.corfudb.runtime.clients.TestRule;
+import org.corfudb.runtime.exceptions.OverwriteException;
+import org.corfudb.util.Sleep;
 import org.junit.Test;
 
+import java.util.ArrayList;
 import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.corfudb.infrastructure.LogUnitServerAssertions.assertThat;
 
 /**
@@ -109,6 +123,55 @@ public class ChainReplicationViewTest extends AbstractViewTest {
                 .containsStream(streamA)).isTrue();
     }
 
+    @Test
+    public void canWriteAsyncToMultiple()
+            throws Exception {
+
+        addServer(SERVERS.PORT_0);
+        addServer(SERVERS.PORT_1);
+        addServer(SERVERS.PORT_2);
+
+        bootstrapAllServers(new TestLayoutBuilder()
+                .addLayoutServer(SERVERS.PORT_0)
+                .addSequencer(SERVERS.PORT_0)
+                .buildSegment()
+                    .setReplicationMode(Layout.ReplicationMode.CHAIN_REPLICATION)
+                    .buildStripe()
+                        .addLogUnit(SERVERS.PORT_0)
+                        .addLogUnit(SERVERS.PORT_1)
+                        .addLogUnit(SERVERS.PORT_2)
+                    .addToSegment()
+                .addToLayout()
+                .build());
+
+        CorfuRuntime r = getRuntime().connect();
+        final int numberRecords = 100;
+        final long epoch = r.getLayoutView().getLayout().getEpoch();
+        UUID streamA = UUID.nameUUIDFromBytes("stream A".getBytes());
+
+        // All the writes are in flight from this thread at once.
+        List<CompletableFuture<Void>> writes = new ArrayList<>();
+        for (int i = 0; i < numberRecords; i++) {
+            writes.add(r.getAddressSpaceView().writeAsync(new TokenResponse((long) i, epoch,
+                            Collections.singletonMap(streamA, Address.NO_BACKPOINTER)),
+                    Integer.toString(i).getBytes(), CacheOption.WRITE_AROUND));
+        }
+        CompletableFuture.allOf(writes.toArray(new CompletableFuture[0])).join();
+
+        for (int i = 0; i < numberRecords; i++) {
+            assertThat(r.getAddressSpaceView().read(i).getPayload(getRuntime()))
+                    .isEqualTo(Integer.toString(i).getBytes());
+            assertThat(getLogUnit(SERVERS.PORT_2)).matchesDataAtAddress(i,
+                    Integer.toString(i).getBytes());
+        }
+
+        // A write to a written address fails with an overwrite.
+        assertThatThrownBy(() -> r.getAddressSpaceView().writeAsync(new TokenResponse(0L, epoch,
+                        Collections.singletonMap(streamA, Address.NO_BACKPOINTER)),
+                "overwrite".getBytes(), CacheOption.WRITE_AROUND).join())
+                .hasCauseInstanceOf(OverwriteException.class);
+    }
+
     @Test
     @SuppressWarnings("unchecked")
     public void ensureAllUnitsContainData()
@@ -154,4 +217,170 @@ public class ChainReplicationViewTest extends AbstractViewTest {
         assertThat(getLogUnit(SERVERS.PORT_2))
                 .matchesDataAtAddress(0, testPayload);
     }
+
+    @Test
+    public void fanOutWritesReachAllUnits()
+            throws Exception {
+        final int[] ports = {SERVERS.PORT_0, SERVERS.PORT_1, SERVERS.PORT_2, SERVERS.PORT_3,
+                SERVERS.PORT_4};
+        TestLayoutBuilder.TestStripeBuilder stripe = new TestLayoutBuilder()
+                .addLayoutServer(SERVERS.PORT_0)
+                .addSequencer(SERVERS.PORT_0)
+                .buildSegment()
+                    .setReplicationMode(Layout.ReplicationMode.CHAIN_REPLICATION)
+                    .buildStripe();
+        for (int port : ports) {
+            addServer(port);
+            stripe.addLogUnit(port);
+        }
+        bootstrapAllServers(stripe.addToSegment().addToLayout().build());
+
+        CorfuRuntime r = getRuntime().connect();
+        r.getParameters().setChainFanOutEnabled(true);
+        final long epoch = r.getLayoutView().getLayout().getEpoch();
+        final long syncAddress = 0L;
+        final long asyncAddress = 1L;
+        final long partialAddress = 2L;
+        UUID streamA = UUID.nameUUIDFromBytes("stream A".getBytes());
+        byte[] testPayload = "hello world".getBytes();
+
+        r.getAddressSpaceView().write(new TokenResponse(syncAddress, epoch,
+                        Collections.singletonMap(streamA, Address.NO_BACKPOINTER)),
+                testPayload);
+        r.getAddressSpaceView().writeAsync(new TokenResponse(asyncAddress, epoch,
+                        Collections.singletonMap(streamA, Address.NO_BACKPOINTER)),
+                testPayload, CacheOption.WRITE_THROUGH).join();
+
+        // A write which only reached the middle of the chain is adopted by the hole fill.
+        r.getLayoutView().getRuntimeLayout().getLogUnitClient(partialAddress, 2)
+                .write(partialAddress, Collections.singleton(streamA), null, testPayload,
+                        Collections.emptyMap()).join();
+        assertThat(r.getAddressSpaceView().read(partialAddress).getPayload(getRuntime()))
+                .isEqualTo(testPayload);
+
+        for (int port : ports) {
+            assertThat(getLogUnit(port))
+                    .matchesDataAtAddress(syncAddress, testPayload)
+                    .matchesDataAtAddress(asyncAddress, testPayload)
+                    .matchesDataAtAddress(partialAddress, testPayload);
+        }
+    }
+
+    @Test
+    public void holeFillWithoutFanOutAdoptsPartialWrite()
+            throws Exception {
+        final int[] ports = {SERVERS.PORT_0, SERVERS.PORT_1, SERVERS.PORT_2};
+        TestLayoutBuilder.TestStripeBuilder stripe = new TestLayoutBuilder()
+                .addLayoutServer(SERVERS.PORT_0)
+                .addSequencer(SERVERS.PORT_0)
+                .buildSegment()
+                    .setReplicationMode(Layout.ReplicationMode.CHAIN_REPLICATION)
+                    .buildStripe();
+        for (int port : ports) {
+            addServer(port);
+            stripe.addLogUnit(port);
+        }
+        bootstrapAllServers(stripe.addToSegment().addToLayout().build());
+
+        CorfuRuntime r = getRuntime().connect();
+        final long partialAddress = 0L;
+        UUID streamA = UUID.nameUUIDFromBytes("stream A".getBytes());
+        byte[] testPayload = "hello world".getBytes();
+
+        // A fanned out write which reached the middle of the chain, but neither the head nor
+        // the tail, is adopted by a runtime which does not fan out its writes.
+        r.getLayoutView().getRuntimeLayout().getLogUnitClient(partialAddress, 1)
+                .write(partialAddress, Collections.singleton(streamA), null, testPayload,
+                        Collections.emptyMap()).join();
+        assertThat(r.getAddressSpaceView().read(partialAddress).getPayload(getRuntime()))
+                .isEqualTo(testPayload);
+
+        for (int port : ports) {
+            assertThat(getLogUnit(port))
+                    .matchesDataAtAddress(partialAddress, testPayload);
+        }
+    }
+
+    @Test
+    public void committedReadsSpreadAcrossChain()
+            throws Exception {
+        final int[] ports = {SERVERS.PORT_0, SERVERS.PORT_1, SERVERS.PORT_2};
+        TestLayoutBuilder.TestStripeBuilder stripe = new TestLayoutBuilder()
+                .addLayoutServer(SERVERS.PORT_0)
+                .addSequencer(SERVERS.PORT_0)
+                .buildSegment()
+                    .setReplicationMode(Layout.ReplicationMode.CHAIN_REPLICATION)
+                    .buildStripe();
+        for (int port : ports) {
+            addServer(port);
+            stripe.addLogUnit(port);
+        }
+        bootstrapAllServers(stripe.addToSegment().addToLayout().build());
+
+        final Map<Integer, AtomicInteger> reads = new HashMap<>();
+        for (int port : ports) {
+            final AtomicInteger counter = new AtomicInteger();
+            reads.put(port, counter);
+            addServerRule(port, new TestRule().matches(m -> {
+                if (m.getMsgType() == CorfuMsgType.READ_RESPONSE) {
+                    counter.incrementAndGet();
+                }
+                return false;
+            }));
+        }
+
+        CorfuRuntime r = getRuntime().connect();
+        r.getParameters().setChainReadFromAnyReplica(true);
+        final long epoch = r.getLayoutView().getLayout().getEpoch();
+        final int numAddresses = 30;
+        for (long address = 0; address < numAddresses; address++) {
+            r.getAddressSpaceView().write(new Token(address, epoch),
+                    Long.toString(address).getBytes());
+        }
+        r.getAddressSpaceView().invalidateClientCache();
+
+        // Every address was acknowledged by the tail, so any member may serve the reads.
+        for (long address = 0; address < numAddresses; address++) {
+            assertThat(r.getAddressSpaceView().read(address).getPayload(r))
+                    .isEqualTo(Long.toString(address).getBytes());
+        }
+        final int tail = SERVERS.PORT_2;
+        assertThat(reads.get(tail).get()).isLessThan(numAddresses);
+        assertThat(reads.values().stream().mapToInt(AtomicInteger::get).sum())
+                .isEqualTo(numAddresses);
+
+        // An address written by another runtime is above the committed tail, and is read
+        // from the tail.
+        CorfuRuntime writer = getNewRuntime(getDefaultNode()).connect();
+        writer.getAddressSpaceView().write(new Token(numAddresses, epoch), "other".getBytes());
+        reads.values().forEach(counter -> counter.set(0));
+        assertThat(r.getAddressSpaceView().read(numAddresses).getPayload(r))
+                .isEqualTo("other".getBytes());
+        assertThat(reads.get(tail).get()).isEqualTo(1);
+        assertThat(r.getCommittedTailTracker()
+                .getCommittedTail(r.getLayoutView().getLayout(), numAddresses))
+                .isEqualTo(numAddresses);
+    }
+
+    @Test
+    public void readWaitsForSlowWriter()
+            throws Exception {
+        CorfuRuntime r = getDefaultRuntime();
+        final int holeFillRetry = 40;
+        r.getParameters().setHoleFillRetry(holeFillRetry);
+        final long address = 0L;
+        final long epoch = r.getLayoutView().getLayout().getEpoch();
+        byte[] testPayload = "hello world".getBytes();
+
+        // The reader waits for the address, which is written while the read is held.
+        CompletableFuture<ILogData> read = CompletableFuture.supplyAsync(() ->
+                r.getAddressSpaceView().read(address));
+        Sleep.sleepUninterruptibly(PARAMETERS.TIMEOUT_VERY_SHORT);
+        getNewRuntime(getDefaultNode()).connect().getAddressSpaceView()
+                .write(new Token(address, epoch), testPayload);
+
+        ILogData data = read.get(PARAMETERS.TIMEOUT_NORMAL.toMillis(), TimeUnit.MILLISECONDS);
+        assertThat(data.isHole()).isFalse();
+        assertThat(data.getPayload(r)).isEqualTo(testPayload);
+    }
 }
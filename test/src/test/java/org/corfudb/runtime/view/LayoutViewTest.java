@@ -19,6 +19,7 @@ import java.util.List;
 import java.util.Map;
 import java.util.concurrent.*;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
@@ -660,4 +661,36 @@ public class LayoutViewTest extends AbstractViewTest {
         assertThat(alreadyProposedLayout3).isEqualTo(l2);
 
     }
+
+    /**
+     * Checks that the requests which fail with the same layout share a single layout fetch, and
+     * that a layout fetched since a request failed is not invalidated by it.
+     */
+    @Test
+    public void invalidationsOfSameLayoutShareFetch() throws Exception {
+        CorfuRuntime r = getDefaultRuntime().connect();
+        final AtomicInteger layoutFetches = new AtomicInteger();
+        addClientRule(r, new TestRule().matches(m -> {
+            if (m.getMsgType() == CorfuMsgType.LAYOUT_REQUEST) {
+                layoutFetches.incrementAndGet();
+            }
+            return false;
+        }));
+
+        final Layout stale = r.layout.get();
+        scheduleConcurrently(PARAMETERS.CONCURRENCY_SOME, t -> r.invalidateLayout(stale));
+        executeScheduled(PARAMETERS.CONCURRENCY_SOME, PARAMETERS.TIMEOUT_NORMAL);
+        final Layout current = r.layout.get();
+        assertThat(current).isNotSameAs(stale);
+        assertThat(layoutFetches.get()).isEqualTo(1);
+
+        // The layout was fetched since, so a late failure retries with it.
+        assertThat(r.invalidateLayout(stale).get()).isSameAs(current);
+        assertThat(layoutFetches.get()).isEqualTo(1);
+
+        // A server expecting a newer epoch makes the current layout stale as well.
+        assertThat(r.invalidateLayout(stale, current.getEpoch() + 1).get())
+                .isNotSameAs(current);
+        assertThat(layoutFetches.get()).isEqualTo(2);
+    }
 }
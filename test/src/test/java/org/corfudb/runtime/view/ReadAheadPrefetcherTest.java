@@ -0,0 +1,113 @@
+package org.corfudb.runtime.view;
+
+import com.codahale.metrics.MetricRegistry;
+import org.corfudb.AbstractCorfuTest;
+import org.corfudb.protocols.wireprotocol.DataType;
+import org.corfudb.protocols.wireprotocol.ILogData;
+import org.corfudb.protocols.wireprotocol.LogData;
+import org.corfudb.runtime.CorfuRuntime.CorfuRuntimeParameters;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/** Test that the prefetcher reads ahead of the streams which read at a constant stride.
+ */
+public class ReadAheadPrefetcherTest extends AbstractCorfuTest {
+
+    private static final long LOG_TAIL = 128L;
+    private static final int MAX_WINDOW = 32;
+
+    private final List<List<Long>> peeks = new ArrayList<>();
+
+    private long logTail = LOG_TAIL;
+
+    private final SegmentedReadCache cache = new SegmentedReadCache(
+            CorfuRuntimeParameters.builder().build(),
+            address -> {
+                throw new IllegalStateException("Unexpected load of " + address);
+            },
+            addresses -> {
+                throw new IllegalStateException("Unexpected load of " + addresses);
+            },
+            new MetricRegistry(), "test.");
+
+    private final ReadAheadPrefetcher prefetcher = new ReadAheadPrefetcher(MAX_WINDOW,
+            this::peekAll, cache, Runnable::run);
+
+    /** Peek the addresses of a log written up to the log tail. */
+    private Map<Long, ILogData> peekAll(List<Long> addresses) {
+        peeks.add(addresses);
+        Map<Long, ILogData> result = new HashMap<>();
+        for (long address : addresses) {
+            assertThat(Address.isAddress(address)).isTrue();
+            if (address < logTail) {
+                result.put(address, new LogData(DataType.DATA, new byte[0]));
+            }
+        }
+        return result;
+    }
+
+    /** Read addresses as a stream would, and return the number of misses. */
+    private int readStream(UUID stream, long start, long stride, long count) {
+        int misses = 0;
+        for (long i = 0; i < count; i++) {
+            long address = start + stride * i;
+            boolean hit = cache.getIfPresent(address) != null;
+            prefetcher.recordRead(stream, address, hit);
+            if (!hit) {
+                misses++;
+                cache.put(address, new LogData(DataType.DATA, new byte[0]));
+            }
+        }
+        return misses;
+    }
+
+    @Test
+    public void readsAheadOfSequentialStream() {
+        final int missesBeforeDetection = 3;
+        assertThat(readStream(UUID.randomUUID(), 0L, 1L, LOG_TAIL))
+                .isEqualTo(missesBeforeDetection);
+        assertThat(peeks).allMatch(peek -> peek.size() <= MAX_WINDOW);
+    }
+
+    @Test
+    public void readsAheadOfBackwardStridedStream() {
+        final int missesBeforeDetection = 3;
+        final long stride = -2L;
+        assertThat(readStream(UUID.randomUUID(), LOG_TAIL - 1, stride, LOG_TAIL / 2))
+                .isEqualTo(missesBeforeDetection);
+        assertThat(peeks).allMatch(peek -> peek.stream()
+                .allMatch(address -> address % 2 == 1));
+    }
+
+    @Test
+    public void readsAheadOfTailingStream() {
+        final int missesBeforeDetection = 3;
+        final long appended = 64L;
+        UUID stream = UUID.randomUUID();
+        assertThat(readStream(stream, 0L, 1L, LOG_TAIL))
+                .isEqualTo(missesBeforeDetection);
+
+        // The stream caught up with the tail, and the reads ahead of it found nothing. Once
+        // the tail moves, only the first new address misses.
+        logTail += appended;
+        assertThat(readStream(stream, LOG_TAIL, 1L, appended))
+                .isEqualTo(1);
+    }
+
+    @Test
+    public void doesNotReadAheadOfRandomReads() {
+        final long[] addresses = {5L, 17L, 3L, 40L, 12L, 60L};
+        UUID stream = UUID.randomUUID();
+        for (long address : addresses) {
+            prefetcher.recordRead(stream, address, false);
+        }
+        assertThat(peeks).isEmpty();
+    }
+}
@@ -0,0 +1,238 @@
+package org.corfudb.runtime.view;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+import org.corfudb.infrastructure.TestLayoutBuilder;
+import org.corfudb.protocols.wireprotocol.CorfuMsgType;
+import org.corfudb.protocols.wireprotocol.SequencerTailsRecoveryMsg;
+import org.corfudb.protocols.wireprotocol.TokenResponse;
+import org.corfudb.protocols.wireprotocol.TokenType;
+import org.corfudb.protocols.wireprotocol.TxResolutionInfo;
+import org.corfudb.runtime.CorfuRuntime;
+import org.corfudb.util.Sleep;
+import org.junit.Test;
+
+/**
+ * Tests the sequencer sharded by stream, with addresses leased from the primary sequencer.
+ */
+public class SequencerShardTest extends AbstractViewTest {
+
+    private final List<Integer> ports = new ArrayList<>();
+
+    /**
+     * Starts the servers and bootstraps a layout whose first numShards sequencers are shards.
+     */
+    private CorfuRuntime getShardedRuntime(int numServers, int numShards) {
+        final int[] allPorts = {SERVERS.PORT_0, SERVERS.PORT_1, SERVERS.PORT_2, SERVERS.PORT_3};
+        TestLayoutBuilder builder = new TestLayoutBuilder().addLayoutServer(SERVERS.PORT_0);
+        for (int i = 0; i < numServers; i++) {
+            ports.add(allPorts[i]);
+            addServer(allPorts[i]);
+            builder.addSequencer(allPorts[i]);
+        }
+        Layout layout = builder.buildSegment()
+                .buildStripe()
+                .addLogUnit(SERVERS.PORT_0)
+                .addToSegment()
+                .addToLayout()
+                .build();
+        layout.setSequencerShards(ports.stream()
+                .limit(numShards)
+                .map(this::getEndpoint)
+                .collect(Collectors.toList()));
+        bootstrapAllServers(layout);
+
+        for (int port : ports.subList(1, numShards)) {
+            getSequencer(port).handleMessage(CorfuMsgType.BOOTSTRAP_SEQUENCER.payloadMsg(
+                    new SequencerTailsRecoveryMsg(0L, Collections.emptyMap(), layout.getEpoch(),
+                            false, Address.NON_ADDRESS, true)), null, getServerRouter(port));
+        }
+        return getRuntime(layout).connect();
+    }
+
+    /**
+     * Returns a new stream owned by the given shard.
+     */
+    private UUID getStreamOfShard(int shard, int numShards) {
+        UUID streamId = UUID.randomUUID();
+        while (Layout.getShardIndex(streamId, numShards) != shard) {
+            streamId = UUID.randomUUID();
+        }
+        return streamId;
+    }
+
+    @Test
+    public void shardIndexCoversAllShards() {
+        final int numShards = 3;
+        assertThat(Layout.getShardIndex(new UUID(0L, 0L), numShards)).isEqualTo(0);
+        assertThat(Layout.getShardIndex(new UUID(-1L, 0L), numShards))
+                .isEqualTo(numShards - 1);
+        assertThat(Layout.getShardIndex(new UUID(Long.MAX_VALUE, 0L), numShards))
+                .isEqualTo(1);
+    }
+
+    @Test
+    public void shardedTokensAreUniqueWithBackpointers() {
+        final int numShards = 3;
+        CorfuRuntime r = getShardedRuntime(numShards, numShards);
+        assertThat(r.getLayoutView().getLayout().isSequencerSharded()).isTrue();
+
+        UUID streamA = getStreamOfShard(0, numShards);
+        UUID streamB = getStreamOfShard(1, numShards);
+        UUID streamC = getStreamOfShard(2, numShards);
+
+        TokenResponse tokenA = r.getSequencerView().next(streamA);
+        TokenResponse tokenB = r.getSequencerView().next(streamB);
+        TokenResponse tokenC = r.getSequencerView().next(streamC);
+        assertThat(tokenB.getBackpointerMap()).containsEntry(streamB, Address.NON_EXIST);
+        assertThat(new HashSet<>(Arrays.asList(tokenA.getTokenValue(),
+                tokenB.getTokenValue(), tokenC.getTokenValue()))).hasSize(numShards);
+
+        // A multi-stream append spans the shards and is committed at a single address.
+        TokenResponse crossShard = r.getSequencerView().next(streamA, streamB, streamC);
+        assertThat(crossShard.getRespType()).isEqualTo(TokenType.NORMAL);
+        assertThat(crossShard.getBackpointerMap())
+                .containsEntry(streamA, tokenA.getTokenValue())
+                .containsEntry(streamB, tokenB.getTokenValue())
+                .containsEntry(streamC, tokenC.getTokenValue());
+
+        // The shards never issue an address below the cross-shard one on its streams.
+        TokenResponse nextB = r.getSequencerView().next(streamB);
+        assertThat(nextB.getTokenValue()).isGreaterThan(crossShard.getTokenValue());
+        assertThat(nextB.getBackpointerMap())
+                .containsEntry(streamB, crossShard.getTokenValue());
+
+        assertThat(r.getSequencerView().query(streamA, streamB, streamC).getStreamTails())
+                .containsExactly(crossShard.getTokenValue(), nextB.getTokenValue(),
+                        crossShard.getTokenValue());
+        assertThat(r.getSequencerView().query(streamB).getTokenValue())
+                .isEqualTo(nextB.getTokenValue());
+
+        // No address below the queried global tail is issued afterwards. The lease of shard
+        // C, cut before the cross-shard request, holds the global tail below it.
+        long globalTail = r.getSequencerView().query().getTokenValue();
+        assertThat(globalTail).isEqualTo(tokenC.getTokenValue());
+        assertThat(r.getSequencerView().next(streamC).getTokenValue())
+                .isGreaterThan(globalTail);
+        assertThat(r.getSequencerView().next(streamB).getTokenValue())
+                .isGreaterThan(globalTail);
+    }
+
+    @Test
+    public void crossShardTransactionResolution() {
+        final int numShards = 2;
+        CorfuRuntime r = getShardedRuntime(numShards, numShards);
+
+        UUID streamA = getStreamOfShard(0, numShards);
+        UUID streamB = getStreamOfShard(1, numShards);
+        Map<UUID, Set<byte[]>> conflictSet = new ConcurrentHashMap<>();
+        conflictSet.put(streamA, Collections.singleton("a".getBytes()));
+        conflictSet.put(streamB, Collections.singleton("b".getBytes()));
+
+        long snapshot = r.getSequencerView().query().getTokenValue();
+        TokenResponse commit = r.getSequencerView().next(new TxResolutionInfo(UUID.randomUUID(),
+                snapshot, conflictSet, conflictSet), streamA, streamB);
+        assertThat(commit.getRespType()).isEqualTo(TokenType.NORMAL);
+
+        // A transaction reading the conflict key of shard B at the old snapshot aborts, and
+        // does not leave streamA fenced.
+        TokenResponse abort = r.getSequencerView().next(new TxResolutionInfo(UUID.randomUUID(),
+                snapshot, conflictSet, conflictSet), streamA, streamB);
+        assertThat(abort.getRespType()).isEqualTo(TokenType.TX_ABORT_CONFLICT);
+        assertThat(r.getSequencerView().next(streamA).getRespType())
+                .isEqualTo(TokenType.NORMAL);
+
+        TokenResponse retry = r.getSequencerView().next(new TxResolutionInfo(UUID.randomUUID(),
+                r.getSequencerView().query().getTokenValue(), conflictSet, conflictSet),
+                streamA, streamB);
+        assertThat(retry.getRespType()).isEqualTo(TokenType.NORMAL);
+        assertThat(retry.getBackpointerMap())
+                .containsEntry(streamB, commit.getTokenValue());
+    }
+
+    @Test
+    public void queryLeavesLeasesToShards() {
+        final int numShards = 2;
+        CorfuRuntime r = getShardedRuntime(numShards, numShards);
+        UUID streamB = getStreamOfShard(1, numShards);
+
+        TokenResponse first = r.getSequencerView().next(streamB);
+        long globalTail = r.getSequencerView().query().getTokenValue();
+        TokenResponse second = r.getSequencerView().next(streamB);
+
+        // The shard keeps issuing from its lease, above the queried global tail.
+        assertThat(second.getTokenValue()).isEqualTo(first.getTokenValue() + 1);
+        assertThat(globalTail).isEqualTo(first.getTokenValue());
+        assertThat(r.getSequencerView().query().getTokenValue())
+                .isEqualTo(second.getTokenValue());
+    }
+
+    @Test
+    public void idleShardDoesNotHoldGlobalTailBack() {
+        final int numShards = 2;
+        CorfuRuntime r = getShardedRuntime(numShards, numShards);
+        UUID streamA = getStreamOfShard(0, numShards);
+        UUID streamB = getStreamOfShard(1, numShards);
+
+        TokenResponse leased = r.getSequencerView().next(streamB);
+        TokenResponse primary = r.getSequencerView().next(streamA);
+        assertThat(r.getSequencerView().query().getTokenValue())
+                .isEqualTo(leased.getTokenValue());
+
+        // Once idle, the lease of the shard is dropped and the global tail moves on.
+        Sleep.sleepUninterruptibly(PARAMETERS.TIMEOUT_SHORT);
+        assertThat(r.getSequencerView().query().getTokenValue())
+                .isEqualTo(primary.getTokenValue());
+        assertThat(r.getSequencerView().next(streamB).getTokenValue())
+                .isGreaterThan(primary.getTokenValue());
+    }
+
+    /**
+     * Issues tokens concurrently on streams spread across the shards, and checks that no
+     * token is issued twice. The throughput of a sharded sequencer is measured by the
+     * SequencerShardThroughput sample, against separate server processes.
+     */
+    private void issueTokensConcurrently(int numShards) throws Exception {
+        final int numServers = 4;
+        final int numThreads = PARAMETERS.CONCURRENCY_SOME;
+        final int numTokens = PARAMETERS.NUM_ITERATIONS_MODERATE;
+        CorfuRuntime r = getShardedRuntime(numServers, numShards);
+
+        Set<Long> tokens = ConcurrentHashMap.newKeySet();
+        scheduleConcurrently(numThreads, thread -> {
+            UUID streamId = getStreamOfShard(thread % numShards, numShards);
+            for (int i = 0; i < numTokens; i++) {
+                tokens.add(r.getSequencerView().next(streamId).getTokenValue());
+            }
+        });
+        executeScheduled(numThreads, PARAMETERS.TIMEOUT_LONG);
+        assertThat(tokens).hasSize(numThreads * numTokens);
+    }
+
+    @Test
+    public void concurrentTokensAreUniqueWithOneShard() throws Exception {
+        issueTokensConcurrently(1);
+    }
+
+    @Test
+    public void concurrentTokensAreUniqueWithTwoShards() throws Exception {
+        issueTokensConcurrently(2);
+    }
+
+    @Test
+    public void concurrentTokensAreUniqueWithFourShards() throws Exception {
+        final int numShards = 4;
+        issueTokensConcurrently(numShards);
+    }
+}
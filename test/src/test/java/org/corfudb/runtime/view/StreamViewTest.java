@@ -9,8 +9,12 @@ import org.corfudb.runtime.view.stream.IStreamView;
 import org.junit.Before;
 import org.junit.Test;
 
+import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
@@ -47,6 +51,35 @@ public class StreamViewTest extends AbstractViewTest {
                 .isEqualTo(null);
     }
 
+    @Test
+    public void canAppendAsyncToStream()
+            throws Exception {
+        final int numberRecords = 100;
+        UUID streamA = UUID.nameUUIDFromBytes("stream A".getBytes());
+
+        // All the appends are in flight from this thread at once.
+        List<CompletableFuture<Long>> appends = new ArrayList<>();
+        for (int i = 0; i < numberRecords; i++) {
+            appends.add(r.getStreamsView().appendAsync(Integer.toString(i).getBytes(), null,
+                    streamA));
+        }
+        Set<Long> addresses = new HashSet<>();
+        for (CompletableFuture<Long> append : appends) {
+            addresses.add(append.join());
+        }
+        assertThat(addresses)
+                .hasSize(numberRecords);
+
+        IStreamView sv = r.getStreamsView().get(streamA);
+        List<ILogData> entries = sv.remaining();
+        assertThat(entries)
+                .hasSize(numberRecords);
+        for (ILogData entry : entries) {
+            assertThat(addresses)
+                    .contains(entry.getGlobalAddress());
+        }
+    }
+
     /**
      * Test that a client can call IStreamView.remainingUpTo after a prefix trim.
      * If remainingUpTo contains trimmed addresses, then they are ignored.
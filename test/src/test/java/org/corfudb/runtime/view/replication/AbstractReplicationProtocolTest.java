@@ -12,6 +12,10 @@ import org.corfudb.runtime.view.RuntimeLayout;
 import org.corfudb.util.serializer.Serializers;
 import org.junit.Test;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
 
@@ -109,4 +113,34 @@ public abstract class AbstractReplicationProtocolTest extends AbstractViewTest {
         assertThatThrownBy(() -> rp.write(runtimeLayout, d2))
                 .isInstanceOf(OverwriteException.class);
     }
+
+    /** Check that a batch write commits each address on its own, and reports
+     * the addresses which were already written.
+     */
+    @Test
+    @SuppressWarnings("unchecked")
+    public void writeAllReportsOverwrites()
+            throws Exception {
+        setupNodes();
+
+        //begin tests
+        final CorfuRuntime r = getDefaultRuntime();
+        final IReplicationProtocol rp = getProtocol();
+        final RuntimeLayout runtimeLayout = r.getLayoutView().getRuntimeLayout();
+        final long numAddresses = 5;
+        final long writtenAddress = 2;
+
+        rp.write(runtimeLayout, getLogData(writtenAddress, "first".getBytes()));
+        List<ILogData> batch = new ArrayList<>();
+        for (long address = 0; address < numAddresses; address++) {
+            batch.add(getLogData(address, "second".getBytes()));
+        }
+        Map<Long, OverwriteException> failures = rp.writeAll(runtimeLayout, batch);
+
+        assertThat(failures).containsOnlyKeys(writtenAddress);
+        for (long address = 0; address < numAddresses; address++) {
+            assertThat(rp.read(runtimeLayout, address).getPayload(r))
+                    .isEqualTo((address == writtenAddress ? "first" : "second").getBytes());
+        }
+    }
 }
@@ -0,0 +1,71 @@
+package org.corfudb.runtime.view.replication;
+
+import org.corfudb.AbstractCorfuTest;
+import org.corfudb.protocols.wireprotocol.ILogData;
+import org.corfudb.protocols.wireprotocol.LogData;
+import org.corfudb.runtime.exceptions.HoleFillRequiredException;
+import org.junit.Test;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/** Test the long poll hole fill policy and its adaptive deadline.
+ */
+public class LongPollHoleFillPolicyTest extends AbstractCorfuTest {
+
+    @Test
+    public void deadlineFollowsWriteLatency() {
+        final Duration maxDeadline = PARAMETERS.TIMEOUT_LONG;
+        final long latency = maxDeadline.toNanos() / (HoleFillDeadline.LATENCY_MULTIPLIER * 2);
+        HoleFillDeadline deadline = new HoleFillDeadline();
+        assertThat(deadline.getDeadline(maxDeadline)).isEqualTo(maxDeadline);
+
+        for (int i = 0; i < HoleFillDeadline.WINDOW_SIZE; i++) {
+            deadline.recordWrite(latency);
+        }
+        assertThat(deadline.getDeadline(maxDeadline))
+                .isEqualTo(Duration.ofNanos(latency * HoleFillDeadline.LATENCY_MULTIPLIER));
+        assertThat(deadline.getDeadline(Duration.ZERO)).isEqualTo(Duration.ZERO);
+    }
+
+    @Test
+    public void deadlineIsAFractionOfTheBudgetAtLeast() {
+        final Duration maxDeadline = PARAMETERS.TIMEOUT_LONG;
+        HoleFillDeadline deadline = new HoleFillDeadline();
+
+        for (int i = 0; i < HoleFillDeadline.WINDOW_SIZE; i++) {
+            deadline.recordWrite(1L);
+        }
+        assertThat(deadline.getDeadline(maxDeadline))
+                .isEqualTo(maxDeadline.dividedBy(HoleFillDeadline.MIN_DEADLINE_DIVISOR));
+    }
+
+    @Test
+    public void waitsOnceBeforeHoleFill() throws Exception {
+        final long address = 0L;
+        final ILogData data = LogData.getHole(address);
+        LongPollHoleFillPolicy policy = new LongPollHoleFillPolicy(PARAMETERS.TIMEOUT_LONG,
+                new HoleFillDeadline());
+        AtomicReference<Duration> waited = new AtomicReference<>();
+
+        assertThat(policy.peekUntilHoleFillRequired(address, a -> null, (a, timeout) -> {
+            waited.set(timeout);
+            return data;
+        })).isSameAs(data);
+        assertThat(waited.get()).isEqualTo(PARAMETERS.TIMEOUT_LONG);
+
+        assertThatThrownBy(() -> policy.peekUntilHoleFillRequired(address, a -> null,
+                (a, timeout) -> null))
+                .isInstanceOf(HoleFillRequiredException.class);
+
+        // Without a wait budget, a hole fill is required as soon as the peek fails.
+        LongPollHoleFillPolicy noWait = new LongPollHoleFillPolicy(Duration.ZERO,
+                new HoleFillDeadline());
+        assertThatThrownBy(() -> noWait.peekUntilHoleFillRequired(address, a -> null,
+                (a, timeout) -> data))
+                .isInstanceOf(HoleFillRequiredException.class);
+    }
+}
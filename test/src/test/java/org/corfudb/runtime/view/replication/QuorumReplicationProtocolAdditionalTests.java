@@ -24,11 +24,16 @@ import org.corfudb.runtime.view.AbstractViewTest;
 import org.corfudb.runtime.view.Address;
 import org.corfudb.runtime.view.Layout;
 import org.corfudb.runtime.view.stream.IStreamView;
+import org.corfudb.runtime.clients.TestRule;
 import org.corfudb.util.serializer.Serializers;
 import org.junit.Before;
 import org.junit.Test;
 
+import com.google.common.collect.ContiguousSet;
+import com.google.common.collect.DiscreteDomain;
+import com.google.common.collect.Range;
 import java.util.Collections;
+import java.util.Map;
 import java.util.UUID;
 import java.util.concurrent.atomic.AtomicInteger;
 
@@ -296,6 +301,50 @@ public class QuorumReplicationProtocolAdditionalTests extends AbstractViewTest {
 
 
 
+    /**
+     * Checks that a batch of addresses is read with a single read from each log unit, and that
+     * the addresses without a committed value are hole filled.
+     */
+    @Test
+    public void readAllReadsBatchFromEachLogUnit() {
+        CorfuRuntime r = getDefaultRuntime();
+        r.getParameters().setHoleFillRetry(0);
+        UUID streamA = UUID.nameUUIDFromBytes("stream A".getBytes());
+        final int numWritten = 8;
+        for (int i = 0; i < numWritten; i++) {
+            r.getAddressSpaceView().write(new TokenResponse(i, 1,
+                            Collections.singletonMap(streamA, Address.NO_BACKPOINTER)),
+                    ("payload" + i).getBytes());
+        }
+
+        final AtomicInteger reads = new AtomicInteger();
+        for (int port : new int[] {SERVERS.PORT_0, SERVERS.PORT_1, SERVERS.PORT_2}) {
+            addServerRule(port, new TestRule().matches(m -> {
+                if (m.getMsgType() == CorfuMsgType.READ_RESPONSE) {
+                    reads.incrementAndGet();
+                }
+                return false;
+            }));
+        }
+
+        Map<Long, ILogData> written = r.getAddressSpaceView().read(
+                ContiguousSet.create(Range.closedOpen(0L, (long) numWritten),
+                        DiscreteDomain.longs()));
+        assertThat(written).hasSize(numWritten);
+        for (int i = 0; i < numWritten; i++) {
+            assertThat(written.get((long) i).getPayload(r))
+                    .isEqualTo(("payload" + i).getBytes());
+        }
+        // A read per log unit rather than per address and log unit.
+        assertThat(reads.get()).isLessThanOrEqualTo(layout.getSegment(0L).getAllLogServers().size());
+
+        Map<Long, ILogData> withHole = r.getAddressSpaceView().read(
+                ContiguousSet.create(Range.closed(0L, (long) numWritten),
+                        DiscreteDomain.longs()));
+        assertThat(withHole).hasSize(numWritten + 1);
+        assertThat(withHole.get((long) numWritten).isHole()).isTrue();
+    }
+
     public void sendMessage(LogUnitServer s, CorfuMsg message) {
         TestServerRouter router = new TestServerRouter();
         router.addServer(s);
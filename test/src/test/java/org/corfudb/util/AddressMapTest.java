@@ -0,0 +1,71 @@
+package org.corfudb.util;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.Iterator;
+import java.util.Map;
+import java.util.TreeMap;
+
+import org.junit.Test;
+
+public class AddressMapTest {
+
+    /** Test that entries put in any order are kept in address order. */
+    @Test
+    public void entriesAreKeptInAddressOrder() {
+        final int numAddresses = 1_000;
+        final long step = 7L;
+        AddressMap<String> map = new AddressMap<>();
+        Map<Long, String> expected = new TreeMap<>();
+        // Appended in ascending order, then inserted in between in descending order.
+        for (long i = 0; i < numAddresses; i += 2) {
+            map.put(i * step, Long.toString(i));
+            expected.put(i * step, Long.toString(i));
+        }
+        for (long i = numAddresses - 1; i > 0; i -= 2) {
+            map.put(i * step, Long.toString(i));
+            expected.put(i * step, Long.toString(i));
+        }
+
+        assertThat(map).isEqualTo(expected);
+        assertThat(map.keySet()).containsExactlyElementsOf(expected.keySet());
+        for (int i = 0; i < map.size(); i++) {
+            assertThat(map.getAddress(i)).isEqualTo(i * step);
+            assertThat(map.getValue(i)).isEqualTo(Integer.toString(i));
+        }
+        assertThat(map.get(1L)).isNull();
+        assertThat(map.containsKey(step)).isTrue();
+        assertThat(map.get("not an address")).isNull();
+
+        // Replacing an entry returns the previous value.
+        assertThat(map.put(step, "replaced")).isEqualTo("1");
+        assertThat(map.size()).isEqualTo(numAddresses);
+    }
+
+    /** Test that entries are removed from the map and through its iterator. */
+    @Test
+    public void removeEntries() {
+        final int numAddresses = 10;
+        AddressMap<Long> map = new AddressMap<>(1);
+        for (long i = 0; i < numAddresses; i++) {
+            map.put(i, Long.valueOf(i));
+        }
+
+        assertThat(map.remove(0L)).isEqualTo(0L);
+        assertThat(map.remove(0L)).isNull();
+        Iterator<Map.Entry<Long, Long>> iterator = map.entrySet().iterator();
+        while (iterator.hasNext()) {
+            Map.Entry<Long, Long> entry = iterator.next();
+            if (entry.getKey() % 2 == 0) {
+                iterator.remove();
+            } else {
+                entry.setValue(-entry.getValue());
+            }
+        }
+
+        assertThat(map.keySet()).allMatch(address -> address % 2 == 1).hasSize(numAddresses / 2);
+        assertThat(map.get(1L)).isEqualTo(-1L);
+        map.clear();
+        assertThat(map.isEmpty()).isTrue();
+    }
+}
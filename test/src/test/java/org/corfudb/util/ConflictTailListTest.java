@@ -0,0 +1,41 @@
+package org.corfudb.util;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import org.junit.Test;
+
+public class ConflictTailListTest {
+
+    /** Test that the list is serialized compactly and deserialized to the same entries. */
+    @Test
+    public void serializationRoundTrip() {
+        final int numParams = 1_000;
+        final long baseAddress = 1_000_000_000_000L;
+        final int bytesPerParam = 3 * Long.BYTES + 2;
+        ConflictTailList list = new ConflictTailList();
+        List<String> expected = new ArrayList<>();
+        for (int i = 0; i < numParams; i++) {
+            UUID streamId = UUID.randomUUID();
+            list.add(streamId, i, baseAddress + i);
+            expected.add(streamId + "/" + i + "/" + (baseAddress + i));
+        }
+
+        ByteBuf buf = Unpooled.buffer();
+        list.serialize(buf);
+        assertThat(buf.readableBytes()).isLessThan(numParams * bytesPerParam + Long.BYTES
+                + Integer.BYTES);
+
+        List<String> actual = new ArrayList<>();
+        ConflictTailList.fromBuffer(buf).forEach((streamId, fingerprint, address) ->
+                actual.add(streamId + "/" + fingerprint + "/" + address));
+        assertThat(actual).isEqualTo(expected);
+        assertThat(buf.readableBytes()).isZero();
+    }
+}
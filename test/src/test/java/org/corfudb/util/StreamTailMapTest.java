@@ -0,0 +1,87 @@
+package org.corfudb.util;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+
+import org.corfudb.protocols.wireprotocol.ICorfuPayload;
+import org.corfudb.runtime.view.Address;
+import org.junit.Test;
+
+public class StreamTailMapTest {
+
+    /** Test that the map holds many streams, including the all-zero stream ID. */
+    @Test
+    public void putAndGetGrowsTheMap() {
+        final int numStreams = 10_000;
+        StreamTailMap map = new StreamTailMap();
+        Map<UUID, Long> expected = new HashMap<>();
+        for (int i = 0; i < numStreams; i++) {
+            UUID streamId = new UUID(i, i);
+            assertThat(map.put(streamId, i, Address.NON_EXIST)).isEqualTo(Address.NON_EXIST);
+            expected.put(streamId, (long) i);
+        }
+        assertThat(map.size()).isEqualTo(numStreams);
+        assertThat(map.toMap()).isEqualTo(expected);
+        assertThat(map.get(new UUID(0L, 0L), Address.NON_EXIST)).isEqualTo(0L);
+        assertThat(map.get(UUID.randomUUID(), Address.NON_EXIST)).isEqualTo(Address.NON_EXIST);
+
+        // Replacing an entry returns the previous address.
+        assertThat(map.put(new UUID(1L, 1L), numStreams, Address.NON_EXIST)).isEqualTo(1L);
+        map.putMax(new UUID(1L, 1L), 0L);
+        assertThat(map.get(new UUID(1L, 1L), Address.NON_EXIST)).isEqualTo(numStreams);
+
+        map.clear();
+        assertThat(map.isEmpty()).isTrue();
+        assertThat(map.containsKey(new UUID(0L, 0L))).isFalse();
+    }
+
+    /** Test that the map is serialized compactly and deserialized to an equal map. */
+    @Test
+    public void serializationRoundTrip() {
+        final int numStreams = 1_000;
+        final long baseAddress = 1_000_000_000_000L;
+        StreamTailMap map = new StreamTailMap();
+        for (int i = 0; i < numStreams; i++) {
+            map.put(UUID.randomUUID(), baseAddress + i, Address.NON_EXIST);
+        }
+        map.put(UUID.randomUUID(), Address.NON_EXIST, Address.NON_EXIST);
+
+        ByteBuf compact = Unpooled.buffer();
+        map.serialize(compact);
+        ByteBuf boxed = Unpooled.buffer();
+        ICorfuPayload.serialize(boxed, map.toMap());
+        assertThat(compact.readableBytes()).isLessThan(boxed.readableBytes());
+
+        assertThat(StreamTailMap.fromBuffer(compact)).isEqualTo(map);
+        assertThat(compact.readableBytes()).isZero();
+    }
+
+    /** Test that a snapshot and the map do not see the updates of each other. */
+    @Test
+    public void snapshotIsCopiedOnWrite() {
+        final int numStreams = 5_000;
+        StreamTailMap map = new StreamTailMap();
+        for (int i = 0; i < numStreams; i++) {
+            map.put(new UUID(i, i), i, Address.NON_EXIST);
+        }
+        Map<UUID, Long> expected = map.toMap();
+
+        StreamTailMap snapshot = map.snapshot();
+        for (int i = 0; i < numStreams * 2; i++) {
+            map.put(new UUID(i, i), numStreams + i, Address.NON_EXIST);
+        }
+        assertThat(snapshot.toMap()).isEqualTo(expected);
+        assertThat(map.get(new UUID(1L, 1L), Address.NON_EXIST)).isEqualTo(numStreams + 1);
+
+        snapshot.put(new UUID(2L, 2L), Address.NON_EXIST, Address.NON_EXIST);
+        assertThat(map.get(new UUID(2L, 2L), Address.NON_EXIST)).isEqualTo(numStreams + 2);
+        assertThat(map.size()).isEqualTo(numStreams * 2);
+        assertThat(snapshot.size()).isEqualTo(numStreams);
+    }
+}